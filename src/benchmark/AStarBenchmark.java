@@ -0,0 +1,67 @@
+package benchmark;
+
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.CompactGraph;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+/**
+ * Time of the exact A* search and depth-first branch and bound on random query pairs, with the Bipartite Hungarian distance for comparison.
+ * Usage: AStarBenchmark [pairs] [triples...], default 20 5 10 12 15
+ */
+public class AStarBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int pairs = args.length>0?Integer.parseInt(args[0]):20;
+		int[] sizes = {5, 10, 12, 15};
+		if(args.length>1) {
+			sizes = new int[args.length-1];
+			for(int i=1;i<args.length;i++) {
+				sizes[i-1] = Integer.parseInt(args[i]);
+			}
+		}
+
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(42);
+		for(int triples:sizes) {
+			CompactGraph[] g1 = new CompactGraph[pairs];
+			CompactGraph[] g2 = new CompactGraph[pairs];
+			for(int k=0;k<pairs;k++) {
+				g1[k] = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples, random), "1", matcher.getLabelDictionary());
+				g2[k] = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples, random), "2", matcher.getLabelDictionary());
+			}
+			System.out.println("--------------------------------------");
+			System.out.println(pairs+" pairs of "+triples+" triple patterns");
+			double exact = 0;
+			double bipartite = 0;
+			long slowest = 0;
+			long start = System.nanoTime();
+			for(int k=0;k<pairs;k++) {
+				long t = System.nanoTime();
+				exact += matcher.distanceAStar(g1[k], g2[k]);
+				slowest = Math.max(slowest, System.nanoTime()-t);
+			}
+			System.out.println(BenchmarkUtils.report("A*", pairs, System.nanoTime()-start, -1));
+			System.out.println(BenchmarkUtils.report("A*, slowest pair", 1, slowest, -1));
+			start = System.nanoTime();
+			slowest = 0;
+			for(int k=0;k<pairs;k++) {
+				long t = System.nanoTime();
+				matcher.distanceBranchAndBound(g1[k], g2[k], Long.MAX_VALUE);
+				slowest = Math.max(slowest, System.nanoTime()-t);
+			}
+			System.out.println(BenchmarkUtils.report("Branch and bound", pairs, System.nanoTime()-start, -1));
+			System.out.println(BenchmarkUtils.report("Branch and bound, slowest pair", 1, slowest, -1));
+			start = System.nanoTime();
+			for(int k=0;k<pairs;k++) {
+				bipartite += matcher.distanceBipartiteHungarian(g1[k], g2[k]);
+			}
+			System.out.println(BenchmarkUtils.report("Bipartite Hungarian", pairs, System.nanoTime()-start, -1));
+			System.out.println(String.format("mean distance: A* %.2f, Bipartite Hungarian %.2f", exact/pairs, bipartite/pairs));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.CompactGraph;
+import ged.DistanceResult;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+/**
+ * Latency and quality of the anytime search on random query pairs for several time budgets: 
+ * mean distance and lower bound, share of distances proven optimal.
+ * Usage: AnytimeBenchmark [pairs] [triples] [budgets in milliseconds...], default 20 20 0 1 5 20
+ */
+public class AnytimeBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int pairs = args.length>0?Integer.parseInt(args[0]):20;
+		int triples = args.length>1?Integer.parseInt(args[1]):20;
+		long[] budgets = {0, 1, 5, 20};
+		if(args.length>2) {
+			budgets = new long[args.length-2];
+			for(int i=2;i<args.length;i++) {
+				budgets[i-2] = Long.parseLong(args[i]);
+			}
+		}
+
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(42);
+		CompactGraph[] g1 = new CompactGraph[pairs];
+		CompactGraph[] g2 = new CompactGraph[pairs];
+		for(int k=0;k<pairs;k++) {
+			g1[k] = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples, random), "1", matcher.getLabelDictionary());
+			g2[k] = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples, random), "2", matcher.getLabelDictionary());
+		}
+		//warm up
+		for(int round=0;round<20;round++) {
+			for(int k=0;k<pairs;k++) {
+				matcher.distanceAnytime(g1[k], g2[k], 5);
+			}
+		}
+		System.out.println(pairs+" pairs of "+triples+" triple patterns");
+		for(long budget:budgets) {
+			double distance = 0;
+			double lower = 0;
+			int optimal = 0;
+			long slowest = 0;
+			long start = System.nanoTime();
+			for(int k=0;k<pairs;k++) {
+				long t = System.nanoTime();
+				DistanceResult result = matcher.distanceAnytime(g1[k], g2[k], budget);
+				slowest = Math.max(slowest, System.nanoTime()-t);
+				distance += result.getDistance();
+				lower += result.getLowerBound();
+				if(result.isOptimal()) {
+					optimal++;
+				}
+			}
+			System.out.println("--------------------------------------");
+			System.out.println(BenchmarkUtils.report("Anytime, "+budget+" ms", pairs, System.nanoTime()-start, -1));
+			System.out.println(BenchmarkUtils.report("Anytime, "+budget+" ms, slowest pair", 1, slowest, -1));
+			System.out.println(String.format("mean distance %.2f, mean lower bound %.2f, optimal %d/%d", distance/pairs, lower/pairs, optimal, pairs));
+		}
+	}
+}
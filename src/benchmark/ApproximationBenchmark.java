@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.util.Random;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+/**
+ * Speed and accuracy of the greedy matching and the Hausdorff edit distance against Bipartite Hungarian on random query pairs:
+ * time per pair and mean relative deviation from the A* distance, for queries of several sizes.
+ * Pairs larger than the exact limit are compared with the Hungarian distance instead.
+ * Usage: ApproximationBenchmark [pairs] [exact limit] [triples...], default 50 10 5 10 20 40 80
+ */
+public class ApproximationBenchmark {
+
+	final private static AlgorithmConfig[] CONFIGS = {AlgorithmConfig.createBipartiteHungarian(),
+			AlgorithmConfig.createGreedy(), AlgorithmConfig.createHausdorff()};
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int pairs = args.length>0?Integer.parseInt(args[0]):50;
+		int exactLimit = args.length>1?Integer.parseInt(args[1]):10;
+		int[] sizes = {5, 10, 20, 40, 80};
+		if(args.length>2) {
+			sizes = new int[args.length-2];
+			for(int i=2;i<args.length;i++) {
+				sizes[i-2] = Integer.parseInt(args[i]);
+			}
+		}
+
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(42);
+		for(int triples:sizes) {
+			CompactGraph[] g1 = new CompactGraph[pairs];
+			CompactGraph[] g2 = new CompactGraph[pairs];
+			for(int k=0;k<pairs;k++) {
+				g1[k] = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples, random), "1", matcher.getLabelDictionary());
+				g2[k] = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples, random), "2", matcher.getLabelDictionary());
+			}
+			boolean exact = triples<=exactLimit;
+			double[] reference = new double[pairs];
+			for(int k=0;k<pairs;k++) {
+				reference[k] = exact?matcher.distanceAStar(g1[k], g2[k]):matcher.distanceBipartiteHungarian(g1[k], g2[k]);
+			}
+			System.out.println("--------------------------------------");
+			System.out.println(pairs+" pairs of "+triples+" triple patterns, deviation from "+(exact?"A*":"Bipartite Hungarian"));
+			for(AlgorithmConfig config:CONFIGS) {
+				//warm up
+				for(int round=0;round<10;round++) {
+					run(matcher, g1, g2, config, null);
+				}
+				double[] distances = new double[pairs];
+				long start = System.nanoTime();
+				run(matcher, g1, g2, config, distances);
+				long nanos = System.nanoTime()-start;
+				double deviation = 0;
+				int below = 0;
+				for(int k=0;k<pairs;k++) {
+					deviation += (distances[k]-reference[k])/Math.max(reference[k], 1.0);
+					if(distances[k]<reference[k]) {
+						below++;
+					}
+				}
+				System.out.println(BenchmarkUtils.report(config.getName(), pairs, nanos, -1)
+						+String.format(" mean deviation %+.3f, below reference %d/%d", deviation/pairs, below, pairs));
+			}
+		}
+	}
+
+	private static void run(RDFGraphMatching matcher, CompactGraph[] g1, CompactGraph[] g2, AlgorithmConfig config, double[] distances) throws OperationNotSupportedException {
+		for(int k=0;k<g1.length;k++) {
+			double distance = matcher.distance(g1[k], g2[k], config);
+			if(distances!=null) {
+				distances[k] = distance;
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.CompactGraph;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.EditDistance;
+import util.Graph;
+
+/**
+ * Time of the A*-beam search of the GMT library against {@link ged.BeamSearch} on random query pairs, and of {@link ged.BeamSearch} alone
+ * with larger beams. Checks that both searches give the same distance.
+ * Usage: BeamSearchBenchmark [triples] [pairs] [beam sizes...], default 30 5 10 100 1000 5000
+ */
+public class BeamSearchBenchmark {
+
+	/**
+	 * the GMT search is only run up to this beam size
+	 */
+	final private static int GMT_MAX_BEAM = 100;
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int triples = args.length>0?Integer.parseInt(args[0]):30;
+		int pairs = args.length>1?Integer.parseInt(args[1]):5;
+		int[] beamSizes = {10, 100, 1000, 5000};
+		if(args.length>2) {
+			beamSizes = new int[args.length-2];
+			for(int i=2;i<args.length;i++) {
+				beamSizes[i-2] = Integer.parseInt(args[i]);
+			}
+		}
+
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		EditDistance editDistance = new EditDistance(0, 0);
+		Random random = new Random(42);
+		Graph[] g1 = new Graph[pairs];
+		Graph[] g2 = new Graph[pairs];
+		CompactGraph[] c1 = new CompactGraph[pairs];
+		CompactGraph[] c2 = new CompactGraph[pairs];
+		int nodes = 0;
+		for(int k=0;k<pairs;k++) {
+			g1[k] = SparqlUtils.buildSPARQLGraph(BenchmarkUtils.randomQuery(triples, random), "1");
+			g2[k] = SparqlUtils.buildSPARQLGraph(BenchmarkUtils.randomQuery(triples, random), "2");
+			c1[k] = matcher.compact(g1[k]);
+			c2[k] = matcher.compact(g2[k]);
+			nodes += g1[k].size()+g2[k].size();
+		}
+		System.out.println(pairs+" pairs of "+triples+" triple patterns, "+nodes/(2*pairs)+" nodes on average");
+
+		for(int s:beamSizes) {
+			System.out.println("--------------------------------------");
+			double[] distances = new double[pairs];
+			long start = System.nanoTime();
+			for(int k=0;k<pairs;k++) {
+				distances[k] = matcher.distanceAStarBeam(c1[k], c2[k], s);
+			}
+			System.out.println(BenchmarkUtils.report("BeamSearch, s="+s, pairs, System.nanoTime()-start, -1));
+			if(s<=GMT_MAX_BEAM) {
+				start = System.nanoTime();
+				for(int k=0;k<pairs;k++) {
+					if(editDistance.getEditDistance(g1[k], g2[k], matcher.getRDFGraphCostFunction(), s)!=distances[k]) {
+						throw new IllegalStateException("distances differ for pair "+k);
+					}
+				}
+				System.out.println(BenchmarkUtils.report("GMT EditDistance, s="+s, pairs, System.nanoTime()-start, -1));
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Helpers shared by the benchmark programs: synthetic SPARQL queries and allocation counters.
+ */
+public class BenchmarkUtils {
+	
+	final public static String PREFIXES = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> PREFIX dbo: <http://dbpedia.org/ontology/> PREFIX res: <http://dbpedia.org/resource/> ";
+	
+	final private static String[] PREDICATES = {"foaf:knows", "foaf:name", "foaf:mbox", "foaf:homepage", "dbo:birthPlace", "dbo:country", "dbo:author", "dbo:genre", "dbo:starring", "dbo:director"};
+	
+	final private static String[] CONSTANTS = {"res:Paris", "res:France", "res:Berlin", "\"Bob\"@en", "\"42\"", "res:Inria", "res:Science_fiction"};
+	
+	/**
+	 * Generates a random connected basic graph pattern query. Variables, constants and predicates are picked from small pools, so generated queries share labels like queries of a log do.
+	 * @param triples number of triple patterns
+	 * @param random source of randomness
+	 * @return a sparql query string
+	 */
+	public static String randomQuery(int triples, Random random) {
+		return randomQuery(triples, -1, random);
+	}
+	
+	/**
+	 * Generates a random connected basic graph pattern query with a given share of constant objects
+	 * @param triples number of triple patterns
+	 * @param constants probability that the object of a triple is a constant, or -1 for one in three
+	 * @param random source of randomness
+	 * @return a sparql query string
+	 */
+	public static String randomQuery(int triples, double constants, Random random) {
+		StringBuilder sb = new StringBuilder(PREFIXES);
+		sb.append("SELECT * WHERE { ");
+		int vars = 1;
+		for(int i=0;i<triples;i++) {
+			//attach every new triple to an existing variable to keep the pattern connected
+			String subject = "?v"+random.nextInt(vars);
+			String predicate = random.nextInt(10)==0?"?p"+i:PREDICATES[random.nextInt(PREDICATES.length)];
+			String object;
+			if(constants<0?random.nextInt(3)==0:random.nextDouble()<constants) {
+				object = CONSTANTS[random.nextInt(CONSTANTS.length)];
+			} else {
+				object = "?v"+vars;
+				vars++;
+			}
+			sb.append(subject).append(' ').append(predicate).append(' ').append(object).append(" . ");
+		}
+		sb.append("}");
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns the number of bytes allocated so far by the current thread, or -1 if the JVM cannot tell
+	 * @return allocated bytes
+	 */
+	public static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+	
+	/**
+	 * Formats a per-operation measurement
+	 * @param name name of the measured operation
+	 * @param ops number of operations
+	 * @param nanos elapsed nanoseconds
+	 * @param bytes allocated bytes, negative if unknown
+	 * @return a report line
+	 */
+	public static String report(String name, long ops, long nanos, long bytes) {
+		String line = String.format("%-40s %10.2f us/op", name, nanos/1000.0/ops);
+		if(bytes>=0) {
+			line += String.format(" %12.0f B/op", (double)bytes/ops);
+		}
+		return line;
+	}
+}
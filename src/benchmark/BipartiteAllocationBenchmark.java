@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import algorithms.BipartiteMatching;
+
+import ged.CompactGraph;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.CostFunction;
+import util.EditDistance;
+import util.Graph;
+import util.MatrixGenerator;
+
+/**
+ * Latency and allocation per pairwise comparison of the GMT bipartite pipeline 
+ * (double[][] cost matrix, {@link BipartiteMatching}, {@link EditDistance}) against 
+ * {@link RDFGraphMatching} on compact graphs with the workspace of the current thread.
+ * Usage: BipartiteAllocationBenchmark [iterations]
+ */
+public class BipartiteAllocationBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int iterations = args.length>0?Integer.parseInt(args[0]):20000;
+		int[] sizes = {5, 10, 20};
+		
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		CostFunction cf = matcher.getRDFGraphCostFunction();
+		MatrixGenerator matrixGenerator = new MatrixGenerator(cf, 0);
+		BipartiteMatching hungarian = new BipartiteMatching("Hungarian", 0);
+		EditDistance editDistance = new EditDistance(0, 0);
+		
+		for(int size:sizes) {
+			Random random = new Random(size);
+			List<Graph> graphs = new ArrayList<Graph>();
+			List<CompactGraph> compactGraphs = new ArrayList<CompactGraph>();
+			for(int i=0;i<50;i++) {
+				Graph g = SparqlUtils.buildSPARQLGraph(BenchmarkUtils.randomQuery(size, random), "q"+i);
+				graphs.add(g);
+				compactGraphs.add(matcher.compact(g));
+			}
+			
+			System.out.println("--------------------------------------");
+			System.out.println(size+" triple patterns per query");
+			
+			int gmtIterations = Math.max(1, iterations/size);
+			double checksum = 0;
+			long bytes = BenchmarkUtils.allocatedBytes();
+			long start = System.nanoTime();
+			for(int i=0;i<gmtIterations;i++) {
+				Graph g1 = graphs.get(i%graphs.size());
+				Graph g2 = graphs.get((i/graphs.size()+i+1)%graphs.size());
+				if(g1.size()<g2.size()) {
+					Graph g = g1;
+					g1 = g2;
+					g2 = g;
+				}
+				checksum += editDistance.getEditDistance(g1, g2, hungarian.getMatching(matrixGenerator.getMatrix(g1, g2)), cf);
+			}
+			System.out.println(BenchmarkUtils.report("GMT bipartite Hungarian", gmtIterations, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+			
+			//warm up, the workspace grows to the largest dimension
+			for(int i=0;i<iterations;i++) {
+				matcher.distanceBipartiteHungarian(compactGraphs.get(i%graphs.size()), compactGraphs.get((i/graphs.size()+i+1)%graphs.size()));
+			}
+			bytes = BenchmarkUtils.allocatedBytes();
+			start = System.nanoTime();
+			for(int i=0;i<iterations;i++) {
+				checksum += matcher.distanceBipartiteHungarian(compactGraphs.get(i%graphs.size()), compactGraphs.get((i/graphs.size()+i+1)%graphs.size()));
+			}
+			System.out.println(BenchmarkUtils.report("pooled workspace Hungarian", iterations, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+			
+			bytes = BenchmarkUtils.allocatedBytes();
+			start = System.nanoTime();
+			for(int i=0;i<iterations;i++) {
+				checksum += matcher.distanceBipartiteVolgenantJonker(compactGraphs.get(i%graphs.size()), compactGraphs.get((i/graphs.size()+i+1)%graphs.size()));
+			}
+			System.out.println(BenchmarkUtils.report("pooled workspace VJ", iterations, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+			System.out.println("checksum "+checksum);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import java.util.Arrays;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.AssignmentSolver;
+import ged.AssignmentWorkspace;
+import ged.BipartiteCostMatrix;
+import ged.CompactGraph;
+import ged.DenseCostMatrix;
+import ged.HungarianSolver;
+import ged.LabelCostModel;
+import ged.LabelDictionary;
+import ged.StarCostMatrixGenerator;
+import ged.VolgenantJonkerSolver;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * Matrix memory and solving time of the assignment solvers on the full (n+m) x (n+m) cost matrix against the 
+ * {@link BipartiteCostMatrix} of the same vCard data graphs. Checks that both give the same assignment.
+ * Usage: BipartiteCostMatrixBenchmark [triples...], default 200 400 800
+ */
+public class BipartiteCostMatrixBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		String[] sizes = args.length>0?args:new String[]{"200", "400", "800"};
+		
+		LabelDictionary dictionary = new LabelDictionary();
+		StarCostMatrixGenerator generator = new StarCostMatrixGenerator(LabelCostModel.fromCostFunction(new RDFGraphMatching().getRDFGraphCostFunction()), 0);
+		AssignmentSolver[] solvers = {new HungarianSolver(), new VolgenantJonkerSolver()};
+		
+		for(String size:sizes) {
+			int triples = Integer.parseInt(size);
+			CompactGraph g1 = CompactGraph.fromGraph(ParseGXLScaling.load(ParseGXLScaling.createVCardModel(triples)), dictionary);
+			CompactGraph g2 = CompactGraph.fromGraph(ParseGXLScaling.load(ParseGXLScaling.createVCardModel(triples*9/10)), dictionary);
+			int n = g1.size();
+			int m = g2.size();
+			int dim = n+m;
+			
+			AssignmentWorkspace workspace = new AssignmentWorkspace();
+			BipartiteCostMatrix bipartite = workspace.getBipartiteMatrix(n, m);
+			generator.getMatrix(g1, g2, bipartite);
+			double[] dense = new double[dim*dim];
+			generator.getMatrix(g1, g2, dense);
+			
+			System.out.println("--------------------------------------");
+			System.out.println(n+" x "+m+" nodes");
+			System.out.println(String.format("%-40s %10d bytes", "full matrix", 8L*dim*dim));
+			System.out.println(String.format("%-40s %10d bytes", "bipartite matrix", 8L*(n*m+n+m)));
+			
+			for(AssignmentSolver solver:solvers) {
+				String name = solver.getClass().getSimpleName();
+				long start = System.nanoTime();
+				int[] expected = Arrays.copyOf(solver.solve(new DenseCostMatrix(dense, dim), workspace), dim);
+				System.out.println(BenchmarkUtils.report(name+", full matrix", 1, System.nanoTime()-start, -1));
+				start = System.nanoTime();
+				int[] actual = solver.solve(bipartite, workspace);
+				System.out.println(BenchmarkUtils.report(name+", bipartite matrix", 1, System.nanoTime()-start, -1));
+				for(int i=0;i<dim;i++) {
+					if(expected[i]!=actual[i]) {
+						throw new IllegalStateException("assignments differ in row "+i);
+					}
+				}
+			}
+		}
+	}
+}
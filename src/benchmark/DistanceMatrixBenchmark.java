@@ -0,0 +1,59 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.AlgorithmConfig;
+import ged.TriangularDistanceMatrix;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * Time per pair of an all-pairs distance matrix of random queries with Bipartite VolgenantJonker: 
+ * one {@link RDFGraphMatching#queryGraphDistance(String, String, AlgorithmConfig)} call with a new matcher per pair, 
+ * as on a sample of the queries, against the batch API in one thread and in one thread per processor.
+ * Usage: DistanceMatrixBenchmark [queries] [triples] [sampled queries], default 400 10 60
+ */
+public class DistanceMatrixBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int n = args.length>0?Integer.parseInt(args[0]):400;
+		int triples = args.length>1?Integer.parseInt(args[1]):10;
+		int sample = Math.min(n, args.length>2?Integer.parseInt(args[2]):60);
+
+		Random random = new Random(42);
+		List<String> queries = new ArrayList<String>();
+		for(int k=0;k<n;k++) {
+			queries.add(BenchmarkUtils.randomQuery(1+random.nextInt(triples), random));
+		}
+		AlgorithmConfig config = AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+		int processors = Runtime.getRuntime().availableProcessors();
+		//warm up
+		for(int round=0;round<3;round++) {
+			pairwise(queries.subList(0, sample), config);
+			new RDFGraphMatching().queryGraphDistanceMatrix(queries.subList(0, sample), config, 1, new TriangularDistanceMatrix(sample));
+		}
+
+		System.out.println(n+" queries of up to "+triples+" triple patterns, "+processors+" processors");
+		long start = System.nanoTime();
+		pairwise(queries.subList(0, sample), config);
+		System.out.println(BenchmarkUtils.report("pairwise calls ("+sample+" queries)", (long)sample*(sample-1)/2, System.nanoTime()-start, -1));
+		int[] threads = processors>1?new int[] {1, processors}:new int[] {1};
+		for(int parallelism:threads) {
+			start = System.nanoTime();
+			new RDFGraphMatching().queryGraphDistanceMatrix(queries, config, parallelism, new TriangularDistanceMatrix(n));
+			System.out.println(BenchmarkUtils.report("batch, "+parallelism+" threads", (long)n*(n-1)/2, System.nanoTime()-start, -1));
+		}
+	}
+
+	private static void pairwise(List<String> queries, AlgorithmConfig config) throws Exception {
+		for(int i=0;i<queries.size();i++) {
+			for(int j=i+1;j<queries.size();j++) {
+				new RDFGraphMatching().queryGraphDistance(queries.get(i), queries.get(j), config);
+			}
+		}
+	}
+}
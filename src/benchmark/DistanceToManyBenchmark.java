@@ -0,0 +1,67 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.PreparedGraph;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * One query graph against many with Bipartite VolgenantJonker: a loop over the compact graphs against
+ * {@link RDFGraphMatching#distanceToMany(PreparedGraph, List, AlgorithmConfig, int)} over prepared graphs.
+ * Usage: DistanceToManyBenchmark [targets] [triple patterns] [threads] [rounds], default 5000 12 1 5
+ */
+public class DistanceToManyBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int n = args.length>0?Integer.parseInt(args[0]):5000;
+		int triples = args.length>1?Integer.parseInt(args[1]):12;
+		int threads = args.length>2?Integer.parseInt(args[2]):1;
+		int rounds = args.length>3?Integer.parseInt(args[3]):5;
+
+		Random random = new Random(42);
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		matcher.setDistanceMemoSize(0);
+		AlgorithmConfig config = AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+		CompactGraph source = matcher.queryGraph(BenchmarkUtils.randomQuery(triples, random));
+		List<CompactGraph> targets = new ArrayList<CompactGraph>();
+		List<PreparedGraph> prepared = new ArrayList<PreparedGraph>();
+		for(int i=0;i<n;i++) {
+			CompactGraph g = matcher.queryGraph(BenchmarkUtils.randomQuery(1+random.nextInt(2*triples), random));
+			targets.add(g);
+			prepared.add(matcher.prepare(g));
+		}
+		System.out.println("1 query of "+triples+" triple patterns against "+n+", "+threads+" threads");
+
+		//a round of each to warm up
+		for(CompactGraph g:targets) {
+			matcher.distance(source, g, config);
+		}
+		matcher.distanceToMany(matcher.prepare(source), prepared, config, threads);
+
+		double sum = 0;
+		long start = System.nanoTime();
+		for(int r=0;r<rounds;r++) {
+			for(CompactGraph g:targets) {
+				sum += matcher.distance(source, g, config);
+			}
+		}
+		System.out.println(BenchmarkUtils.report("compact graphs", (long)rounds*n, System.nanoTime()-start, -1));
+
+		double preparedSum = 0;
+		start = System.nanoTime();
+		for(int r=0;r<rounds;r++) {
+			for(double d:matcher.distanceToMany(matcher.prepare(source), prepared, config, threads)) {
+				preparedSum += d;
+			}
+		}
+		System.out.println(BenchmarkUtils.report("prepared graphs", (long)rounds*n, System.nanoTime()-start, -1)
+				+(sum==preparedSum?" same distances":" different distances"));
+	}
+}
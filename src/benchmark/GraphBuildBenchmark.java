@@ -0,0 +1,69 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.jena.atlas.logging.Log;
+
+import semanticweb.sparql.SparqlUtils;
+
+import com.hp.hpl.jena.graph.Triple;
+
+/**
+ * Per-query build latency and allocation of the query graph builders:
+ * the Jena model and GXL round-trip of {@link SparqlUtils#buildSPARQL2GXLGraph(String, String)}
+ * against the direct {@link SparqlUtils#buildSPARQLGraph(Set, String)}.
+ * Usage: GraphBuildBenchmark [iterations]
+ */
+public class GraphBuildBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int iterations = args.length>0?Integer.parseInt(args[0]):2000;
+		int[] sizes = {5, 10, 20};
+		
+		for(int size:sizes) {
+			Random random = new Random(size);
+			List<String> queries = new ArrayList<String>();
+			List<Set<Triple>> triples = new ArrayList<Set<Triple>>();
+			for(int i=0;i<100;i++) {
+				String q = BenchmarkUtils.randomQuery(size, random);
+				queries.add(q);
+				triples.add(SparqlUtils.retrieveTriples(q));
+			}
+			
+			//warm up both paths before measuring
+			for(int i=0;i<iterations;i++) {
+				SparqlUtils.buildSPARQL2GXLGraph(queries.get(i%queries.size()), "1");
+				SparqlUtils.buildSPARQLGraph(queries.get(i%queries.size()), "1");
+			}
+			
+			System.out.println("--------------------------------------");
+			System.out.println(size+" triple patterns per query");
+			
+			long bytes = BenchmarkUtils.allocatedBytes();
+			long start = System.nanoTime();
+			for(int i=0;i<iterations;i++) {
+				SparqlUtils.buildSPARQL2GXLGraph(queries.get(i%queries.size()), "1");
+			}
+			System.out.println(BenchmarkUtils.report("query -> Model -> GXL -> Graph", iterations, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+			
+			bytes = BenchmarkUtils.allocatedBytes();
+			start = System.nanoTime();
+			for(int i=0;i<iterations;i++) {
+				SparqlUtils.buildSPARQLGraph(queries.get(i%queries.size()), "1");
+			}
+			System.out.println(BenchmarkUtils.report("query -> Graph", iterations, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+			
+			//the build step alone, without parsing the query
+			bytes = BenchmarkUtils.allocatedBytes();
+			start = System.nanoTime();
+			for(int i=0;i<iterations;i++) {
+				SparqlUtils.buildSPARQLGraph(triples.get(i%triples.size()), "1");
+			}
+			System.out.println(BenchmarkUtils.report("triples -> Graph", iterations, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+		}
+	}
+}
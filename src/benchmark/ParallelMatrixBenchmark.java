@@ -0,0 +1,61 @@
+package benchmark;
+
+import java.util.Arrays;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.BipartiteCostMatrix;
+import ged.CompactGraph;
+import ged.ForkJoinPools;
+import ged.LabelCostModel;
+import ged.LabelDictionary;
+import ged.StarCostMatrixGenerator;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * Cost matrix generation time of two vCard data graphs for parallelism 1, 2, 4, ..., 
+ * with the speedup over sequential generation. Checks that every parallel matrix equals the sequential one.
+ * Usage: ParallelMatrixBenchmark [triples] [iterations] [max parallelism], default 3300 triples (about 5000 nodes), 5 iterations 
+ * and the number of available processors
+ */
+public class ParallelMatrixBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int triples = args.length>0?Integer.parseInt(args[0]):3300;
+		int iterations = args.length>1?Integer.parseInt(args[1]):5;
+		int maxParallelism = args.length>2?Integer.parseInt(args[2]):Runtime.getRuntime().availableProcessors();
+		
+		LabelDictionary dictionary = new LabelDictionary();
+		StarCostMatrixGenerator generator = new StarCostMatrixGenerator(LabelCostModel.fromCostFunction(new RDFGraphMatching().getRDFGraphCostFunction()), 0);
+		CompactGraph g1 = CompactGraph.fromGraph(ParseGXLScaling.load(ParseGXLScaling.createVCardModel(triples)), dictionary);
+		CompactGraph g2 = CompactGraph.fromGraph(ParseGXLScaling.load(ParseGXLScaling.createVCardModel(triples*9/10)), dictionary);
+		System.out.println(g1.size()+" x "+g2.size()+" nodes, "+Runtime.getRuntime().availableProcessors()+" processors");
+		
+		BipartiteCostMatrix expected = new BipartiteCostMatrix();
+		BipartiteCostMatrix matrix = new BipartiteCostMatrix();
+		generator.getMatrix(g1, g2, expected);
+		double[][] expectedCells = expected.toArray();
+		
+		double sequential = 0;
+		for(int parallelism=1;parallelism<=maxParallelism;parallelism*=2) {
+			//warm up
+			generator.getMatrix(g1, g2, matrix, ForkJoinPools.get(parallelism));
+			long start = System.nanoTime();
+			for(int i=0;i<iterations;i++) {
+				generator.getMatrix(g1, g2, matrix, ForkJoinPools.get(parallelism));
+			}
+			double millis = (System.nanoTime()-start)/1e6/iterations;
+			if(parallelism==1) {
+				sequential = millis;
+			}
+			double[][] cells = matrix.toArray();
+			for(int i=0;i<cells.length;i++) {
+				if(!Arrays.equals(expectedCells[i], cells[i])) {
+					throw new IllegalStateException("parallelism "+parallelism+": cost matrices differ in row "+i);
+				}
+			}
+			System.out.println(String.format("parallelism %3d: %10.1f ms, speedup %.2f", parallelism, millis, sequential/millis));
+		}
+	}
+}
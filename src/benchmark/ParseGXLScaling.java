@@ -0,0 +1,78 @@
+package benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import org.apache.jena.atlas.logging.Log;
+
+import semanticweb.RDF2GXL;
+import util.Graph;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+
+/**
+ * Loading time of {@link RDF2GXL#readRDF(String)} for data graphs in the style of data/vc-db-*.rdf, scaled to a given number of triples.
+ * Usage: ParseGXLScaling [triples...], default 1000 10000 100000
+ */
+public class ParseGXLScaling {
+	
+	final public static String VCARD_NS = "http://www.w3.org/2001/vcard-rdf/3.0#";
+	
+	/**
+	 * Creates a vCard data graph with four triples per person, like data/vc-db-1.rdf
+	 * @param triples approximate number of triples
+	 * @return the model
+	 */
+	public static Model createVCardModel(int triples) {
+		Model model = ModelFactory.createDefaultModel();
+		Property fn = model.createProperty(VCARD_NS, "FN");
+		Property n = model.createProperty(VCARD_NS, "N");
+		Property family = model.createProperty(VCARD_NS, "Family");
+		Property given = model.createProperty(VCARD_NS, "Given");
+		for(int i=0;i<triples/4;i++) {
+			Resource person = model.createResource("http://somewhere/Person"+i+"/");
+			Resource name = model.createResource();
+			person.addProperty(fn, "Given"+i+" Family"+(i%1000));
+			person.addProperty(n, name);
+			name.addProperty(family, "Family"+(i%1000));
+			name.addProperty(given, "Given"+i);
+		}
+		return model;
+	}
+	
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		String[] sizes = args.length>0?args:new String[]{"1000", "10000", "100000"};
+		
+		//warm up the parser
+		load(createVCardModel(1000));
+		
+		for(String size:sizes) {
+			int triples = Integer.parseInt(size);
+			Model model = createVCardModel(triples);
+			long start = System.nanoTime();
+			try {
+				Graph g = load(model);
+				long millis = (System.nanoTime()-start)/1000000;
+				System.out.println(model.size()+" triples, "+g.size()+" nodes: "+millis+" milliseconds");
+			} catch(OutOfMemoryError e) {
+				System.out.println(model.size()+" triples: out of memory");
+			}
+		}
+	}
+	
+	static Graph load(Model model) throws Exception {
+		File file = File.createTempFile("vc-db", ".rdf");
+		file.deleteOnExit();
+		OutputStream out = new FileOutputStream(file);
+		model.write(out);
+		out.close();
+		Graph g = RDF2GXL.readRDF(file.getAbsolutePath());
+		file.delete();
+		return g;
+	}
+}
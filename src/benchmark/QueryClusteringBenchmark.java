@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.CompactGraph;
+import semanticweb.QueryClustering;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * k-medoids clustering of a synthetic query log of variants of template queries, as in {@link QueryGraphIndexBenchmark}.
+ * Reports the time, the distances computed and skipped against the n*k distances of a plain assignment, and the share of
+ * the graphs in the cluster of their template's majority.
+ * Usage: QueryClusteringBenchmark [log size] [templates] [k] [threads], default 10000 20 20 1
+ */
+public class QueryClusteringBenchmark {
+
+	final private static String[] EXTRA = {"foaf:name ?n", "foaf:mbox ?m", "dbo:country res:France", "dbo:genre ?g"};
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int n = args.length>0?Integer.parseInt(args[0]):10000;
+		int templates = args.length>1?Integer.parseInt(args[1]):20;
+		int k = args.length>2?Integer.parseInt(args[2]):20;
+		int threads = args.length>3?Integer.parseInt(args[3]):1;
+
+		Random random = new Random(42);
+		List<String> forms = new ArrayList<String>();
+		for(int t=0;t<templates;t++) {
+			forms.add(BenchmarkUtils.randomQuery(2+random.nextInt(6), random));
+		}
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		matcher.setDistanceMemoSize(0);
+		List<CompactGraph> log = new ArrayList<CompactGraph>();
+		int[] template = new int[n];
+		for(int i=0;i<n;i++) {
+			template[i] = random.nextInt(templates);
+			String form = forms.get(template[i]);
+			StringBuilder sb = new StringBuilder(form.substring(0, form.lastIndexOf('}')));
+			for(int e=random.nextInt(3);e>0;e--) {
+				sb.append("?v0 ").append(EXTRA[random.nextInt(EXTRA.length)]).append(" . ");
+			}
+			log.add(matcher.queryGraph(sb.append("}").toString()));
+		}
+		System.out.println(n+" logged queries of "+templates+" forms, "+k+" clusters, "+threads+" threads");
+
+		long start = System.nanoTime();
+		QueryClustering.Result result = new QueryClustering(matcher).cluster(log, k, threads);
+		System.out.println(BenchmarkUtils.report("k-medoids", 1, System.nanoTime()-start, -1));
+		System.out.println(result+String.format(", %.2f distances per graph against %d", (double)result.getDistanceCount()/n, k));
+
+		//graphs in the cluster that holds most of their template
+		int[][] counts = new int[templates][k];
+		for(int i=0;i<n;i++) {
+			counts[template[i]][result.getClusters()[i]]++;
+		}
+		int pure = 0;
+		for(int t=0;t<templates;t++) {
+			int max = 0;
+			for(int c=0;c<k;c++) {
+				max = Math.max(max, counts[t][c]);
+			}
+			pure += max;
+		}
+		System.out.println(String.format("%.1f%% of the graphs in the main cluster of their template", 100.0*pure/n));
+	}
+}
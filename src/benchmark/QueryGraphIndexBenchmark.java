@@ -0,0 +1,81 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.CompactGraph;
+import semanticweb.QueryGraphIndex;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * Nearest neighbour search over a synthetic query log with the vantage-point tree against a linear scan of exact distances.
+ * The log holds variants of a number of template queries, each with up to two triple patterns added, as logs hold queries
+ * built from the same forms. Reports the time per search and the distances computed per search.
+ * Usage: QueryGraphIndexBenchmark [log size] [templates] [searches] [k], default 2000 100 50 10
+ */
+public class QueryGraphIndexBenchmark {
+
+	final private static String[] EXTRA = {"foaf:name ?n", "foaf:mbox ?m", "dbo:country res:France", "dbo:genre ?g"};
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int n = args.length>0?Integer.parseInt(args[0]):2000;
+		int templates = args.length>1?Integer.parseInt(args[1]):100;
+		int searches = args.length>2?Integer.parseInt(args[2]):50;
+		int k = args.length>3?Integer.parseInt(args[3]):10;
+
+		Random random = new Random(42);
+		List<String> forms = new ArrayList<String>();
+		for(int t=0;t<templates;t++) {
+			forms.add(BenchmarkUtils.randomQuery(2+random.nextInt(6), random));
+		}
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		List<CompactGraph> log = new ArrayList<CompactGraph>();
+		for(int i=0;i<n;i++) {
+			log.add(matcher.queryGraph(variant(forms.get(random.nextInt(templates)), random)));
+		}
+		List<CompactGraph> queries = new ArrayList<CompactGraph>();
+		for(int i=0;i<searches;i++) {
+			queries.add(matcher.queryGraph(variant(forms.get(random.nextInt(templates)), random)));
+		}
+
+		long start = System.nanoTime();
+		QueryGraphIndex index = new QueryGraphIndex(matcher);
+		index.addAll(log);
+		System.out.println(n+" logged queries of "+templates+" forms, "+k+" nearest of "+searches+" queries");
+		System.out.println(BenchmarkUtils.report("build", n, System.nanoTime()-start, -1));
+
+		//the memo would answer the repeated pairs of the second pass
+		matcher.setDistanceMemoSize(0);
+		long distances = 0;
+		long pruned = 0;
+		start = System.nanoTime();
+		for(CompactGraph q:queries) {
+			QueryGraphIndex.Result result = index.nearest(q, k);
+			distances += result.getDistanceCount();
+			pruned += result.getPrunedCount();
+		}
+		System.out.println(BenchmarkUtils.report("vantage-point tree", searches, System.nanoTime()-start, -1)
+				+String.format(" %.1f distances, %.1f pruned per search", (double)distances/searches, (double)pruned/searches));
+
+		start = System.nanoTime();
+		for(CompactGraph q:queries) {
+			for(CompactGraph g:log) {
+				matcher.distanceBelow(q, g, Double.POSITIVE_INFINITY);
+			}
+		}
+		System.out.println(BenchmarkUtils.report("linear scan", searches, System.nanoTime()-start, -1)
+				+String.format(" %d distances per search", n));
+	}
+
+	private static String variant(String form, Random random) {
+		StringBuilder sb = new StringBuilder(form.substring(0, form.lastIndexOf('}')));
+		for(int e=random.nextInt(3);e>0;e--) {
+			sb.append("?v0 ").append(EXTRA[random.nextInt(EXTRA.length)]).append(" . ");
+		}
+		return sb.append("}").toString();
+	}
+}
@@ -0,0 +1,185 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.AlgorithmConfig;
+import ged.AlgorithmRouter;
+import ged.CompactGraph;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+/**
+ * Writes the routing table of {@link AlgorithmRouter}: for every size and label diversity class, the 90th percentile time
+ * and the mean relative error of each algorithm on random query pairs of the class, taking the best of three runs of each pair.
+ * The error is relative to the A* distance in the classes up to the exact limit, where the exact algorithms are measured too.
+ * Beyond it, the error is relative to the best distance of the A*-beam searches and of a 200 ms anytime search.
+ * The number of pairs found for each class is written too, the router does not use the classes of too few pairs.
+ * An output file ending in .java is written as the bundled table class, any other as a properties file.
+ * Usage: RoutingCalibration [output file] [pairs per class] [exact limit], default src/ged/BundledRoutingTable.java 40 40
+ */
+public class RoutingCalibration {
+
+	final private static int[] SIZE_LIMITS = {10, 20, 30, 40, 60, 80, 120};
+	final private static double DIVERSITY_THRESHOLD = 0.4;
+	/**
+	 * share of constant objects of the generated queries of low and high diversity
+	 */
+	final private static double[] CONSTANTS = {0.1, 0.9};
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		String output = args.length>0?args[0]:"src/ged/BundledRoutingTable.java";
+		int pairs = args.length>1?Integer.parseInt(args[1]):40;
+		int exactLimit = args.length>2?Integer.parseInt(args[2]):40;
+
+		StringBuilder limits = new StringBuilder();
+		for(int limit:SIZE_LIMITS) {
+			limits.append(limits.length()==0?"":",").append(limit);
+		}
+		Properties classes = new Properties();
+		classes.setProperty("size.limits", limits.toString());
+		classes.setProperty("diversity.threshold", String.valueOf(DIVERSITY_THRESHOLD));
+		AlgorithmRouter router = new AlgorithmRouter(classes);
+
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(42);
+		List<String> out = new ArrayList<String>();
+		out.add("# Routing table of ged.AlgorithmRouter, written by benchmark.RoutingCalibration on "+new Date());
+		out.add("# up to "+pairs+" random query pairs per class, exact algorithms up to size "+exactLimit+", java "+System.getProperty("java.version")
+				+", "+Runtime.getRuntime().availableProcessors()+" processors");
+		out.add("# errors relative to A* up to the exact limit, to the best of A*-beam and a 200 ms anytime search beyond it");
+		out.add("# <size limit>.<low|high>.<algorithm>=<90th percentile microseconds> <mean relative error>");
+		out.add("# <size limit>.<low|high>.pairs=<pairs>, classes of fewer than "+AlgorithmRouter.MIN_PAIRS+" pairs are of low confidence and not used");
+		out.add("size.limits="+limits);
+		out.add("diversity.threshold="+DIVERSITY_THRESHOLD);
+
+		int previous = 0;
+		for(int limit:SIZE_LIMITS) {
+			for(int d=0;d<2;d++) {
+				String pairClass = limit+(d==0?".low":".high");
+				CompactGraph[] g1 = new CompactGraph[pairs];
+				CompactGraph[] g2 = new CompactGraph[pairs];
+				int found = 0;
+				for(int attempt=0;attempt<100*pairs && found<pairs;attempt++) {
+					//a query of t triple patterns has between t and 2t+1 nodes plus edges
+					int triples1 = Math.max(1, previous/3 + random.nextInt(limit-previous/3));
+					int triples2 = Math.max(1, previous/3 + random.nextInt(limit-previous/3));
+					CompactGraph a = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples1, CONSTANTS[d], random), "1", matcher.getLabelDictionary());
+					CompactGraph b = SparqlUtils.buildSPARQLCompactGraph(BenchmarkUtils.randomQuery(triples2, CONSTANTS[d], random), "2", matcher.getLabelDictionary());
+					if(pairClass.equals(router.classOf(AlgorithmRouter.sizeOf(a, b), AlgorithmRouter.diversityOf(a, b)))) {
+						g1[found] = a;
+						g2[found] = b;
+						found++;
+					}
+				}
+				if(found==0) {
+					System.out.println(pairClass+": no pairs");
+					continue;
+				}
+				out.add(pairClass+".pairs="+found);
+				calibrate(matcher, pairClass, Arrays.copyOf(g1, found), Arrays.copyOf(g2, found), limit<=exactLimit, out);
+			}
+			previous = limit;
+		}
+		write(out, output);
+	}
+
+	/**
+	 * Writes the lines of the table as a properties file, or as the class of the bundled table if the file name ends in .java
+	 */
+	private static void write(List<String> lines, String output) throws IOException {
+		PrintWriter out = new PrintWriter(output, "UTF-8");
+		if(!output.endsWith(".java")) {
+			for(String line:lines) {
+				out.println(line);
+			}
+			out.close();
+			return;
+		}
+		out.println("package ged;");
+		out.println();
+		out.println("/**");
+		out.println(" * The bundled routing table of {@link AlgorithmRouter}, written by benchmark.RoutingCalibration. Do not edit.");
+		out.println(" */");
+		out.println("final class BundledRoutingTable {");
+		out.println();
+		out.println("\t/**");
+		out.println("\t * lines of the table in the format of a properties file");
+		out.println("\t */");
+		out.println("\tfinal static String[] LINES = {");
+		for(String line:lines) {
+			out.println("\t\t\""+line.replace("\\", "\\\\").replace("\"", "\\\"")+"\",");
+		}
+		out.println("\t};");
+		out.println();
+		out.println("\tprivate BundledRoutingTable() {");
+		out.println("\t}");
+		out.println("}");
+		out.close();
+	}
+
+	private static void calibrate(RDFGraphMatching matcher, String pairClass, CompactGraph[] g1, CompactGraph[] g2, boolean exact, List<String> out) throws Exception {
+		int pairs = g1.length;
+		String[] algorithms = AlgorithmRouter.ALGORITHMS;
+		double[][] distances = new double[algorithms.length][pairs];
+		long[][] times = new long[algorithms.length][pairs];
+		for(int a=0;a<algorithms.length;a++) {
+			if(!exact && AlgorithmRouter.isExact(algorithms[a])) {
+				continue;
+			}
+			AlgorithmConfig config = AlgorithmRouter.config(algorithms[a]);
+			//warm up
+			for(int k=0;k<pairs;k++) {
+				matcher.distance(g1[k], g2[k], config);
+			}
+			//best of three runs per pair, against the noise of the compiler and the collector
+			for(int k=0;k<pairs;k++) {
+				times[a][k] = Long.MAX_VALUE;
+				for(int run=0;run<3;run++) {
+					long start = System.nanoTime();
+					distances[a][k] = matcher.distance(g1[k], g2[k], config);
+					times[a][k] = Math.min(times[a][k], System.nanoTime()-start);
+				}
+			}
+		}
+		double[] reference = new double[pairs];
+		for(int k=0;k<pairs;k++) {
+			reference[k] = exact?Double.POSITIVE_INFINITY:matcher.distanceAnytime(g1[k], g2[k], 200).getDistance();
+			for(int a=0;a<algorithms.length;a++) {
+				if(exact?algorithms[a].equals("astar"):!AlgorithmRouter.isExact(algorithms[a]) && !isBipartite(algorithms[a])) {
+					reference[k] = Math.min(reference[k], distances[a][k]);
+				}
+			}
+		}
+		StringBuilder summary = new StringBuilder(pairClass+" ("+pairs+" pairs):");
+		for(int a=0;a<algorithms.length;a++) {
+			if(!exact && AlgorithmRouter.isExact(algorithms[a])) {
+				continue;
+			}
+			double error = 0;
+			for(int k=0;k<pairs;k++) {
+				error += Math.abs(distances[a][k]-reference[k])/Math.max(reference[k], 1.0);
+			}
+			error /= pairs;
+			Arrays.sort(times[a]);
+			long micros = times[a][Math.min(pairs-1, (int)Math.ceil(0.9*pairs)-1)]/1000;
+			out.add(pairClass+"."+algorithms[a]+"="+micros+" "+String.format(Locale.ROOT, "%.4f", error));
+			summary.append(" ").append(algorithms[a]).append(" ").append(micros).append("us/").append(String.format(Locale.ROOT, "%.3f", error));
+		}
+		System.out.println(summary);
+	}
+
+	private static boolean isBipartite(String algorithm) {
+		return algorithm.equals("hungarian") || algorithm.equals("vj");
+	}
+}
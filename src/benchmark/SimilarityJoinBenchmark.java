@@ -0,0 +1,53 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.CompactGraph;
+import semanticweb.RDFGraphMatching;
+import semanticweb.SimilarityJoin;
+
+/**
+ * Threshold join of two synthetic query sets against the exact distance of every pair, pruned at the threshold.
+ * Reports the time of both and the share of the pairs decided by each stage of the join.
+ * Usage: SimilarityJoinBenchmark [set size] [threshold] [threads], default 300 1.5 1
+ */
+public class SimilarityJoinBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int n = args.length>0?Integer.parseInt(args[0]):300;
+		double threshold = args.length>1?Double.parseDouble(args[1]):1.5;
+		int threads = args.length>2?Integer.parseInt(args[2]):1;
+
+		Random random = new Random(42);
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		matcher.setDistanceMemoSize(0);
+		List<CompactGraph> a = new ArrayList<CompactGraph>();
+		List<CompactGraph> b = new ArrayList<CompactGraph>();
+		for(int i=0;i<n;i++) {
+			a.add(matcher.queryGraph(BenchmarkUtils.randomQuery(1+random.nextInt(7), random)));
+			b.add(matcher.queryGraph(BenchmarkUtils.randomQuery(1+random.nextInt(7), random)));
+		}
+		System.out.println(n+" x "+n+" queries, threshold "+threshold+", "+threads+" threads");
+
+		long start = System.nanoTime();
+		SimilarityJoin.Result result = new SimilarityJoin(matcher).join(a, b, threshold, threads);
+		System.out.println(BenchmarkUtils.report("join", 1, System.nanoTime()-start, -1));
+		System.out.println(result);
+
+		start = System.nanoTime();
+		int matches = 0;
+		for(CompactGraph g1:a) {
+			for(CompactGraph g2:b) {
+				if(matcher.distanceBelow(g1, g2, Math.nextUp(threshold))<=threshold) {
+					matches++;
+				}
+			}
+		}
+		System.out.println(BenchmarkUtils.report("all pairs", 1, System.nanoTime()-start, -1)+" "+matches+" matches");
+	}
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.CompactGraph;
+import ged.LabelCostModel;
+import ged.LabelDictionary;
+import ged.StarCostMatrixGenerator;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.CostFunction;
+import util.Graph;
+import util.MatrixGenerator;
+
+/**
+ * Cost matrix generation of {@link MatrixGenerator} against {@link StarCostMatrixGenerator} on query graphs with hub nodes, 
+ * where the per-cell edge assignment of {@link MatrixGenerator} dominates. Checks that both matrices are equal.
+ * Usage: StarCostMatrixBenchmark [iterations]
+ */
+public class StarCostMatrixBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		Log.setCmdLogging();
+		int iterations = args.length>0?Integer.parseInt(args[0]):1;
+		int[] hubDegrees = {100, 150};
+		
+		CostFunction cf = new RDFGraphMatching().getRDFGraphCostFunction();
+		MatrixGenerator matrixGenerator = new MatrixGenerator(cf, 0);
+		StarCostMatrixGenerator starGenerator = new StarCostMatrixGenerator(LabelCostModel.fromCostFunction(cf), 0);
+		LabelDictionary dictionary = new LabelDictionary();
+		
+		for(int degree:hubDegrees) {
+			Random random = new Random(degree);
+			Graph g1 = SparqlUtils.buildSPARQLGraph(hubQuery(degree, random), "1");
+			Graph g2 = SparqlUtils.buildSPARQLGraph(hubQuery(degree, random), "2");
+			CompactGraph c1 = CompactGraph.fromGraph(g1, dictionary);
+			CompactGraph c2 = CompactGraph.fromGraph(g2, dictionary);
+			
+			double[][] expected = matrixGenerator.getMatrix(g1, g2);
+			double[][] actual = starGenerator.getMatrix(c1, c2);
+			for(int i=0;i<expected.length;i++) {
+				if(!Arrays.equals(expected[i], actual[i])) {
+					throw new IllegalStateException("cost matrices differ in row "+i);
+				}
+			}
+			
+			System.out.println("--------------------------------------");
+			System.out.println("hub degree "+degree+", "+g1.size()+" x "+g2.size()+" nodes");
+			
+			long bytes = BenchmarkUtils.allocatedBytes();
+			long start = System.nanoTime();
+			for(int i=0;i<iterations;i++) {
+				matrixGenerator.getMatrix(g1, g2);
+			}
+			System.out.println(BenchmarkUtils.report("MatrixGenerator", iterations, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+			
+			bytes = BenchmarkUtils.allocatedBytes();
+			start = System.nanoTime();
+			for(int i=0;i<iterations*100;i++) {
+				starGenerator.getMatrix(c1, c2);
+			}
+			System.out.println(BenchmarkUtils.report("StarCostMatrixGenerator", iterations*100, System.nanoTime()-start, BenchmarkUtils.allocatedBytes()-bytes));
+		}
+	}
+	
+	/**
+	 * Query with a few hubs that share most of the triple patterns, the other variables hang off the hubs
+	 * @param degree number of triple patterns of the first hub
+	 * @param random source of randomness
+	 * @return a sparql query string
+	 */
+	private static String hubQuery(int degree, Random random) {
+		StringBuilder sb = new StringBuilder(BenchmarkUtils.PREFIXES);
+		sb.append("SELECT * WHERE { ");
+		String[] predicates = {"foaf:knows", "foaf:name", "dbo:author", "dbo:starring", "dbo:director"};
+		int vars = 0;
+		for(int hub=0;hub<3;hub++) {
+			for(int i=0;i<degree/(hub+1);i++) {
+				sb.append("?h").append(hub).append(' ').append(predicates[random.nextInt(predicates.length)]).append(" ?v").append(vars++).append(" . ");
+			}
+		}
+		return sb.append("}").toString();
+	}
+}
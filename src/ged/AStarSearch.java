@@ -0,0 +1,95 @@
+package ged;
+
+import util.CostFunction;
+import util.Graph;
+
+/**
+ * Exact edit distance of two {@link CompactGraph}s by A* search, the distance that
+ * {@link util.EditDistance#getEditDistance(Graph, Graph, CostFunction, int)} computes without a beam.
+ * <p>
+ * The search runs on the {@link EditPathTree} of the GMT library and orders the open paths by their cost plus a
+ * {@link RemainderBound} of the cost of their unused nodes. An upper bound comes from the edit path of a node matching,
+ * usually a bipartite one, and from the edit paths that complete each expanded path by its optimal remainder assignment.
+ * Paths whose estimate reaches the upper bound are not kept, and the search ends when the smallest estimate does.
+ * Among paths with equal estimates the deeper ones are expanded first.
+ */
+public class AStarSearch {
+
+	private LabelCostModel costs;
+
+	public AStarSearch(LabelCostModel costs) {
+		this.costs = costs;
+	}
+
+	/**
+	 * Computes the exact edit distance
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param sourceTargets a node matching whose edit path gives the initial upper bound, target of each source node or a negative value for a deletion; null for none
+	 * @return edit distance
+	 */
+	public double getEditDistance(CompactGraph g1, CompactGraph g2, int[] sourceTargets) {
+		int n1 = g1.size();
+		EditPathTree tree = new EditPathTree(g1, g2, costs, 1024);
+		RemainderBound bound = new RemainderBound(tree, g1, g2, costs);
+		BeamQueue open = new BeamQueue(1024);
+		double upper = sourceTargets==null?Double.POSITIVE_INFINITY:tree.pathCost(sourceTargets);
+		int[] completion = new int[n1];
+		long sequence = 0;
+
+		int root = tree.root();
+		if(tree.isComplete(root)) {
+			return 0.0;
+		}
+		open.add(root, 0.0, order(n1, 0, sequence++));
+		while(!open.isEmpty() && open.firstCost()<upper) {
+			int u = open.pollFirst();
+			tree.retain(u);
+			tree.load(u);
+			int d = tree.depth(u);
+			double c = tree.cost(u);
+			int left = tree.unusedCount(u);
+			if(left==0) {
+				upper = Math.min(upper, c + tree.batchDeletionCost(d));
+			} else if(d==n1) {
+				upper = Math.min(upper, c + tree.batchInsertionCost(u));
+			} else if(c + bound.compute(u)<upper) {
+				for(int i=0;i<n1;i++) {
+					completion[i] = i<d?tree.matching(i):bound.assignment(i);
+				}
+				for(int w=0;w<tree.words();w++) {
+					long bits = tree.unused(u, w);
+					while(bits!=0) {
+						int j = (w<<6)+Long.numberOfTrailingZeros(bits);
+						bits &= bits-1;
+						double g = c + tree.substitutionCost(d, j);
+						if(d+1==n1 && left==1) {
+							upper = Math.min(upper, g);
+						} else {
+							double f = Math.max(g, c + bound.boundWith(j));
+							if(f<upper) {
+								open.add(tree.extend(u, j, g), f, order(n1, d+1, sequence++));
+							}
+						}
+					}
+				}
+				double g = c + tree.deletionCost(d);
+				double f = Math.max(g, c + bound.boundWith(EditPathTree.DELETED));
+				if(f<upper) {
+					open.add(tree.extend(u, EditPathTree.DELETED, g), f, order(n1, d+1, sequence++));
+				}
+				//the optimal remainder assignment completes the path
+				upper = Math.min(upper, tree.pathCost(completion));
+			}
+			tree.release(u);
+		}
+		return upper;
+	}
+
+	/**
+	 * Deeper paths first, then in order of creation
+	 */
+	private static long order(int n1, int depth, long sequence) {
+		return ((long)(n1-depth)<<40) + sequence;
+	}
+}
@@ -0,0 +1,88 @@
+package ged;
+
+import util.Edge;
+import util.Graph;
+
+/**
+ * Adjacency of the nodes of a {@link Graph}, indexed by node position. 
+ * Cell (i,j) holds the edge from node i to node j, or null. 
+ * Besides random access, the non-empty cells of a row can be enumerated in increasing column order.
+ */
+public abstract class Adjacency {
+	
+	/**
+	 * Returns the adjacency of a graph. Graphs built by this project carry their own adjacency, other graphs are wrapped around their adjacency matrix.
+	 * @param g a graph
+	 * @return the adjacency of the graph
+	 */
+	public static Adjacency of(Graph g) {
+		if(g instanceof AdjacencyGraph) {
+			return ((AdjacencyGraph)g).getAdjacency();
+		}
+		return new DenseAdjacency(g.getAdjacenyMatrix());
+	}
+	
+	/**
+	 * Number of nodes
+	 * @return number of nodes
+	 */
+	public abstract int size();
+	
+	/**
+	 * Returns the edge of cell (i,j)
+	 * @param i row
+	 * @param j column
+	 * @return the edge or null
+	 */
+	public abstract Edge get(int i, int j);
+	
+	/**
+	 * Number of non-empty cells in a row
+	 * @param i row
+	 * @return number of non-empty cells
+	 */
+	public abstract int degree(int i);
+	
+	/**
+	 * Column of the k-th non-empty cell of a row
+	 * @param i row
+	 * @param k 0 &lt;= k &lt; {@link #degree(int)}
+	 * @return column
+	 */
+	public abstract int neighbour(int i, int k);
+	
+	/**
+	 * Edge of the k-th non-empty cell of a row
+	 * @param i row
+	 * @param k 0 &lt;= k &lt; {@link #degree(int)}
+	 * @return edge
+	 */
+	public abstract Edge edge(int i, int k);
+	
+	/**
+	 * Number of non-empty cells
+	 * @return number of non-empty cells
+	 */
+	public int cells() {
+		int cells = 0;
+		for(int i=0;i<size();i++) {
+			cells += degree(i);
+		}
+		return cells;
+	}
+	
+	/**
+	 * Materializes the adjacency as a dense matrix, as expected by the GMT library
+	 * @return adjacency matrix
+	 */
+	public Edge[][] toMatrix() {
+		int n = size();
+		Edge[][] matrix = new Edge[n][n];
+		for(int i=0;i<n;i++) {
+			for(int k=0;k<degree(i);k++) {
+				matrix[i][neighbour(i, k)] = edge(i, k);
+			}
+		}
+		return matrix;
+	}
+}
@@ -0,0 +1,118 @@
+package ged;
+
+import java.util.Arrays;
+
+import util.Edge;
+
+/**
+ * Collects the cells of an adjacency and builds a dense or a sparse {@link Adjacency}, depending on the number of nodes.
+ * Like assignments to an adjacency matrix, a later cell overwrites an earlier one with the same row and column.
+ */
+public class AdjacencyBuilder {
+	
+	/**
+	 * graphs with more nodes get a sparse adjacency
+	 */
+	public static int DENSE_ADJACENCY_MAX_NODES = 1000;
+	
+	private int n;
+	private int size;
+	private int[] rows;
+	private int[] columns;
+	private Edge[] edges;
+	
+	/**
+	 * @param n number of nodes
+	 */
+	public AdjacencyBuilder(int n) {
+		this.n = n;
+		this.rows = new int[16];
+		this.columns = new int[16];
+		this.edges = new Edge[16];
+	}
+	
+	/**
+	 * Sets cell (i,j)
+	 * @param i row
+	 * @param j column
+	 * @param edge edge
+	 */
+	public void put(int i, int j, Edge edge) {
+		if(size==rows.length) {
+			rows = Arrays.copyOf(rows, size*2);
+			columns = Arrays.copyOf(columns, size*2);
+			edges = Arrays.copyOf(edges, size*2);
+		}
+		rows[size] = i;
+		columns[size] = j;
+		edges[size] = edge;
+		size++;
+	}
+	
+	/**
+	 * Builds a dense adjacency for graphs with at most {@link #DENSE_ADJACENCY_MAX_NODES} nodes, a sparse one otherwise
+	 * @return the adjacency
+	 */
+	public Adjacency build() {
+		if(n<=DENSE_ADJACENCY_MAX_NODES) {
+			return buildDense();
+		}
+		return buildSparse();
+	}
+	
+	/**
+	 * Builds a dense adjacency
+	 * @return the adjacency
+	 */
+	public DenseAdjacency buildDense() {
+		Edge[][] matrix = new Edge[n][n];
+		for(int k=0;k<size;k++) {
+			matrix[rows[k]][columns[k]] = edges[k];
+		}
+		return new DenseAdjacency(matrix);
+	}
+	
+	/**
+	 * Builds a sparse adjacency
+	 * @return the adjacency
+	 */
+	public SparseAdjacency buildSparse() {
+		//counting sort of the cells by row, keeping the insertion order within a row
+		int[] rowStart = new int[n+1];
+		for(int k=0;k<size;k++) {
+			rowStart[rows[k]+1]++;
+		}
+		for(int i=0;i<n;i++) {
+			rowStart[i+1] += rowStart[i];
+		}
+		int[] next = Arrays.copyOf(rowStart, n);
+		long[] keys = new long[size];
+		for(int k=0;k<size;k++) {
+			//column in the high bits, insertion order in the low bits
+			keys[next[rows[k]]++] = ((long)columns[k]<<32) | k;
+		}
+		
+		int[] cellColumns = new int[size];
+		Edge[] cellEdges = new Edge[size];
+		int cells = 0;
+		int[] compactStart = new int[n+1];
+		for(int i=0;i<n;i++) {
+			compactStart[i] = cells;
+			Arrays.sort(keys, rowStart[i], rowStart[i+1]);
+			for(int p=rowStart[i];p<rowStart[i+1];p++) {
+				int column = (int)(keys[p]>>>32);
+				Edge edge = edges[(int)keys[p]];
+				if(cells>compactStart[i] && cellColumns[cells-1]==column) {
+					//the later assignment wins
+					cellEdges[cells-1] = edge;
+				} else {
+					cellColumns[cells] = column;
+					cellEdges[cells] = edge;
+					cells++;
+				}
+			}
+		}
+		compactStart[n] = cells;
+		return new SparseAdjacency(compactStart, Arrays.copyOf(cellColumns, cells), Arrays.copyOf(cellEdges, cells));
+	}
+}
@@ -0,0 +1,51 @@
+package ged;
+
+import util.Edge;
+import util.Graph;
+
+/**
+ * A {@link Graph} that keeps its adjacency as an {@link Adjacency}, which may be sparse. 
+ * The adjacency matrix expected by the GMT library is materialized on first request only.
+ */
+public class AdjacencyGraph extends Graph {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Adjacency adjacency;
+	
+	/**
+	 * Returns the adjacency of the nodes
+	 * @return the adjacency
+	 */
+	public Adjacency getAdjacency() {
+		return adjacency;
+	}
+	
+	/**
+	 * Sets the adjacency of the nodes
+	 * @param adjacency the adjacency
+	 */
+	public void setAdjacency(Adjacency adjacency) {
+		this.adjacency = adjacency;
+		super.setAdjacenyMatrix(null);
+	}
+	
+	/**
+	 * Returns the adjacency matrix. For a sparse adjacency this allocates n x n references, avoid it for large graphs.
+	 */
+	@Override
+	public Edge[][] getAdjacenyMatrix() {
+		Edge[][] matrix = super.getAdjacenyMatrix();
+		if(matrix==null && adjacency!=null) {
+			matrix = adjacency.toMatrix();
+			super.setAdjacenyMatrix(matrix);
+		}
+		return matrix;
+	}
+	
+	@Override
+	public void setAdjacenyMatrix(Edge[][] matrix) {
+		super.setAdjacenyMatrix(matrix);
+		this.adjacency = matrix==null?null:new DenseAdjacency(matrix);
+	}
+}
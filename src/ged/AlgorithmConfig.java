@@ -5,11 +5,23 @@ public class AlgorithmConfig {
 	final public static int A_STAR_BEAM = 1;
 	final public static int BipartiteHungarian = 2;
 	final public static int BipartiteVolgenantJonker = 3;
+	final public static int DEPTH_FIRST_BRANCH_AND_BOUND = 4;
+	final public static int ANYTIME = 5;
+	final public static int AUTO = 6;
+	final public static int GREEDY = 7;
+	final public static int HAUSDORFF = 8;
 	
 	private int algo;
 	private int beamSize;
+	private int parallelism;
+	private long maxExpansions;
+	private long timeBudget;
+	private double maxError;
 	public AlgorithmConfig() {
 		beamSize = Integer.MAX_VALUE;
+		parallelism = 1;
+		maxExpansions = Long.MAX_VALUE;
+		timeBudget = 0;
 	}
 	/**
 	 * Creates Bipartite VolgenantJonker configuration.
@@ -31,6 +43,24 @@ public class AlgorithmConfig {
 		return ac;
 		
 	}
+	/**
+	 * Creates greedy configuration: the edit path of a greedy node matching on the bipartite cost matrix, an upper bound.
+	 * @return greedy configuration.
+	 */
+	public static AlgorithmConfig createGreedy() {
+		AlgorithmConfig ac = new AlgorithmConfig();
+		ac.algo = GREEDY;
+		return ac;
+	}
+	/**
+	 * Creates Hausdorff configuration: the Hausdorff edit distance, a lower bound.
+	 * @return Hausdorff configuration.
+	 */
+	public static AlgorithmConfig createHausdorff() {
+		AlgorithmConfig ac = new AlgorithmConfig();
+		ac.algo = HAUSDORFF;
+		return ac;
+	}
 	/**
 	 * Creates A* configuration.
 	 * @return A* configuration.
@@ -41,6 +71,62 @@ public class AlgorithmConfig {
 		return ac;
 		
 	}
+	/**
+	 * Creates depth-first branch and bound configuration.
+	 * @return depth-first branch and bound configuration.
+	 */
+	public static AlgorithmConfig createDepthFirstBranchAndBound() {
+		AlgorithmConfig ac = new AlgorithmConfig();
+		ac.algo = DEPTH_FIRST_BRANCH_AND_BOUND;
+		return ac;
+	}
+	/**
+	 * Creates depth-first branch and bound configuration that stops after a number of expansions.
+	 * @param maxExpansions maximum number of expanded search paths
+	 * @return depth-first branch and bound configuration.
+	 */
+	public static AlgorithmConfig createDepthFirstBranchAndBound(long maxExpansions) {
+		AlgorithmConfig ac = createDepthFirstBranchAndBound();
+		ac.setMaxExpansions(maxExpansions);
+		return ac;
+	}
+	/**
+	 * Creates anytime configuration: the best distance found within a time budget.
+	 * @param timeBudget time budget in milliseconds
+	 * @return anytime configuration.
+	 */
+	public static AlgorithmConfig createAnytime(long timeBudget) {
+		AlgorithmConfig ac = new AlgorithmConfig();
+		ac.algo = ANYTIME;
+		ac.setTimeBudget(timeBudget);
+		return ac;
+	}
+	/**
+	 * Creates automatic configuration for exact distances: every pair of graphs goes to the cheapest exact algorithm 
+	 * that meets the latency budget, see {@link AlgorithmRouter}.
+	 * @param latencyBudget latency budget in milliseconds
+	 * @return automatic configuration.
+	 */
+	public static AlgorithmConfig auto(long latencyBudget) {
+		return auto(latencyBudget, 0.0);
+	}
+	/**
+	 * Creates automatic configuration: every pair of graphs goes to the cheapest algorithm that meets the latency budget 
+	 * and the error target, see {@link AlgorithmRouter}.
+	 * @param latencyBudget latency budget in milliseconds
+	 * @param maxError largest acceptable mean relative error of the distance, 0 for exact algorithms only
+	 * @return automatic configuration.
+	 */
+	public static AlgorithmConfig auto(long latencyBudget, double maxError) {
+		if(maxError<0) {
+			throw new IllegalArgumentException("maxError must not be negative: "+maxError);
+		}
+		AlgorithmConfig ac = new AlgorithmConfig();
+		ac.algo = AUTO;
+		ac.setTimeBudget(latencyBudget);
+		ac.maxError = maxError;
+		return ac;
+	}
 	/**
 	 * Creates A*-beam configuration.
 	 * @param s Size of the beam
@@ -53,6 +139,37 @@ public class AlgorithmConfig {
 		ac.beamSize = s;
 		return ac;
 	}
+	/**
+	 * Creates a configuration from a short specification: astar, branchAndBound[:expansions], anytime:ms, auto:ms[:error], 
+	 * beam:size, hungarian, vj, greedy or hausdorff. The names of the {@link AlgorithmRouter} table, such as beam10, are accepted too.
+	 * @param spec the specification
+	 * @return the configuration
+	 * @throws IllegalArgumentException if the specification is not valid
+	 */
+	public static AlgorithmConfig parse(String spec) {
+		String[] parts = spec.trim().split(":");
+		String name = parts[0];
+		try {
+			if(name.equals("branchAndBound") && parts.length==2)
+				return createDepthFirstBranchAndBound(Long.parseLong(parts[1]));
+			if(name.equals("anytime") && parts.length==2)
+				return createAnytime(Long.parseLong(parts[1]));
+			if(name.equals("auto") && (parts.length==2 || parts.length==3))
+				return auto(Long.parseLong(parts[1]), parts.length==3?Double.parseDouble(parts[2]):0.0);
+			if(name.equals("beam") && parts.length==2)
+				return createAStarBeam(Integer.parseInt(parts[1]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid algorithm: "+spec, e);
+		}
+		if(parts.length==1) {
+			if(name.equals("greedy"))
+				return createGreedy();
+			if(name.equals("hausdorff"))
+				return createHausdorff();
+			return AlgorithmRouter.config(name);
+		}
+		throw new IllegalArgumentException("Invalid algorithm: "+spec);
+	}
 	/**
 	 * Returns true if the configuration is for A*
 	 * @return true or false
@@ -92,6 +209,83 @@ public class AlgorithmConfig {
 		return false;
 	}
 	
+	/**
+	 * Returns true if the configuration is for the greedy node matching
+	 * @return true or false
+	 */
+	public boolean isGreedy() {
+		if(this.algo==GREEDY) 
+			return true;
+		return false;
+	}
+	
+	/**
+	 * Returns true if the configuration is for the Hausdorff edit distance
+	 * @return true or false
+	 */
+	public boolean isHausdorff() {
+		if(this.algo==HAUSDORFF) 
+			return true;
+		return false;
+	}
+	
+	/**
+	 * Returns true if the configuration is for depth-first branch and bound
+	 * @return true or false
+	 */
+	public boolean isDepthFirstBranchAndBound() {
+		if(this.algo==DEPTH_FIRST_BRANCH_AND_BOUND) 
+			return true;
+		return false;
+	}
+	
+	/**
+	 * Returns true if the configuration is for the anytime search
+	 * @return true or false
+	 */
+	public boolean isAnytime() {
+		if(this.algo==ANYTIME) 
+			return true;
+		return false;
+	}
+	
+	/**
+	 * Returns true if the configuration chooses the algorithm for each pair of graphs
+	 * @return true or false
+	 */
+	public boolean isAuto() {
+		if(this.algo==AUTO) 
+			return true;
+		return false;
+	}
+	
+	/**
+	 * Gets the name of the algorithm, with its beam size or budget
+	 * @return name of the algorithm
+	 */
+	public String getName() {
+		switch(algo) {
+		case A_STAR:
+			return "A*";
+		case A_STAR_BEAM:
+			return "A*-beam (s="+beamSize+")";
+		case BipartiteHungarian:
+			return "Bipartite Hungarian";
+		case BipartiteVolgenantJonker:
+			return "Bipartite VolgenantJonker";
+		case DEPTH_FIRST_BRANCH_AND_BOUND:
+			return maxExpansions==Long.MAX_VALUE?"Branch and bound":"Branch and bound ("+maxExpansions+" expansions)";
+		case ANYTIME:
+			return "Anytime ("+timeBudget+" ms)";
+		case GREEDY:
+			return "Greedy";
+		case HAUSDORFF:
+			return "Hausdorff";
+		default:
+			return "Auto ("+timeBudget+" ms, error "+maxError+")";
+		}
+	}
+	
 	/**
 	 * Gets the size of beam for A*-beam
 	 * @return size of beam for A*-beam
@@ -107,6 +301,69 @@ public class AlgorithmConfig {
 		this.beamSize = beamSize;
 	}
 	
+	/**
+	 * Gets the number of threads that generate the cost matrix of the bipartite and greedy algorithms
+	 * @return number of threads, 1 for sequential generation
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+	/**
+	 * Sets the number of threads that generate the cost matrix of the bipartite and greedy algorithms. 
+	 * The matrix is the same for every setting.
+	 * @param parallelism number of threads, 1 for sequential generation
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism<1) {
+			throw new IllegalArgumentException("parallelism must be at least 1: "+parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+	
+	/**
+	 * Gets the maximum number of paths that depth-first branch and bound expands
+	 * @return maximum number of expansions, {@link Long#MAX_VALUE} for an exact search
+	 */
+	public long getMaxExpansions() {
+		return maxExpansions;
+	}
+	/**
+	 * Sets the maximum number of paths that depth-first branch and bound expands. 
+	 * A search that runs out of expansions returns the best distance found so far.
+	 * @param maxExpansions maximum number of expansions, {@link Long#MAX_VALUE} for an exact search
+	 */
+	public void setMaxExpansions(long maxExpansions) {
+		if(maxExpansions<1) {
+			throw new IllegalArgumentException("maxExpansions must be at least 1: "+maxExpansions);
+		}
+		this.maxExpansions = maxExpansions;
+	}
 	
+	/**
+	 * Gets the time budget of the anytime search, or the latency budget of the automatic configuration
+	 * @return time budget in milliseconds
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+	/**
+	 * Sets the time budget of the anytime search. 
+	 * With a budget of 0 the search returns the Bipartite VolgenantJonker edit path at once.
+	 * @param timeBudget time budget in milliseconds
+	 */
+	public void setTimeBudget(long timeBudget) {
+		if(timeBudget<0) {
+			throw new IllegalArgumentException("timeBudget must not be negative: "+timeBudget);
+		}
+		this.timeBudget = timeBudget;
+	}
+	
+	/**
+	 * Gets the largest acceptable mean relative error of the automatic configuration
+	 * @return relative error, 0 for exact algorithms only
+	 */
+	public double getMaxError() {
+		return maxError;
+	}
 	
 }
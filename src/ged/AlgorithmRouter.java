@@ -0,0 +1,221 @@
+package ged;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Chooses the algorithm for a pair of graphs from a routing table: for classes of graph pairs, the measured time and
+ * relative error of each algorithm.
+ * <p>
+ * A pair falls into the class of its size, the number of nodes plus edges of the larger graph, and of its label diversity,
+ * the share of distinct node labels among the nodes of both graphs. The cheapest algorithm of the class that meets both the
+ * latency budget and the error target is chosen; an error target of 0 admits the exact algorithms only, whatever error the
+ * approximations showed on the calibration pairs. If there is none, or the pair is larger than the table, the anytime
+ * search runs with the latency budget.
+ * <p>
+ * The bundled table is written by benchmark.RoutingCalibration into a class, so that it is found wherever the compiled classes are.
+ * Its entries have the form <code>&lt;size limit&gt;.&lt;low|high&gt;.&lt;algorithm&gt;=&lt;microseconds&gt; &lt;relative error&gt;</code>,
+ * and <code>&lt;size limit&gt;.&lt;low|high&gt;.pairs=&lt;pairs&gt;</code> counts the calibration pairs of a class: a class of fewer
+ * than {@link #MIN_PAIRS} pairs is of low confidence and routed as if it had not been measured. The times depend on the machine
+ * of the calibration, see the header of the table; a table calibrated on the machine that computes the distances can be set
+ * with {@link semanticweb.RDFGraphMatching#setAlgorithmRouter(AlgorithmRouter)}.
+ */
+public class AlgorithmRouter {
+
+	/**
+	 * least number of calibration pairs of a class that is used
+	 */
+	final public static int MIN_PAIRS = 10;
+
+	/**
+	 * names of the algorithms in the routing table
+	 */
+	final public static String[] ALGORITHMS = {"astar", "branchAndBound", "beam10", "beam100", "hungarian", "vj"};
+
+	private static AlgorithmRouter bundled;
+
+	private int[] sizeLimits;
+	private double diversityThreshold;
+	/**
+	 * time in microseconds and relative error by class and algorithm
+	 */
+	private Map<String, double[]> entries;
+	/**
+	 * calibration pairs by class, if the table counts them
+	 */
+	private Map<String, Integer> pairs;
+
+	/**
+	 * Creates a router from a routing table
+	 * @param table size.limits, diversity.threshold and the measurements of the algorithms
+	 */
+	public AlgorithmRouter(Properties table) {
+		String[] limits = table.getProperty("size.limits", "").trim().split(",");
+		sizeLimits = new int[limits[0].length()==0?0:limits.length];
+		for(int k=0;k<limits.length;k++) {
+			sizeLimits[k] = Integer.parseInt(limits[k].trim());
+		}
+		diversityThreshold = Double.parseDouble(table.getProperty("diversity.threshold", "0.5"));
+		entries = new HashMap<String, double[]>();
+		pairs = new HashMap<String, Integer>();
+		for(String key:table.stringPropertyNames()) {
+			if(key.startsWith("size.") || key.startsWith("diversity.")) {
+				continue;
+			}
+			if(key.endsWith(".pairs")) {
+				pairs.put(key.substring(0, key.length()-".pairs".length()), Integer.valueOf(table.getProperty(key).trim()));
+				continue;
+			}
+			String[] values = table.getProperty(key).trim().split("\\s+");
+			entries.put(key, new double[] {Double.parseDouble(values[0]), Double.parseDouble(values[1])});
+		}
+	}
+
+	/**
+	 * Returns the router of the bundled routing table
+	 * @return the router
+	 */
+	public static synchronized AlgorithmRouter getBundled() {
+		if(bundled==null) {
+			StringBuilder text = new StringBuilder();
+			for(String line:BundledRoutingTable.LINES) {
+				text.append(line).append('\n');
+			}
+			Properties table = new Properties();
+			try {
+				table.load(new StringReader(text.toString()));
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot read the bundled routing table", e);
+			}
+			bundled = new AlgorithmRouter(table);
+		}
+		return bundled;
+	}
+
+	/**
+	 * Size of a pair of graphs: number of nodes plus edges of the larger graph
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @return size
+	 */
+	public static int sizeOf(CompactGraph g1, CompactGraph g2) {
+		return Math.max(g1.size()+g1.edgeCount(), g2.size()+g2.edgeCount());
+	}
+
+	/**
+	 * Label diversity of a pair of graphs: distinct node labels divided by the number of nodes of both graphs
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @return diversity between 0 and 1, 0 for empty graphs
+	 */
+	public static double diversityOf(CompactGraph g1, CompactGraph g2) {
+		int n = g1.size()+g2.size();
+		if(n==0) {
+			return 0.0;
+		}
+		HashMap<Integer, Boolean> labels = new HashMap<Integer, Boolean>();
+		for(int i=0;i<g1.size();i++) {
+			labels.put(g1.nodeLabel(i), Boolean.TRUE);
+		}
+		for(int j=0;j<g2.size();j++) {
+			labels.put(g2.nodeLabel(j), Boolean.TRUE);
+		}
+		return (double)labels.size()/n;
+	}
+
+	/**
+	 * Class of the routing table for a size and a label diversity
+	 * @param size size of the pair
+	 * @param diversity label diversity of the pair
+	 * @return the class, e.g. "20.low", or null if the pair is larger than the table
+	 */
+	public String classOf(int size, double diversity) {
+		for(int limit:sizeLimits) {
+			if(size<=limit) {
+				return limit+(diversity<diversityThreshold?".low":".high");
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Chooses the algorithm for a pair of graphs
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param latencyBudget latency budget in milliseconds
+	 * @param maxError largest acceptable mean relative error, 0 for exact algorithms only
+	 * @return configuration of the chosen algorithm
+	 */
+	public AlgorithmConfig route(CompactGraph g1, CompactGraph g2, long latencyBudget, double maxError) {
+		String pairClass = classOf(sizeOf(g1, g2), diversityOf(g1, g2));
+		String chosen = null;
+		double fastest = 0.0;
+		if(pairClass!=null) {
+			for(String algorithm:ALGORITHMS) {
+				double[] entry = entry(pairClass, algorithm);
+				if(entry!=null && entry[0]<=1000.0*latencyBudget && (maxError>0?entry[1]<=maxError:isExact(algorithm)) 
+						&& (chosen==null || entry[0]<fastest)) {
+					chosen = algorithm;
+					fastest = entry[0];
+				}
+			}
+		}
+		return chosen==null?AlgorithmConfig.createAnytime(latencyBudget):config(chosen);
+	}
+
+	/**
+	 * Measurement of an algorithm in a class, or in the other diversity class of the same size if the class was not measured
+	 * or is of low confidence
+	 */
+	private double[] entry(String pairClass, String algorithm) {
+		double[] entry = isConfident(pairClass)?entries.get(pairClass+"."+algorithm):null;
+		if(entry==null) {
+			String other = pairClass.endsWith(".low")?pairClass.replace(".low", ".high"):pairClass.replace(".high", ".low");
+			entry = isConfident(other)?entries.get(other+"."+algorithm):null;
+		}
+		return entry;
+	}
+
+	/**
+	 * Whether a class was calibrated on at least {@link #MIN_PAIRS} pairs, or the table does not count them
+	 * @param pairClass the class, e.g. "20.low"
+	 * @return true or false
+	 */
+	public boolean isConfident(String pairClass) {
+		Integer count = pairs.get(pairClass);
+		return count==null || count>=MIN_PAIRS;
+	}
+
+	/**
+	 * Whether an algorithm of the routing table computes the exact distance
+	 * @param algorithm name in the routing table
+	 * @return true or false
+	 */
+	public static boolean isExact(String algorithm) {
+		return algorithm.equals("astar") || algorithm.equals("branchAndBound");
+	}
+
+	/**
+	 * Configuration of an algorithm of the routing table
+	 * @param algorithm name in the routing table
+	 * @return the configuration
+	 */
+	public static AlgorithmConfig config(String algorithm) {
+		if(algorithm.equals("astar"))
+			return AlgorithmConfig.createAStar();
+		if(algorithm.equals("branchAndBound"))
+			return AlgorithmConfig.createDepthFirstBranchAndBound();
+		if(algorithm.equals("beam10"))
+			return AlgorithmConfig.createAStarBeam(10);
+		if(algorithm.equals("beam100"))
+			return AlgorithmConfig.createAStarBeam(100);
+		if(algorithm.equals("hungarian"))
+			return AlgorithmConfig.createBipartiteHungarian();
+		if(algorithm.equals("vj"))
+			return AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+		throw new IllegalArgumentException("Unknown algorithm: "+algorithm);
+	}
+}
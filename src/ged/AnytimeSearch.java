@@ -0,0 +1,65 @@
+package ged;
+
+/**
+ * Edit distance of two {@link CompactGraph}s within a time budget, as tight as the budget allows.
+ * <p>
+ * The first answer is the edit path of a node matching, usually a bipartite one, with the {@link RemainderBound} of the empty path
+ * as lower bound. The first half of the time goes to A*-beam passes whose beam grows fourfold each time, as long as the next pass
+ * is expected to end within it; a pass that never trims its beam is exact. The rest of the time goes to a
+ * {@link BranchAndBoundSearch} that starts from the best edit path found, which either proves it optimal or improves it
+ * and raises the lower bound.
+ */
+public class AnytimeSearch {
+
+	private LabelCostModel costs;
+	private BeamSearch beamSearch;
+	private BranchAndBoundSearch branchAndBoundSearch;
+
+	public AnytimeSearch(LabelCostModel costs) {
+		this.costs = costs;
+		this.beamSearch = new BeamSearch(costs);
+		this.branchAndBoundSearch = new BranchAndBoundSearch(costs);
+	}
+
+	/**
+	 * Computes the best distance and lower bound found until a deadline
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param sourceTargets a node matching whose edit path is the first answer, target of each source node or a negative value for a deletion
+	 * @param deadline value of {@link System#nanoTime()} at which the search returns
+	 * @return distance, lower bound and whether the distance is exact
+	 */
+	public DistanceResult getEditDistance(CompactGraph g1, CompactGraph g2, int[] sourceTargets, long deadline) {
+		long start = System.nanoTime();
+		EditPathTree tree = new EditPathTree(g1, g2, costs, g1.size()+2);
+		double upper = tree.pathCost(sourceTargets);
+		int root = tree.root();
+		tree.load(root);
+		double lower = new RemainderBound(tree, g1, g2, costs).compute(root);
+		long expansions = 0;
+
+		long half = start + (deadline-start)/2;
+		long last = 0;
+		for(int s=1;upper>lower && s<=Integer.MAX_VALUE/4;s*=4) {
+			long now = System.nanoTime();
+			if(now + 4*last - half>0) {
+				break;
+			}
+			DistanceResult pass = beamSearch.search(g1, g2, s, deadline);
+			last = System.nanoTime()-now;
+			if(pass==null) {
+				break;
+			}
+			expansions += pass.getExpansions();
+			upper = Math.min(upper, pass.getDistance());
+			if(pass.isOptimal()) {
+				return new DistanceResult(upper, upper, expansions);
+			}
+		}
+		if(upper<=lower || Deadline.isExpired(deadline)) {
+			return new DistanceResult(upper, lower, expansions);
+		}
+		DistanceResult result = branchAndBoundSearch.search(g1, g2, null, upper, Long.MAX_VALUE, deadline);
+		return new DistanceResult(result.getDistance(), Math.max(lower, result.getLowerBound()), expansions+result.getExpansions());
+	}
+}
@@ -0,0 +1,15 @@
+package ged;
+
+/**
+ * Solves the linear sum assignment problem on a square {@link CostMatrix}
+ */
+public interface AssignmentSolver {
+	
+	/**
+	 * Computes an assignment of minimum cost
+	 * @param matrix the cost matrix, it is not modified
+	 * @param workspace buffers of the computation
+	 * @return column assigned to each row, the {@link AssignmentWorkspace#getRowSolution()} buffer of the workspace
+	 */
+	public int[] solve(CostMatrix matrix, AssignmentWorkspace workspace);
+}
@@ -0,0 +1,179 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffers for the cost matrix and for the assignment solvers, 
+ * so that repeated graph comparisons do not allocate. The buffers grow to the largest size seen 
+ * and are kept as long as the workspace is alive. Not thread safe, use {@link #forCurrentThread(long)} to get 
+ * the workspace of the current thread.
+ */
+public class AssignmentWorkspace {
+	
+	/**
+	 * Workspaces whose matrices would exceed this number of cells are not kept by {@link #forCurrentThread(long)}, 
+	 * so that a single comparison of two large graphs does not pin memory in every worker thread.
+	 */
+	public static int MAX_RETAINED_CELLS = 1 << 22;
+	
+	private static ThreadLocal<AssignmentWorkspace> workspaces = new ThreadLocal<AssignmentWorkspace>() {
+		@Override
+		protected AssignmentWorkspace initialValue() {
+			return new AssignmentWorkspace();
+		}
+	};
+	
+	private int capacity;
+	
+	/**
+	 * cost matrix in row-major order, cell (i,j) is matrix[i*n+j]
+	 */
+	double[] matrix = new double[0];
+	/**
+	 * copy of the cost matrix reduced by the Hungarian method
+	 */
+	double[] reduced = new double[0];
+	
+	private BipartiteCostMatrix bipartiteMatrix = new BipartiteCostMatrix();
+	
+	/**
+	 * column assigned to each row
+	 */
+	int[] rowSolution = new int[0];
+	/**
+	 * row assigned to each column
+	 */
+	int[] columnSolution = new int[0];
+	
+	int[] primes = new int[0];
+	boolean[] rowCover = new boolean[0];
+	boolean[] columnCover = new boolean[0];
+	int[] pathRows = new int[0];
+	int[] pathColumns = new int[0];
+	
+	int[] free = new int[0];
+	int[] columnList = new int[0];
+	int[] matches = new int[0];
+	int[] predecessors = new int[0];
+	double[] distances = new double[0];
+	double[] rowPotential = new double[0];
+	double[] columnPotential = new double[0];
+	
+	/**
+	 * Returns the workspace of the current thread
+	 * @param cells number of matrix cells the caller is going to store, see {@link #MAX_RETAINED_CELLS}
+	 * @return a workspace
+	 */
+	public static AssignmentWorkspace forCurrentThread(long cells) {
+		if(cells>MAX_RETAINED_CELLS) {
+			return new AssignmentWorkspace();
+		}
+		return workspaces.get();
+	}
+	
+	/**
+	 * Grows the row and column buffers to hold an assignment of dimension n
+	 * @param n dimension of the cost matrix
+	 */
+	public void ensureCapacity(int n) {
+		if(n<=capacity) {
+			return;
+		}
+		//grow geometrically, comparisons of slightly larger graphs should not reallocate
+		int c = Math.max(n, capacity+(capacity>>1));
+		rowSolution = new int[c];
+		columnSolution = new int[c];
+		primes = new int[c];
+		rowCover = new boolean[c];
+		columnCover = new boolean[c];
+		pathRows = new int[2*c+1];
+		pathColumns = new int[2*c+1];
+		free = new int[c];
+		columnList = new int[c];
+		matches = new int[c];
+		predecessors = new int[c];
+		distances = new double[c];
+		rowPotential = new double[c];
+		columnPotential = new double[c];
+		capacity = c;
+	}
+	
+	/**
+	 * Returns the buffer for a dense cost matrix of dimension n, in row-major order. Its content is undefined
+	 * @param n dimension of the cost matrix
+	 * @return the buffer, with at least n*n cells
+	 * @throws IllegalArgumentException if n*n does not fit in an array
+	 */
+	public double[] getMatrix(int n) {
+		int cells = cells(n, n);
+		ensureCapacity(n);
+		if(matrix.length<cells) {
+			matrix = new double[cells];
+		}
+		return matrix;
+	}
+	
+	/**
+	 * Returns the buffer for the reduced copy of a dense cost matrix of dimension n
+	 * @param n dimension of the cost matrix
+	 * @return the buffer, with at least n*n cells
+	 */
+	double[] getReduced(int n) {
+		int cells = cells(n, n);
+		if(reduced.length<cells) {
+			reduced = new double[cells];
+		}
+		return reduced;
+	}
+	
+	/**
+	 * Number of cells of a matrix, computed without overflow
+	 * @param rows number of rows
+	 * @param columns number of columns
+	 * @return rows*columns
+	 * @throws IllegalArgumentException if rows*columns does not fit in an array
+	 */
+	static int cells(int rows, int columns) {
+		long cells = (long)rows*columns;
+		if(cells>Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cost matrix of "+rows+"x"+columns+" cells is too large");
+		}
+		return (int)cells;
+	}
+	
+	/**
+	 * Returns the bipartite cost matrix of this workspace, resized for graphs of n and m nodes. Its costs are undefined
+	 * @param n number of source nodes
+	 * @param m number of target nodes
+	 * @return the matrix
+	 */
+	public BipartiteCostMatrix getBipartiteMatrix(int n, int m) {
+		ensureCapacity(n+m);
+		bipartiteMatrix.reset(n, m);
+		return bipartiteMatrix;
+	}
+	
+	/**
+	 * Returns the solution of the last assignment computed in this workspace
+	 * @return column assigned to each row, valid up to the dimension of the last cost matrix
+	 */
+	public int[] getRowSolution() {
+		return rowSolution;
+	}
+	
+	/**
+	 * Returns the inverse of the solution of the last assignment computed in this workspace
+	 * @return row assigned to each column, valid up to the dimension of the last cost matrix
+	 */
+	public int[] getColumnSolution() {
+		return columnSolution;
+	}
+	
+	static void fill(int[] a, int n, int value) {
+		Arrays.fill(a, 0, n, value);
+	}
+	
+	static void fill(boolean[] a, int n, boolean value) {
+		Arrays.fill(a, 0, n, value);
+	}
+}
@@ -0,0 +1,211 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * Double-ended priority queue of search nodes on primitive arrays (a min-max heap).
+ * Entries are ordered by cost and then by the order in which they were offered,
+ * which is the order of the TreeSet of the GMT library whose comparator never reports equality.
+ * Both the first and the last entry can be removed in logarithmic time, so the queue can be trimmed to the size of a beam.
+ */
+class BeamQueue {
+
+	private double[] costs;
+	private long[] sequence;
+	private int[] nodes;
+	private int size;
+	private long offered;
+
+	BeamQueue(int capacity) {
+		capacity = Math.max(capacity, 2);
+		costs = new double[capacity];
+		sequence = new long[capacity];
+		nodes = new int[capacity];
+	}
+
+	void clear() {
+		size = 0;
+		offered = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size==0;
+	}
+
+	/**
+	 * Whether an entry offered now would be the last one
+	 * @param cost cost of the entry
+	 * @return true if no entry is larger
+	 */
+	boolean wouldBeLast(double cost) {
+		//ties are broken by the order of offering, the new entry comes after all others
+		return size>0 && cost>=costs[lastIndex()];
+	}
+
+	/**
+	 * Adds an entry
+	 * @param node search node
+	 * @param cost cost of the node
+	 */
+	void add(int node, double cost) {
+		add(node, cost, offered++);
+	}
+
+	/**
+	 * Adds an entry that is ordered by a given key among entries of equal cost, instead of the order of offering.
+	 * {@link #wouldBeLast(double)} does not apply to queues with such entries.
+	 * @param node search node
+	 * @param cost cost of the node
+	 * @param order tie-breaking key, smaller first
+	 */
+	void add(int node, double cost, long order) {
+		if(size==nodes.length) {
+			int capacity = size*2;
+			costs = Arrays.copyOf(costs, capacity);
+			sequence = Arrays.copyOf(sequence, capacity);
+			nodes = Arrays.copyOf(nodes, capacity);
+		}
+		costs[size] = cost;
+		sequence[size] = order;
+		nodes[size] = node;
+		bubbleUp(size++);
+	}
+
+	/**
+	 * Cost of the entry that {@link #pollFirst()} returns
+	 * @return the smallest cost
+	 */
+	double firstCost() {
+		return costs[0];
+	}
+
+	/**
+	 * Removes the entry with the smallest cost, the earliest one among equal costs
+	 * @return the search node
+	 */
+	int pollFirst() {
+		int node = nodes[0];
+		remove(0);
+		return node;
+	}
+
+	/**
+	 * Removes the entry with the largest cost, the latest one among equal costs
+	 * @return the search node
+	 */
+	int pollLast() {
+		int i = lastIndex();
+		int node = nodes[i];
+		remove(i);
+		return node;
+	}
+
+	private int lastIndex() {
+		if(size<=2) {
+			return size-1;
+		}
+		return less(1, 2)?2:1;
+	}
+
+	private void remove(int i) {
+		size--;
+		if(i<size) {
+			move(size, i);
+			trickleDown(i);
+		}
+	}
+
+	private boolean less(int a, int b) {
+		return costs[a]<costs[b] || (costs[a]==costs[b] && sequence[a]<sequence[b]);
+	}
+
+	private static boolean isMinLevel(int i) {
+		//level of i is floor(log2(i+1)), even levels hold minima
+		return (31-Integer.numberOfLeadingZeros(i+1))%2==0;
+	}
+
+	private void bubbleUp(int i) {
+		if(i==0) {
+			return;
+		}
+		int parent = (i-1)/2;
+		if(isMinLevel(i)) {
+			if(less(parent, i)) {
+				swap(i, parent);
+				bubbleUp(parent, false);
+			} else {
+				bubbleUp(i, true);
+			}
+		} else {
+			if(less(i, parent)) {
+				swap(i, parent);
+				bubbleUp(parent, true);
+			} else {
+				bubbleUp(i, false);
+			}
+		}
+	}
+
+	private void bubbleUp(int i, boolean min) {
+		while(i>2) {
+			int grandparent = ((i-1)/2-1)/2;
+			if(min?less(i, grandparent):less(grandparent, i)) {
+				swap(i, grandparent);
+				i = grandparent;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void trickleDown(int i) {
+		boolean min = isMinLevel(i);
+		while(2*i+1<size) {
+			//the extreme among children and grandchildren
+			int m = 2*i+1;
+			int last = Math.min(4*i+6, size-1);
+			if(m+1<size && (min?less(m+1, m):less(m, m+1))) {
+				m++;
+			}
+			for(int c=4*i+3;c<=last;c++) {
+				if(min?less(c, m):less(m, c)) {
+					m = c;
+				}
+			}
+			if(!(min?less(m, i):less(i, m))) {
+				return;
+			}
+			swap(m, i);
+			if(m<=2*i+2) {
+				return;
+			}
+			int parent = (m-1)/2;
+			if(min?less(parent, m):less(m, parent)) {
+				swap(m, parent);
+			}
+			i = m;
+		}
+	}
+
+	private void move(int from, int to) {
+		costs[to] = costs[from];
+		sequence[to] = sequence[from];
+		nodes[to] = nodes[from];
+	}
+
+	private void swap(int a, int b) {
+		double c = costs[a];
+		costs[a] = costs[b];
+		costs[b] = c;
+		long s = sequence[a];
+		sequence[a] = sequence[b];
+		sequence[b] = s;
+		int n = nodes[a];
+		nodes[a] = nodes[b];
+		nodes[b] = n;
+	}
+}
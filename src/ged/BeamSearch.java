@@ -0,0 +1,102 @@
+package ged;
+
+import util.CostFunction;
+import util.Graph;
+
+/**
+ * A*-beam search for the edit distance of two {@link CompactGraph}s, with the same result as
+ * {@link util.EditDistance#getEditDistance(Graph, Graph, CostFunction, int)} on the corresponding graphs.
+ * <p>
+ * The search runs on the {@link EditPathTree} of the GMT library. The open paths are in a {@link BeamQueue} trimmed to the beam size, 
+ * and a path is recycled once no open path extends it, so memory is bounded by the beam size times the number of source nodes.
+ */
+public class BeamSearch {
+
+	private LabelCostModel costs;
+
+	public BeamSearch(LabelCostModel costs) {
+		this.costs = costs;
+	}
+
+	/**
+	 * Computes the edit distance with a beam of a given size
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param s size of the beam, {@link Integer#MAX_VALUE} for a search without a beam
+	 * @return the cost of the first complete edit path taken from the queue, or -1 if the beam is empty
+	 */
+	public double getEditDistance(CompactGraph g1, CompactGraph g2, int s) {
+		DistanceResult result = search(g1, g2, s, Deadline.NONE);
+		return result==null?-1:result.getDistance();
+	}
+
+	/**
+	 * Computes the edit distance with a beam of a given size, until a deadline
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param s size of the beam
+	 * @param deadline value of {@link System#nanoTime()} at which the search gives up, or {@link Deadline#NONE}
+	 * @return the cost of the first complete edit path taken from the queue, which is exact if the beam never trimmed a path; 
+	 * null if the beam is empty or the deadline passed
+	 */
+	DistanceResult search(CompactGraph g1, CompactGraph g2, int s, long deadline) {
+		int capacity = (int)Math.max(1L, Math.min(1024L, (long)s+1));
+		EditPathTree tree = new EditPathTree(g1, g2, costs, capacity);
+		BeamQueue open = new BeamQueue(capacity);
+		int n1 = g1.size();
+		open.add(tree.root(), 0.0);
+		boolean trimmed = false;
+		long expansions = 0;
+		while(!open.isEmpty()) {
+			int u = open.pollFirst();
+			if(tree.isComplete(u)) {
+				return new DistanceResult(tree.cost(u), trimmed?0.0:tree.cost(u), expansions);
+			}
+			if((++expansions & 0xf)==0 && Deadline.isExpired(deadline)) {
+				return null;
+			}
+			//the path stays alive while its successors are offered
+			tree.retain(u);
+			tree.load(u);
+			int d = tree.depth(u);
+			double c = tree.cost(u);
+			if(tree.unusedCount(u)==0) {
+				//delete the remaining source nodes
+				trimmed |= offer(tree, open, s, -1, EditPathTree.DELETED, c + tree.batchDeletionCost(d));
+			} else if(d==n1) {
+				//insert the remaining target nodes
+				trimmed |= offer(tree, open, s, -1, EditPathTree.DELETED, c + tree.batchInsertionCost(u));
+			} else {
+				for(int w=0;w<tree.words();w++) {
+					long bits = tree.unused(u, w);
+					while(bits!=0) {
+						int j = (w<<6)+Long.numberOfTrailingZeros(bits);
+						bits &= bits-1;
+						trimmed |= offer(tree, open, s, u, j, c + tree.substitutionCost(d, j));
+					}
+				}
+				trimmed |= offer(tree, open, s, u, EditPathTree.DELETED, c + tree.deletionCost(d));
+			}
+			tree.release(u);
+		}
+		return null;
+	}
+
+	/**
+	 * Offers an extension of path u to the beam, or a complete path for u &lt; 0. 
+	 * It is only created if it would survive the trimming of the beam.
+	 * @return whether a path was trimmed
+	 */
+	private static boolean offer(EditPathTree tree, BeamQueue open, int s, int u, int j, double c) {
+		if(open.size()>=s && open.wouldBeLast(c)) {
+			return true;
+		}
+		open.add(u<0?tree.finish(c):tree.extend(u, j, c), c);
+		boolean trimmed = false;
+		while(open.size()>s) {
+			tree.release(open.pollLast());
+			trimmed = true;
+		}
+		return trimmed;
+	}
+}
@@ -0,0 +1,165 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * The cost matrix of bipartite graph edit distance without its constant parts. For graphs of n and m nodes the 
+ * (n+m) x (n+m) matrix consists of the n x m node substitution costs, the deletion costs on the diagonal of the 
+ * upper right block, the insertion costs on the diagonal of the lower left block, infinity elsewhere in these two blocks, 
+ * and a lower right block of zeros. Only the n*m+n+m variable costs are stored.
+ */
+public class BipartiteCostMatrix implements CostMatrix {
+	
+	private int n;
+	private int m;
+	
+	/**
+	 * substitution costs in row-major order, cell (i,j) is substitution[i*m+j]
+	 */
+	private double[] substitution = new double[0];
+	private double[] deletion = new double[0];
+	private double[] insertion = new double[0];
+	
+	/**
+	 * Resizes the matrix for graphs of n and m nodes, growing the buffers if needed. The costs are undefined afterwards
+	 * @param n number of source nodes
+	 * @param m number of target nodes
+	 * @throws IllegalArgumentException if n*m does not fit in an array
+	 */
+	public void reset(int n, int m) {
+		int cells = AssignmentWorkspace.cells(n, m);
+		this.n = n;
+		this.m = m;
+		if(substitution.length<cells) {
+			substitution = new double[cells];
+		}
+		if(deletion.length<n) {
+			deletion = new double[n];
+		}
+		if(insertion.length<m) {
+			insertion = new double[m];
+		}
+	}
+	
+	/**
+	 * Number of source nodes
+	 * @return n
+	 */
+	public int getSourceSize() {
+		return n;
+	}
+	
+	/**
+	 * Number of target nodes
+	 * @return m
+	 */
+	public int getTargetSize() {
+		return m;
+	}
+	
+	@Override
+	public int dimension() {
+		return n+m;
+	}
+	
+	public double getSubstitution(int i, int j) {
+		return substitution[i*m+j];
+	}
+	
+	public void setSubstitution(int i, int j, double cost) {
+		substitution[i*m+j] = cost;
+	}
+	
+	public double getDeletion(int i) {
+		return deletion[i];
+	}
+	
+	public void setDeletion(int i, double cost) {
+		deletion[i] = cost;
+	}
+	
+	public double getInsertion(int j) {
+		return insertion[j];
+	}
+	
+	public void setInsertion(int j, double cost) {
+		insertion[j] = cost;
+	}
+	
+	@Override
+	public double get(int i, int j) {
+		if(i<n) {
+			if(j<m) {
+				return substitution[i*m+j];
+			}
+			return j-m==i?deletion[i]:Double.POSITIVE_INFINITY;
+		}
+		if(j<m) {
+			return i-n==j?insertion[j]:Double.POSITIVE_INFINITY;
+		}
+		return 0.0;
+	}
+	
+	/**
+	 * Visits the substitution costs and the deletion cost of a source node, or the insertion cost and the zeros of an insertion row
+	 */
+	@Override
+	public int firstColumn(int i) {
+		if(i<n) {
+			return m>0?0:i;
+		}
+		return i-n;
+	}
+	
+	@Override
+	public int nextColumn(int i, int j) {
+		if(i<n) {
+			if(j<m-1) return j+1;
+			return j<m?m+i:-1;
+		}
+		if(j<m) return m<n+m?m:-1;
+		return j+1<n+m?j+1:-1;
+	}
+	
+	/**
+	 * Visits the substitution costs and the insertion cost of a target node, or the deletion cost and the zeros of a deletion column
+	 */
+	@Override
+	public int firstRow(int j) {
+		if(j<m) {
+			return n>0?0:j;
+		}
+		return j-m;
+	}
+	
+	@Override
+	public int nextRow(int j, int i) {
+		if(j<m) {
+			if(i<n-1) return i+1;
+			return i<n?n+j:-1;
+		}
+		if(i<n) return n<n+m?n:-1;
+		return i+1<n+m?i+1:-1;
+	}
+	
+	/**
+	 * Materializes the full matrix, as generated by {@link util.MatrixGenerator}
+	 * @return (n+m) x (n+m) matrix
+	 */
+	public double[][] toArray() {
+		int dim = n+m;
+		double[][] matrix = new double[dim][];
+		for(int i=0;i<dim;i++) {
+			matrix[i] = new double[dim];
+			if(i<n) {
+				System.arraycopy(substitution, i*m, matrix[i], 0, m);
+				Arrays.fill(matrix[i], m, dim, Double.POSITIVE_INFINITY);
+				matrix[i][m+i] = deletion[i];
+			} else {
+				Arrays.fill(matrix[i], 0, m, Double.POSITIVE_INFINITY);
+				matrix[i][i-n] = insertion[i-n];
+			}
+		}
+		return matrix;
+	}
+}
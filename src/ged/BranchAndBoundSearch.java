@@ -0,0 +1,163 @@
+package ged;
+
+/**
+ * Exact edit distance of two {@link CompactGraph}s by depth-first branch and bound, the same distance as {@link AStarSearch}.
+ * <p>
+ * The search walks the {@link EditPathTree} depth first and keeps only the current branch: the paths on it and, for each of them,
+ * the children not tried yet in order of their {@link RemainderBound} estimate. Memory is therefore bounded by the number of
+ * source nodes times the number of target nodes, whatever the number of expanded paths.
+ * A child is skipped when its estimate reaches the cost of the best edit path found so far; that upper bound starts from the
+ * edit path of a node matching and improves with every expanded path completed by its optimal remainder assignment.
+ * <p>
+ * The search can stop after a number of expansions or at a deadline. The result is then the best edit path found,
+ * with the smallest estimate of the children left on the branch as a lower bound.
+ */
+public class BranchAndBoundSearch {
+
+	private LabelCostModel costs;
+
+	public BranchAndBoundSearch(LabelCostModel costs) {
+		this.costs = costs;
+	}
+
+	/**
+	 * Computes the exact edit distance, or bounds of it if the expansions run out
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param sourceTargets a node matching whose edit path gives the initial upper bound, target of each source node or a negative value for a deletion; null for none
+	 * @param maxExpansions maximum number of expanded paths, {@link Long#MAX_VALUE} for the exact distance
+	 * @return the best distance found, infinite if the search stopped without a complete path, and a lower bound
+	 */
+	public DistanceResult getEditDistance(CompactGraph g1, CompactGraph g2, int[] sourceTargets, long maxExpansions) {
+		return search(g1, g2, sourceTargets, Double.POSITIVE_INFINITY, maxExpansions, Deadline.NONE);
+	}
+
+	/**
+	 * Computes the exact edit distance if it is below a bound. The search skips every path whose estimate reaches the bound,
+	 * so it is short when the graphs are far apart.
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param sourceTargets a node matching whose edit path gives an upper bound, or null
+	 * @param bound the bound, or infinity for the exact distance
+	 * @return the exact distance if it is less than the bound, otherwise the bound, a lower bound of the distance
+	 */
+	public double getEditDistanceBelow(CompactGraph g1, CompactGraph g2, int[] sourceTargets, double bound) {
+		return search(g1, g2, sourceTargets, bound, Long.MAX_VALUE, Deadline.NONE).getDistance();
+	}
+
+	/**
+	 * Computes the exact edit distance, or bounds of it if the expansions or the time run out. 
+	 * The root path is always expanded.
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param sourceTargets a node matching whose edit path gives an upper bound, or null
+	 * @param upper cost of an edit path known beforehand, or infinity
+	 * @param maxExpansions maximum number of expanded paths
+	 * @param deadline value of {@link System#nanoTime()} at which the search stops, or {@link Deadline#NONE}
+	 * @return the best distance found, at most the given upper bound, and a lower bound
+	 */
+	DistanceResult search(CompactGraph g1, CompactGraph g2, int[] sourceTargets, double upper, long maxExpansions, long deadline) {
+		int n1 = g1.size();
+		int n2 = g2.size();
+		EditPathTree tree = new EditPathTree(g1, g2, costs, 2*n1+2);
+		RemainderBound bound = new RemainderBound(tree, g1, g2, costs);
+		if(sourceTargets!=null) {
+			upper = Math.min(upper, tree.pathCost(sourceTargets));
+		}
+		int[] completion = new int[n1];
+
+		//the current branch, and the children of each of its paths: target, cost and estimate, the next one to try
+		int[] branch = new int[n1+1];
+		int[][] targets = new int[n1+1][n2+1];
+		double[][] pathCosts = new double[n1+1][n2+1];
+		double[][] estimates = new double[n1+1][n2+1];
+		int[] count = new int[n1+1];
+		int[] next = new int[n1+1];
+
+		int root = tree.root();
+		if(tree.isComplete(root)) {
+			return new DistanceResult(0.0, 0.0, 0);
+		}
+		if(maxExpansions<=0) {
+			return new DistanceResult(upper, 0.0, 0);
+		}
+		tree.retain(root);
+		branch[0] = root;
+		int d = 0;
+		long expansions = 0;
+		while(true) {
+			//expand the last path of the branch
+			expansions++;
+			int u = branch[d];
+			tree.load(u);
+			double c = tree.cost(u);
+			int left = tree.unusedCount(u);
+			count[d] = 0;
+			next[d] = 0;
+			if(left==0) {
+				upper = Math.min(upper, c + tree.batchDeletionCost(d));
+			} else if(d==n1) {
+				upper = Math.min(upper, c + tree.batchInsertionCost(u));
+			} else if(c + bound.compute(u)<upper) {
+				for(int i=0;i<n1;i++) {
+					completion[i] = i<d?tree.matching(i):bound.assignment(i);
+				}
+				for(int w=0;w<tree.words();w++) {
+					long bits = tree.unused(u, w);
+					while(bits!=0) {
+						int j = (w<<6)+Long.numberOfTrailingZeros(bits);
+						bits &= bits-1;
+						double g = c + tree.substitutionCost(d, j);
+						if(d+1==n1 && left==1) {
+							upper = Math.min(upper, g);
+						} else {
+							addChild(targets[d], pathCosts[d], estimates[d], count[d]++, j, g, Math.max(g, c + bound.boundWith(j)));
+						}
+					}
+				}
+				double g = c + tree.deletionCost(d);
+				addChild(targets[d], pathCosts[d], estimates[d], count[d]++, EditPathTree.DELETED, g,
+						Math.max(g, c + bound.boundWith(EditPathTree.DELETED)));
+				//the optimal remainder assignment completes the path
+				upper = Math.min(upper, tree.pathCost(completion));
+			}
+
+			//back up to the deepest path with a child below the upper bound, the children are in order of their estimates
+			while(d>=0 && (next[d]==count[d] || estimates[d][next[d]]>=upper)) {
+				tree.release(branch[d]);
+				d--;
+			}
+			if(d<0) {
+				return new DistanceResult(upper, upper, expansions);
+			}
+			if(expansions>=maxExpansions || Deadline.isExpired(deadline)) {
+				double lower = upper;
+				for(int k=0;k<=d;k++) {
+					if(next[k]<count[k]) {
+						lower = Math.min(lower, estimates[k][next[k]]);
+					}
+				}
+				return new DistanceResult(upper, lower, expansions);
+			}
+			int k = next[d]++;
+			int v = tree.extend(branch[d], targets[d][k], pathCosts[d][k]);
+			tree.retain(v);
+			branch[++d] = v;
+		}
+	}
+
+	/**
+	 * Inserts a child into the children of a path, which are sorted by estimate, after the children with the same estimate
+	 */
+	private static void addChild(int[] targets, double[] pathCosts, double[] estimates, int k, int j, double g, double f) {
+		while(k>0 && estimates[k-1]>f) {
+			targets[k] = targets[k-1];
+			pathCosts[k] = pathCosts[k-1];
+			estimates[k] = estimates[k-1];
+			k--;
+		}
+		targets[k] = j;
+		pathCosts[k] = g;
+		estimates[k] = f;
+	}
+}
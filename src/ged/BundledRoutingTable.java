@@ -0,0 +1,109 @@
+package ged;
+
+/**
+ * The bundled routing table of {@link AlgorithmRouter}, written by benchmark.RoutingCalibration. Do not edit.
+ */
+final class BundledRoutingTable {
+
+	/**
+	 * lines of the table in the format of a properties file
+	 */
+	final static String[] LINES = {
+		"# Routing table of ged.AlgorithmRouter, written by benchmark.RoutingCalibration on Sat Oct 17 22:55:08 UTC 2026",
+		"# up to 40 random query pairs per class, exact algorithms up to size 40, java 17.0.9, 1 processors",
+		"# errors relative to A* up to the exact limit, to the best of A*-beam and a 200 ms anytime search beyond it",
+		"# <size limit>.<low|high>.<algorithm>=<90th percentile microseconds> <mean relative error>",
+		"# <size limit>.<low|high>.pairs=<pairs>, classes of fewer than 10 pairs are of low confidence and not used",
+		"size.limits=10,20,30,40,60,80,120",
+		"diversity.threshold=0.4",
+		"10.low.pairs=40",
+		"10.low.astar=152 0.0000",
+		"10.low.branchAndBound=73 0.0000",
+		"10.low.beam10=84 0.0217",
+		"10.low.beam100=87 0.0000",
+		"10.low.hungarian=8 0.0296",
+		"10.low.vj=4 0.0733",
+		"10.high.pairs=40",
+		"10.high.astar=21 0.0000",
+		"10.high.branchAndBound=12 0.0000",
+		"10.high.beam10=11 0.0267",
+		"10.high.beam100=81 0.0050",
+		"10.high.hungarian=2 0.0000",
+		"10.high.vj=3 0.0250",
+		"20.low.pairs=40",
+		"20.low.astar=648 0.0000",
+		"20.low.branchAndBound=425 0.0000",
+		"20.low.beam10=46 0.2305",
+		"20.low.beam100=855 0.1419",
+		"20.low.hungarian=51 0.2496",
+		"20.low.vj=20 0.2359",
+		"20.high.pairs=40",
+		"20.high.astar=153 0.0000",
+		"20.high.branchAndBound=133 0.0000",
+		"20.high.beam10=33 0.2378",
+		"20.high.beam100=336 0.1149",
+		"20.high.hungarian=6 0.0779",
+		"20.high.vj=9 0.0938",
+		"30.low.pairs=40",
+		"30.low.astar=15005 0.0000",
+		"30.low.branchAndBound=42249 0.0000",
+		"30.low.beam10=131 0.3723",
+		"30.low.beam100=1280 0.2727",
+		"30.low.hungarian=14 0.3963",
+		"30.low.vj=90 0.3668",
+		"30.high.pairs=40",
+		"30.high.astar=487 0.0000",
+		"30.high.branchAndBound=419 0.0000",
+		"30.high.beam10=58 0.2885",
+		"30.high.beam100=700 0.2055",
+		"30.high.hungarian=20 0.1713",
+		"30.high.vj=15 0.1965",
+		"40.low.pairs=40",
+		"40.low.astar=5521513 0.0000",
+		"40.low.branchAndBound=8541201 0.0000",
+		"40.low.beam10=240 0.4490",
+		"40.low.beam100=2357 0.3646",
+		"40.low.hungarian=45 0.5060",
+		"40.low.vj=31 0.4900",
+		"40.high.pairs=40",
+		"40.high.astar=960 0.0000",
+		"40.high.branchAndBound=913 0.0000",
+		"40.high.beam10=89 0.3593",
+		"40.high.beam100=1036 0.2151",
+		"40.high.hungarian=14 0.2636",
+		"40.high.vj=11 0.2654",
+		"60.low.pairs=40",
+		"60.low.beam10=467 0.3516",
+		"60.low.beam100=4402 0.3187",
+		"60.low.hungarian=143 0.4196",
+		"60.low.vj=51 0.4263",
+		"60.high.pairs=40",
+		"60.high.beam10=115 0.2949",
+		"60.high.beam100=1000 0.1599",
+		"60.high.hungarian=11 0.2405",
+		"60.high.vj=7 0.2492",
+		"80.low.pairs=40",
+		"80.low.beam10=612 0.3587",
+		"80.low.beam100=5333 0.3159",
+		"80.low.hungarian=165 0.4395",
+		"80.low.vj=66 0.4377",
+		"80.high.pairs=40",
+		"80.high.beam10=109 0.2591",
+		"80.high.beam100=1067 0.2022",
+		"80.high.hungarian=40 0.2867",
+		"80.high.vj=10 0.2836",
+		"120.low.pairs=40",
+		"120.low.beam10=1006 0.3099",
+		"120.low.beam100=11442 0.2849",
+		"120.low.hungarian=2394 0.4222",
+		"120.low.vj=224 0.4186",
+		"120.high.pairs=1",
+		"120.high.beam10=128 0.0741",
+		"120.high.beam100=1435 0.1111",
+		"120.high.hungarian=25 0.2963",
+		"120.high.vj=13 0.3333",
+	};
+
+	private BundledRoutingTable() {
+	}
+}
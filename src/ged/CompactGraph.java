@@ -0,0 +1,492 @@
+package ged;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import semanticweb.RDF2GXL;
+import util.Edge;
+import util.Graph;
+import util.Node;
+
+/**
+ * Immutable graph with int labels from a {@link LabelDictionary} and primitive arrays for incidence and adjacency. 
+ * It holds the same information as the {@link Graph}s of this project: 
+ * the incident edges of every node in the order of {@link Node#getEdges()}, and the adjacency of the nodes 
+ * (symmetric for undirected graphs, a later edge between the same nodes replaces an earlier one). 
+ * Nodes and edges are identified by their position.
+ */
+public class CompactGraph {
+	
+	private String graphId;
+	private boolean directed;
+	private LabelDictionary dictionary;
+	
+	private String[] nodeIds;
+	private int[] nodeLabels;
+	
+	/**
+	 * end nodes of the edges, -1 for a missing end
+	 */
+	private int[] edgeFrom;
+	private int[] edgeTo;
+	private int[] edgeLabels;
+	
+	/**
+	 * incident edges of node i are incidentEdges[incidentStart[i]..incidentStart[i+1]-1]
+	 */
+	private int[] incidentStart;
+	private int[] incidentEdges;
+	
+	/**
+	 * non-empty adjacency cells of row i are at positions adjacencyStart[i]..adjacencyStart[i+1]-1, in increasing column order
+	 */
+	private int[] adjacencyStart;
+	private int[] adjacencyColumns;
+	private int[] adjacencyEdges;
+	
+	/**
+	 * sorted labels of the incident edges per node, computed on first use
+	 */
+	private volatile int[][] incidentLabels;
+	
+	/**
+	 * Weisfeiler-Lehman fingerprint, computed on first use
+	 */
+	private volatile GraphFingerprint fingerprint;
+	
+	private CompactGraph(String graphId, boolean directed, LabelDictionary dictionary, String[] nodeIds, int[] nodeLabels, 
+			int[] edgeFrom, int[] edgeTo, int[] edgeLabels, int[] incidentStart, int[] incidentEdges, 
+			int[] adjacencyStart, int[] adjacencyColumns, int[] adjacencyEdges) {
+		this.graphId = graphId;
+		this.directed = directed;
+		this.dictionary = dictionary;
+		this.nodeIds = nodeIds;
+		this.nodeLabels = nodeLabels;
+		this.edgeFrom = edgeFrom;
+		this.edgeTo = edgeTo;
+		this.edgeLabels = edgeLabels;
+		this.incidentStart = incidentStart;
+		this.incidentEdges = incidentEdges;
+		this.adjacencyStart = adjacencyStart;
+		this.adjacencyColumns = adjacencyColumns;
+		this.adjacencyEdges = adjacencyEdges;
+	}
+	
+	/**
+	 * Converts a {@link Graph} with symbol attributes on nodes and edges
+	 * @param g the graph
+	 * @param dictionary dictionary for the labels
+	 * @return the compact graph
+	 */
+	public static CompactGraph fromGraph(Graph g, LabelDictionary dictionary) {
+		int n = g.size();
+		Node[] nodes = g.toArray(new Node[n]);
+		IdentityHashMap<Node, Integer> nodeIndex = new IdentityHashMap<Node, Integer>();
+		String[] nodeIds = new String[n];
+		int[] nodeLabels = new int[n];
+		for(int i=0;i<n;i++) {
+			nodeIndex.put(nodes[i], i);
+			nodeIds[i] = nodes[i].getNodeID();
+			nodeLabels[i] = dictionary.id(symbol(nodes[i].getValue(RDF2GXL.NODE_SYMBOL_ATT_NAME)));
+		}
+		
+		IdentityHashMap<Edge, Integer> edgeIndex = new IdentityHashMap<Edge, Integer>();
+		IntList from = new IntList();
+		IntList to = new IntList();
+		IntList labels = new IntList();
+		int[] incidentStart = new int[n+1];
+		IntList incident = new IntList();
+		for(int i=0;i<n;i++) {
+			incidentStart[i] = incident.size();
+			for(Edge e:nodes[i].getEdges()) {
+				incident.add(index(e, edgeIndex, nodeIndex, from, to, labels, dictionary));
+			}
+		}
+		incidentStart[n] = incident.size();
+		
+		Adjacency adjacency = Adjacency.of(g);
+		int[] adjacencyStart = new int[n+1];
+		int[] adjacencyColumns = new int[adjacency.cells()];
+		int[] adjacencyEdges = new int[adjacencyColumns.length];
+		int cells = 0;
+		for(int i=0;i<n;i++) {
+			adjacencyStart[i] = cells;
+			for(int k=0;k<adjacency.degree(i);k++) {
+				adjacencyColumns[cells] = adjacency.neighbour(i, k);
+				adjacencyEdges[cells] = index(adjacency.edge(i, k), edgeIndex, nodeIndex, from, to, labels, dictionary);
+				cells++;
+			}
+		}
+		adjacencyStart[n] = cells;
+		
+		return new CompactGraph(g.getGraphID(), g.isDirected(), dictionary, nodeIds, nodeLabels, 
+				from.toArray(), to.toArray(), labels.toArray(), incidentStart, incident.toArray(), 
+				adjacencyStart, adjacencyColumns, adjacencyEdges);
+	}
+	
+	private static int index(Edge e, IdentityHashMap<Edge, Integer> edgeIndex, IdentityHashMap<Node, Integer> nodeIndex, 
+			IntList from, IntList to, IntList labels, LabelDictionary dictionary) {
+		Integer index = edgeIndex.get(e);
+		if(index!=null) {
+			return index;
+		}
+		Integer start = e.getStartNode()==null?null:nodeIndex.get(e.getStartNode());
+		Integer end = e.getEndNode()==null?null:nodeIndex.get(e.getEndNode());
+		from.add(start==null?-1:start);
+		to.add(end==null?-1:end);
+		labels.add(dictionary.id(symbol(e.getValue(RDF2GXL.EDGE_SYMBOL_ATT_NAME))));
+		edgeIndex.put(e, labels.size()-1);
+		return labels.size()-1;
+	}
+	
+	private static String symbol(String value) {
+		return value==null?"":value;
+	}
+	
+	/**
+	 * Converts back to a {@link Graph} with symbol attributes on nodes and edges
+	 * @return the graph
+	 */
+	public Graph toGraph() {
+		int n = size();
+		AdjacencyGraph g = new AdjacencyGraph();
+		g.setGraphID(graphId);
+		g.setDirected(directed);
+		Node[] nodes = new Node[n];
+		for(int i=0;i<n;i++) {
+			nodes[i] = new Node();
+			nodes[i].setNodeID(nodeIds[i]);
+			nodes[i].put(RDF2GXL.NODE_SYMBOL_ATT_NAME, dictionary.label(nodeLabels[i]));
+			g.add(nodes[i]);
+		}
+		Edge[] edges = new Edge[edgeCount()];
+		for(int e=0;e<edges.length;e++) {
+			Edge edge = new Edge();
+			String from = edgeFrom[e]<0?null:nodeIds[edgeFrom[e]];
+			String to = edgeTo[e]<0?null:nodeIds[edgeTo[e]];
+			if(from!=null) edge.put("from", from);
+			if(to!=null) edge.put("to", to);
+			edge.setEdgeID(from + "_<>" + to);
+			edge.put(RDF2GXL.EDGE_SYMBOL_ATT_NAME, dictionary.label(edgeLabels[e]));
+			edge.setStartNode(edgeFrom[e]<0?null:nodes[edgeFrom[e]]);
+			edge.setEndNode(edgeTo[e]<0?null:nodes[edgeTo[e]]);
+			edges[e] = edge;
+		}
+		AdjacencyBuilder adjacency = new AdjacencyBuilder(n);
+		for(int i=0;i<n;i++) {
+			for(int k=incidentStart[i];k<incidentStart[i+1];k++) {
+				nodes[i].getEdges().add(edges[incidentEdges[k]]);
+			}
+			for(int k=adjacencyStart[i];k<adjacencyStart[i+1];k++) {
+				adjacency.put(i, adjacencyColumns[k], edges[adjacencyEdges[k]]);
+			}
+		}
+		g.setAdjacency(adjacency.build());
+		return g;
+	}
+	
+	public String getGraphID() {
+		return graphId;
+	}
+	
+	public boolean isDirected() {
+		return directed;
+	}
+	
+	public LabelDictionary getDictionary() {
+		return dictionary;
+	}
+	
+	/**
+	 * Number of nodes
+	 * @return number of nodes
+	 */
+	public int size() {
+		return nodeLabels.length;
+	}
+	
+	/**
+	 * Number of edges
+	 * @return number of edges
+	 */
+	public int edgeCount() {
+		return edgeLabels.length;
+	}
+	
+	public String nodeId(int i) {
+		return nodeIds[i];
+	}
+	
+	public int nodeLabel(int i) {
+		return nodeLabels[i];
+	}
+	
+	public int edgeLabel(int e) {
+		return edgeLabels[e];
+	}
+	
+	public int edgeFrom(int e) {
+		return edgeFrom[e];
+	}
+	
+	public int edgeTo(int e) {
+		return edgeTo[e];
+	}
+	
+	/**
+	 * Number of incident edges of a node, the size of {@link Node#getEdges()}
+	 * @param i node
+	 * @return number of incident edges
+	 */
+	public int incidentCount(int i) {
+		return incidentStart[i+1]-incidentStart[i];
+	}
+	
+	/**
+	 * k-th incident edge of a node
+	 * @param i node
+	 * @param k 0 &lt;= k &lt; {@link #incidentCount(int)}
+	 * @return edge
+	 */
+	public int incidentEdge(int i, int k) {
+		return incidentEdges[incidentStart[i]+k];
+	}
+	
+	/**
+	 * Sorted labels of the incident edges of a node, one entry per incident edge
+	 * @param i node
+	 * @return sorted label ids, must not be modified
+	 */
+	public int[] sortedIncidentLabels(int i) {
+		int[][] labels = incidentLabels;
+		if(labels==null) {
+			labels = new int[size()][];
+			for(int u=0;u<labels.length;u++) {
+				int[] star = new int[incidentCount(u)];
+				for(int k=0;k<star.length;k++) {
+					star[k] = edgeLabels[incidentEdge(u, k)];
+				}
+				Arrays.sort(star);
+				labels[u] = star;
+			}
+			incidentLabels = labels;
+		}
+		return labels[i];
+	}
+	
+	/**
+	 * Isomorphism-invariant fingerprint of the graph
+	 * @return the fingerprint, computed once
+	 */
+	public GraphFingerprint fingerprint() {
+		GraphFingerprint f = fingerprint;
+		if(f==null) {
+			f = new GraphFingerprint(this);
+			fingerprint = f;
+		}
+		return f;
+	}
+	
+	/**
+	 * Number of non-empty adjacency cells of a row
+	 * @param i node
+	 * @return number of non-empty cells
+	 */
+	public int degree(int i) {
+		return adjacencyStart[i+1]-adjacencyStart[i];
+	}
+	
+	/**
+	 * Column of the k-th non-empty adjacency cell of a row
+	 * @param i node
+	 * @param k 0 &lt;= k &lt; {@link #degree(int)}
+	 * @return adjacent node
+	 */
+	public int neighbour(int i, int k) {
+		return adjacencyColumns[adjacencyStart[i]+k];
+	}
+	
+	/**
+	 * Edge of the k-th non-empty adjacency cell of a row
+	 * @param i node
+	 * @param k 0 &lt;= k &lt; {@link #degree(int)}
+	 * @return edge
+	 */
+	public int neighbourEdge(int i, int k) {
+		return adjacencyEdges[adjacencyStart[i]+k];
+	}
+	
+	/**
+	 * Edge of adjacency cell (i,j)
+	 * @param i row
+	 * @param j column
+	 * @return edge or -1 if the cell is empty
+	 */
+	public int adjacentEdge(int i, int j) {
+		int low = adjacencyStart[i];
+		int high = adjacencyStart[i+1]-1;
+		while(low<=high) {
+			int mid = (low+high)>>>1;
+			int c = adjacencyColumns[mid];
+			if(c<j) {
+				low = mid+1;
+			} else if(c>j) {
+				high = mid-1;
+			} else {
+				return adjacencyEdges[mid];
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Number of non-empty adjacency cells
+	 * @return number of cells
+	 */
+	public int cells() {
+		return adjacencyColumns.length;
+	}
+	
+	/**
+	 * Builds a {@link CompactGraph} node by node and edge by edge, like a GXL graph is parsed
+	 */
+	public static class Builder {
+		
+		private String graphId;
+		private boolean directed;
+		private LabelDictionary dictionary;
+		private java.util.List<String> nodeIds = new java.util.ArrayList<String>();
+		private IntList nodeLabels = new IntList();
+		private IntList edgeFrom = new IntList();
+		private IntList edgeTo = new IntList();
+		private IntList edgeLabels = new IntList();
+		
+		public Builder(String graphId, boolean directed, LabelDictionary dictionary) {
+			this.graphId = graphId;
+			this.directed = directed;
+			this.dictionary = dictionary;
+		}
+		
+		/**
+		 * Adds a node
+		 * @param id node id
+		 * @param label label of the node
+		 * @return position of the node
+		 */
+		public int addNode(String id, String label) {
+			nodeIds.add(id);
+			nodeLabels.add(dictionary.id(label));
+			return nodeLabels.size()-1;
+		}
+		
+		/**
+		 * Adds an edge. It becomes an incident edge of both ends and fills the adjacency cell (from,to), and (to,from) for undirected graphs
+		 * @param from start node
+		 * @param to end node
+		 * @param label label of the edge
+		 * @return position of the edge
+		 */
+		public int addEdge(int from, int to, String label) {
+			edgeFrom.add(from);
+			edgeTo.add(to);
+			edgeLabels.add(dictionary.id(label));
+			return edgeLabels.size()-1;
+		}
+		
+		/**
+		 * Number of nodes added so far
+		 * @return number of nodes
+		 */
+		public int size() {
+			return nodeLabels.size();
+		}
+		
+		public CompactGraph build() {
+			int n = nodeLabels.size();
+			int m = edgeLabels.size();
+			int[] from = edgeFrom.toArray();
+			int[] to = edgeTo.toArray();
+			
+			//incident edges in order of addition, like Node.getEdges()
+			int[] incidentStart = new int[n+1];
+			for(int e=0;e<m;e++) {
+				incidentStart[from[e]+1]++;
+				incidentStart[to[e]+1]++;
+			}
+			for(int i=0;i<n;i++) {
+				incidentStart[i+1] += incidentStart[i];
+			}
+			int[] next = Arrays.copyOf(incidentStart, n);
+			int[] incidentEdges = new int[2*m];
+			for(int e=0;e<m;e++) {
+				incidentEdges[next[from[e]]++] = e;
+				incidentEdges[next[to[e]]++] = e;
+			}
+			
+			//adjacency cells, the later edge wins
+			int cells = directed?m:2*m;
+			int[] rowStart = new int[n+1];
+			for(int e=0;e<m;e++) {
+				rowStart[from[e]+1]++;
+				if(!directed) rowStart[to[e]+1]++;
+			}
+			for(int i=0;i<n;i++) {
+				rowStart[i+1] += rowStart[i];
+			}
+			next = Arrays.copyOf(rowStart, n);
+			long[] keys = new long[cells];
+			for(int e=0;e<m;e++) {
+				//column in the high bits, order of assignment in the low bits
+				keys[next[from[e]]++] = ((long)to[e]<<32) | (2L*e);
+				if(!directed) keys[next[to[e]]++] = ((long)from[e]<<32) | (2L*e+1);
+			}
+			int[] adjacencyStart = new int[n+1];
+			int[] adjacencyColumns = new int[cells];
+			int[] adjacencyEdges = new int[cells];
+			int c = 0;
+			for(int i=0;i<n;i++) {
+				adjacencyStart[i] = c;
+				Arrays.sort(keys, rowStart[i], rowStart[i+1]);
+				for(int p=rowStart[i];p<rowStart[i+1];p++) {
+					int column = (int)(keys[p]>>>32);
+					int edge = (int)(keys[p]&0xffffffffL)/2;
+					if(c>adjacencyStart[i] && adjacencyColumns[c-1]==column) {
+						adjacencyEdges[c-1] = edge;
+					} else {
+						adjacencyColumns[c] = column;
+						adjacencyEdges[c] = edge;
+						c++;
+					}
+				}
+			}
+			adjacencyStart[n] = c;
+			
+			return new CompactGraph(graphId, directed, dictionary, nodeIds.toArray(new String[n]), nodeLabels.toArray(), 
+					from, to, edgeLabels.toArray(), incidentStart, incidentEdges, 
+					adjacencyStart, Arrays.copyOf(adjacencyColumns, c), Arrays.copyOf(adjacencyEdges, c));
+		}
+	}
+	
+	/**
+	 * Growable int array
+	 */
+	static class IntList {
+		private int[] values = new int[16];
+		private int size;
+		
+		void add(int value) {
+			if(size==values.length) {
+				values = Arrays.copyOf(values, size*2);
+			}
+			values[size++] = value;
+		}
+		
+		int size() {
+			return size;
+		}
+		
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package ged;
+
+/**
+ * Square cost matrix of a linear sum assignment problem. Cells that are not visited by 
+ * {@link #firstColumn(int)}/{@link #nextColumn(int, int)} and {@link #firstRow(int)}/{@link #nextRow(int, int)} are infinite.
+ */
+public interface CostMatrix {
+	
+	/**
+	 * Number of rows and columns
+	 * @return dimension
+	 */
+	public int dimension();
+	
+	/**
+	 * Cost of assigning row i to column j
+	 * @param i row
+	 * @param j column
+	 * @return cost, possibly infinite
+	 */
+	public double get(int i, int j);
+	
+	/**
+	 * First finite cell of a row
+	 * @param i row
+	 * @return column or -1 if the row has no finite cell
+	 */
+	public int firstColumn(int i);
+	
+	/**
+	 * Next finite cell of a row, in increasing column order
+	 * @param i row
+	 * @param j current column
+	 * @return column or -1 after the last finite cell
+	 */
+	public int nextColumn(int i, int j);
+	
+	/**
+	 * First finite cell of a column
+	 * @param j column
+	 * @return row or -1 if the column has no finite cell
+	 */
+	public int firstRow(int j);
+	
+	/**
+	 * Next finite cell of a column, in increasing row order
+	 * @param j column
+	 * @param i current row
+	 * @return row or -1 after the last finite cell
+	 */
+	public int nextRow(int j, int i);
+}
@@ -0,0 +1,24 @@
+package ged;
+
+/**
+ * Deadlines of the searches, as values of {@link System#nanoTime()}
+ */
+final class Deadline {
+
+	/**
+	 * no deadline
+	 */
+	final static long NONE = Long.MAX_VALUE;
+
+	private Deadline() {
+	}
+
+	/**
+	 * Whether a deadline has passed
+	 * @param deadline value of {@link System#nanoTime()}, or {@link #NONE}
+	 * @return true or false
+	 */
+	static boolean isExpired(long deadline) {
+		return deadline!=NONE && System.nanoTime()-deadline>=0;
+	}
+}
@@ -0,0 +1,63 @@
+package ged;
+
+import util.Edge;
+
+/**
+ * {@link Adjacency} backed by an n x n edge matrix. Fastest for small graphs such as query graphs.
+ */
+public class DenseAdjacency extends Adjacency {
+	
+	private Edge[][] matrix;
+	
+	/**
+	 * columns of the non-empty cells per row
+	 */
+	private int[][] neighbours;
+	
+	public DenseAdjacency(Edge[][] matrix) {
+		this.matrix = matrix;
+		int n = matrix.length;
+		this.neighbours = new int[n][];
+		int[] row = new int[n];
+		for(int i=0;i<n;i++) {
+			int d = 0;
+			for(int j=0;j<n;j++) {
+				if(matrix[i][j]!=null) {
+					row[d++] = j;
+				}
+			}
+			neighbours[i] = new int[d];
+			System.arraycopy(row, 0, neighbours[i], 0, d);
+		}
+	}
+
+	@Override
+	public int size() {
+		return matrix.length;
+	}
+
+	@Override
+	public Edge get(int i, int j) {
+		return matrix[i][j];
+	}
+
+	@Override
+	public int degree(int i) {
+		return neighbours[i].length;
+	}
+
+	@Override
+	public int neighbour(int i, int k) {
+		return neighbours[i][k];
+	}
+
+	@Override
+	public Edge edge(int i, int k) {
+		return matrix[i][neighbours[i][k]];
+	}
+	
+	@Override
+	public Edge[][] toMatrix() {
+		return matrix;
+	}
+}
@@ -0,0 +1,57 @@
+package ged;
+
+/**
+ * {@link CostMatrix} on a row-major array, every cell is visited
+ */
+public class DenseCostMatrix implements CostMatrix {
+	
+	private double[] matrix;
+	private int n;
+	
+	/**
+	 * @param matrix cells in row-major order, cell (i,j) is matrix[i*n+j]
+	 * @param n dimension
+	 */
+	public DenseCostMatrix(double[] matrix, int n) {
+		this.matrix = matrix;
+		this.n = n;
+	}
+	
+	/**
+	 * Returns the underlying array
+	 * @return cells in row-major order
+	 */
+	public double[] getArray() {
+		return matrix;
+	}
+	
+	@Override
+	public int dimension() {
+		return n;
+	}
+	
+	@Override
+	public double get(int i, int j) {
+		return matrix[i*n+j];
+	}
+	
+	@Override
+	public int firstColumn(int i) {
+		return n>0?0:-1;
+	}
+	
+	@Override
+	public int nextColumn(int i, int j) {
+		return j+1<n?j+1:-1;
+	}
+	
+	@Override
+	public int firstRow(int j) {
+		return n>0?0:-1;
+	}
+	
+	@Override
+	public int nextRow(int j, int i) {
+		return i+1<n?i+1:-1;
+	}
+}
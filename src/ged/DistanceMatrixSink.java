@@ -0,0 +1,17 @@
+package ged;
+
+/**
+ * Receives the distances of an all-pairs computation of semanticweb.RDFGraphMatching. 
+ * Only the pairs i &lt; j are computed, as the distance is symmetric. 
+ * The pairs arrive in no particular order and from several threads at once, but every pair arrives once.
+ */
+public interface DistanceMatrixSink {
+	
+	/**
+	 * Stores the distance of a pair of graphs
+	 * @param i position of graph 1
+	 * @param j position of graph 2, greater than i
+	 * @param distance distance between the graphs
+	 */
+	public void put(int i, int j, double distance);
+}
@@ -0,0 +1,177 @@
+package ged;
+
+import java.lang.ref.WeakReference;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Concurrent memo of distances keyed by the {@link GraphFingerprint}s of the two graphs and the name of the algorithm,
+ * so that a pair of graphs isomorphic to a pair computed before is answered without a search.
+ * <p>
+ * An entry keeps graphs isomorphic to the graphs it was computed for, and a lookup only answers when its graphs are isomorphic to them,
+ * so fingerprint collisions give misses rather than wrong distances. Each graph is checked once against the first graph of its
+ * fingerprint, its representative, and later checks of the same graphs compare representatives.
+ * The memo holds the graphs by weak references: it does not keep graphs alive, and an entry whose graphs were collected is a miss.
+ * The answer is the distance of the first pair computed: an approximation may give other distances for other node orders
+ * of the same graphs, and a result that depends on a time budget should not be stored. The least recently used entries are evicted first.
+ */
+public class DistanceMemo {
+
+	/**
+	 * default number of entries
+	 */
+	final public static long DEFAULT_SIZE = 1 << 16;
+
+	private Cache<Key, Entry> entries;
+
+	/**
+	 * first graph seen of every fingerprint, as long as it is referenced elsewhere
+	 */
+	private Cache<Long, CompactGraph> firstGraphs;
+
+	/**
+	 * graph isomorphic to each graph seen, its first graph unless the fingerprints collide; the graphs are weak keys and values, compared by identity
+	 */
+	private Cache<CompactGraph, CompactGraph> representatives;
+
+	/**
+	 * @param size bound of the number of entries
+	 */
+	public DistanceMemo(long size) {
+		this.entries = CacheBuilder.newBuilder().maximumSize(size).recordStats().build();
+		this.firstGraphs = CacheBuilder.newBuilder().weakValues().maximumSize(size).build();
+		this.representatives = CacheBuilder.newBuilder().weakKeys().weakValues().maximumSize(size).build();
+	}
+
+	/**
+	 * Decides whether two graphs are isomorphic, by their representatives if they were seen before
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @return true if the graphs are isomorphic, false if they are not or the check gave up
+	 */
+	public boolean isomorphic(CompactGraph g1, CompactGraph g2) {
+		if(g1.fingerprint().getValue()!=g2.fingerprint().getValue()) {
+			return false;
+		}
+		return representative(g1)==representative(g2) || GraphFingerprint.isomorphic(g1, g2);
+	}
+
+	/**
+	 * The graph that stands for all graphs isomorphic to a graph, checked once per graph
+	 */
+	private CompactGraph representative(CompactGraph g) {
+		CompactGraph r = representatives.getIfPresent(g);
+		if(r==null) {
+			CompactGraph first = firstGraphs.asMap().putIfAbsent(g.fingerprint().getValue(), g);
+			r = first==null || !GraphFingerprint.isomorphic(g, first)?g:first;
+			representatives.put(g, r);
+		}
+		return r;
+	}
+
+	/**
+	 * Looks up the distance of a pair of graphs
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param algorithm name of the algorithm, see {@link AlgorithmConfig#getName()}
+	 * @return the result of an isomorphic pair, or null
+	 */
+	public DistanceResult get(CompactGraph g1, CompactGraph g2, String algorithm) {
+		Entry entry = entries.getIfPresent(new Key(g1, g2, algorithm));
+		if(entry==null) {
+			return null;
+		}
+		CompactGraph r1 = entry.g1.get();
+		CompactGraph r2 = entry.g2.get();
+		if(r1==null || r2==null || !isomorphic(g1, r1) || !isomorphic(g2, r2)) {
+			return null;
+		}
+		return entry.result;
+	}
+
+	/**
+	 * Stores the distance of a pair of graphs
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param algorithm name of the algorithm, see {@link AlgorithmConfig#getName()}
+	 * @param result the distance
+	 */
+	public void put(CompactGraph g1, CompactGraph g2, String algorithm, DistanceResult result) {
+		entries.put(new Key(g1, g2, algorithm), new Entry(representative(g1), representative(g2), result));
+	}
+
+	/**
+	 * Number of lookups that found an entry, including entries of non-isomorphic graphs
+	 * @return hits since creation
+	 */
+	public long hitCount() {
+		return entries.stats().hitCount();
+	}
+
+	/**
+	 * Number of lookups without an entry
+	 * @return misses since creation
+	 */
+	public long missCount() {
+		return entries.stats().missCount();
+	}
+
+	/**
+	 * Number of entries
+	 * @return the size of the memo
+	 */
+	public long size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes all entries, the counters are kept
+	 */
+	public void clear() {
+		entries.invalidateAll();
+		firstGraphs.invalidateAll();
+		representatives.invalidateAll();
+	}
+
+	private static class Key {
+
+		private long fingerprint1;
+		private long fingerprint2;
+		private String algorithm;
+
+		Key(CompactGraph g1, CompactGraph g2, String algorithm) {
+			this.fingerprint1 = g1.fingerprint().getValue();
+			this.fingerprint2 = g2.fingerprint().getValue();
+			this.algorithm = algorithm;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return fingerprint1==k.fingerprint1 && fingerprint2==k.fingerprint2 && algorithm.equals(k.algorithm);
+		}
+
+		@Override
+		public int hashCode() {
+			long h = fingerprint1*31+fingerprint2;
+			return (int)(h ^ (h >>> 32))*31+algorithm.hashCode();
+		}
+	}
+
+	private static class Entry {
+
+		private WeakReference<CompactGraph> g1;
+		private WeakReference<CompactGraph> g2;
+		private DistanceResult result;
+
+		Entry(CompactGraph g1, CompactGraph g2, DistanceResult result) {
+			this.g1 = new WeakReference<CompactGraph>(g1);
+			this.g2 = new WeakReference<CompactGraph>(g2);
+			this.result = result;
+		}
+	}
+}
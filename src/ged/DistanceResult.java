@@ -0,0 +1,80 @@
+package ged;
+
+/**
+ * Outcome of an edit distance search that may stop early: the cost of the best edit path found,
+ * a lower bound of the exact distance and whether the two meet, and the algorithm that computed it.
+ */
+public class DistanceResult {
+
+	private double distance;
+	private double lowerBound;
+	private long expansions;
+	private String algorithm;
+
+	/**
+	 * @param distance cost of the best edit path found
+	 * @param lowerBound lower bound of the exact distance
+	 * @param expansions number of expanded search paths
+	 */
+	public DistanceResult(double distance, double lowerBound, long expansions) {
+		this(distance, lowerBound, expansions, null);
+	}
+
+	/**
+	 * @param distance cost of the best edit path found
+	 * @param lowerBound lower bound of the exact distance
+	 * @param expansions number of expanded search paths
+	 * @param algorithm name of the algorithm, see {@link AlgorithmConfig#getName()}
+	 */
+	public DistanceResult(double distance, double lowerBound, long expansions, String algorithm) {
+		this.distance = distance;
+		this.lowerBound = Math.min(lowerBound, distance);
+		this.expansions = expansions;
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Gets the cost of the best edit path found, an upper bound of the exact distance
+	 * @return distance
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Gets a lower bound of the exact distance
+	 * @return lower bound, equal to the distance if it is optimal
+	 */
+	public double getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Returns true if the distance is proven to be the exact distance
+	 * @return true or false
+	 */
+	public boolean isOptimal() {
+		return lowerBound>=distance;
+	}
+
+	/**
+	 * Gets the number of search paths that were expanded
+	 * @return expansions
+	 */
+	public long getExpansions() {
+		return expansions;
+	}
+
+	/**
+	 * Gets the name of the algorithm that computed the distance
+	 * @return name of the algorithm, or null if unknown
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	@Override
+	public String toString() {
+		return distance+(isOptimal()?" (optimal)":" (lower bound "+lowerBound+")")+(algorithm==null?"":", "+algorithm);
+	}
+}
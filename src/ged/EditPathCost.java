@@ -0,0 +1,129 @@
+package ged;
+
+import util.CostFunction;
+import util.Edge;
+import util.Graph;
+import util.Node;
+
+/**
+ * Cost of the edit path induced by a node matching, as computed by {@link util.EditDistance#getEditDistance(Graph, Graph, int[][], CostFunction)}, 
+ * but reading the graphs through their {@link Adjacency}. Only the non-empty cells of the adjacency are visited, 
+ * so the cost is linear in the number of edges for sparse graphs.
+ */
+public class EditPathCost {
+	
+	/**
+	 * Like EditDistance of the GMT library, the edges of both directions are visited and each of them counts half.
+	 */
+	final public static double EDGE_FACTOR = 0.5;
+	
+	/**
+	 * Computes the cost of the edit path induced by a matching
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param matching one row per node of the bipartite cost matrix, row i is {i, j}. i &lt; |g1| and j &lt; |g2| is a substitution, 
+	 *   i &lt; |g1| and j &gt;= |g2| a deletion and i &gt;= |g1| and j &lt; |g2| an insertion 
+	 * @param cf the cost function
+	 * @return edit path cost
+	 */
+	public double getEditDistance(Graph g1, Graph g2, int[][] matching, CostFunction cf) {
+		int n1 = g1.size();
+		int n2 = g2.size();
+		Node[] nodes1 = g1.toArray(new Node[n1]);
+		Node[] nodes2 = g2.toArray(new Node[n2]);
+		Adjacency a1 = Adjacency.of(g1);
+		Adjacency a2 = Adjacency.of(g2);
+		
+		//target of each row and row of each target
+		int[] target = new int[matching.length];
+		int[] row = new int[n2];
+		for(int i=0;i<matching.length;i++) {
+			target[i] = matching[i][1];
+			if(target[i]<n2) {
+				row[target[i]] = i;
+			}
+		}
+		
+		double edgeCost = EDGE_FACTOR * cf.getEdgeCosts();
+		double ed = 0.0;
+		for(int i=0;i<matching.length;i++) {
+			int u = matching[i][0];
+			int v = matching[i][1];
+			if(u<n1 && v<n2) {
+				ed += cf.getCost(nodes1[u], nodes2[v]);
+				//edges of u: substituted if the mapped edge exists, deleted otherwise
+				for(int k=0;k<a1.degree(u);k++) {
+					int w = a1.neighbour(u, k);
+					Edge mapped = target[w]<n2?a2.get(v, target[w]):null;
+					if(mapped!=null) {
+						ed += EDGE_FACTOR * cf.getCost(a1.edge(u, k), mapped);
+					} else {
+						ed += edgeCost;
+					}
+				}
+				//edges of v without a counterpart are inserted
+				for(int k=0;k<a2.degree(v);k++) {
+					int r = row[a2.neighbour(v, k)];
+					if(r>=n1 || a1.get(u, r)==null) {
+						ed += edgeCost;
+					}
+				}
+			} else if(u<n1) {
+				ed += cf.getNodeCosts();
+				ed += a1.degree(u) * edgeCost;
+			} else if(v<n2) {
+				ed += cf.getNodeCosts();
+				ed += a2.degree(v) * edgeCost;
+			}
+		}
+		return ed;
+	}
+	
+	/**
+	 * Computes the cost of the edit path induced by an assignment on the bipartite cost matrix of two compact graphs, without allocating
+	 * @param g1 source graph
+	 * @param g2 target graph
+	 * @param rowSolution column assigned to each row, see {@link AssignmentSolver#solve(CostMatrix, AssignmentWorkspace)}
+	 * @param columnSolution row assigned to each column
+	 * @param costs the edit costs
+	 * @return edit path cost
+	 */
+	public double getEditDistance(CompactGraph g1, CompactGraph g2, int[] rowSolution, int[] columnSolution, LabelCostModel costs) {
+		int n1 = g1.size();
+		int n2 = g2.size();
+		int dim = n1+n2;
+		
+		double edgeCost = EDGE_FACTOR * costs.getEdgeCosts();
+		double ed = 0.0;
+		for(int u=0;u<dim;u++) {
+			int v = rowSolution[u];
+			if(u<n1 && v<n2) {
+				ed += costs.getNodeCost(g1.nodeLabel(u), g2.nodeLabel(v));
+				//edges of u: substituted if the mapped edge exists, deleted otherwise
+				for(int k=0;k<g1.degree(u);k++) {
+					int w = rowSolution[g1.neighbour(u, k)];
+					int mapped = w<n2?g2.adjacentEdge(v, w):-1;
+					if(mapped>=0) {
+						ed += EDGE_FACTOR * costs.getEdgeCost(g1.edgeLabel(g1.neighbourEdge(u, k)), g2.edgeLabel(mapped));
+					} else {
+						ed += edgeCost;
+					}
+				}
+				//edges of v without a counterpart are inserted
+				for(int k=0;k<g2.degree(v);k++) {
+					int r = columnSolution[g2.neighbour(v, k)];
+					if(r>=n1 || g1.adjacentEdge(u, r)<0) {
+						ed += edgeCost;
+					}
+				}
+			} else if(u<n1) {
+				ed += costs.getNodeCosts();
+				ed += g1.degree(u) * edgeCost;
+			} else if(v<n2) {
+				ed += costs.getNodeCosts();
+				ed += g2.degree(v) * edgeCost;
+			}
+		}
+		return ed;
+	}
+}
@@ -0,0 +1,458 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * The search tree of edit paths of the GMT library, shared by the tree searches on {@link CompactGraph}s.
+ * <p>
+ * The nodes of the source graph are processed in their order and each is substituted by an unused target node or deleted;
+ * when one side is used up, the rest of the other side is deleted or inserted at once.
+ * Edge costs are charged like util.TreeNode does, including its treatment of directions and self-loops.
+ * <p>
+ * A partial edit path is stored as a pointer to its parent and the target of its last source node.
+ * The unused source nodes are the ones after the depth of the path, the unused target nodes are kept as a bitset.
+ * Paths are reference counted by their extensions and recycled once they are released and no extension is left.
+ */
+class EditPathTree {
+
+	/**
+	 * target of a deleted source node, or of a path that ends with a batch of deletions or insertions
+	 */
+	final static int DELETED = -2;
+	final static int UNUSED = -1;
+
+	private CompactGraph g1;
+	private CompactGraph g2;
+	private LabelCostModel costs;
+	private int n1;
+	private int n2;
+	private double edgeCost;
+
+	/**
+	 * cells (x,i) of the adjacency of g1 for every column i, the GMT search reads both a row and a column of it
+	 */
+	private int[] columnStart;
+	private int[] columnRows;
+	private int[] columnEdges;
+
+	/**
+	 * paths: parent, target of source node depth-1, depth, number of references, whether the path is complete, cost
+	 */
+	private int[] parent;
+	private int[] target;
+	private int[] depth;
+	private int[] references;
+	private boolean[] complete;
+	private double[] cost;
+	/**
+	 * unused target nodes of the paths, words per path
+	 */
+	private long[] unused;
+	private int words;
+	private int[] free;
+	private int freeCount;
+	private int allocated;
+
+	/**
+	 * matching of the source and the target nodes of the loaded path
+	 */
+	private int[] matching;
+	private int[] inverseMatching;
+
+	EditPathTree(CompactGraph g1, CompactGraph g2, LabelCostModel costs, int capacity) {
+		this.g1 = g1;
+		this.g2 = g2;
+		this.costs = costs;
+		this.n1 = g1.size();
+		this.n2 = g2.size();
+		this.edgeCost = EditPathCost.EDGE_FACTOR * costs.getEdgeCosts();
+		this.words = (n2+63)>>>6;
+
+		columnStart = new int[n1+1];
+		for(int i=0;i<n1;i++) {
+			for(int k=0;k<g1.degree(i);k++) {
+				columnStart[g1.neighbour(i, k)+1]++;
+			}
+		}
+		for(int i=0;i<n1;i++) {
+			columnStart[i+1] += columnStart[i];
+		}
+		columnRows = new int[g1.cells()];
+		columnEdges = new int[g1.cells()];
+		int[] next = Arrays.copyOf(columnStart, n1);
+		for(int i=0;i<n1;i++) {
+			for(int k=0;k<g1.degree(i);k++) {
+				int p = next[g1.neighbour(i, k)]++;
+				columnRows[p] = i;
+				columnEdges[p] = g1.neighbourEdge(i, k);
+			}
+		}
+
+		capacity = Math.max(capacity, 1);
+		parent = new int[capacity];
+		target = new int[capacity];
+		depth = new int[capacity];
+		references = new int[capacity];
+		complete = new boolean[capacity];
+		cost = new double[capacity];
+		unused = new long[capacity*words];
+		free = new int[capacity];
+		matching = new int[n1];
+		inverseMatching = new int[n2];
+	}
+
+	/**
+	 * Creates the empty edit path
+	 * @return the path
+	 */
+	int root() {
+		int root = allocate(-1, UNUSED, 0, 0.0);
+		Arrays.fill(unused, root*words, (root+1)*words, 0L);
+		for(int j=0;j<n2;j++) {
+			unused[root*words+(j>>>6)] |= 1L<<j;
+		}
+		complete[root] = n1==0 && n2==0;
+		return root;
+	}
+
+	/**
+	 * Creates the extension of a path by source node depth(u) substituted by target j, or deleted for {@link #DELETED}
+	 * @param u the path, it gets a reference
+	 * @param j target node or {@link #DELETED}
+	 * @param c cost of the extension
+	 * @return the new path
+	 */
+	int extend(int u, int j, double c) {
+		int v = allocate(u, j, depth[u]+1, c);
+		references[u]++;
+		int from = u*words;
+		int to = v*words;
+		int left = 0;
+		for(int w=0;w<words;w++) {
+			unused[to+w] = unused[from+w];
+			left += Long.bitCount(unused[to+w]);
+		}
+		if(j>=0) {
+			unused[to+(j>>>6)] &= ~(1L<<j);
+			left--;
+		}
+		complete[v] = depth[v]==n1 && left==0;
+		return v;
+	}
+
+	/**
+	 * Creates a complete path that ends with the deletion or the insertion of all unused nodes of a path.
+	 * It does not refer to the path.
+	 * @param c cost of the complete path
+	 * @return the new path
+	 */
+	int finish(double c) {
+		int v = allocate(-1, DELETED, n1, c);
+		complete[v] = true;
+		return v;
+	}
+
+	boolean isComplete(int u) {
+		return complete[u];
+	}
+
+	double cost(int u) {
+		return cost[u];
+	}
+
+	int depth(int u) {
+		return depth[u];
+	}
+
+	int words() {
+		return words;
+	}
+
+	/**
+	 * Unused target nodes of a path
+	 * @param u the path
+	 * @param w index of the word
+	 * @return bits of target nodes 64*w to 64*w+63
+	 */
+	long unused(int u, int w) {
+		return unused[u*words+w];
+	}
+
+	int unusedCount(int u) {
+		int count = 0;
+		for(int w=0;w<words;w++) {
+			count += Long.bitCount(unused[u*words+w]);
+		}
+		return count;
+	}
+
+	/**
+	 * Adds a reference to a path
+	 * @param u the path
+	 */
+	void retain(int u) {
+		references[u]++;
+	}
+
+	/**
+	 * Drops a reference to a path and recycles it and its ancestors that are not referenced anymore
+	 * @param v the path
+	 */
+	void release(int v) {
+		while(v>=0) {
+			if(references[v]>0 && --references[v]>0) {
+				return;
+			}
+			free[freeCount++] = v;
+			v = parent[v];
+		}
+	}
+
+	/**
+	 * Number of paths in memory
+	 * @return live paths
+	 */
+	int size() {
+		return allocated-freeCount;
+	}
+
+	/**
+	 * Makes a path the reference of the cost methods
+	 * @param u the path
+	 */
+	void load(int u) {
+		Arrays.fill(matching, UNUSED);
+		Arrays.fill(inverseMatching, UNUSED);
+		for(int v=u;depth[v]>0;v=parent[v]) {
+			int j = target[v];
+			matching[depth[v]-1] = j;
+			if(j>=0) {
+				inverseMatching[j] = depth[v]-1;
+			}
+		}
+	}
+
+	/**
+	 * Target of a source node in the loaded path
+	 * @param i source node
+	 * @return target, {@link #DELETED} or {@link #UNUSED}
+	 */
+	int matching(int i) {
+		return matching[i];
+	}
+
+	/**
+	 * Source node of a target node in the loaded path
+	 * @param j target node
+	 * @return source node or {@link #UNUSED}
+	 */
+	int inverseMatching(int j) {
+		return inverseMatching[j];
+	}
+
+	/**
+	 * Cost of substituting source node i by target node j after the loaded path. 
+	 * The search substitutes the node at the depth of the path, for a later node this is the cost of its edges to the processed nodes.
+	 * @param i unprocessed source node
+	 * @param j target node
+	 * @return cost of the node and of the edges to processed nodes
+	 */
+	double substitutionCost(int i, int j) {
+		matching[i] = j;
+		inverseMatching[j] = i;
+		double c = costs.getNodeCost(g1.nodeLabel(i), g2.nodeLabel(j));
+		//edges (i,x) and (x,i) of the source graph are compared to edges (j,matching[x]) of the target graph
+		for(int k=0;k<g1.degree(i);k++) {
+			c += sourceEdge(g1.neighbour(i, k), g1.neighbourEdge(i, k), j);
+		}
+		for(int p=columnStart[i];p<columnStart[i+1];p++) {
+			c += sourceEdge(columnRows[p], columnEdges[p], j);
+		}
+		//edges (j,y) of the target graph without a counterpart (i,x) or (x,i), for x matched to y
+		for(int k=0;k<g2.degree(j);k++) {
+			int x = inverseMatching[g2.neighbour(j, k)];
+			if(x>=0) {
+				if(g1.adjacentEdge(i, x)<0) {
+					c += edgeCost;
+				}
+				if(g1.adjacentEdge(x, i)<0) {
+					c += edgeCost;
+				}
+			}
+		}
+		matching[i] = UNUSED;
+		inverseMatching[j] = UNUSED;
+		return c;
+	}
+
+	private double sourceEdge(int x, int edge, int j) {
+		int y = matching[x];
+		if(y==UNUSED) {
+			return 0.0;
+		}
+		int mapped = y>=0?g2.adjacentEdge(j, y):-1;
+		if(mapped<0) {
+			return edgeCost;
+		}
+		return EditPathCost.EDGE_FACTOR * costs.getEdgeCost(g1.edgeLabel(edge), g2.edgeLabel(mapped));
+	}
+
+	/**
+	 * Cost of deleting source node i after the loaded path, with i its depth.
+	 * The cells in row and column i whose other node is processed count, a self-loop counts twice since i is marked as deleted first.
+	 * @param i source node
+	 * @return cost of the node and of its edges to processed nodes
+	 */
+	double deletionCost(int i) {
+		int e = 0;
+		for(int k=0;k<g1.degree(i);k++) {
+			if(g1.neighbour(i, k)<=i) {
+				e++;
+			}
+		}
+		for(int p=columnStart[i];p<columnStart[i+1];p++) {
+			if(columnRows[p]<=i) {
+				e++;
+			}
+		}
+		return costs.getNodeCosts() + e*edgeCost;
+	}
+
+	/**
+	 * Number of cells in row and column i of the source adjacency whose other node is processed in the loaded path
+	 * @param i an unprocessed source node
+	 * @return number of cells, without a self-loop
+	 */
+	int processedCells(int i) {
+		int e = 0;
+		for(int k=0;k<g1.degree(i);k++) {
+			int x = g1.neighbour(i, k);
+			if(x!=i && matching[x]!=UNUSED) {
+				e++;
+			}
+		}
+		for(int p=columnStart[i];p<columnStart[i+1];p++) {
+			int x = columnRows[p];
+			if(x!=i && matching[x]!=UNUSED) {
+				e++;
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Number of cells in row j of the target adjacency whose other node is used in the loaded path
+	 * @param j an unused target node
+	 * @return number of cells, without a self-loop
+	 */
+	int usedCells(int j) {
+		int e = 0;
+		for(int k=0;k<g2.degree(j);k++) {
+			int y = g2.neighbour(j, k);
+			if(y!=j && inverseMatching[y]!=UNUSED) {
+				e++;
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Cost of deleting the source nodes from position d on
+	 * @param d first deleted node
+	 * @return cost
+	 */
+	double batchDeletionCost(int d) {
+		return (n1-d)*costs.getNodeCosts() + batchEdges(g1, d, null, 0)*edgeCost;
+	}
+
+	/**
+	 * Cost of inserting the unused target nodes of a path
+	 * @param u the path
+	 * @return cost
+	 */
+	double batchInsertionCost(int u) {
+		return unusedCount(u)*costs.getNodeCosts() + batchEdges(g2, 0, unused, u*words)*edgeCost;
+	}
+
+	/**
+	 * Number of cells of the adjacency of a graph with an end among the nodes of a batch.
+	 * The GMT search marks the nodes one after another, so every cell counts once and self-loops do not count.
+	 * @param g the graph
+	 * @param from the batch is the nodes from this position on, if bits is null
+	 * @param bits the batch as a bitset, or null
+	 * @param base first word of the bitset
+	 */
+	private static int batchEdges(CompactGraph g, int from, long[] bits, int base) {
+		int e = 0;
+		for(int i=0;i<g.size();i++) {
+			boolean inBatch = bits==null?i>=from:(bits[base+(i>>>6)] & 1L<<i)!=0;
+			for(int k=0;k<g.degree(i);k++) {
+				int x = g.neighbour(i, k);
+				if(x!=i && (inBatch || (bits==null?x>=from:(bits[base+(x>>>6)] & 1L<<x)!=0))) {
+					e++;
+				}
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Cost of the edit path of the search tree that follows a node matching:
+	 * every source node is substituted by its target if it is still unused and deleted otherwise.
+	 * @param sourceTargets target of each source node, or a negative value for a deletion
+	 * @return cost of the complete path
+	 */
+	double pathCost(int[] sourceTargets) {
+		int u = root();
+		retain(u);
+		while(!complete[u]) {
+			load(u);
+			int v;
+			if(unusedCount(u)==0) {
+				v = finish(cost[u] + batchDeletionCost(depth[u]));
+			} else if(depth[u]==n1) {
+				v = finish(cost[u] + batchInsertionCost(u));
+			} else {
+				int i = depth[u];
+				int j = sourceTargets[i];
+				if(j>=0 && inverseMatching[j]==UNUSED) {
+					v = extend(u, j, cost[u] + substitutionCost(i, j));
+				} else {
+					v = extend(u, DELETED, cost[u] + deletionCost(i));
+				}
+			}
+			retain(v);
+			release(u);
+			u = v;
+		}
+		double c = cost[u];
+		release(u);
+		return c;
+	}
+
+	private int allocate(int p, int j, int d, double c) {
+		int v;
+		if(freeCount>0) {
+			v = free[--freeCount];
+		} else {
+			if(allocated==parent.length) {
+				int capacity = allocated*2;
+				parent = Arrays.copyOf(parent, capacity);
+				target = Arrays.copyOf(target, capacity);
+				depth = Arrays.copyOf(depth, capacity);
+				references = Arrays.copyOf(references, capacity);
+				complete = Arrays.copyOf(complete, capacity);
+				cost = Arrays.copyOf(cost, capacity);
+				unused = Arrays.copyOf(unused, capacity*words);
+				free = Arrays.copyOf(free, capacity);
+			}
+			v = allocated++;
+		}
+		parent[v] = p;
+		target[v] = j;
+		depth[v] = d;
+		references[v] = 0;
+		cost[v] = c;
+		return v;
+	}
+}
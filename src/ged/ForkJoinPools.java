@@ -0,0 +1,30 @@
+package ged;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shared fork-join pools, one per level of parallelism. Their worker threads are daemon threads.
+ */
+public class ForkJoinPools {
+	
+	private static Map<Integer, ForkJoinPool> pools = new HashMap<Integer, ForkJoinPool>();
+	
+	/**
+	 * Returns the pool for a level of parallelism
+	 * @param parallelism number of worker threads
+	 * @return the pool, or null for a parallelism of 1
+	 */
+	public static synchronized ForkJoinPool get(int parallelism) {
+		if(parallelism<=1) {
+			return null;
+		}
+		ForkJoinPool pool = pools.get(parallelism);
+		if(pool==null) {
+			pool = new ForkJoinPool(parallelism);
+			pools.put(parallelism, pool);
+		}
+		return pool;
+	}
+}
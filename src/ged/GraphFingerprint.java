@@ -0,0 +1,271 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * Isomorphism-invariant fingerprint of a {@link CompactGraph} by Weisfeiler-Lehman colour refinement, and an exact isomorphism
+ * check of graphs with equal fingerprints.
+ * <p>
+ * The first colour of a node hashes its label, the label of its self-loop and the labels of its incident edges. Every round,
+ * a node hashes its colour with the sorted (edge label, colour) pairs of its adjacency cells, of the row and for directed graphs
+ * also of the column, until the number of colours stops growing. The fingerprint hashes the sizes of the graph with the sorted colours.
+ * Isomorphic graphs have equal fingerprints; the converse may fail, for collisions and for graphs the refinement cannot tell apart,
+ * which {@link #isomorphic(CompactGraph, CompactGraph)} decides. The labels are ids of the dictionary of the graph, so fingerprints
+ * are comparable for graphs of the same dictionary only.
+ */
+public class GraphFingerprint {
+
+	/**
+	 * bound of the candidate nodes tried by an isomorphism check before it gives up
+	 */
+	final public static int ISOMORPHISM_STEPS = 100000;
+
+	final private static long OUT = 0x4f5554L;
+	final private static long IN = 0x494eL;
+
+	private long value;
+	private long[] colours;
+
+	/**
+	 * Computes the fingerprint of a graph, see {@link CompactGraph#fingerprint()} for the fingerprint kept by the graph
+	 * @param g the graph
+	 */
+	public GraphFingerprint(CompactGraph g) {
+		int n = g.size();
+		int[][] inCells = g.isDirected()?inCells(g):null;
+		long[] colour = new long[n];
+		for(int i=0;i<n;i++) {
+			int loop = g.adjacentEdge(i, i);
+			long c = mix(mix(17, g.nodeLabel(i)), loop<0?-1:g.edgeLabel(loop));
+			for(int label:g.sortedIncidentLabels(i)) {
+				c = mix(c, label);
+			}
+			colour[i] = c;
+		}
+		int classes = classes(colour);
+		long[] next = new long[n];
+		for(int round=0;round<n;round++) {
+			for(int i=0;i<n;i++) {
+				int degree = g.degree(i);
+				int in = inCells==null?0:inCells[i].length/2;
+				long[] signature = new long[degree+in];
+				int s = 0;
+				for(int k=0;k<degree;k++) {
+					int j = g.neighbour(i, k);
+					if(j!=i) {
+						signature[s++] = mix(mix(OUT, g.edgeLabel(g.neighbourEdge(i, k))), colour[j]);
+					}
+				}
+				for(int k=0;k<in;k++) {
+					signature[s++] = mix(mix(IN, g.edgeLabel(inCells[i][2*k+1])), colour[inCells[i][2*k]]);
+				}
+				Arrays.sort(signature, 0, s);
+				long c = colour[i];
+				for(int k=0;k<s;k++) {
+					c = mix(c, signature[k]);
+				}
+				next[i] = c;
+			}
+			long[] swap = colour;
+			colour = next;
+			next = swap;
+			int refined = classes(colour);
+			if(refined==classes) {
+				break;
+			}
+			classes = refined;
+		}
+		this.colours = colour;
+		long[] sorted = colour.clone();
+		Arrays.sort(sorted);
+		long v = mix(mix(mix(g.isDirected()?1:0, n), g.edgeCount()), g.cells());
+		for(long c:sorted) {
+			v = mix(v, c);
+		}
+		this.value = v;
+	}
+
+	/**
+	 * The fingerprint
+	 * @return a hash equal for isomorphic graphs
+	 */
+	public long getValue() {
+		return value;
+	}
+
+	/**
+	 * Decides whether two graphs are isomorphic: a bijection of their nodes with equal labels, equal incident edge labels
+	 * and equal adjacency cells. The candidates of a node are the nodes of the same colour, so the search is short unless
+	 * the graphs have many symmetric nodes; it gives up after {@link #ISOMORPHISM_STEPS} candidates.
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @return true if the graphs are isomorphic, false if they are not or the search gave up
+	 */
+	public static boolean isomorphic(CompactGraph g1, CompactGraph g2) {
+		if(g1==g2) {
+			return true;
+		}
+		int n = g1.size();
+		if(n!=g2.size() || g1.edgeCount()!=g2.edgeCount() || g1.cells()!=g2.cells() || g1.isDirected()!=g2.isDirected()
+				|| g1.fingerprint().value!=g2.fingerprint().value) {
+			return false;
+		}
+		long[] c1 = g1.fingerprint().colours;
+		long[] c2 = g2.fingerprint().colours;
+		int[] order = matchingOrder(g1, c1);
+		int[] map = new int[n];
+		boolean[] used = new boolean[n];
+		int[] candidate = new int[n];
+		Arrays.fill(map, -1);
+		int steps = 0;
+		int depth = 0;
+		candidate[0] = 0;
+		while(depth>=0) {
+			if(depth==n) {
+				return true;
+			}
+			int u = order[depth];
+			int v = candidate[depth];
+			if(map[u]>=0) {
+				used[map[u]] = false;
+				map[u] = -1;
+			}
+			while(v<n && (used[v] || c2[v]!=c1[u] || !consistent(g1, g2, map, u, v))) {
+				v++;
+			}
+			if(++steps>ISOMORPHISM_STEPS) {
+				return false;
+			}
+			if(v<n) {
+				map[u] = v;
+				used[v] = true;
+				candidate[depth] = v+1;
+				depth++;
+				if(depth<n) {
+					candidate[depth] = 0;
+				}
+			} else {
+				depth--;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether node v of g2 can be the image of node u of g1, given the images of the nodes mapped so far
+	 */
+	private static boolean consistent(CompactGraph g1, CompactGraph g2, int[] map, int u, int v) {
+		if(g1.nodeLabel(u)!=g2.nodeLabel(v) || cell(g1, u, u)!=cell(g2, v, v)
+				|| !Arrays.equals(g1.sortedIncidentLabels(u), g2.sortedIncidentLabels(v))) {
+			return false;
+		}
+		for(int x=0;x<map.length;x++) {
+			int y = map[x];
+			if(y>=0 && (cell(g1, u, x)!=cell(g2, v, y) || cell(g1, x, u)!=cell(g2, y, v))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Label of an adjacency cell, -1 if it is empty
+	 */
+	private static int cell(CompactGraph g, int i, int j) {
+		int e = g.adjacentEdge(i, j);
+		return e<0?-1:g.edgeLabel(e);
+	}
+
+	/**
+	 * Order of the nodes of g1 for the search: each next node has the most cells to the nodes before it, then the rarest colour
+	 */
+	private static int[] matchingOrder(CompactGraph g, long[] colour) {
+		int n = g.size();
+		long[] sorted = colour.clone();
+		Arrays.sort(sorted);
+		int[] rarity = new int[n];
+		int[] links = new int[n];
+		boolean[] placed = new boolean[n];
+		for(int i=0;i<n;i++) {
+			rarity[i] = lastIndex(sorted, colour[i])-Arrays.binarySearch(sorted, colour[i]);
+		}
+		int[] order = new int[n];
+		for(int d=0;d<n;d++) {
+			int best = -1;
+			for(int i=0;i<n;i++) {
+				if(!placed[i] && (best<0 || links[i]>links[best] || (links[i]==links[best] && rarity[i]<rarity[best]))) {
+					best = i;
+				}
+			}
+			order[d] = best;
+			placed[best] = true;
+			for(int k=0;k<g.degree(best);k++) {
+				links[g.neighbour(best, k)]++;
+			}
+		}
+		return order;
+	}
+
+	private static int lastIndex(long[] sorted, long c) {
+		int i = Arrays.binarySearch(sorted, c);
+		while(i+1<sorted.length && sorted[i+1]==c) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Column cells of every node of a directed graph, as pairs (row, edge)
+	 */
+	private static int[][] inCells(CompactGraph g) {
+		int n = g.size();
+		int[] count = new int[n];
+		for(int i=0;i<n;i++) {
+			for(int k=0;k<g.degree(i);k++) {
+				if(g.neighbour(i, k)!=i) {
+					count[g.neighbour(i, k)]++;
+				}
+			}
+		}
+		int[][] cells = new int[n][];
+		for(int j=0;j<n;j++) {
+			cells[j] = new int[2*count[j]];
+			count[j] = 0;
+		}
+		for(int i=0;i<n;i++) {
+			for(int k=0;k<g.degree(i);k++) {
+				int j = g.neighbour(i, k);
+				if(j!=i) {
+					cells[j][count[j]++] = i;
+					cells[j][count[j]++] = g.neighbourEdge(i, k);
+				}
+			}
+		}
+		return cells;
+	}
+
+	private static int classes(long[] colour) {
+		long[] sorted = colour.clone();
+		Arrays.sort(sorted);
+		int classes = 0;
+		for(int i=0;i<sorted.length;i++) {
+			if(i==0 || sorted[i]!=sorted[i-1]) {
+				classes++;
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Hash of a sequence, the finalizer of MurmurHash3 over the combined value; also the hash of the MinHash signatures
+	 * @param h hash of the sequence so far
+	 * @param x next value
+	 * @return hash of the sequence with x
+	 */
+	public static long mix(long h, long x) {
+		long z = h*0x9E3779B97F4A7C15L + x;
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return z ^ (z >>> 33);
+	}
+}
@@ -0,0 +1,96 @@
+package ged;
+
+/**
+ * Greedy assignment on a {@link BipartiteCostMatrix} in quadratic time, without optimality guarantee.
+ * Every source node first takes its cheapest operation, the substitution by one of the target nodes or its deletion.
+ * A target node chosen by several source nodes goes to the one with the lowest cost; in a second pass, the others take,
+ * in order, the cheapest of their deletion and the substitutions by target nodes still unassigned.
+ * The remaining target nodes are inserted, and the insertion rows of the substituted target nodes take the deletion columns
+ * of the substituted source nodes, at cost 0.
+ * <p>
+ * The assignment is a valid node matching, so its edit path, costed as the exact searches charge it, is an upper bound of
+ * the edit distance. The cost of {@link EditPathCost} may be lower on self-loops.
+ */
+public class GreedySolver implements AssignmentSolver {
+
+	/**
+	 * @throws IllegalArgumentException if the matrix is not a {@link BipartiteCostMatrix}
+	 */
+	@Override
+	public int[] solve(CostMatrix matrix, AssignmentWorkspace workspace) {
+		if(!(matrix instanceof BipartiteCostMatrix)) {
+			throw new IllegalArgumentException("The greedy assignment needs a bipartite cost matrix");
+		}
+		BipartiteCostMatrix costs = (BipartiteCostMatrix)matrix;
+		int n = costs.getSourceSize();
+		int m = costs.getTargetSize();
+		int dim = n+m;
+		workspace.ensureCapacity(dim);
+		int[] rowsol = workspace.rowSolution;
+		int[] colsol = workspace.columnSolution;
+		//cheapest operation of each source row, and the row that gets each target column
+		double[] best = workspace.distances;
+		int[] owner = workspace.matches;
+		AssignmentWorkspace.fill(rowsol, dim, -1);
+		AssignmentWorkspace.fill(colsol, dim, -1);
+		AssignmentWorkspace.fill(owner, m, -1);
+
+		//row minima, the lowest cost wins a target column
+		for(int i=0;i<n;i++) {
+			int choice = m+i;
+			double min = costs.getDeletion(i);
+			for(int j=0;j<m;j++) {
+				double c = costs.getSubstitution(i, j);
+				if(c<min) {
+					min = c;
+					choice = j;
+				}
+			}
+			best[i] = min;
+			rowsol[i] = choice;
+			if(choice<m && (owner[choice]<0 || min<best[owner[choice]])) {
+				owner[choice] = i;
+			}
+		}
+		for(int i=0;i<n;i++) {
+			int j = rowsol[i];
+			if(j<m && owner[j]!=i) {
+				rowsol[i] = -1;
+			} else {
+				colsol[j] = i;
+			}
+		}
+
+		//conflicts: the cheapest free target column or the deletion
+		for(int i=0;i<n;i++) {
+			if(rowsol[i]>=0) {
+				continue;
+			}
+			int choice = m+i;
+			double min = costs.getDeletion(i);
+			for(int j=0;j<m;j++) {
+				if(colsol[j]<0 && costs.getSubstitution(i, j)<min) {
+					min = costs.getSubstitution(i, j);
+					choice = j;
+				}
+			}
+			rowsol[i] = choice;
+			colsol[choice] = i;
+		}
+
+		//insertions, and the free deletion columns for the substituted targets
+		int deletionColumn = m;
+		for(int j=0;j<m;j++) {
+			int column = j;
+			if(colsol[j]>=0) {
+				while(colsol[deletionColumn]>=0) {
+					deletionColumn++;
+				}
+				column = deletionColumn;
+			}
+			rowsol[n+j] = column;
+			colsol[column] = n+j;
+		}
+		return rowsol;
+	}
+}
@@ -0,0 +1,102 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * Hausdorff edit distance of Fischer et al., a lower bound of the edit distance of two {@link CompactGraph}s in quadratic time.
+ * <p>
+ * Every node is charged on its own for the cheapest of its deletion or insertion and of its substitutions by the nodes of the
+ * other graph, with node-star costs as in {@link StarCostMatrixGenerator}. A substitution is shared by both of its nodes, so each
+ * of them is charged half of the node substitution. The edges are the non-empty adjacency cells, which the edit distance charges
+ * {@link EditPathCost#EDGE_FACTOR} times the edge cost each; a cell is shared by both of its end nodes, so a node is charged half
+ * of the deletion of its cells, and a quarter of an optimal assignment of its cells to those of the other node, regardless of direction,
+ * as the substitution of a cell is shared by four nodes.
+ * Self-loops are left out. Each node of an optimal edit path is charged at most its share of the path, hence the lower bound,
+ * but the nodes need not form a matching.
+ */
+public class HausdorffEditDistance {
+
+	private LabelCostModel costs;
+
+	private StarCostMatrixGenerator starCosts;
+
+	public HausdorffEditDistance(LabelCostModel costs) {
+		this.costs = costs;
+		this.starCosts = new StarCostMatrixGenerator(costs, 0);
+	}
+
+	/**
+	 * Computes the Hausdorff edit distance
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @return a lower bound of the edit distance
+	 */
+	public double getLowerBound(CompactGraph g1, CompactGraph g2) {
+		int n1 = g1.size();
+		int n2 = g2.size();
+		int[][] stars1 = cellStars(g1);
+		int[][] stars2 = cellStars(g2);
+		double nodeDeletion = costs.getNodeCosts();
+		double halfCellDeletion = 0.5 * EditPathCost.EDGE_FACTOR * costs.getEdgeCosts();
+		double[] target = new double[n2];
+		for(int j=0;j<n2;j++) {
+			target[j] = nodeDeletion + halfCellDeletion * stars2[j].length;
+		}
+		double distance = 0.0;
+		for(int i=0;i<n1;i++) {
+			int uLabel = g1.nodeLabel(i);
+			double source = nodeDeletion + halfCellDeletion * stars1[i].length;
+			for(int j=0;j<n2;j++) {
+				double c = 0.5 * costs.getNodeCost(uLabel, g2.nodeLabel(j))
+						+ 0.25 * EditPathCost.EDGE_FACTOR * starCosts.edgeAssignmentCost(stars1[i], stars2[j]);
+				if(c<source) {
+					source = c;
+				}
+				if(c<target[j]) {
+					target[j] = c;
+				}
+			}
+			distance += source;
+		}
+		for(int j=0;j<n2;j++) {
+			distance += target[j];
+		}
+		return distance;
+	}
+
+	/**
+	 * Sorted labels of the adjacency cells in the row and in the column of every node, without self-loops
+	 */
+	private static int[][] cellStars(CompactGraph g) {
+		int n = g.size();
+		int[] count = new int[n];
+		for(int i=0;i<n;i++) {
+			for(int k=0;k<g.degree(i);k++) {
+				int x = g.neighbour(i, k);
+				if(x!=i) {
+					count[i]++;
+					count[x]++;
+				}
+			}
+		}
+		int[][] stars = new int[n][];
+		for(int i=0;i<n;i++) {
+			stars[i] = new int[count[i]];
+			count[i] = 0;
+		}
+		for(int i=0;i<n;i++) {
+			for(int k=0;k<g.degree(i);k++) {
+				int x = g.neighbour(i, k);
+				if(x!=i) {
+					int label = g.edgeLabel(g.neighbourEdge(i, k));
+					stars[i][count[i]++] = label;
+					stars[x][count[x]++] = label;
+				}
+			}
+		}
+		for(int i=0;i<n;i++) {
+			Arrays.sort(stars[i]);
+		}
+		return stars;
+	}
+}
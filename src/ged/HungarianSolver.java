@@ -0,0 +1,380 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * The Hungarian method (Munkres) of {@link algorithms.HungarianAlgorithm} on a {@link CostMatrix} and reusable buffers. 
+ * Stars and primes are kept as one column per row instead of a mask matrix. Zeros are searched and the matrix is reduced 
+ * in the same order and with the same arithmetic, so the assignment is the one of {@link algorithms.BipartiteMatching} 
+ * with the "Hungarian" option, including the choice between assignments of equal cost.
+ * <p>
+ * A {@link BipartiteCostMatrix} is not copied. Its reduced costs are kept as row and column potentials, 
+ * infinite cells are never visited and the block of zeros is handled per row and column. The result is the same as 
+ * on the full matrix as long as costs and their sums are exact in double precision, as the edit costs of this project are.
+ */
+public class HungarianSolver implements AssignmentSolver {
+	
+	@Override
+	public int[] solve(CostMatrix matrix, AssignmentWorkspace workspace) {
+		if(matrix instanceof BipartiteCostMatrix) {
+			return solve((BipartiteCostMatrix)matrix, workspace);
+		}
+		int n = matrix.dimension();
+		workspace.ensureCapacity(n);
+		double[] cost = workspace.getReduced(n);
+		if(matrix instanceof DenseCostMatrix) {
+			System.arraycopy(((DenseCostMatrix)matrix).getArray(), 0, cost, 0, n*n);
+		} else {
+			for(int i=0;i<n;i++) {
+				for(int j=0;j<n;j++) {
+					cost[i*n+j] = matrix.get(i, j);
+				}
+			}
+		}
+		int[] starColumn = workspace.rowSolution;
+		int[] starRow = workspace.columnSolution;
+		int[] primeColumn = workspace.primes;
+		boolean[] rowCover = workspace.rowCover;
+		boolean[] columnCover = workspace.columnCover;
+		
+		AssignmentWorkspace.fill(starColumn, n, -1);
+		AssignmentWorkspace.fill(starRow, n, -1);
+		AssignmentWorkspace.fill(primeColumn, n, -1);
+		AssignmentWorkspace.fill(rowCover, n, false);
+		AssignmentWorkspace.fill(columnCover, n, false);
+		
+		double maxCost = 0.0;
+		for(int k=0;k<n*n;k++) {
+			if(cost[k]>maxCost) maxCost = cost[k];
+		}
+		
+		//step 1: subtract the row minima
+		for(int i=0;i<n;i++) {
+			int row = i*n;
+			double min = cost[row];
+			for(int j=0;j<n;j++) {
+				if(min>cost[row+j]) min = cost[row+j];
+			}
+			for(int j=0;j<n;j++) {
+				cost[row+j] -= min;
+			}
+		}
+		
+		//step 2: star a zero in every row and column where possible
+		for(int i=0;i<n;i++) {
+			for(int j=0;j<n;j++) {
+				if(cost[i*n+j]==0.0 && starRow[j]<0 && starColumn[i]<0) {
+					starColumn[i] = j;
+					starRow[j] = i;
+				}
+			}
+		}
+		
+		while(true) {
+			//step 3: cover the columns of the starred zeros
+			int count = 0;
+			for(int j=0;j<n;j++) {
+				columnCover[j] = starRow[j]>=0;
+				if(columnCover[j]) count++;
+			}
+			if(count>=n) {
+				break;
+			}
+			
+			//step 4 and 6: prime uncovered zeros until one is found without a star in its row
+			int zeroRow;
+			int zeroColumn;
+			while(true) {
+				zeroRow = -1;
+				zeroColumn = -1;
+				//the last uncovered zero of the first row that has one
+				for(int i=0;i<n && zeroRow<0;i++) {
+					if(rowCover[i]) continue;
+					int row = i*n;
+					for(int j=0;j<n;j++) {
+						if(cost[row+j]==0.0 && !columnCover[j]) {
+							zeroRow = i;
+							zeroColumn = j;
+						}
+					}
+				}
+				if(zeroRow<0) {
+					reduce(cost, n, rowCover, columnCover, maxCost);
+					continue;
+				}
+				primeColumn[zeroRow] = zeroColumn;
+				if(starColumn[zeroRow]>=0) {
+					rowCover[zeroRow] = true;
+					columnCover[starColumn[zeroRow]] = false;
+				} else {
+					break;
+				}
+			}
+			
+			//step 5: alternate primes and stars from the last prime, then star the primes and unstar the stars of the path
+			augment(zeroRow, zeroColumn, starColumn, starRow, primeColumn, workspace);
+			AssignmentWorkspace.fill(rowCover, n, false);
+			AssignmentWorkspace.fill(columnCover, n, false);
+			AssignmentWorkspace.fill(primeColumn, n, -1);
+		}
+		return starColumn;
+	}
+	
+	/**
+	 * The Hungarian method on the variable costs of a bipartite cost matrix. 
+	 * The reduced cost of cell (i,j) is its cost minus u[i] minus v[j]. Since reduced costs stay non-negative, 
+	 * a zero of the lower right block lies in a column whose v is the largest of the block, so a single column 
+	 * answers the zero search for all insertion rows.
+	 */
+	private int[] solve(BipartiteCostMatrix matrix, AssignmentWorkspace workspace) {
+		int n = matrix.getSourceSize();
+		int m = matrix.getTargetSize();
+		int dim = n+m;
+		workspace.ensureCapacity(dim);
+		int[] starColumn = workspace.rowSolution;
+		int[] starRow = workspace.columnSolution;
+		int[] primeColumn = workspace.primes;
+		boolean[] rowCover = workspace.rowCover;
+		boolean[] columnCover = workspace.columnCover;
+		double[] u = workspace.rowPotential;
+		double[] v = workspace.columnPotential;
+		
+		AssignmentWorkspace.fill(starColumn, dim, -1);
+		AssignmentWorkspace.fill(starRow, dim, -1);
+		AssignmentWorkspace.fill(primeColumn, dim, -1);
+		AssignmentWorkspace.fill(rowCover, dim, false);
+		AssignmentWorkspace.fill(columnCover, dim, false);
+		Arrays.fill(v, 0, dim, 0.0);
+		
+		//largest cell, infinite as soon as a deletion or insertion block has cells off its diagonal
+		double maxCost = 0.0;
+		for(int i=0;i<n;i++) {
+			for(int j=0;j<m;j++) {
+				if(matrix.getSubstitution(i, j)>maxCost) maxCost = matrix.getSubstitution(i, j);
+			}
+			if(matrix.getDeletion(i)>maxCost) maxCost = matrix.getDeletion(i);
+		}
+		for(int j=0;j<m;j++) {
+			if(matrix.getInsertion(j)>maxCost) maxCost = matrix.getInsertion(j);
+		}
+		if(n>1 || m>1) {
+			maxCost = Double.POSITIVE_INFINITY;
+		}
+		
+		//step 1: row minima
+		for(int i=0;i<n;i++) {
+			double min = matrix.getDeletion(i);
+			for(int j=0;j<m;j++) {
+				if(min>matrix.getSubstitution(i, j)) min = matrix.getSubstitution(i, j);
+			}
+			u[i] = min;
+		}
+		for(int i=n;i<dim;i++) {
+			double min = matrix.getInsertion(i-n);
+			if(n>0 && min>0.0) min = 0.0;
+			u[i] = min;
+		}
+		
+		//step 2: star a zero in every row and column where possible
+		int nextBlockColumn = m;
+		for(int i=0;i<dim;i++) {
+			if(i<n) {
+				for(int j=0;j<m && starColumn[i]<0;j++) {
+					if(matrix.getSubstitution(i, j)-u[i]-v[j]==0.0 && starRow[j]<0) {
+						star(i, j, starColumn, starRow);
+					}
+				}
+				if(starColumn[i]<0 && starRow[m+i]<0 && matrix.getDeletion(i)-u[i]-v[m+i]==0.0) {
+					star(i, m+i, starColumn, starRow);
+				}
+			} else {
+				if(starRow[i-n]<0 && matrix.getInsertion(i-n)-u[i]-v[i-n]==0.0) {
+					star(i, i-n, starColumn, starRow);
+				}
+				//all cells of the block are -u[i] here, stars only move the first free column forward
+				if(starColumn[i]<0 && 0.0-u[i]==0.0) {
+					while(nextBlockColumn<dim && starRow[nextBlockColumn]>=0) nextBlockColumn++;
+					if(nextBlockColumn<dim) {
+						star(i, nextBlockColumn, starColumn, starRow);
+					}
+				}
+			}
+		}
+		
+		while(true) {
+			//step 3: cover the columns of the starred zeros
+			int count = 0;
+			for(int j=0;j<dim;j++) {
+				columnCover[j] = starRow[j]>=0;
+				if(columnCover[j]) count++;
+			}
+			if(count>=dim) {
+				break;
+			}
+			
+			//step 4 and 6: prime uncovered zeros until one is found without a star in its row
+			int zeroRow;
+			int zeroColumn;
+			while(true) {
+				zeroRow = -1;
+				zeroColumn = -1;
+				boolean blockScanned = false;
+				double blockMax = 0.0;
+				int blockColumn = -1;
+				//the last uncovered zero of the first row that has one
+				for(int i=0;i<dim && zeroRow<0;i++) {
+					if(rowCover[i]) continue;
+					if(i<n) {
+						if(!columnCover[m+i] && matrix.getDeletion(i)-u[i]-v[m+i]==0.0) {
+							zeroRow = i;
+							zeroColumn = m+i;
+						} else {
+							for(int j=m-1;j>=0;j--) {
+								if(!columnCover[j] && matrix.getSubstitution(i, j)-u[i]-v[j]==0.0) {
+									zeroRow = i;
+									zeroColumn = j;
+									break;
+								}
+							}
+						}
+					} else {
+						if(!blockScanned) {
+							blockScanned = true;
+							blockMax = Double.NEGATIVE_INFINITY;
+							for(int j=m;j<dim;j++) {
+								if(v[j]>blockMax) blockMax = v[j];
+							}
+							for(int j=dim-1;j>=m;j--) {
+								if(!columnCover[j] && v[j]==blockMax) {
+									blockColumn = j;
+									break;
+								}
+							}
+						}
+						if(blockColumn>=0 && 0.0-u[i]-v[blockColumn]==0.0) {
+							zeroRow = i;
+							zeroColumn = blockColumn;
+						} else if(!columnCover[i-n] && matrix.getInsertion(i-n)-u[i]-v[i-n]==0.0) {
+							zeroRow = i;
+							zeroColumn = i-n;
+						}
+					}
+				}
+				if(zeroRow<0) {
+					reduce(matrix, u, v, rowCover, columnCover, maxCost);
+					continue;
+				}
+				primeColumn[zeroRow] = zeroColumn;
+				if(starColumn[zeroRow]>=0) {
+					rowCover[zeroRow] = true;
+					columnCover[starColumn[zeroRow]] = false;
+				} else {
+					break;
+				}
+			}
+			
+			//step 5
+			augment(zeroRow, zeroColumn, starColumn, starRow, primeColumn, workspace);
+			AssignmentWorkspace.fill(rowCover, dim, false);
+			AssignmentWorkspace.fill(columnCover, dim, false);
+			AssignmentWorkspace.fill(primeColumn, dim, -1);
+		}
+		return starColumn;
+	}
+	
+	private static void star(int i, int j, int[] starColumn, int[] starRow) {
+		starColumn[i] = j;
+		starRow[j] = i;
+	}
+	
+	/**
+	 * Step 6 on the potentials of a bipartite cost matrix. The smallest uncovered cell of the block of zeros is 
+	 * the smallest -u of the uncovered insertion rows minus the largest v of the uncovered deletion columns.
+	 */
+	private static void reduce(BipartiteCostMatrix matrix, double[] u, double[] v, boolean[] rowCover, boolean[] columnCover, double maxCost) {
+		int n = matrix.getSourceSize();
+		int m = matrix.getTargetSize();
+		int dim = n+m;
+		double min = maxCost;
+		for(int i=0;i<n;i++) {
+			if(rowCover[i]) continue;
+			for(int j=0;j<m;j++) {
+				if(!columnCover[j] && min>matrix.getSubstitution(i, j)-u[i]-v[j]) min = matrix.getSubstitution(i, j)-u[i]-v[j];
+			}
+			if(!columnCover[m+i] && min>matrix.getDeletion(i)-u[i]-v[m+i]) min = matrix.getDeletion(i)-u[i]-v[m+i];
+		}
+		double rowMin = Double.POSITIVE_INFINITY;
+		for(int i=n;i<dim;i++) {
+			if(rowCover[i]) continue;
+			if(!columnCover[i-n] && min>matrix.getInsertion(i-n)-u[i]-v[i-n]) min = matrix.getInsertion(i-n)-u[i]-v[i-n];
+			if(-u[i]<rowMin) rowMin = -u[i];
+		}
+		double columnMax = Double.NEGATIVE_INFINITY;
+		for(int j=m;j<dim;j++) {
+			if(!columnCover[j] && v[j]>columnMax) columnMax = v[j];
+		}
+		if(rowMin<Double.POSITIVE_INFINITY && columnMax>Double.NEGATIVE_INFINITY && min>rowMin-columnMax) {
+			min = rowMin-columnMax;
+		}
+		for(int i=0;i<dim;i++) {
+			if(rowCover[i]) u[i] -= min;
+		}
+		for(int j=0;j<dim;j++) {
+			if(!columnCover[j]) v[j] += min;
+		}
+	}
+	
+	private static void augment(int zeroRow, int zeroColumn, int[] starColumn, int[] starRow, int[] primeColumn, AssignmentWorkspace workspace) {
+		int[] pathRows = workspace.pathRows;
+		int[] pathColumns = workspace.pathColumns;
+		int count = 0;
+		pathRows[0] = zeroRow;
+		pathColumns[0] = zeroColumn;
+		while(true) {
+			int r = starRow[pathColumns[count]];
+			if(r<0) {
+				break;
+			}
+			count++;
+			pathRows[count] = r;
+			pathColumns[count] = pathColumns[count-1];
+			count++;
+			pathRows[count] = r;
+			pathColumns[count] = primeColumn[r];
+		}
+		//odd positions are stars, even positions are primes
+		for(int k=1;k<=count;k+=2) {
+			starColumn[pathRows[k]] = -1;
+			starRow[pathColumns[k]] = -1;
+		}
+		for(int k=0;k<=count;k+=2) {
+			starColumn[pathRows[k]] = pathColumns[k];
+			starRow[pathColumns[k]] = pathRows[k];
+		}
+	}
+	
+	/**
+	 * Step 6: adds the smallest uncovered value to the covered rows and subtracts it from the uncovered columns
+	 */
+	private static void reduce(double[] cost, int n, boolean[] rowCover, boolean[] columnCover, double maxCost) {
+		double min = maxCost;
+		for(int i=0;i<n;i++) {
+			if(rowCover[i]) continue;
+			int row = i*n;
+			for(int j=0;j<n;j++) {
+				if(!columnCover[j] && min>cost[row+j]) min = cost[row+j];
+			}
+		}
+		for(int i=0;i<n;i++) {
+			int row = i*n;
+			for(int j=0;j<n;j++) {
+				if(rowCover[i]) {
+					cost[row+j] += min;
+				}
+				if(!columnCover[j]) {
+					cost[row+j] -= min;
+				}
+			}
+		}
+	}
+}
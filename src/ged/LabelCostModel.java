@@ -0,0 +1,116 @@
+package ged;
+
+import semanticweb.RDF2GXL;
+import util.CostFunction;
+import util.Edge;
+import util.Node;
+
+/**
+ * Edit costs of graphs whose nodes and edges carry a single label that is compared for equality, 
+ * as the RDF and SPARQL graphs of this project do. Costs are taken from a {@link CostFunction}, so 
+ * computations on {@link CompactGraph}s give the same values as the GMT library on the corresponding {@link util.Graph}s.
+ */
+public class LabelCostModel {
+	
+	private double nodeDeletion;
+	private double nodeMatch;
+	private double nodeMismatch;
+	private double edgeDeletion;
+	private double edgeMatch;
+	private double edgeMismatch;
+	
+	public LabelCostModel(double nodeDeletion, double nodeMatch, double nodeMismatch, double edgeDeletion, double edgeMatch, double edgeMismatch) {
+		this.nodeDeletion = nodeDeletion;
+		this.nodeMatch = nodeMatch;
+		this.nodeMismatch = nodeMismatch;
+		this.edgeDeletion = edgeDeletion;
+		this.edgeMatch = edgeMatch;
+		this.edgeMismatch = edgeMismatch;
+	}
+	
+	/**
+	 * Derives the costs from a cost function on the symbol attribute, by evaluating it on nodes and edges with equal and with different labels
+	 * @param cf a cost function that only looks at {@link RDF2GXL#NODE_SYMBOL_ATT_NAME} and {@link RDF2GXL#EDGE_SYMBOL_ATT_NAME}
+	 * @return the cost model
+	 */
+	public static LabelCostModel fromCostFunction(CostFunction cf) {
+		Node a = new Node();
+		a.put(RDF2GXL.NODE_SYMBOL_ATT_NAME, "a");
+		Node b = new Node();
+		b.put(RDF2GXL.NODE_SYMBOL_ATT_NAME, "b");
+		Edge p = new Edge();
+		p.put(RDF2GXL.EDGE_SYMBOL_ATT_NAME, "p");
+		Edge q = new Edge();
+		q.put(RDF2GXL.EDGE_SYMBOL_ATT_NAME, "q");
+		return new LabelCostModel(cf.getNodeCosts(), cf.getCost(a, a), cf.getCost(a, b), 
+				cf.getEdgeCosts(), cf.getCost(p, p), cf.getCost(p, q));
+	}
+	
+	/**
+	 * Cost of deleting or inserting a node
+	 * @return cost
+	 */
+	public double getNodeCosts() {
+		return nodeDeletion;
+	}
+	
+	/**
+	 * Cost of deleting or inserting an edge
+	 * @return cost
+	 */
+	public double getEdgeCosts() {
+		return edgeDeletion;
+	}
+	
+	/**
+	 * Cost of substituting a node label by another
+	 * @param label1 label id
+	 * @param label2 label id
+	 * @return cost
+	 */
+	public double getNodeCost(int label1, int label2) {
+		return label1==label2?nodeMatch:nodeMismatch;
+	}
+	
+	/**
+	 * Cost of substituting an edge label by another
+	 * @param label1 label id
+	 * @param label2 label id
+	 * @return cost
+	 */
+	public double getEdgeCost(int label1, int label2) {
+		return label1==label2?edgeMatch:edgeMismatch;
+	}
+	
+	/**
+	 * Cost of substituting a node by one with a different label
+	 * @return cost
+	 */
+	public double getNodeMismatchCost() {
+		return nodeMismatch;
+	}
+	
+	/**
+	 * Cost of substituting a node by one with the same label
+	 * @return cost
+	 */
+	public double getNodeMatchCost() {
+		return nodeMatch;
+	}
+	
+	/**
+	 * Cost of substituting an edge by one with a different label
+	 * @return cost
+	 */
+	public double getEdgeMismatchCost() {
+		return edgeMismatch;
+	}
+	
+	/**
+	 * Cost of substituting an edge by one with the same label
+	 * @return cost
+	 */
+	public double getEdgeMatchCost() {
+		return edgeMatch;
+	}
+}
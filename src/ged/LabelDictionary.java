@@ -0,0 +1,77 @@
+package ged;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps node and edge labels (URIs, literals and the placeholders for variables and blank nodes) to ints, 
+ * so that labels can be compared with == instead of {@link String#equals(Object)}. 
+ * Graphs are only comparable if their labels come from the same dictionary. Thread safe.
+ * <p>
+ * Ids are never evicted, since the graphs built with a dictionary keep using them: the dictionary grows with every distinct
+ * label seen, even when the graphs themselves are evicted from a bounded cache. A long-running user bounds it by starting
+ * a new dictionary once {@link #size()} is too large, see {@link semanticweb.RDFGraphMatching#resetLabelDictionary()}.
+ */
+public class LabelDictionary {
+	
+	/**
+	 * label of sparql variables
+	 */
+	final public static String VARIABLE_LABEL = "?";
+	
+	/**
+	 * label of blank nodes
+	 */
+	final public static String BLANK_LABEL = "_";
+	
+	final public static int VARIABLE = 0;
+	final public static int BLANK = 1;
+	
+	private ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+	
+	private List<String> labels = new ArrayList<String>();
+	
+	public LabelDictionary() {
+		id(VARIABLE_LABEL);
+		id(BLANK_LABEL);
+	}
+	
+	/**
+	 * Returns the id of a label, assigning a new one if the label is not known yet
+	 * @param label a label
+	 * @return id of the label
+	 */
+	public int id(String label) {
+		Integer id = ids.get(label);
+		if(id!=null) {
+			return id;
+		}
+		synchronized (this) {
+			id = ids.get(label);
+			if(id==null) {
+				id = labels.size();
+				labels.add(label);
+				ids.put(label, id);
+			}
+			return id;
+		}
+	}
+	
+	/**
+	 * Returns the label of an id
+	 * @param id an id returned by {@link #id(String)}
+	 * @return the label
+	 */
+	public synchronized String label(int id) {
+		return labels.get(id);
+	}
+	
+	/**
+	 * Number of known labels
+	 * @return number of labels
+	 */
+	public synchronized int size() {
+		return labels.size();
+	}
+}
@@ -0,0 +1,113 @@
+package ged;
+
+import java.util.Arrays;
+
+/**
+ * Lower bounds of the edit distance of two {@link CompactGraph}s from their sizes and their label multisets, in linear time.
+ * <p>
+ * An edit path deletes or inserts at least the difference of the node counts, and substitutes at most the smaller count
+ * of nodes, of which at most the common labels without a mismatch; the edges are the non-empty adjacency cells without
+ * self-loops, each charged {@link EditPathCost#EDGE_FACTOR} times its edge cost, in the same way. A substitution is charged
+ * at most the deletion and insertion that could replace it.
+ */
+public class LabelMultisetBound {
+
+	private LabelCostModel costs;
+
+	public LabelMultisetBound(LabelCostModel costs) {
+		this.costs = costs;
+	}
+
+	/**
+	 * Sorted node and cell labels of a graph, computed once per graph
+	 */
+	public static class Labels {
+
+		private int[] nodeLabels;
+		private int[] cellLabels;
+
+		public Labels(CompactGraph g) {
+			int n = g.size();
+			nodeLabels = new int[n];
+			int cells = 0;
+			for(int i=0;i<n;i++) {
+				nodeLabels[i] = g.nodeLabel(i);
+				for(int k=0;k<g.degree(i);k++) {
+					if(g.neighbour(i, k)!=i) {
+						cells++;
+					}
+				}
+			}
+			cellLabels = new int[cells];
+			cells = 0;
+			for(int i=0;i<n;i++) {
+				for(int k=0;k<g.degree(i);k++) {
+					if(g.neighbour(i, k)!=i) {
+						cellLabels[cells++] = g.edgeLabel(g.neighbourEdge(i, k));
+					}
+				}
+			}
+			Arrays.sort(nodeLabels);
+			Arrays.sort(cellLabels);
+		}
+
+		public int nodeCount() {
+			return nodeLabels.length;
+		}
+
+		public int cellCount() {
+			return cellLabels.length;
+		}
+	}
+
+	/**
+	 * Bound from the node and cell counts only
+	 * @param a labels of graph 1
+	 * @param b labels of graph 2
+	 * @return a lower bound of the edit distance
+	 */
+	public double getSizeBound(Labels a, Labels b) {
+		return costs.getNodeCosts() * Math.abs(a.nodeCount()-b.nodeCount())
+				+ EditPathCost.EDGE_FACTOR * costs.getEdgeCosts() * Math.abs(a.cellCount()-b.cellCount());
+	}
+
+	/**
+	 * Bound from the label multisets, at least {@link #getSizeBound(Labels, Labels)}
+	 * @param a labels of graph 1
+	 * @param b labels of graph 2
+	 * @return a lower bound of the edit distance
+	 */
+	public double getLabelBound(Labels a, Labels b) {
+		double nodeDeletion = costs.getNodeCosts();
+		double edgeDeletion = costs.getEdgeCosts();
+		return bound(a.nodeLabels, b.nodeLabels, nodeDeletion, costs.getNodeMatchCost(), costs.getNodeMismatchCost())
+				+ EditPathCost.EDGE_FACTOR * bound(a.cellLabels, b.cellLabels, edgeDeletion, costs.getEdgeMatchCost(), costs.getEdgeMismatchCost());
+	}
+
+	private static double bound(int[] a, int[] b, double deletion, double match, double mismatch) {
+		int substituted = Math.min(a.length, b.length);
+		int common = Math.min(common(a, b), substituted);
+		double mismatched = Math.min(mismatch, 2*deletion);
+		double matched = Math.min(Math.min(match, mismatch), 2*deletion);
+		return deletion * Math.abs(a.length-b.length) + common * matched + (substituted-common) * mismatched;
+	}
+
+	/**
+	 * Size of the intersection of two sorted multisets
+	 */
+	private static int common(int[] a, int[] b) {
+		int count = 0;
+		for(int i=0, j=0;i<a.length && j<b.length;) {
+			if(a[i]<b[j]) {
+				i++;
+			} else if(a[i]>b[j]) {
+				j++;
+			} else {
+				count++;
+				i++;
+				j++;
+			}
+		}
+		return count;
+	}
+}
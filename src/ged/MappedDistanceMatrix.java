@@ -0,0 +1,260 @@
+package ged;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Symmetric distance matrix of n graphs in a memory-mapped file, for matrices that do not fit on the heap.
+ * Like {@link TriangularDistanceMatrix} it stores the upper triangle without the diagonal, row by row, as little-endian
+ * float32 or as uint16 multiples of a scale, so the file can be read by other programs without parsing.
+ * <p>
+ * The file starts with a header: the magic number {@value #MAGIC} and the format version as ints, the number of graphs n,
+ * the encoding, the quantization scale as a double, the offset of the cells and the length of the algorithm name as ints,
+ * then the UTF-8 algorithm name, see {@link AlgorithmConfig#getName()}. The cells start at the next multiple of 64 bytes.
+ * A uint16 cell holds the distance divided by the scale and rounded, {@value #UINT16_INFINITY} for larger and infinite distances.
+ * <p>
+ * Puts of different pairs may run concurrently, for instance from the tiles of an all-pairs computation.
+ * The file is mapped in chunks of {@link #CHUNK_BYTES}, so its size is not limited by the size of a buffer.
+ */
+public class MappedDistanceMatrix implements DistanceMatrixSink {
+
+	final public static int MAGIC = 0x4745444D;
+	final public static int VERSION = 1;
+
+	final public static int FLOAT32 = 0;
+	final public static int UINT16 = 1;
+
+	/**
+	 * the uint16 cell of distances that are not representable
+	 */
+	final public static int UINT16_INFINITY = 0xFFFF;
+
+	/**
+	 * bytes per mapped chunk, a multiple of the cell sizes
+	 */
+	final public static int CHUNK_BYTES = 1 << 30;
+
+	final private static Charset UTF8 = Charset.forName("UTF-8");
+
+	private int n;
+	private int encoding;
+	private double scale;
+	private String algorithm;
+	private int cellBytes;
+	private boolean writable;
+	private MappedByteBuffer[] chunks;
+
+	private MappedDistanceMatrix(int n, int encoding, double scale, String algorithm, boolean writable) {
+		this.n = n;
+		this.encoding = encoding;
+		this.scale = scale;
+		this.algorithm = algorithm;
+		this.cellBytes = encoding==FLOAT32?4:2;
+		this.writable = writable;
+	}
+
+	/**
+	 * Creates a matrix file of zeros, replacing an existing file
+	 * @param file the file
+	 * @param n number of graphs
+	 * @param encoding {@link #FLOAT32} or {@link #UINT16}
+	 * @param scale distance of one uint16 step, ignored for float32
+	 * @param algorithm name of the algorithm computing the distances, see {@link AlgorithmConfig#getName()}
+	 * @return the matrix, writable
+	 * @throws IOException if the file cannot be created
+	 */
+	public static MappedDistanceMatrix create(File file, int n, int encoding, double scale, String algorithm) throws IOException {
+		if(n<0) {
+			throw new IllegalArgumentException("Size must not be negative: "+n);
+		}
+		if(encoding!=FLOAT32 && encoding!=UINT16) {
+			throw new IllegalArgumentException("Unknown encoding: "+encoding);
+		}
+		if(encoding==UINT16 && !(scale>0)) {
+			throw new IllegalArgumentException("Scale must be positive: "+scale);
+		}
+		MappedDistanceMatrix matrix = new MappedDistanceMatrix(n, encoding, scale, algorithm==null?"":algorithm, true);
+		byte[] name = matrix.algorithm.getBytes(UTF8);
+		int dataOffset = (32+name.length+63) & ~63;
+		ByteBuffer header = ByteBuffer.allocate(dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(encoding).putDouble(scale).putInt(dataOffset).putInt(name.length).put(name);
+		header.rewind();
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(0);
+			raf.setLength(dataOffset + cellCount(n)*matrix.cellBytes);
+			raf.getChannel().write(header, 0);
+			matrix.map(raf.getChannel(), dataOffset, FileChannel.MapMode.READ_WRITE);
+		} finally {
+			raf.close();
+		}
+		return matrix;
+	}
+
+	/**
+	 * Opens a matrix file for reading
+	 * @param file the file
+	 * @return the matrix, read-only
+	 * @throws IOException if the file cannot be read or is not a matrix file
+	 */
+	public static MappedDistanceMatrix open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+			channel.read(header, 0);
+			header.flip();
+			if(header.remaining()<32 || header.getInt()!=MAGIC) {
+				throw new IOException("Not a distance matrix file: "+file);
+			}
+			int version = header.getInt();
+			if(version!=VERSION) {
+				throw new IOException("Unsupported distance matrix version "+version+": "+file);
+			}
+			int n = header.getInt();
+			int encoding = header.getInt();
+			double scale = header.getDouble();
+			int dataOffset = header.getInt();
+			byte[] name = new byte[header.getInt()];
+			ByteBuffer nameBuffer = ByteBuffer.wrap(name);
+			channel.read(nameBuffer, 32);
+			MappedDistanceMatrix matrix = new MappedDistanceMatrix(n, encoding, scale, new String(name, UTF8), false);
+			if(channel.size()<dataOffset + cellCount(n)*matrix.cellBytes) {
+				throw new IOException("Truncated distance matrix file: "+file);
+			}
+			matrix.map(channel, dataOffset, FileChannel.MapMode.READ_ONLY);
+			return matrix;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void map(FileChannel channel, long dataOffset, FileChannel.MapMode mode) throws IOException {
+		long bytes = cellCount(n)*cellBytes;
+		chunks = new MappedByteBuffer[(int)((bytes+CHUNK_BYTES-1)/CHUNK_BYTES)];
+		for(int k=0;k<chunks.length;k++) {
+			long start = (long)k*CHUNK_BYTES;
+			chunks[k] = channel.map(mode, dataOffset+start, Math.min(CHUNK_BYTES, bytes-start));
+			chunks[k].order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	private static long cellCount(int n) {
+		return (long)n*(n-1)/2;
+	}
+
+	/**
+	 * Number of graphs
+	 * @return n
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Encoding of the cells
+	 * @return {@link #FLOAT32} or {@link #UINT16}
+	 */
+	public int getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Distance of one uint16 step
+	 * @return scale
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Name of the algorithm computing the distances
+	 * @return the name written at creation
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	@Override
+	public void put(int i, int j, double distance) {
+		if(!writable) {
+			throw new UnsupportedOperationException("The distance matrix is read-only");
+		}
+		long position = position(i, j);
+		MappedByteBuffer chunk = chunks[(int)(position/CHUNK_BYTES)];
+		int index = (int)(position%CHUNK_BYTES);
+		if(encoding==FLOAT32) {
+			chunk.putFloat(index, (float)distance);
+		} else {
+			double steps = Math.rint(distance/scale);
+			chunk.putChar(index, (char)(steps<UINT16_INFINITY?steps:UINT16_INFINITY));
+		}
+	}
+
+	/**
+	 * Distance between two graphs, in either order
+	 * @param i position of graph 1
+	 * @param j position of graph 2
+	 * @return distance, 0 if i==j
+	 */
+	public double get(int i, int j) {
+		if(i==j) {
+			return 0.0;
+		}
+		return cell(i<j?position(i, j):position(j, i));
+	}
+
+	/**
+	 * Reads the distances of a graph to all graphs. The cells of the graphs after i are contiguous in the file
+	 * @param i position of the graph
+	 * @param row array of at least n distances, row[j] is set to the distance between i and j
+	 */
+	public void getRow(int i, double[] row) {
+		for(int j=0;j<i;j++) {
+			row[j] = cell(position(j, i));
+		}
+		row[i] = 0.0;
+		if(i+1<n) {
+			long position = position(i, i+1);
+			for(int j=i+1;j<n;j++) {
+				row[j] = cell(position);
+				position += cellBytes;
+			}
+		}
+	}
+
+	private double cell(long position) {
+		MappedByteBuffer chunk = chunks[(int)(position/CHUNK_BYTES)];
+		int index = (int)(position%CHUNK_BYTES);
+		if(encoding==FLOAT32) {
+			return chunk.getFloat(index);
+		}
+		int steps = chunk.getChar(index);
+		return steps==UINT16_INFINITY?Double.POSITIVE_INFINITY:steps*scale;
+	}
+
+	/**
+	 * Writes the puts through to the file
+	 */
+	public void force() {
+		if(writable) {
+			for(MappedByteBuffer chunk:chunks) {
+				chunk.force();
+			}
+		}
+	}
+
+	private long position(int i, int j) {
+		if(i<0 || i>=j || j>=n) {
+			throw new IndexOutOfBoundsException("Not a pair i<j of "+n+" graphs: "+i+", "+j);
+		}
+		return TriangularDistanceMatrix.offset(i, j, n)*cellBytes;
+	}
+}
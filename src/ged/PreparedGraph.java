@@ -0,0 +1,117 @@
+package ged;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A {@link CompactGraph} with what the bipartite distances need of it computed once, for graphs compared with many others.
+ * <p>
+ * The nodes are grouped in star classes: nodes of equal label and equal sorted incident edge labels have equal rows, or
+ * columns, in the bipartite cost matrix, so {@link StarCostMatrixGenerator#getMatrix(PreparedGraph, PreparedGraph, BipartiteCostMatrix)}
+ * computes one substitution cost per pair of classes. The sorted incident labels, the fingerprint and the label multisets of
+ * {@link LabelMultisetBound} are computed on preparation. A prepared graph does not change and may be shared by threads.
+ */
+public class PreparedGraph {
+
+	private CompactGraph graph;
+	private int[] starClasses;
+	private int[] classNodes;
+	private LabelMultisetBound.Labels labels;
+
+	/**
+	 * @param graph the graph
+	 */
+	public PreparedGraph(final CompactGraph graph) {
+		this.graph = graph;
+		int n = graph.size();
+		Integer[] order = new Integer[n];
+		for(int i=0;i<n;i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer u, Integer v) {
+				return compareStars(graph, u, v);
+			}
+		});
+		this.starClasses = new int[n];
+		int[] nodes = new int[n];
+		int classes = 0;
+		for(int k=0;k<n;k++) {
+			if(k==0 || compareStars(graph, order[k-1], order[k])!=0) {
+				nodes[classes++] = order[k];
+			}
+			starClasses[order[k]] = classes-1;
+		}
+		this.classNodes = Arrays.copyOf(nodes, classes);
+		this.labels = new LabelMultisetBound.Labels(graph);
+		graph.fingerprint();
+	}
+
+	private static int compareStars(CompactGraph g, int u, int v) {
+		if(g.nodeLabel(u)!=g.nodeLabel(v)) {
+			return g.nodeLabel(u)<g.nodeLabel(v)?-1:1;
+		}
+		int[] a = g.sortedIncidentLabels(u);
+		int[] b = g.sortedIncidentLabels(v);
+		if(a.length!=b.length) {
+			return a.length<b.length?-1:1;
+		}
+		for(int k=0;k<a.length;k++) {
+			if(a[k]!=b[k]) {
+				return a[k]<b[k]?-1:1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * The graph
+	 * @return the compact graph
+	 */
+	public CompactGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Number of nodes
+	 * @return the size of the graph
+	 */
+	public int size() {
+		return graph.size();
+	}
+
+	/**
+	 * Number of star classes
+	 * @return the classes, at most the number of nodes
+	 */
+	public int getClassCount() {
+		return classNodes.length;
+	}
+
+	/**
+	 * Star class of a node
+	 * @param i the node
+	 * @return its class
+	 */
+	public int getStarClass(int i) {
+		return starClasses[i];
+	}
+
+	/**
+	 * A node of a star class
+	 * @param c the class
+	 * @return the first node of the class in the order of the classes
+	 */
+	public int getClassNode(int c) {
+		return classNodes[c];
+	}
+
+	/**
+	 * Sorted node and edge labels of the graph
+	 * @return the label multisets
+	 */
+	public LabelMultisetBound.Labels getLabels() {
+		return labels;
+	}
+}
@@ -0,0 +1,330 @@
+package ged;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admissible estimate of the cost that an {@link EditPathTree} path still has to pay for its unused nodes and their edges,
+ * from an optimal assignment of the unused source nodes to the unused target nodes.
+ * <p>
+ * Substituting unused source node i by unused target node j costs the node substitution and the edges between i and the
+ * processed nodes, exactly as the search would charge them. Deleting i or inserting j costs the node and its edges to processed nodes.
+ * When both adjacencies are symmetric, the edges between unused nodes are estimated too: each of them is charged once,
+ * so half of the cheapest pairing of the labels of the edges of i and j to unused nodes is added. Self-loops are left out of
+ * deletions, insertions and this estimate, a batch deletion or insertion does not charge them.
+ * <p>
+ * The assignment is solved with row and column potentials, so the reduced cost of a cell bounds the remaining cost of the paths
+ * that substitute or delete the next source node: the optimal value plus the reduced cost of the cell.
+ */
+class RemainderBound {
+
+	private EditPathTree tree;
+	private CompactGraph g1;
+	private CompactGraph g2;
+	private int n1;
+	private int n2;
+
+	private double nodeDeletion;
+	private double halfEdgeDeletion;
+	private double edgeMatch;
+	private double edgeMismatch;
+	private double edgeDeletion;
+
+	/**
+	 * whether the edges between unused nodes are estimated
+	 */
+	private boolean edges;
+
+	/**
+	 * edge labels as local ids
+	 */
+	private int[][] edgeLabels1;
+	private int[][] edgeLabels2;
+	private int[] labelCount;
+
+	/**
+	 * unused nodes of the current path: sources from depth on, and the targets
+	 */
+	private int depth;
+	private int[] targets;
+	private int[] column;
+	private int r1;
+	private int r2;
+
+	/**
+	 * assignment problem of dimension r1+r2: sources and insertions as rows, targets and deletions as columns
+	 */
+	private int dim;
+	private double[] cost;
+	private double[] u;
+	private double[] v;
+	private int[] rowOfColumn;
+	private int[] way;
+	private double[] minimum;
+	private boolean[] used;
+	private double value;
+
+	RemainderBound(EditPathTree tree, CompactGraph g1, CompactGraph g2, LabelCostModel costs) {
+		this.tree = tree;
+		this.g1 = g1;
+		this.g2 = g2;
+		this.n1 = g1.size();
+		this.n2 = g2.size();
+		nodeDeletion = costs.getNodeCosts();
+		halfEdgeDeletion = EditPathCost.EDGE_FACTOR * costs.getEdgeCosts();
+		//an edge between unused nodes is two cells of the adjacency, each charged half
+		edgeDeletion = 2*halfEdgeDeletion;
+		edgeMatch = 2*EditPathCost.EDGE_FACTOR * costs.getEdgeMatchCost();
+		edgeMismatch = 2*EditPathCost.EDGE_FACTOR * costs.getEdgeMismatchCost();
+
+		edges = isSymmetric(g1) && isSymmetric(g2);
+		Map<Integer, Integer> local = new HashMap<Integer, Integer>();
+		edgeLabels1 = localLabels(g1, local);
+		edgeLabels2 = localLabels(g2, local);
+		labelCount = new int[local.size()];
+
+		targets = new int[n2];
+		column = new int[n2];
+		int capacity = n1+n2+1;
+		cost = new double[capacity*capacity];
+		u = new double[capacity];
+		v = new double[capacity];
+		rowOfColumn = new int[capacity];
+		way = new int[capacity];
+		minimum = new double[capacity];
+		used = new boolean[capacity];
+	}
+
+	/**
+	 * Labels of the edges in the adjacency rows, as local ids
+	 */
+	private static int[][] localLabels(CompactGraph g, Map<Integer, Integer> local) {
+		int[][] labels = new int[g.size()][];
+		for(int i=0;i<g.size();i++) {
+			labels[i] = new int[g.degree(i)];
+			for(int k=0;k<g.degree(i);k++) {
+				int label = g.edgeLabel(g.neighbourEdge(i, k));
+				Integer id = local.get(label);
+				if(id==null) {
+					id = local.size();
+					local.put(label, id);
+				}
+				labels[i][k] = id;
+			}
+		}
+		return labels;
+	}
+
+	/**
+	 * Whether cell (x,i) holds the same edge as cell (i,x) for every cell
+	 */
+	private static boolean isSymmetric(CompactGraph g) {
+		for(int i=0;i<g.size();i++) {
+			for(int k=0;k<g.degree(i);k++) {
+				if(g.adjacentEdge(g.neighbour(i, k), i)!=g.neighbourEdge(i, k)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Solves the assignment problem of the unused nodes of the path loaded in the tree
+	 * @param p the loaded path, see {@link EditPathTree#load(int)}
+	 * @return lower bound of the remaining cost
+	 */
+	double compute(int p) {
+		depth = tree.depth(p);
+		r1 = n1-depth;
+		r2 = 0;
+		for(int w=0;w<tree.words();w++) {
+			long bits = tree.unused(p, w);
+			while(bits!=0) {
+				int j = (w<<6)+Long.numberOfTrailingZeros(bits);
+				bits &= bits-1;
+				column[j] = r2;
+				targets[r2++] = j;
+			}
+		}
+		dim = r1+r2;
+		if(dim==0) {
+			return value = 0.0;
+		}
+		Arrays.fill(cost, 0, dim*dim, 0.0);
+		for(int a=0;a<r1;a++) {
+			int i = depth+a;
+			if(edges) {
+				countLabels(i, 1);
+			}
+			for(int b=0;b<r2;b++) {
+				int j = targets[b];
+				double c = tree.substitutionCost(i, j);
+				if(edges) {
+					c += 0.5*unusedEdgePairing(i, j);
+				}
+				cost[a*dim+b] = c;
+			}
+			if(edges) {
+				countLabels(i, -1);
+			}
+			for(int b=r2;b<dim;b++) {
+				cost[a*dim+b] = Double.POSITIVE_INFINITY;
+			}
+			cost[a*dim+r2+a] = nodeDeletion + tree.processedCells(i)*halfEdgeDeletion
+					+ (edges?0.5*unusedNeighbours1(i)*edgeDeletion:0.0);
+		}
+		for(int b=0;b<r2;b++) {
+			int j = targets[b];
+			int row = (r1+b)*dim;
+			for(int c=0;c<r2;c++) {
+				cost[row+c] = Double.POSITIVE_INFINITY;
+			}
+			//the cells of the column of j are the ones of its row when the adjacency is symmetric
+			cost[row+b] = nodeDeletion + tree.usedCells(j)*(edges?2:1)*halfEdgeDeletion
+					+ (edges?0.5*unusedNeighbours2(j)*edgeDeletion:0.0);
+		}
+		return value = solve();
+	}
+
+	/**
+	 * Bound of the remaining cost of the path given to {@link #compute(int)} after its next source node is substituted or deleted,
+	 * minus the cost of that step
+	 * @param j target node or {@link EditPathTree#DELETED}
+	 * @return optimal value plus reduced cost of the cell
+	 */
+	double boundWith(int j) {
+		int b = j>=0?column[j]:r2;
+		double reduced = cost[b]-u[1]-v[b+1];
+		return value + Math.max(reduced, 0.0);
+	}
+
+	/**
+	 * Target of an unused source node in the optimal assignment
+	 * @param i unused source node
+	 * @return target node or {@link EditPathTree#DELETED}
+	 */
+	int assignment(int i) {
+		int a = i-depth;
+		for(int b=0;b<r2;b++) {
+			if(rowOfColumn[b+1]==a+1) {
+				return targets[b];
+			}
+		}
+		return EditPathTree.DELETED;
+	}
+
+	private void countLabels(int i, int delta) {
+		for(int k=0;k<g1.degree(i);k++) {
+			int x = g1.neighbour(i, k);
+			if(x!=i && tree.matching(x)==EditPathTree.UNUSED) {
+				labelCount[edgeLabels1[i][k]] += delta;
+			}
+		}
+	}
+
+	private int unusedNeighbours1(int i) {
+		int count = 0;
+		for(int k=0;k<g1.degree(i);k++) {
+			int x = g1.neighbour(i, k);
+			if(x!=i && tree.matching(x)==EditPathTree.UNUSED) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private int unusedNeighbours2(int j) {
+		int count = 0;
+		for(int k=0;k<g2.degree(j);k++) {
+			int y = g2.neighbour(j, k);
+			if(y!=j && tree.inverseMatching(y)==EditPathTree.UNUSED) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Cheapest pairing of the labels of the edges from i and from j to unused nodes, the labels of i are counted in labelCount
+	 */
+	private double unusedEdgePairing(int i, int j) {
+		int a = unusedNeighbours1(i);
+		int b = 0;
+		int common = 0;
+		for(int k=0;k<g2.degree(j);k++) {
+			int y = g2.neighbour(j, k);
+			if(y!=j && tree.inverseMatching(y)==EditPathTree.UNUSED) {
+				b++;
+				if(labelCount[edgeLabels2[j][k]]-->0) {
+					common++;
+				}
+			}
+		}
+		for(int k=0;k<g2.degree(j);k++) {
+			int y = g2.neighbour(j, k);
+			if(y!=j && tree.inverseMatching(y)==EditPathTree.UNUSED) {
+				labelCount[edgeLabels2[j][k]]++;
+			}
+		}
+		int pairs = Math.min(a, b);
+		return common*Math.min(edgeMatch, 2*edgeDeletion) + (pairs-common)*Math.min(edgeMismatch, 2*edgeDeletion)
+				+ Math.abs(a-b)*edgeDeletion;
+	}
+
+	/**
+	 * Hungarian method with potentials, rows and columns are numbered from 1, column 0 is the start of the augmenting paths
+	 * @return optimal value
+	 */
+	private double solve() {
+		Arrays.fill(u, 0, dim+1, 0.0);
+		Arrays.fill(v, 0, dim+1, 0.0);
+		Arrays.fill(rowOfColumn, 0, dim+1, 0);
+		for(int i=1;i<=dim;i++) {
+			rowOfColumn[0] = i;
+			int j0 = 0;
+			Arrays.fill(minimum, 0, dim+1, Double.POSITIVE_INFINITY);
+			Arrays.fill(used, 0, dim+1, false);
+			do {
+				used[j0] = true;
+				int i0 = rowOfColumn[j0];
+				int row = (i0-1)*dim;
+				double delta = Double.POSITIVE_INFINITY;
+				int j1 = 0;
+				for(int j=1;j<=dim;j++) {
+					if(!used[j]) {
+						double c = cost[row+j-1]-u[i0]-v[j];
+						if(c<minimum[j]) {
+							minimum[j] = c;
+							way[j] = j0;
+						}
+						if(minimum[j]<delta) {
+							delta = minimum[j];
+							j1 = j;
+						}
+					}
+				}
+				for(int j=0;j<=dim;j++) {
+					if(used[j]) {
+						u[rowOfColumn[j]] += delta;
+						v[j] -= delta;
+					} else {
+						minimum[j] -= delta;
+					}
+				}
+				j0 = j1;
+			} while(rowOfColumn[j0]!=0);
+			do {
+				int j1 = way[j0];
+				rowOfColumn[j0] = rowOfColumn[j1];
+				j0 = j1;
+			} while(j0!=0);
+		}
+		double total = 0.0;
+		for(int j=1;j<=dim;j++) {
+			total += cost[(rowOfColumn[j]-1)*dim+j-1];
+		}
+		return total;
+	}
+}
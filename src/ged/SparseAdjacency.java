@@ -0,0 +1,71 @@
+package ged;
+
+import util.Edge;
+
+/**
+ * {@link Adjacency} in compressed sparse row form: memory grows with the number of edges instead of the square of the number of nodes.
+ * Random access is a binary search in the row.
+ */
+public class SparseAdjacency extends Adjacency {
+	
+	/**
+	 * row i occupies positions rowStart[i] to rowStart[i+1]-1 of columns and edges
+	 */
+	private int[] rowStart;
+	private int[] columns;
+	private Edge[] edges;
+	
+	/**
+	 * @param rowStart start of each row, n+1 entries
+	 * @param columns columns, increasing within each row
+	 * @param edges edges of the cells
+	 */
+	public SparseAdjacency(int[] rowStart, int[] columns, Edge[] edges) {
+		this.rowStart = rowStart;
+		this.columns = columns;
+		this.edges = edges;
+	}
+
+	@Override
+	public int size() {
+		return rowStart.length-1;
+	}
+
+	@Override
+	public Edge get(int i, int j) {
+		int low = rowStart[i];
+		int high = rowStart[i+1]-1;
+		while(low<=high) {
+			int mid = (low+high)>>>1;
+			int c = columns[mid];
+			if(c<j) {
+				low = mid+1;
+			} else if(c>j) {
+				high = mid-1;
+			} else {
+				return edges[mid];
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int degree(int i) {
+		return rowStart[i+1]-rowStart[i];
+	}
+
+	@Override
+	public int neighbour(int i, int k) {
+		return columns[rowStart[i]+k];
+	}
+
+	@Override
+	public Edge edge(int i, int k) {
+		return edges[rowStart[i]+k];
+	}
+	
+	@Override
+	public int cells() {
+		return columns.length;
+	}
+}
@@ -0,0 +1,316 @@
+package ged;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates the bipartite cost matrix of {@link util.MatrixGenerator} for graphs whose nodes and edges are compared by label equality. 
+ * The cost of a substitution cell is the node substitution cost plus the cost of an optimal assignment of the incident edges of both nodes. 
+ * With equality costs, an optimal assignment substitutes as many pairs of equally labelled edges as possible, then substitutes or 
+ * deletes and inserts the remaining pairs, whichever is cheaper, and deletes or inserts the rest. It is computed by merging the 
+ * sorted incident edge labels of both nodes instead of solving an edge assignment problem per cell.
+ * Like {@link util.MatrixGenerator}, the direction of the edges is not considered.
+ */
+public class StarCostMatrixGenerator {
+	
+	/**
+	 * parallel generation does not split blocks of source rows with fewer cells
+	 */
+	public static int PARALLEL_BLOCK_CELLS = 1 << 14;
+	
+	private LabelCostModel costs;
+	
+	private int outputCostMatrix;
+	
+	private DecimalFormat decFormat;
+	
+	public StarCostMatrixGenerator(LabelCostModel costs, int outputCostMatrix) {
+		this.costs = costs;
+		this.outputCostMatrix = outputCostMatrix;
+		this.decFormat = (DecimalFormat)NumberFormat.getInstance(Locale.ENGLISH);
+		this.decFormat.applyPattern("0.00000");
+	}
+	
+	/**
+	 * Generates the cost matrix, equal to {@link util.MatrixGenerator#getMatrix(util.Graph, util.Graph)} on the corresponding graphs
+	 * @param source source graph
+	 * @param target target graph
+	 * @return (|source|+|target|) x (|source|+|target|) cost matrix
+	 */
+	public double[][] getMatrix(CompactGraph source, CompactGraph target) {
+		int sSize = source.size();
+		int tSize = target.size();
+		int dim = sSize + tSize;
+		double[][] matrix = new double[dim][dim];
+		
+		for(int i=0;i<sSize;i++) {
+			int[] uStar = source.sortedIncidentLabels(i);
+			for(int j=0;j<tSize;j++) {
+				matrix[i][j] = substitutionCost(source.nodeLabel(i), uStar, target.nodeLabel(j), target.sortedIncidentLabels(j));
+			}
+			for(int j=tSize;j<dim;j++) {
+				matrix[i][j] = j-tSize==i?deletionCost(uStar):Double.POSITIVE_INFINITY;
+			}
+		}
+		for(int i=sSize;i<dim;i++) {
+			for(int j=0;j<tSize;j++) {
+				matrix[i][j] = i-sSize==j?deletionCost(target.sortedIncidentLabels(j)):Double.POSITIVE_INFINITY;
+			}
+			//the bottom right block stays 0
+		}
+		
+		print(matrix);
+		return matrix;
+	}
+	
+	/**
+	 * Generates the cost matrix into a row-major buffer, cell (i,j) is matrix[i*(|source|+|target|)+j]
+	 * @param source source graph
+	 * @param target target graph
+	 * @param matrix buffer with at least (|source|+|target|)^2 cells, for instance {@link AssignmentWorkspace#getMatrix(int)}
+	 */
+	public void getMatrix(CompactGraph source, CompactGraph target, double[] matrix) {
+		int sSize = source.size();
+		int tSize = target.size();
+		int dim = sSize + tSize;
+		
+		for(int i=0;i<sSize;i++) {
+			int row = i*dim;
+			int[] uStar = source.sortedIncidentLabels(i);
+			int uLabel = source.nodeLabel(i);
+			for(int j=0;j<tSize;j++) {
+				matrix[row+j] = substitutionCost(uLabel, uStar, target.nodeLabel(j), target.sortedIncidentLabels(j));
+			}
+			Arrays.fill(matrix, row+tSize, row+dim, Double.POSITIVE_INFINITY);
+			matrix[row+tSize+i] = deletionCost(uStar);
+		}
+		for(int i=sSize;i<dim;i++) {
+			int row = i*dim;
+			Arrays.fill(matrix, row, row+tSize, Double.POSITIVE_INFINITY);
+			matrix[row+i-sSize] = deletionCost(target.sortedIncidentLabels(i-sSize));
+			Arrays.fill(matrix, row+tSize, row+dim, 0.0);
+		}
+		print(matrix, dim);
+	}
+	
+	/**
+	 * Generates the variable costs of the cost matrix
+	 * @param source source graph
+	 * @param target target graph
+	 * @param matrix the matrix to fill, it is resized to the graphs, for instance {@link AssignmentWorkspace#getBipartiteMatrix(int, int)}
+	 */
+	public void getMatrix(CompactGraph source, CompactGraph target, BipartiteCostMatrix matrix) {
+		getMatrix(source, target, matrix, null);
+	}
+	
+	/**
+	 * Generates the variable costs of the cost matrix, with blocks of source rows computed in parallel. 
+	 * Every cell is computed as in sequential generation, so the matrix is the same.
+	 * @param source source graph
+	 * @param target target graph
+	 * @param matrix the matrix to fill, it is resized to the graphs
+	 * @param pool the pool computing the row blocks, null to generate sequentially
+	 */
+	public void getMatrix(CompactGraph source, CompactGraph target, BipartiteCostMatrix matrix, ForkJoinPool pool) {
+		int sSize = source.size();
+		int tSize = target.size();
+		matrix.reset(sSize, tSize);
+		if(pool==null || sSize<2) {
+			fillRows(source, target, matrix, 0, sSize);
+		} else {
+			//compute the sorted labels once, before the workers need them
+			source.sortedIncidentLabels(0);
+			if(tSize>0) target.sortedIncidentLabels(0);
+			pool.invoke(new RowBlock(source, target, matrix, 0, sSize));
+		}
+		for(int j=0;j<tSize;j++) {
+			matrix.setInsertion(j, deletionCost(target.sortedIncidentLabels(j)));
+		}
+		if(outputCostMatrix==1) {
+			print(matrix.toArray());
+		}
+	}
+	
+	/**
+	 * Generates the variable costs of the cost matrix of two prepared graphs, one substitution cost per pair of star classes.
+	 * The matrix is the same as the one of the graphs.
+	 * @param source source graph
+	 * @param target target graph
+	 * @param matrix the matrix to fill, it is resized to the graphs
+	 */
+	public void getMatrix(PreparedGraph source, PreparedGraph target, BipartiteCostMatrix matrix) {
+		CompactGraph s = source.getGraph();
+		CompactGraph t = target.getGraph();
+		int sSize = s.size();
+		int tSize = t.size();
+		int sClasses = source.getClassCount();
+		int tClasses = target.getClassCount();
+		matrix.reset(sSize, tSize);
+		double[] classCosts = new double[sClasses*tClasses];
+		for(int a=0;a<sClasses;a++) {
+			int u = source.getClassNode(a);
+			int[] uStar = s.sortedIncidentLabels(u);
+			int uLabel = s.nodeLabel(u);
+			for(int b=0;b<tClasses;b++) {
+				int v = target.getClassNode(b);
+				classCosts[a*tClasses+b] = substitutionCost(uLabel, uStar, t.nodeLabel(v), t.sortedIncidentLabels(v));
+			}
+		}
+		for(int i=0;i<sSize;i++) {
+			int row = source.getStarClass(i)*tClasses;
+			for(int j=0;j<tSize;j++) {
+				matrix.setSubstitution(i, j, classCosts[row+target.getStarClass(j)]);
+			}
+			matrix.setDeletion(i, deletionCost(s.sortedIncidentLabels(i)));
+		}
+		for(int j=0;j<tSize;j++) {
+			matrix.setInsertion(j, deletionCost(t.sortedIncidentLabels(j)));
+		}
+		if(outputCostMatrix==1) {
+			print(matrix.toArray());
+		}
+	}
+
+	/**
+	 * Fills the substitution and deletion costs of source rows from (inclusive) to to (exclusive)
+	 */
+	private void fillRows(CompactGraph source, CompactGraph target, BipartiteCostMatrix matrix, int from, int to) {
+		int tSize = target.size();
+		for(int i=from;i<to;i++) {
+			int[] uStar = source.sortedIncidentLabels(i);
+			int uLabel = source.nodeLabel(i);
+			for(int j=0;j<tSize;j++) {
+				matrix.setSubstitution(i, j, substitutionCost(uLabel, uStar, target.nodeLabel(j), target.sortedIncidentLabels(j)));
+			}
+			matrix.setDeletion(i, deletionCost(uStar));
+		}
+	}
+	
+	/**
+	 * A block of source rows, split in halves until it has at most {@link StarCostMatrixGenerator#PARALLEL_BLOCK_CELLS} cells
+	 */
+	private class RowBlock extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private CompactGraph source;
+		private CompactGraph target;
+		private BipartiteCostMatrix matrix;
+		private int from;
+		private int to;
+		
+		RowBlock(CompactGraph source, CompactGraph target, BipartiteCostMatrix matrix, int from, int to) {
+			this.source = source;
+			this.target = target;
+			this.matrix = matrix;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to-from<2 || (long)(to-from)*target.size()<=PARALLEL_BLOCK_CELLS) {
+				fillRows(source, target, matrix, from, to);
+			} else {
+				int mid = (from+to)>>>1;
+				invokeAll(new RowBlock(source, target, matrix, from, mid), new RowBlock(source, target, matrix, mid, to));
+			}
+		}
+	}
+	
+	private void print(double[][] matrix) {
+		if(outputCostMatrix==1) {
+			System.out.println("\nThe Cost Matrix:");
+			for(int k=0;k<matrix.length;k++) {
+				for(int l=0;l<matrix[0].length;l++) {
+					print(matrix[k][l]);
+				}
+				System.out.println();
+			}
+		}
+	}
+	
+	private void print(double[] matrix, int dim) {
+		if(outputCostMatrix==1) {
+			System.out.println("\nThe Cost Matrix:");
+			for(int k=0;k<dim;k++) {
+				for(int l=0;l<dim;l++) {
+					print(matrix[k*dim+l]);
+				}
+				System.out.println();
+			}
+		}
+	}
+	
+	private void print(double cost) {
+		if(cost<Double.POSITIVE_INFINITY) {
+			System.out.print(decFormat.format(cost)+"\t");
+		} else {
+			System.out.print("infty\t");
+		}
+	}
+	
+	/**
+	 * Cost of substituting node u by node v, including an optimal assignment of their incident edges
+	 * @param uLabel label of u
+	 * @param uStar sorted incident edge labels of u
+	 * @param vLabel label of v
+	 * @param vStar sorted incident edge labels of v
+	 * @return cost
+	 */
+	double substitutionCost(int uLabel, int[] uStar, int vLabel, int[] vStar) {
+		return costs.getNodeCost(uLabel, vLabel) + edgeAssignmentCost(uStar, vStar);
+	}
+	
+	/**
+	 * Cost of an optimal assignment of the incident edges of two nodes
+	 * @param uStar sorted incident edge labels of u
+	 * @param vStar sorted incident edge labels of v
+	 * @return cost
+	 */
+	double edgeAssignmentCost(int[] uStar, int[] vStar) {
+		int common = commonLabels(uStar, vStar);
+		int pairs = Math.min(uStar.length, vStar.length);
+		double edgeDeletion = costs.getEdgeCosts();
+		return common * Math.min(costs.getEdgeMatchCost(), 2*edgeDeletion) 
+				+ (pairs-common) * Math.min(costs.getEdgeMismatchCost(), 2*edgeDeletion) 
+				+ Math.abs(uStar.length-vStar.length) * edgeDeletion;
+	}
+	
+	/**
+	 * Cost of deleting or inserting a node with its incident edges
+	 * @param star incident edge labels of the node
+	 * @return cost
+	 */
+	double deletionCost(int[] star) {
+		return costs.getNodeCosts() + star.length * costs.getEdgeCosts();
+	}
+	
+	/**
+	 * Size of the intersection of two sorted multisets
+	 * @param a sorted labels
+	 * @param b sorted labels
+	 * @return number of common labels, with multiplicity
+	 */
+	static int commonLabels(int[] a, int[] b) {
+		int common = 0;
+		int i = 0;
+		int j = 0;
+		while(i<a.length && j<b.length) {
+			if(a[i]<b[j]) {
+				i++;
+			} else if(a[i]>b[j]) {
+				j++;
+			} else {
+				common++;
+				i++;
+				j++;
+			}
+		}
+		return common;
+	}
+}
@@ -0,0 +1,76 @@
+package ged;
+
+/**
+ * Symmetric distance matrix of n graphs in memory, storing the upper triangle without the diagonal as floats, 
+ * n(n-1)/2 cells. Concurrent puts of different pairs are safe.
+ */
+public class TriangularDistanceMatrix implements DistanceMatrixSink {
+	
+	/**
+	 * largest number of graphs, whose triangle fits into an array
+	 */
+	final public static int MAX_SIZE = 65536;
+	
+	private int n;
+	
+	/**
+	 * cells in row-major order: row i holds the pairs (i,i+1)..(i,n-1)
+	 */
+	private float[] cells;
+	
+	/**
+	 * Creates a matrix of zeros
+	 * @param n number of graphs, at most {@link #MAX_SIZE}
+	 */
+	public TriangularDistanceMatrix(int n) {
+		if(n<0 || n>MAX_SIZE) {
+			throw new IllegalArgumentException("Size must be between 0 and "+MAX_SIZE+": "+n);
+		}
+		this.n = n;
+		this.cells = new float[(int)((long)n*(n-1)/2)];
+	}
+	
+	/**
+	 * Number of graphs
+	 * @return n
+	 */
+	public int size() {
+		return n;
+	}
+	
+	@Override
+	public void put(int i, int j, double distance) {
+		cells[index(i, j)] = (float)distance;
+	}
+	
+	/**
+	 * Distance between two graphs, in either order
+	 * @param i position of graph 1
+	 * @param j position of graph 2
+	 * @return distance, 0 if i==j
+	 */
+	public double get(int i, int j) {
+		if(i==j) {
+			return 0.0;
+		}
+		return i<j?cells[index(i, j)]:cells[index(j, i)];
+	}
+	
+	/**
+	 * Position of pair i &lt; j in the triangle
+	 * @param i row
+	 * @param j column
+	 * @return position
+	 */
+	static long offset(int i, int j, int n) {
+		//rows 0..i-1 hold n-1, n-2, ... n-i cells
+		return (long)i*(2L*n-i-1)/2 + (j-i-1);
+	}
+	
+	private int index(int i, int j) {
+		if(i<0 || i>=j || j>=n) {
+			throw new IndexOutOfBoundsException("Not a pair i<j of "+n+" graphs: "+i+", "+j);
+		}
+		return (int)offset(i, j, n);
+	}
+}
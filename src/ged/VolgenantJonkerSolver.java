@@ -0,0 +1,188 @@
+package ged;
+
+/**
+ * The shortest augmenting path algorithm of Jonker and Volgenant as ported in {@link algorithms.VolgenantJonker}, 
+ * on a {@link CostMatrix} and reusable buffers. The steps and their tie-breaking are unchanged, so the assignment 
+ * is the one of {@link algorithms.BipartiteMatching} with the "VJ" option. Infinite cells are skipped where 
+ * they cannot change a minimum.
+ */
+public class VolgenantJonkerSolver implements AssignmentSolver {
+	
+	final private static double BIG = 100000;
+	
+	@Override
+	public int[] solve(CostMatrix assigncost, AssignmentWorkspace workspace) {
+		int dim = assigncost.dimension();
+		workspace.ensureCapacity(dim);
+		int[] rowsol = workspace.rowSolution;
+		int[] colsol = workspace.columnSolution;
+		int[] free = workspace.free;
+		int[] collist = workspace.columnList;
+		int[] matches = workspace.matches;
+		int[] pred = workspace.predecessors;
+		double[] d = workspace.distances;
+		double[] u = workspace.rowPotential;
+		double[] v = workspace.columnPotential;
+		
+		int i, j, k, j1, j2 = 0, i0, numfree = 0, endofpath = 0, last = 0, low, up;
+		double min = 0, h, umin, usubmin, v2;
+		
+		AssignmentWorkspace.fill(matches, dim, 0);
+		
+		//column reduction
+		for(j=dim-1;j>=0;j--) {
+			min = assigncost.get(0, j);
+			int imin = 0;
+			for(i=assigncost.firstRow(j);i>=0;i=assigncost.nextRow(j, i)) {
+				if(i>0 && assigncost.get(i, j)<min) {
+					min = assigncost.get(i, j);
+					imin = i;
+				}
+			}
+			v[j] = min;
+			if(++matches[imin]==1) {
+				rowsol[imin] = j;
+				colsol[j] = imin;
+			} else {
+				colsol[j] = -1;
+			}
+		}
+		
+		//reduction transfer
+		for(i=0;i<dim;i++) {
+			if(matches[i]==0) {
+				free[numfree++] = i;
+			} else if(matches[i]==1) {
+				j1 = rowsol[i];
+				min = BIG;
+				for(j=assigncost.firstColumn(i);j>=0;j=assigncost.nextColumn(i, j)) {
+					if(j!=j1 && assigncost.get(i, j)-v[j]<min) {
+						min = assigncost.get(i, j)-v[j];
+					}
+				}
+				v[j1] = v[j1]-min;
+			}
+		}
+		
+		//augmenting row reduction, twice
+		for(int loopcnt=0;loopcnt<2;loopcnt++) {
+			k = 0;
+			int prvnumfree = numfree;
+			numfree = 0;
+			while(k<prvnumfree) {
+				i = free[k];
+				k++;
+				umin = assigncost.get(i, 0)-v[0];
+				j1 = 0;
+				usubmin = BIG;
+				for(j=assigncost.firstColumn(i);j>=0;j=assigncost.nextColumn(i, j)) {
+					if(j==0) continue;
+					h = assigncost.get(i, j)-v[j];
+					if(h<usubmin) {
+						if(h>=umin) {
+							usubmin = h;
+							j2 = j;
+						} else {
+							usubmin = umin;
+							umin = h;
+							j2 = j1;
+							j1 = j;
+						}
+					}
+				}
+				i0 = colsol[j1];
+				if(umin<usubmin) {
+					v[j1] = v[j1]-(usubmin-umin);
+				} else if(i0>=0) {
+					j1 = j2;
+					i0 = colsol[j2];
+				}
+				rowsol[i] = j1;
+				colsol[j1] = i;
+				//the row that lost its column is reconsidered in the next pass
+				if(i0>=0) {
+					free[numfree++] = i0;
+				}
+			}
+		}
+		
+		//augmentation of the remaining free rows
+		for(int f=0;f<numfree;f++) {
+			int freerow = free[f];
+			for(j=0;j<dim;j++) {
+				d[j] = assigncost.get(freerow, j)-v[j];
+				pred[j] = freerow;
+				collist[j] = j;
+			}
+			low = 0;
+			up = 0;
+			boolean unassignedfound = false;
+			do {
+				if(up==low) {
+					last = low-1;
+					min = d[collist[up++]];
+					for(k=up;k<dim;k++) {
+						j = collist[k];
+						h = d[j];
+						if(h<=min) {
+							if(h<min) {
+								up = low;
+								min = h;
+							}
+							collist[k] = collist[up];
+							collist[up++] = j;
+						}
+					}
+					for(k=low;k<up;k++) {
+						if(colsol[collist[k]]<0) {
+							endofpath = collist[k];
+							unassignedfound = true;
+							break;
+						}
+					}
+				}
+				if(!unassignedfound) {
+					j1 = collist[low];
+					low++;
+					i = colsol[j1];
+					h = assigncost.get(i, j1)-v[j1]-min;
+					for(k=up;k<dim;k++) {
+						j = collist[k];
+						v2 = assigncost.get(i, j)-v[j]-h;
+						if(v2<d[j]) {
+							pred[j] = i;
+							if(v2==min) {
+								if(colsol[j]<0) {
+									endofpath = j;
+									unassignedfound = true;
+									break;
+								}
+								collist[k] = collist[up];
+								collist[up++] = j;
+							}
+							d[j] = v2;
+						}
+					}
+				}
+			} while(!unassignedfound);
+			
+			for(k=0;k<=last;k++) {
+				j1 = collist[k];
+				v[j1] = v[j1]+d[j1]-min;
+			}
+			do {
+				i = pred[endofpath];
+				colsol[endofpath] = i;
+				j1 = endofpath;
+				endofpath = rowsol[i];
+				rowsol[i] = j1;
+			} while(i!=freerow);
+		}
+		
+		for(i=0;i<dim;i++) {
+			j = rowsol[i];
+			u[i] = assigncost.get(i, j)-v[j];
+		}
+		return rowsol;
+	}
+}
@@ -0,0 +1,756 @@
+package semanticweb;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.ForkJoinPools;
+import ged.LabelMultisetBound;
+import semanticweb.sparql.QDistanceBatch;
+import semanticweb.sparql.QDistanceServer;
+
+/**
+ * k-medoids clustering of query graphs, CLARA style: PAM runs on random samples of the graphs, and the medoids of the sample
+ * whose assignment of all graphs costs least are kept. The medoids of the best sample so far are part of the next sample.
+ * <p>
+ * Distances are computed when needed: a sample caches the distances between its graphs, s*(s-1)/2 floats for s graphs,
+ * and no distance matrix of all graphs is built. The triangle inequality skips distances:
+ * <ul>
+ * <li>in the swap phase, a graph o whose distances to the medoids differ from those of the candidate h by at least the distance
+ * of o to its second nearest medoid cannot move to h,</li>
+ * <li>in the assignment, a medoid j is skipped once |d(m_a, m_j) - d(x, m_a)| or the label multiset bound of x and m_j reaches the
+ * distance of x to its nearest medoid so far.</li>
+ * </ul>
+ * Other distances are computed up to the bound beyond which they do not matter. The build and swap phases and the assignment
+ * run in a fork-join pool.
+ * <p>
+ * By default the distances are exact. The skipped distances do not change the swaps and the assignment of PAM when the distance
+ * is a metric; on query graphs with self-loops the exact edit distance may not be symmetric or obey the triangle inequality, see
+ * {@link QueryGraphIndex}, and a skip may then differ from PAM. With the configuration of an approximation, its distances are
+ * treated as a metric and the label multiset bound is not used.
+ */
+public class QueryClustering {
+
+	/**
+	 * default number of samples
+	 */
+	final public static int DEFAULT_SAMPLES = 5;
+
+	/**
+	 * default bound of the swaps per sample
+	 */
+	final public static int DEFAULT_MAX_SWAPS = 100;
+
+	/**
+	 * least improvement of a swap
+	 */
+	final private static double EPSILON = 1e-9;
+
+	/**
+	 * graphs per task
+	 */
+	final private static int GRAPHS_PER_TASK = 8;
+
+	private RDFGraphMatching matcher;
+	private AlgorithmConfig config;
+	private LabelMultisetBound labelBound;
+	private int samples = DEFAULT_SAMPLES;
+	private int sampleSize;
+	private int maxSwaps = DEFAULT_MAX_SWAPS;
+	private long seed;
+
+	/**
+	 * Clustering by exact distances
+	 * @param matcher computes the distances, its label dictionary must be the one of the graphs
+	 */
+	public QueryClustering(RDFGraphMatching matcher) {
+		this(matcher, null);
+	}
+
+	/**
+	 * @param matcher computes the distances, its label dictionary must be the one of the graphs
+	 * @param config algorithm of the distances, null or an exact algorithm for exact distances
+	 */
+	public QueryClustering(RDFGraphMatching matcher, AlgorithmConfig config) {
+		this.matcher = matcher;
+		boolean exact = config==null || config.isAStar()
+				|| (config.isDepthFirstBranchAndBound() && config.getMaxExpansions()==Long.MAX_VALUE);
+		this.config = exact?null:config;
+		this.labelBound = exact?new LabelMultisetBound(matcher.getLabelCostModel()):null;
+	}
+
+	/**
+	 * Sets the number of samples
+	 * @param samples the samples, default {@link #DEFAULT_SAMPLES}
+	 */
+	public void setSamples(int samples) {
+		if(samples<1) {
+			throw new IllegalArgumentException("samples must be at least 1: "+samples);
+		}
+		this.samples = samples;
+	}
+
+	/**
+	 * Sets the number of graphs of a sample; with all graphs, one sample runs PAM on the whole set
+	 * @param sampleSize the graphs, at least k; 0 for 40+2k as in CLARA, the default
+	 */
+	public void setSampleSize(int sampleSize) {
+		if(sampleSize<0) {
+			throw new IllegalArgumentException("sampleSize must not be negative: "+sampleSize);
+		}
+		this.sampleSize = sampleSize;
+	}
+
+	/**
+	 * Sets the bound of the swaps of PAM per sample
+	 * @param maxSwaps the swaps, default {@link #DEFAULT_MAX_SWAPS}
+	 */
+	public void setMaxSwaps(int maxSwaps) {
+		this.maxSwaps = maxSwaps;
+	}
+
+	/**
+	 * Sets the seed of the samples
+	 * @param seed the seed, default 0
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Medoids and memberships of a clustering
+	 */
+	public static class Result {
+
+		private int[] medoids;
+		private int[] clusters;
+		private double[] distances;
+		private double cost;
+		private long distanceCount;
+		private long skippedCount;
+
+		Result(int[] medoids, int[] clusters, double[] distances, double cost) {
+			this.medoids = medoids;
+			this.clusters = clusters;
+			this.distances = distances;
+			this.cost = cost;
+		}
+
+		/**
+		 * The medoid of every cluster
+		 * @return positions of the medoid graphs, by cluster
+		 */
+		public int[] getMedoids() {
+			return medoids;
+		}
+
+		/**
+		 * The cluster of every graph, the one of its nearest medoid
+		 * @return cluster of each graph, by position
+		 */
+		public int[] getClusters() {
+			return clusters;
+		}
+
+		/**
+		 * The distance of every graph to its medoid
+		 * @return distances, by position
+		 */
+		public double[] getDistances() {
+			return distances;
+		}
+
+		/**
+		 * Sum of the distances of the graphs to their medoids
+		 * @return the cost
+		 */
+		public double getCost() {
+			return cost;
+		}
+
+		/**
+		 * Number of distances computed, over all samples
+		 * @return distances
+		 */
+		public long getDistanceCount() {
+			return distanceCount;
+		}
+
+		/**
+		 * Number of distances skipped by the bounds, over all samples
+		 * @return distances
+		 */
+		public long getSkippedCount() {
+			return skippedCount;
+		}
+
+		/**
+		 * Number of graphs of every cluster
+		 * @return sizes, by cluster
+		 */
+		public int[] getClusterSizes() {
+			int[] sizes = new int[medoids.length];
+			for(int c:clusters) {
+				sizes[c]++;
+			}
+			return sizes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d graphs, %d clusters, cost %.2f, %d distances computed, %d skipped",
+					clusters.length, medoids.length, cost, distanceCount, skippedCount);
+		}
+	}
+
+	/**
+	 * Clusters SPARQL queries, see {@link #cluster(List, int, int)}
+	 * @param queries the queries
+	 * @param k number of clusters
+	 * @param parallelism number of threads, 1 to run in the calling thread
+	 * @return medoids and memberships, by query position
+	 */
+	public Result queryClustering(List<String> queries, int k, int parallelism) {
+		List<CompactGraph> graphs = new ArrayList<CompactGraph>(queries.size());
+		for(String query:queries) {
+			graphs.add(matcher.queryGraph(query));
+		}
+		return cluster(graphs, k, parallelism);
+	}
+
+	/**
+	 * Clusters graphs around k medoids
+	 * @param graphs the graphs
+	 * @param k number of clusters, between 1 and the number of graphs
+	 * @param parallelism number of threads, 1 to run in the calling thread
+	 * @return medoids and memberships, by graph position
+	 */
+	public Result cluster(List<CompactGraph> graphs, int k, int parallelism) {
+		int n = graphs.size();
+		if(k<1 || k>n) {
+			throw new IllegalArgumentException("k must be between 1 and "+n+": "+k);
+		}
+		Run run = new Run(graphs.toArray(new CompactGraph[n]), k, ForkJoinPools.get(parallelism));
+		int s = Math.min(n, Math.max(k, sampleSize>0?sampleSize:40+2*k));
+		Random random = new Random(seed);
+		Result best = null;
+		Run.Sample bestSample = null;
+		int[] bestMedoids = null;
+		for(int t=0;t<(s==n?1:samples);t++) {
+			Run.Sample sample = run.new Sample(draw(n, s, random, bestMedoids));
+			int[] medoids = run.pam(sample, bestSample==null?new int[0]:positions(bestMedoids, sample));
+			Result result = run.assign(sample, medoids);
+			if(best==null || result.cost<best.cost) {
+				best = result;
+				bestSample = sample;
+				bestMedoids = result.medoids;
+			}
+		}
+		best.distanceCount = run.distanceCount.get();
+		best.skippedCount = run.skippedCount.get();
+		return best;
+	}
+
+	/**
+	 * A random sample of graph positions, with the given ones first
+	 */
+	private static int[] draw(int n, int s, Random random, int[] given) {
+		int[] order = new int[n];
+		for(int i=0;i<n;i++) {
+			order[i] = i;
+		}
+		int taken = 0;
+		if(given!=null) {
+			for(int id:given) {
+				for(int i=taken;i<n;i++) {
+					if(order[i]==id) {
+						order[i] = order[taken];
+						order[taken++] = id;
+						break;
+					}
+				}
+			}
+		}
+		for(;taken<s;taken++) {
+			int i = taken+random.nextInt(n-taken);
+			int id = order[i];
+			order[i] = order[taken];
+			order[taken] = id;
+		}
+		return Arrays.copyOf(order, s);
+	}
+
+	/**
+	 * Positions in a sample of graphs of the sample
+	 */
+	private static int[] positions(int[] ids, Run.Sample sample) {
+		int[] positions = new int[ids.length];
+		for(int c=0;c<ids.length;c++) {
+			for(int a=0;a<sample.ids.length;a++) {
+				if(sample.ids[a]==ids[c]) {
+					positions[c] = a;
+				}
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * State of a clustering
+	 */
+	private class Run {
+
+		private CompactGraph[] graphs;
+		private int k;
+		private ForkJoinPool pool;
+		private LabelMultisetBound.Labels[] labels;
+		private AtomicLong distanceCount = new AtomicLong();
+		private AtomicLong skippedCount = new AtomicLong();
+
+		Run(CompactGraph[] graphs, int k, ForkJoinPool pool) {
+			this.graphs = graphs;
+			this.k = k;
+			this.pool = pool;
+			if(labelBound!=null) {
+				labels = new LabelMultisetBound.Labels[graphs.length];
+				forEach(graphs.length, new Loop() {
+					@Override
+					void run(int x) {
+						labels[x] = new LabelMultisetBound.Labels(Run.this.graphs[x]);
+					}
+				});
+			}
+		}
+
+		/**
+		 * Distance of two graphs, exact below a bound and at least the bound otherwise
+		 */
+		double distance(int x, int y, double bound) {
+			if(x==y || bound<=0) {
+				return 0;
+			}
+			distanceCount.incrementAndGet();
+			if(config==null) {
+				return matcher.distanceBelow(graphs[x], graphs[y], bound);
+			}
+			if(!config.isHausdorff() && bound<Double.POSITIVE_INFINITY && matcher.distanceHausdorff(graphs[x], graphs[y])>=bound) {
+				return bound;
+			}
+			try {
+				return matcher.distance(graphs[x], graphs[y], config);
+			} catch (OperationNotSupportedException e) {
+				throw new IllegalArgumentException(e.getMessage(), e);
+			}
+		}
+
+		/**
+		 * Runs a loop over 0..n-1, in the pool if there is one
+		 */
+		void forEach(int n, Loop loop) {
+			if(pool==null) {
+				for(int i=0;i<n;i++) {
+					loop.run(i);
+				}
+			} else {
+				pool.invoke(new Range(loop, 0, n));
+			}
+		}
+
+		/**
+		 * PAM on a sample: the build phase adds the medoids that lower the cost most to the given ones, and the swap phase
+		 * exchanges a medoid and another graph as long as the best exchange lowers the cost
+		 * @return sample positions of the medoids
+		 */
+		int[] pam(final Sample sample, int[] given) {
+			final int s = sample.ids.length;
+			final int[] medoids = Arrays.copyOf(given, k);
+			final boolean[] isMedoid = new boolean[s];
+			for(int c=0;c<given.length;c++) {
+				isMedoid[given[c]] = true;
+			}
+			final double[] nearest = new double[s];
+			final double[] gain = new double[s];
+			if(given.length==0) {
+				//the graph of least total distance
+				forEach(s, new Loop() {
+					@Override
+					void run(int h) {
+						double sum = 0;
+						for(int o=0;o<s;o++) {
+							sum += sample.distance(o, h, Double.POSITIVE_INFINITY);
+						}
+						gain[h] = -sum;
+					}
+				});
+				Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+			} else {
+				for(int o=0;o<s;o++) {
+					nearest[o] = Double.POSITIVE_INFINITY;
+					for(int c=0;c<given.length;c++) {
+						nearest[o] = Math.min(nearest[o], sample.distance(o, given[c], nearest[o]));
+					}
+				}
+			}
+			for(int c=given.length;c<k;c++) {
+				if(c>0 || given.length>0) {
+					forEach(s, new Loop() {
+						@Override
+						void run(int h) {
+							double sum = 0;
+							if(!isMedoid[h]) {
+								for(int o=0;o<s;o++) {
+									sum += Math.max(0, nearest[o]-sample.distance(o, h, nearest[o]));
+								}
+							}
+							gain[h] = sum;
+						}
+					});
+				}
+				int h = -1;
+				for(int o=0;o<s;o++) {
+					if(!isMedoid[o] && (h<0 || gain[o]>gain[h])) {
+						h = o;
+					}
+				}
+				medoids[c] = h;
+				isMedoid[h] = true;
+				for(int o=0;o<s;o++) {
+					nearest[o] = Math.min(nearest[o], sample.distance(o, h, nearest[o]));
+				}
+			}
+
+			//distances of the sample to the medoids, nearest and second nearest medoid
+			final double[][] column = new double[k][];
+			for(int c=0;c<k;c++) {
+				column[c] = column(sample, medoids[c]);
+			}
+			final int[] cluster = new int[s];
+			final double[] second = new double[s];
+			final double[] delta = new double[s];
+			final int[] removed = new int[s];
+			for(int swaps=0;swaps<maxSwaps;swaps++) {
+				for(int o=0;o<s;o++) {
+					cluster[o] = 0;
+					nearest[o] = column[0][o];
+					second[o] = Double.POSITIVE_INFINITY;
+					for(int c=1;c<k;c++) {
+						if(column[c][o]<nearest[o]) {
+							second[o] = nearest[o];
+							nearest[o] = column[c][o];
+							cluster[o] = c;
+						} else if(column[c][o]<second[o]) {
+							second[o] = column[c][o];
+						}
+					}
+				}
+				forEach(s, new Loop() {
+					@Override
+					void run(int h) {
+						delta[h] = Double.POSITIVE_INFINITY;
+						if(isMedoid[h]) {
+							return;
+						}
+						//change of the cost if h is added, and if h replaces each medoid
+						double added = 0;
+						double[] replaced = new double[k];
+						for(int o=0;o<s;o++) {
+							double bound = 0;
+							for(int c=0;c<k;c++) {
+								bound = Math.max(bound, Math.abs(column[c][o]-column[c][h]));
+							}
+							if(bound>=second[o]) {
+								skippedCount.incrementAndGet();
+								replaced[cluster[o]] += second[o]-nearest[o];
+								continue;
+							}
+							double d = sample.distance(o, h, second[o]);
+							added += Math.min(d, nearest[o])-nearest[o];
+							replaced[cluster[o]] += Math.min(d, second[o])-Math.min(d, nearest[o]);
+						}
+						removed[h] = 0;
+						for(int c=1;c<k;c++) {
+							if(replaced[c]<replaced[removed[h]]) {
+								removed[h] = c;
+							}
+						}
+						delta[h] = added+replaced[removed[h]];
+					}
+				});
+				int h = -1;
+				for(int o=0;o<s;o++) {
+					if(!isMedoid[o] && (h<0 || delta[o]<delta[h])) {
+						h = o;
+					}
+				}
+				if(h<0 || delta[h]>=-EPSILON) {
+					break;
+				}
+				int c = removed[h];
+				isMedoid[medoids[c]] = false;
+				isMedoid[h] = true;
+				medoids[c] = h;
+				column[c] = column(sample, h);
+			}
+			return medoids;
+		}
+
+		private double[] column(final Sample sample, final int m) {
+			final double[] column = new double[sample.ids.length];
+			forEach(column.length, new Loop() {
+				@Override
+				void run(int o) {
+					column[o] = sample.distance(o, m, Double.POSITIVE_INFINITY);
+				}
+			});
+			return column;
+		}
+
+		/**
+		 * Assigns every graph to its nearest medoid
+		 * @param medoids sample positions of the medoids
+		 */
+		Result assign(final Sample sample, final int[] medoids) {
+			final int[] ids = new int[k];
+			final double[][] between = new double[k][k];
+			for(int c=0;c<k;c++) {
+				ids[c] = sample.ids[medoids[c]];
+				for(int e=0;e<c;e++) {
+					between[c][e] = between[e][c] = sample.distance(medoids[c], medoids[e], Double.POSITIVE_INFINITY);
+				}
+			}
+			//graphs of the sample take their distances from its cache
+			final int[] positions = new int[graphs.length];
+			Arrays.fill(positions, -1);
+			for(int a=0;a<sample.ids.length;a++) {
+				positions[sample.ids[a]] = a;
+			}
+			final int[] clusters = new int[graphs.length];
+			final double[] distances = new double[graphs.length];
+			forEach(graphs.length, new Loop() {
+				@Override
+				void run(int x) {
+					double[] lower = new double[k];
+					Integer[] order = new Integer[k];
+					for(int c=0;c<k;c++) {
+						if(ids[c]==x) {
+							clusters[x] = c;
+							distances[x] = 0;
+							return;
+						}
+						lower[c] = labels==null?0:labelBound.getLabelBound(labels[x], labels[ids[c]]);
+						order[c] = c;
+					}
+					if(labels!=null) {
+						sortBy(order, lower);
+					}
+					int first = order[0];
+					double firstDistance = positions[x]<0?distance(x, ids[first], Double.POSITIVE_INFINITY)
+							:sample.distance(positions[x], medoids[first], Double.POSITIVE_INFINITY);
+					int best = first;
+					double bestDistance = firstDistance;
+					for(int r=1;r<k;r++) {
+						int c = order[r];
+						if(lower[c]>=bestDistance) {
+							skippedCount.addAndGet(k-r);
+							break;
+						}
+						if(Math.abs(between[first][c]-firstDistance)>=bestDistance) {
+							skippedCount.incrementAndGet();
+							continue;
+						}
+						double d = positions[x]<0?distance(x, ids[c], bestDistance):sample.distance(positions[x], medoids[c], bestDistance);
+						if(d<bestDistance) {
+							best = c;
+							bestDistance = d;
+						}
+					}
+					clusters[x] = best;
+					distances[x] = bestDistance;
+				}
+			});
+			double cost = 0;
+			for(double d:distances) {
+				cost += d;
+			}
+			return new Result(ids, clusters, distances, cost);
+		}
+
+		/**
+		 * A sample of graphs and the distances between them computed so far
+		 */
+		class Sample {
+
+			private int[] ids;
+
+			/**
+			 * distance of a < b at b*(b-1)/2+a: NaN if unknown, negated if it is a lower bound, then it is positive
+			 */
+			private float[] cache;
+
+			Sample(int[] ids) {
+				this.ids = ids;
+				this.cache = new float[(int)Math.min(Integer.MAX_VALUE, (long)ids.length*(ids.length-1)/2)];
+				Arrays.fill(cache, Float.NaN);
+			}
+
+			/**
+			 * Distance of two graphs of the sample, exact below a bound and at least the bound otherwise. The cache is
+			 * written without a lock: a value that another thread does not see yet is computed again.
+			 */
+			double distance(int a, int b, double bound) {
+				if(a==b || bound<=0) {
+					return 0;
+				}
+				int cell = a<b?(int)((long)b*(b-1)/2+a):(int)((long)a*(a-1)/2+b);
+				float cached = cache[cell];
+				if(cached>=0) {
+					return cached;
+				}
+				if(cached<0 && -cached>=bound) {
+					return -cached;
+				}
+				double d = Run.this.distance(ids[a], ids[b], bound);
+				cache[cell] = d<bound?(float)d:-(float)d;
+				return d;
+			}
+		}
+	}
+
+	private static void sortBy(Integer[] order, final double[] key) {
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer x, Integer y) {
+				return Double.compare(key[x], key[y]);
+			}
+		});
+	}
+
+	/**
+	 * Body of a parallel loop
+	 */
+	private abstract static class Loop {
+
+		abstract void run(int i);
+	}
+
+	/**
+	 * A range of a loop, split in halves down to {@link #GRAPHS_PER_TASK}
+	 */
+	private static class Range extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private Loop loop;
+		private int from;
+		private int to;
+
+		Range(Loop loop, int from, int to) {
+			this.loop = loop;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to-from<=GRAPHS_PER_TASK) {
+				for(int i=from;i<to;i++) {
+					loop.run(i);
+				}
+			} else {
+				int mid = (from+to)>>>1;
+				invokeAll(new Range(loop, from, mid), new Range(loop, mid, to));
+			}
+		}
+	}
+
+	public static void help() {
+		System.out.println("QueryClustering <query file> <k> for the k-medoids clusters of a file of one query per line, escaped or as a JSON object with a query field");
+		System.out.println("\t --samples for the number of samples, default "+DEFAULT_SAMPLES);
+		System.out.println("\t --sample-size for the number of queries of a sample, default 40+2k");
+		System.out.println("\t --seed for the seed of the samples, default 0");
+		System.out.println("\t --threads for the number of threads, default the number of processors");
+		System.out.println("\t --approximate for the Bipartite VolgenantJonker distances instead of exact distances");
+		System.out.println("\t --medoids followed by a file to write the medoid queries to, one escaped query per line by cluster");
+		System.out.println("\t output lines: position TAB cluster TAB distance to the medoid");
+	}
+
+	public static void main(String[] args) throws IOException {
+		Log.setCmdLogging();
+		if(args.length<2 || args[0].equals("--help")) {
+			help();
+			return;
+		}
+		int k = Integer.parseInt(args[1]);
+		int threads = Runtime.getRuntime().availableProcessors();
+		String medoidFile = null;
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		AlgorithmConfig config = null;
+		int samples = DEFAULT_SAMPLES;
+		int sampleSize = 0;
+		long seed = 0;
+		for(int a=2;a<args.length;a++) {
+			if(args[a].equals("--samples") && a+1<args.length) {
+				samples = Integer.parseInt(args[++a]);
+			} else if(args[a].equals("--sample-size") && a+1<args.length) {
+				sampleSize = Integer.parseInt(args[++a]);
+			} else if(args[a].equals("--seed") && a+1<args.length) {
+				seed = Long.parseLong(args[++a]);
+			} else if(args[a].equals("--threads") && a+1<args.length) {
+				threads = Integer.parseInt(args[++a]);
+			} else if(args[a].equals("--approximate")) {
+				config = AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+			} else if(args[a].equals("--medoids") && a+1<args.length) {
+				medoidFile = args[++a];
+			} else {
+				throw new IllegalArgumentException("Unknown option "+args[a]+", --help for help");
+			}
+		}
+		List<String> queries;
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(args[0]), "UTF-8"));
+		try {
+			queries = QDistanceBatch.readQueries(in);
+		} finally {
+			in.close();
+		}
+		QueryClustering clustering = new QueryClustering(matcher, config);
+		clustering.setSamples(samples);
+		clustering.setSampleSize(sampleSize);
+		clustering.setSeed(seed);
+		Result result = clustering.queryClustering(queries, k, threads);
+
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"));
+		for(int x=0;x<queries.size();x++) {
+			out.print(x+"\t"+result.getClusters()[x]+"\t"+result.getDistances()[x]+"\n");
+		}
+		out.flush();
+		if(medoidFile!=null) {
+			PrintWriter medoids = new PrintWriter(new OutputStreamWriter(new FileOutputStream(medoidFile), "UTF-8"));
+			try {
+				for(int m:result.getMedoids()) {
+					medoids.print(QDistanceServer.escape(queries.get(m))+"\n");
+				}
+			} finally {
+				medoids.close();
+			}
+		}
+		System.err.println(result);
+	}
+}
@@ -0,0 +1,147 @@
+package semanticweb;
+
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import ged.CompactGraph;
+import ged.LabelDictionary;
+import semanticweb.sparql.SparqlUtils;
+
+/**
+ * Concurrent cache of the compact query graphs of SPARQL queries, so that a query compared with many others is parsed once.
+ * <p>
+ * The graphs are keyed by the normalized query text, see {@link #normalize(String)}, and bounded by their total weight,
+ * the number of nodes plus the number of edges plus one of every graph. The least recently used graphs are evicted first.
+ * Concurrent requests of a missing query wait for one parse. Queries that cannot be parsed are not cached.
+ * The graphs have the labels of a dictionary, so they can only be compared with graphs of the same dictionary.
+ */
+public class QueryGraphCache {
+
+	/**
+	 * default bound of the total weight, nodes plus edges of the cached graphs
+	 */
+	final public static long DEFAULT_MAX_WEIGHT = 1 << 20;
+
+	/**
+	 * id of the cached graphs, which are shared by all comparisons
+	 */
+	final private static String GRAPH_ID = "query";
+
+	private LoadingCache<String, CompactGraph> graphs;
+
+	private long maxWeight;
+
+	/**
+	 * @param dictionary dictionary of the labels of the graphs
+	 * @param maxWeight bound of the total weight of the graphs, 0 to cache nothing
+	 */
+	public QueryGraphCache(final LabelDictionary dictionary, long maxWeight) {
+		this.maxWeight = maxWeight;
+		this.graphs = CacheBuilder.newBuilder()
+				.maximumWeight(maxWeight)
+				.weigher(new Weigher<String, CompactGraph>() {
+					@Override
+					public int weigh(String query, CompactGraph graph) {
+						return graph.size()+graph.edgeCount()+1;
+					}
+				})
+				.recordStats()
+				.build(new CacheLoader<String, CompactGraph>() {
+					@Override
+					public CompactGraph load(String query) {
+						return SparqlUtils.buildSPARQLCompactGraph(query, GRAPH_ID, dictionary);
+					}
+				});
+	}
+
+	/**
+	 * Normalizes a query for the cache key: leading and trailing white space are removed and line ends become \n.
+	 * White space within the query is kept, as it may be part of a literal or end a comment.
+	 * @param query a SPARQL query
+	 * @return the normalized query
+	 */
+	public static String normalize(String query) {
+		return query.trim().replace("\r\n", "\n").replace('\r', '\n');
+	}
+
+	/**
+	 * Gets the query graph of a query, parsing the query if the graph is not cached
+	 * @param query a SPARQL query
+	 * @return the compact query graph
+	 * @throws RuntimeException the exception of the parser if the query cannot be parsed
+	 */
+	public CompactGraph get(String query) {
+		try {
+			return graphs.get(normalize(query));
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} catch (UncheckedExecutionException e) {
+			//the parser throws unchecked exceptions only
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Bound of the total weight of the graphs
+	 * @return the bound, 0 if nothing is cached
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Number of requests answered from the cache
+	 * @return hits since creation
+	 */
+	public long hitCount() {
+		return graphs.stats().hitCount();
+	}
+
+	/**
+	 * Number of requests that parsed the query
+	 * @return misses since creation
+	 */
+	public long missCount() {
+		return graphs.stats().missCount();
+	}
+
+	/**
+	 * Number of graphs evicted to stay within the weight bound
+	 * @return evictions since creation
+	 */
+	public long evictionCount() {
+		return graphs.stats().evictionCount();
+	}
+
+	/**
+	 * All counters of the cache
+	 * @return hit, miss, load and eviction counts
+	 */
+	public CacheStats stats() {
+		return graphs.stats();
+	}
+
+	/**
+	 * Number of cached graphs
+	 * @return the size of the cache
+	 */
+	public long size() {
+		return graphs.size();
+	}
+
+	/**
+	 * Removes all graphs, the counters are kept
+	 */
+	public void clear() {
+		graphs.invalidateAll();
+	}
+}
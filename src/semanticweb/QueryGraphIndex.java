@@ -0,0 +1,605 @@
+package semanticweb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.naming.OperationNotSupportedException;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+
+/**
+ * Vantage-point tree over query graphs, for the k nearest graphs of a query graph and the graphs within a radius of it
+ * without comparing the query with every graph.
+ * <p>
+ * An inner node of the tree splits its graphs by their distance to a vantage point at the median, and keeps the range of
+ * the distances on either side. A leaf keeps, for each of its graphs, the distances to the vantage points above it. By the triangle
+ * inequality, a search skips the subtrees and the graphs that cannot be within its radius given the distances of the query
+ * to the vantage points, and the radius of a k nearest neighbour search shrinks as neighbours are found.
+ * <p>
+ * By default the distances are exact and every search distance is computed by {@link RDFGraphMatching#distanceBelow(CompactGraph, CompactGraph, double)}
+ * up to the distance beyond which it would not change the search, so the graphs far from the query cost little. The results are
+ * exact when the distance is a metric. The exact edit distance is not always one: it charges self-loops as the GMT edit path cost does,
+ * so it is not symmetric on some query graphs with self-loops and may break the triangle inequality there, and a search may then miss
+ * such a neighbour. With the configuration of an approximation, its distances are indexed as if they were a metric: searches are faster
+ * and may miss neighbours, and a graph whose Hausdorff edit distance to the query is beyond the radius is skipped.
+ * <p>
+ * Graphs are added and removed one by one; removed graphs are marked and the tree is rebuilt once they outnumber the others.
+ * Searches may run concurrently, changes wait for the searches.
+ */
+public class QueryGraphIndex {
+
+	/**
+	 * number of graphs of a leaf before it is split
+	 */
+	final public static int LEAF_SIZE = 16;
+
+	private RDFGraphMatching matcher;
+	private AlgorithmConfig config;
+
+	/**
+	 * graph of every id, null once removed unless it is still a vantage point
+	 */
+	private List<CompactGraph> graphs;
+	private BitSet removed;
+	private BitSet vantagePoints;
+	private int live;
+	/**
+	 * removed graphs still in the tree
+	 */
+	private int tombstones;
+	private Node root;
+
+	private ReadWriteLock lock;
+
+	/**
+	 * An index of exact distances
+	 * @param matcher computes the distances, its label dictionary must be the one of the graphs
+	 */
+	public QueryGraphIndex(RDFGraphMatching matcher) {
+		this(matcher, null);
+	}
+
+	/**
+	 * @param matcher computes the distances, its label dictionary must be the one of the graphs
+	 * @param config algorithm of the distances, null or an exact algorithm for exact distances
+	 */
+	public QueryGraphIndex(RDFGraphMatching matcher, AlgorithmConfig config) {
+		this.matcher = matcher;
+		boolean exact = config==null || config.isAStar()
+				|| (config.isDepthFirstBranchAndBound() && config.getMaxExpansions()==Long.MAX_VALUE);
+		this.config = exact?null:config;
+		this.graphs = new ArrayList<CompactGraph>();
+		this.removed = new BitSet();
+		this.vantagePoints = new BitSet();
+		this.root = new Node();
+		this.lock = new ReentrantReadWriteLock();
+	}
+
+	/**
+	 * A graph of the index and its distance to the query
+	 */
+	public static class Neighbour {
+
+		private int id;
+		private double distance;
+
+		Neighbour(int id, double distance) {
+			this.id = id;
+			this.distance = distance;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		public double getDistance() {
+			return distance;
+		}
+
+		@Override
+		public String toString() {
+			return id+":"+distance;
+		}
+	}
+
+	/**
+	 * The graphs found by a search, by increasing distance, and the work it did
+	 */
+	public static class Result {
+
+		private List<Neighbour> neighbours;
+		private int distanceCount;
+		private int boundedCount;
+		private int prunedCount;
+
+		Result(List<Neighbour> neighbours, int distanceCount, int boundedCount, int prunedCount) {
+			this.neighbours = neighbours;
+			this.distanceCount = distanceCount;
+			this.boundedCount = boundedCount;
+			this.prunedCount = prunedCount;
+		}
+
+		/**
+		 * The graphs found, by increasing distance, then by id
+		 * @return the neighbours
+		 */
+		public List<Neighbour> getNeighbours() {
+			return neighbours;
+		}
+
+		/**
+		 * Number of distance computations, including those of removed vantage points
+		 * @return computations
+		 */
+		public int getDistanceCount() {
+			return distanceCount;
+		}
+
+		/**
+		 * Number of distance computations that stopped at a bound, beyond the radius, before the distance was known
+		 * @return computations stopped early
+		 */
+		public int getBoundedCount() {
+			return boundedCount;
+		}
+
+		/**
+		 * Number of graphs of the index whose distance was not computed, by the triangle inequality
+		 * @return skipped graphs
+		 */
+		public int getPrunedCount() {
+			return prunedCount;
+		}
+	}
+
+	/**
+	 * A node of the tree: an inner node with a vantage point, or a leaf
+	 */
+	private static class Node {
+
+		int vantage = -1;
+		/**
+		 * the inner subtree holds the graphs at most this distance from the vantage point
+		 */
+		double median;
+		double innerLow;
+		double innerHigh;
+		double outerLow;
+		double outerHigh;
+		Node inner;
+		Node outer;
+
+		List<Entry> entries = new ArrayList<Entry>();
+		/**
+		 * size at which the leaf is split next, after a split that failed for equal distances
+		 */
+		int splitAt = LEAF_SIZE+1;
+
+		boolean isLeaf() {
+			return vantage<0;
+		}
+
+		void replaceBy(Node node) {
+			vantage = node.vantage;
+			median = node.median;
+			innerLow = node.innerLow;
+			innerHigh = node.innerHigh;
+			outerLow = node.outerLow;
+			outerHigh = node.outerHigh;
+			inner = node.inner;
+			outer = node.outer;
+			entries = node.entries;
+			splitAt = node.splitAt;
+		}
+	}
+
+	/**
+	 * A graph of a leaf with its distances to the vantage points above the leaf, from the root down
+	 */
+	private static class Entry {
+
+		int id;
+		double[] path;
+
+		Entry(int id, double[] path) {
+			this.id = id;
+			this.path = path;
+		}
+	}
+
+	/**
+	 * Adds the query graph of a query
+	 * @param query SPARQL query string
+	 * @return the id of the graph, its position in the order of addition
+	 */
+	public int add(String query) {
+		return add(matcher.queryGraph(query));
+	}
+
+	/**
+	 * Adds a graph
+	 * @param g a graph with the labels of the matcher
+	 * @return the id of the graph, its position in the order of addition
+	 */
+	public int add(CompactGraph g) {
+		lock.writeLock().lock();
+		try {
+			int id = graphs.size();
+			graphs.add(g);
+			live++;
+			Node node = root;
+			List<Double> path = new ArrayList<Double>();
+			while(!node.isLeaf()) {
+				double d = distance(graphs.get(node.vantage), g);
+				path.add(d);
+				if(d<=node.median) {
+					node.innerLow = Math.min(node.innerLow, d);
+					node.innerHigh = Math.max(node.innerHigh, d);
+					node = node.inner;
+				} else {
+					node.outerLow = Math.min(node.outerLow, d);
+					node.outerHigh = Math.max(node.outerHigh, d);
+					node = node.outer;
+				}
+			}
+			double[] p = new double[path.size()];
+			for(int a=0;a<p.length;a++) {
+				p[a] = path.get(a);
+			}
+			node.entries.add(new Entry(id, p));
+			if(node.entries.size()>=node.splitAt) {
+				node.replaceBy(build(node.entries, p.length));
+			}
+			return id;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds graphs and builds the tree again, a balanced tree, which is faster than adding the graphs one by one
+	 * @param added graphs with the labels of the matcher
+	 * @return the id of the first graph added, the others follow
+	 */
+	public int addAll(List<CompactGraph> added) {
+		lock.writeLock().lock();
+		try {
+			int first = graphs.size();
+			graphs.addAll(added);
+			live += added.size();
+			rebuild();
+			return first;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a graph
+	 * @param id id of the graph
+	 * @return false if there is no such graph
+	 */
+	public boolean remove(int id) {
+		lock.writeLock().lock();
+		try {
+			if(id<0 || id>=graphs.size() || removed.get(id)) {
+				return false;
+			}
+			removed.set(id);
+			live--;
+			tombstones++;
+			if(!vantagePoints.get(id)) {
+				graphs.set(id, null);
+			}
+			if(tombstones>live) {
+				rebuild();
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets a graph
+	 * @param id id of the graph
+	 * @return the graph, or null if it was removed
+	 */
+	public CompactGraph get(int id) {
+		lock.readLock().lock();
+		try {
+			return id<0 || id>=graphs.size() || removed.get(id)?null:graphs.get(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Number of graphs
+	 * @return graphs added and not removed
+	 */
+	public int size() {
+		return live;
+	}
+
+	/**
+	 * Builds the tree again from the graphs that are not removed, which balances it
+	 */
+	public void rebuild() {
+		lock.writeLock().lock();
+		try {
+			List<Entry> entries = new ArrayList<Entry>(live);
+			for(int id=0;id<graphs.size();id++) {
+				if(removed.get(id)) {
+					graphs.set(id, null);
+				} else {
+					entries.add(new Entry(id, new double[0]));
+				}
+			}
+			vantagePoints.clear();
+			tombstones = 0;
+			root = build(entries, 0);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Builds a subtree of graphs that have the distances to the vantage points above it
+	 */
+	private Node build(List<Entry> entries, int depth) {
+		Node node = new Node();
+		if(entries.size()<=LEAF_SIZE) {
+			node.entries = new ArrayList<Entry>(entries);
+			return node;
+		}
+		//the graph farthest from the vantage point above, far from the others as well
+		int v = 0;
+		for(int k=1;depth>0 && k<entries.size();k++) {
+			if(entries.get(k).path[depth-1]>entries.get(v).path[depth-1]) {
+				v = k;
+			}
+		}
+		Entry vantage = entries.get(v);
+		CompactGraph g = graphs.get(vantage.id);
+		List<Entry> others = new ArrayList<Entry>(entries.size()-1);
+		double[] d = new double[entries.size()-1];
+		for(int k=0;k<entries.size();k++) {
+			if(k!=v) {
+				Entry e = entries.get(k);
+				d[others.size()] = distance(g, graphs.get(e.id));
+				others.add(e);
+			}
+		}
+		double median = median(d);
+		if(Double.isNaN(median)) {
+			//all at the same distance: a larger leaf, split again when it has doubled
+			node.entries = new ArrayList<Entry>(entries);
+			node.splitAt = 2*entries.size();
+			return node;
+		}
+		List<Entry> inner = new ArrayList<Entry>();
+		List<Entry> outer = new ArrayList<Entry>();
+		node.vantage = vantage.id;
+		node.median = median;
+		node.innerLow = node.outerLow = Double.POSITIVE_INFINITY;
+		node.innerHigh = node.outerHigh = Double.NEGATIVE_INFINITY;
+		for(int k=0;k<others.size();k++) {
+			Entry e = others.get(k);
+			double[] path = new double[depth+1];
+			System.arraycopy(e.path, 0, path, 0, depth);
+			path[depth] = d[k];
+			if(d[k]<=median) {
+				inner.add(new Entry(e.id, path));
+				node.innerLow = Math.min(node.innerLow, d[k]);
+				node.innerHigh = Math.max(node.innerHigh, d[k]);
+			} else {
+				outer.add(new Entry(e.id, path));
+				node.outerLow = Math.min(node.outerLow, d[k]);
+				node.outerHigh = Math.max(node.outerHigh, d[k]);
+			}
+		}
+		vantagePoints.set(vantage.id);
+		node.entries = null;
+		node.inner = build(inner, depth+1);
+		node.outer = build(outer, depth+1);
+		return node;
+	}
+
+	/**
+	 * The distance that splits distances closest to halves with some on either side, NaN if they are all equal
+	 */
+	private static double median(double[] d) {
+		double[] sorted = d.clone();
+		Arrays.sort(sorted);
+		int n = sorted.length;
+		double m = sorted[(n-1)/2];
+		//the inner side is the distances at most m, or the distances below m
+		int atMost = 0;
+		int below = 0;
+		for(double x:sorted) {
+			if(x<=m) {
+				atMost++;
+			}
+			if(x<m) {
+				below++;
+			}
+		}
+		boolean atMostSplits = atMost<n;
+		boolean belowSplits = below>0;
+		if(atMostSplits && (!belowSplits || Math.abs(2*atMost-n)<=Math.abs(2*below-n))) {
+			return m;
+		}
+		return belowSplits?sorted[below-1]:Double.NaN;
+	}
+
+	/**
+	 * Finds the k graphs nearest to a query graph
+	 * @param q the query graph, with the labels of the matcher
+	 * @param k number of neighbours
+	 * @return the k nearest graphs, fewer if the index is smaller; graphs at the same distance are taken by id
+	 */
+	public Result nearest(CompactGraph q, int k) {
+		return search(q, new Search(k, Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Finds the graphs within a distance of a query graph
+	 * @param q the query graph, with the labels of the matcher
+	 * @param radius the distance
+	 * @return the graphs at most the radius from the query
+	 */
+	public Result range(CompactGraph q, double radius) {
+		return search(q, new Search(Integer.MAX_VALUE, radius));
+	}
+
+	private Result search(CompactGraph q, Search s) {
+		lock.readLock().lock();
+		try {
+			search(root, q, 0, s);
+			List<Neighbour> neighbours = new ArrayList<Neighbour>(s.found);
+			Collections.sort(neighbours, NEAREST_FIRST);
+			return new Result(neighbours, s.distanceCount, s.boundedCount, live-s.liveCount);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Visits a subtree, given bounds low and high of the distances of the query to the vantage points above it
+	 */
+	private void search(Node node, CompactGraph q, int depth, Search s) {
+		double[] low = s.low;
+		double[] high = s.high;
+		if(node.isLeaf()) {
+			for(Entry e:node.entries) {
+				if(removed.get(e.id)) {
+					continue;
+				}
+				boolean pruned = false;
+				for(int a=0;a<depth && !pruned;a++) {
+					pruned = low[a]-e.path[a]>s.radius() || e.path[a]-high[a]>s.radius();
+				}
+				if(!pruned) {
+					double d = distance(q, graphs.get(e.id), Math.nextUp(s.radius()), s, true);
+					s.offer(e.id, d);
+				}
+			}
+			return;
+		}
+		double reach = Math.max(node.innerHigh, node.outerHigh);
+		double bound = Math.nextUp(s.radius()+Math.max(reach, 0.0));
+		double d = distance(q, graphs.get(node.vantage), bound, s, !removed.get(node.vantage));
+		if(depth==low.length) {
+			low = s.low = Arrays.copyOf(low, 2*depth);
+			high = s.high = Arrays.copyOf(high, 2*depth);
+		}
+		low[depth] = d;
+		high[depth] = d<bound?d:Double.POSITIVE_INFINITY;
+		if(!removed.get(node.vantage)) {
+			s.offer(node.vantage, d);
+		}
+		boolean innerFirst = d<=node.median;
+		for(int side=0;side<2;side++) {
+			boolean isInner = innerFirst==(side==0);
+			double lo = isInner?node.innerLow:node.outerLow;
+			double hi = isInner?node.innerHigh:node.outerHigh;
+			if(low[depth]-s.radius()<=hi && high[depth]+s.radius()>=lo) {
+				search(isInner?node.inner:node.outer, q, depth+1, s);
+			}
+		}
+	}
+
+	/**
+	 * State of a search: the neighbours found and the radius
+	 */
+	private static class Search {
+
+		int k;
+		double radius;
+		PriorityQueue<Neighbour> found;
+		/**
+		 * bounds of the distances of the query to the vantage points above the node visited
+		 */
+		double[] low = new double[32];
+		double[] high = new double[32];
+		int distanceCount;
+		int boundedCount;
+		int liveCount;
+
+		Search(int k, double radius) {
+			this.k = k;
+			this.radius = radius;
+			this.found = new PriorityQueue<Neighbour>(11, Collections.reverseOrder(NEAREST_FIRST));
+		}
+
+		double radius() {
+			return found.size()<k?radius:Math.min(radius, found.peek().distance);
+		}
+
+		void offer(int id, double d) {
+			if(d>radius()) {
+				return;
+			}
+			Neighbour n = new Neighbour(id, d);
+			if(found.size()<k) {
+				found.add(n);
+			} else if(NEAREST_FIRST.compare(n, found.peek())<0) {
+				found.poll();
+				found.add(n);
+			}
+		}
+	}
+
+	final private static Comparator<Neighbour> NEAREST_FIRST = new Comparator<Neighbour>() {
+		@Override
+		public int compare(Neighbour a, Neighbour b) {
+			int c = Double.compare(a.distance, b.distance);
+			return c!=0?c:(a.id<b.id?-1:a.id==b.id?0:1);
+		}
+	};
+
+	/**
+	 * Distance of a search, exact up to a bound
+	 */
+	private double distance(CompactGraph q, CompactGraph g, double bound, Search s, boolean isLive) {
+		s.distanceCount++;
+		if(isLive) {
+			s.liveCount++;
+		}
+		double d;
+		if(config==null) {
+			d = matcher.distanceBelow(q, g, bound);
+		} else if(!config.isHausdorff() && bound<Double.POSITIVE_INFINITY && matcher.distanceHausdorff(q, g)>=bound) {
+			d = bound;
+		} else {
+			d = distance(q, g);
+		}
+		if(d>=bound) {
+			s.boundedCount++;
+		}
+		return d;
+	}
+
+	/**
+	 * Distance of the tree
+	 */
+	private double distance(CompactGraph g1, CompactGraph g2) {
+		if(config==null) {
+			return matcher.distanceBelow(g1, g2, Double.POSITIVE_INFINITY);
+		}
+		try {
+			return matcher.distance(g1, g2, config);
+		} catch (OperationNotSupportedException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+}
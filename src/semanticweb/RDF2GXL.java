@@ -1,7 +1,11 @@
 package semanticweb;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import com.hp.hpl.jena.rdf.model.Model;
@@ -14,6 +18,9 @@ import com.hp.hpl.jena.rdf.model.Statement;
 import com.hp.hpl.jena.rdf.model.StmtIterator;
 import com.hp.hpl.jena.util.FileManager;
 
+import ged.AdjacencyBuilder;
+import ged.AdjacencyGraph;
+
 import util.Edge;
 import util.Graph;
 import util.Node;
@@ -183,7 +190,10 @@ public class RDF2GXL {
 	}	
 	
 	/**
-	 * Parses a GXL graph and puts it into a {@link Graph} object. Method copied from XMLParser in GraphMatchingToolkit.
+	 * Parses a GXL graph and puts it into a {@link Graph} object. Method adapted from XMLParser in GraphMatchingToolkit: 
+	 * edge ends are resolved through an index of the node ids instead of scanning all nodes for every edge, 
+	 * so parsing is linear in the number of nodes and edges. 
+	 * The returned graph is an {@link AdjacencyGraph}, large graphs get a sparse adjacency (see {@link AdjacencyBuilder}).
 	 * @param xml xml root (gxl) element
 	 * @return a graph
 	 * @throws Exception
@@ -191,7 +201,7 @@ public class RDF2GXL {
 	
 	public static Graph parseGXL(XMLElement xml) throws Exception {
 
-		Graph graph1 = new Graph();
+		AdjacencyGraph graph1 = new AdjacencyGraph();
 		Vector children = xml.getChildren();
 		XMLElement root = (XMLElement) children.get(0);
 		String id = (String) root.getAttribute("id", null);
@@ -203,6 +213,10 @@ public class RDF2GXL {
 			graph1.setDirected(true);
 		}
 		Enumeration enumerator = root.enumerateChildren();
+		//positions of the nodes with a given id. GXL documents built from RDF may contain the same id several times
+		Map<String, List<Integer>> nodeIndex = new HashMap<String, List<Integer>>();
+		//random access to the nodes, the graph itself is a linked list
+		List<Node> nodes = new ArrayList<Node>();
 		int n = 0;
 		while (enumerator.hasMoreElements()) {
 			XMLElement child = (XMLElement) enumerator.nextElement();
@@ -223,11 +237,17 @@ public class RDF2GXL {
 
 				}
 				graph1.add(node);
+				nodes.add(node);
+				List<Integer> positions = nodeIndex.get(nodeId);
+				if (positions == null) {
+					positions = new ArrayList<Integer>(1);
+					nodeIndex.put(nodeId, positions);
+				}
+				positions.add(n);
 				n++;
 			}
 		}
-		Edge[][] edges = new Edge[n][n]; 
-		graph1.setAdjacenyMatrix(edges);
+		AdjacencyBuilder edges = new AdjacencyBuilder(n);
 		enumerator = root.enumerateChildren();
 		while (enumerator.hasMoreElements()) {	
 			XMLElement child = (XMLElement) enumerator.nextElement();
@@ -252,26 +272,31 @@ public class RDF2GXL {
 					}
 				}
 							
-				for (int i = 0; i < graph1.size(); i++){
-					Node nodeI = graph1.get(i); 
-					if (nodeI.getNodeID().equals(from)) {
-						edge.setStartNode(nodeI);
-						nodeI.getEdges().add(edge);
-						for (int j = 0; j < graph1.size(); j++){
-							Node nodeJ = graph1.get(j); 
-							if (nodeJ.getNodeID().equals(to)) {
-								edge.setEndNode(nodeJ);
-								nodeJ.getEdges().add(edge);
-								edges[i][j] = edge;
-								if (!graph1.isDirected()){
-									edges[j][i] = edge;
-								}
-							}
+				List<Integer> fromPositions = nodeIndex.get(from);
+				List<Integer> toPositions = nodeIndex.get(to);
+				if (fromPositions == null) {
+					continue;
+				}
+				for (int i : fromPositions){
+					Node nodeI = nodes.get(i); 
+					edge.setStartNode(nodeI);
+					nodeI.getEdges().add(edge);
+					if (toPositions == null) {
+						continue;
+					}
+					for (int j : toPositions){
+						Node nodeJ = nodes.get(j); 
+						edge.setEndNode(nodeJ);
+						nodeJ.getEdges().add(edge);
+						edges.put(i, j, edge);
+						if (!graph1.isDirected()){
+							edges.put(j, i, edge);
 						}
 					}
 				}
 			}
 		}
+		graph1.setAdjacency(edges.build());
 		
 		return graph1;
 		
@@ -1,50 +1,141 @@
 package semanticweb;
 
+import ged.AStarSearch;
 import ged.AlgorithmConfig;
+import ged.AlgorithmRouter;
+import ged.AnytimeSearch;
+import ged.AssignmentSolver;
+import ged.AssignmentWorkspace;
+import ged.BeamSearch;
+import ged.BipartiteCostMatrix;
+import ged.BranchAndBoundSearch;
+import ged.CompactGraph;
+import ged.DistanceMatrixSink;
+import ged.DistanceMemo;
+import ged.DistanceResult;
+import ged.EditPathCost;
+import ged.ForkJoinPools;
+import ged.GreedySolver;
+import ged.HausdorffEditDistance;
+import ged.HungarianSolver;
+import ged.LabelCostModel;
+import ged.LabelDictionary;
+import ged.PreparedGraph;
+import ged.StarCostMatrixGenerator;
+import ged.VolgenantJonkerSolver;
 
 import java.io.ObjectInputStream.GetField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 
 import javax.naming.OperationNotSupportedException;
 
 import com.google.common.base.Stopwatch;
 
-import algorithms.BipartiteMatching;
-
-import semanticweb.sparql.SparqlUtils;
 import util.CostFunction;
-import util.EditDistance;
 import util.Graph;
-import util.MatrixGenerator;
 
 public class RDFGraphMatching {
 	
 	/**
-	 * computes the approximated or exact graph edit distance 
+	 * name of the results of isomorphic graphs, which are not searched
+	 */
+	final public static String ISOMORPHISM = "Isomorphism";
+	
+	/**
+	 * number of graphs per side of the tiles of pairs of {@link #distanceMatrix(List, AlgorithmConfig, int, DistanceMatrixSink)}
+	 */
+	public static int DISTANCE_MATRIX_TILE = 64;
+	
+	/**
+	 * targets per task of {@link #distanceToMany(PreparedGraph, List, AlgorithmConfig, int)}
+	 */
+	public static int DISTANCE_TO_MANY_BLOCK = 16;
+	
+	/**
+	 * chooses the algorithm of the automatic configuration
+	 */
+	private volatile AlgorithmRouter algorithmRouter;
+	
+	/**
+	 * computes the approximated edit distance with A*-beam search on graphs in compact form
+	 */
+	private BeamSearch beamSearch;
+	
+	/**
+	 * computes the exact edit distance with A* search on graphs in compact form
+	 */
+	private AStarSearch aStarSearch;
+	
+	/**
+	 * computes the exact edit distance with depth-first branch and bound on graphs in compact form, in memory linear in the graph sizes
+	 */
+	private BranchAndBoundSearch branchAndBoundSearch;
+	
+	/**
+	 * computes the best edit distance found within a time budget on graphs in compact form
+	 */
+	private AnytimeSearch anytimeSearch;
+	
+	/**
+	 * computes the cost of the edit path induced by a bipartite matching, on dense or sparse adjacencies
 	 */
-	private EditDistance editDistance;
+	private EditPathCost editPathCost;
 	
 	/**
 	 * computes an optimal bipartite matching of local graph structures
 	 */
-	private BipartiteMatching bipartiteMatchingHungarian;
+	private AssignmentSolver hungarianSolver;
 	
 	/**
 	 * computes an optimal bipartite matching of local graph structures
 	 */
-	private BipartiteMatching bipartiteMatchingVJ;	
+	private AssignmentSolver volgenantJonkerSolver;	
+	
+	/**
+	 * computes a greedy bipartite matching of local graph structures
+	 */
+	private AssignmentSolver greedySolver;
+	
+	/**
+	 * computes the Hausdorff edit distance, a lower bound, on graphs in compact form
+	 */
+	private HausdorffEditDistance hausdorffEditDistance;
 
 	/**
 	 * generates the cost matrix whereon the optimal bipartite matching can
 	 * be computed
 	 */
-	private MatrixGenerator matrixGenerator;
+	private StarCostMatrixGenerator matrixGenerator;
 	
 	/**
 	 * the cost function to be applied
 	 */
 	private CostFunction costFunction;	
 	
+	/**
+	 * the cost function on label ids, for graphs in compact form
+	 */
+	private LabelCostModel labelCostModel;
+	
+	/**
+	 * labels of the graphs in compact form
+	 */
+	private LabelDictionary labelDictionary;
+	
+	/**
+	 * query graphs of the queries compared by this matcher, with the labels of the dictionary
+	 */
+	private QueryGraphCache queryGraphCache;
+	
+	/**
+	 * distances of the pairs computed so far, by graph fingerprints; null, the default, to compute every pair
+	 */
+	private DistanceMemo distanceMemo;
+	
 	/**
 	 * whether the edges of the graphs are undirected (=1) or directed (=0)
 	 */
@@ -64,20 +155,35 @@ public class RDFGraphMatching {
 	
 	public RDFGraphMatching() {
 		this.costFunction = getRDFGraphCostFunction();
+		this.labelCostModel = LabelCostModel.fromCostFunction(this.costFunction);
+		this.labelDictionary = new LabelDictionary();
+		this.queryGraphCache = new QueryGraphCache(this.labelDictionary, QueryGraphCache.DEFAULT_MAX_WEIGHT);
+		this.algorithmRouter = AlgorithmRouter.getBundled();
 
 		// the matrixGenerator generates the cost-matrices according to the costfunction
-		this.matrixGenerator = new MatrixGenerator(this.costFunction,
+		this.matrixGenerator = new StarCostMatrixGenerator(this.labelCostModel,
 				this.outputCostMatrix);
 		
 		// bipartite matching procedure (Hungarian)
-		this.bipartiteMatchingHungarian = new BipartiteMatching("Hungarian", this.outputMatching);
+		this.hungarianSolver = new HungarianSolver();
 
 		// bipartite matching procedure (VolgenantJonker)
-		this.bipartiteMatchingVJ = new BipartiteMatching("VJ", this.outputMatching);
+		this.volgenantJonkerSolver = new VolgenantJonkerSolver();
+		
+		// greedy matching procedure on the same cost matrix
+		this.greedySolver = new GreedySolver();
+		
+		this.editPathCost = new EditPathCost();
+		
+		this.beamSearch = new BeamSearch(this.labelCostModel);
 		
-		// editDistance computes either the approximated edit-distance according to the bipartite matching 
-		// or computes the exact edit distance
-		this.editDistance = new EditDistance(this.undirected, this.outputEditpath);
+		this.aStarSearch = new AStarSearch(this.labelCostModel);
+		
+		this.branchAndBoundSearch = new BranchAndBoundSearch(this.labelCostModel);
+		
+		this.anytimeSearch = new AnytimeSearch(this.labelCostModel);
+		
+		this.hausdorffEditDistance = new HausdorffEditDistance(this.labelCostModel);
 		
 	}	
 	
@@ -169,15 +275,104 @@ public class RDFGraphMatching {
 				multiplyNodeCosts, squareRootEdgeCosts, multiplyEdgeCosts, nodeCostMu, nodeCostNu);			
 	}
 	/**
-	 * Distance between two GXL graphs using A* 
+	 * Distance between two GXL graphs using A*
 	 * @param sourceGraph graph 1 
 	 * @param targetGraph  graph 2
 	 * @return distance
 	 */
 	
 	public double distanceAStar(Graph sourceGraph,Graph targetGraph) {
-		return this.editDistance.getEditDistance(
-				sourceGraph, targetGraph, this.costFunction, Integer.MAX_VALUE);	
+		return distanceAStar(compact(sourceGraph), compact(targetGraph));
+	}
+	
+	/**
+	 * Exact distance between two compact graphs using A*, the distance of the A* search of the GMT library without a beam. 
+	 * The search is guided by a lower bound of the remaining cost and pruned by the cost of the Bipartite Hungarian edit path.
+	 * @param sourceGraph graph 1 
+	 * @param targetGraph  graph 2
+	 * @return distance
+	 */
+	
+	public double distanceAStar(CompactGraph sourceGraph,CompactGraph targetGraph) {
+		return this.aStarSearch.getEditDistance(sourceGraph, targetGraph, 
+				bipartiteMatching(sourceGraph, targetGraph, hungarianSolver));
+	}
+	/**
+	 * Distance between two GXL graphs using depth-first branch and bound
+	 * @param sourceGraph graph 1 
+	 * @param targetGraph  graph 2
+	 * @return distance
+	 */
+	
+	public double distanceBranchAndBound(Graph sourceGraph,Graph targetGraph) {
+		return distanceBranchAndBound(compact(sourceGraph), compact(targetGraph), Long.MAX_VALUE).getDistance();
+	}
+	
+	/**
+	 * Distance between two compact graphs using depth-first branch and bound, the distance of {@link #distanceAStar(CompactGraph, CompactGraph)} 
+	 * without its open list. The search is pruned by the cost of the Bipartite VolgenantJonker edit path and by a lower bound of the remaining cost. 
+	 * If the search runs out of expansions, the result holds the best distance found and a lower bound of the exact distance.
+	 * @param sourceGraph graph 1 
+	 * @param targetGraph  graph 2
+	 * @param maxExpansions maximum number of expanded search paths, {@link Long#MAX_VALUE} for the exact distance
+	 * @return distance, lower bound and whether the distance is exact
+	 */
+	
+	public DistanceResult distanceBranchAndBound(CompactGraph sourceGraph,CompactGraph targetGraph,long maxExpansions) {
+		return this.branchAndBoundSearch.getEditDistance(sourceGraph, targetGraph, 
+				bipartiteMatching(sourceGraph, targetGraph, volgenantJonkerSolver), maxExpansions);
+	}
+	/**
+	 * Exact distance between two compact graphs if it is below a bound, for searches that only need the graphs within a distance.
+	 * The Hausdorff edit distance answers first if it reaches the bound; otherwise depth-first branch and bound runs as in 
+	 * {@link #distanceBranchAndBound(CompactGraph, CompactGraph, long)}, pruned by the bound as well.
+	 * @param sourceGraph graph 1 
+	 * @param targetGraph  graph 2
+	 * @param bound the bound, or infinity for the exact distance
+	 * @return the exact distance if it is less than the bound, otherwise a lower bound of the distance that is at least the bound
+	 */
+	
+	public double distanceBelow(CompactGraph sourceGraph,CompactGraph targetGraph,double bound) {
+		double lowerBound = distanceHausdorff(sourceGraph, targetGraph);
+		if(lowerBound>=bound)
+			return lowerBound;
+		return distanceBelow(sourceGraph, targetGraph, nodeMatching(sourceGraph, targetGraph), bound);
+	}
+	
+	/**
+	 * Exact distance below a bound, by depth-first branch and bound from the edit path of a node matching
+	 */
+	double distanceBelow(CompactGraph sourceGraph, CompactGraph targetGraph, int[] sourceTargets, double bound) {
+		return this.branchAndBoundSearch.getEditDistanceBelow(sourceGraph, targetGraph, sourceTargets, bound);
+	}
+	
+	/**
+	 * The Bipartite VolgenantJonker node matching, target of each source node or a negative value for a deletion
+	 */
+	int[] nodeMatching(CompactGraph sourceGraph, CompactGraph targetGraph) {
+		return bipartiteMatching(sourceGraph, targetGraph, volgenantJonkerSolver);
+	}
+	
+	/**
+	 * Cost of the edit path of a node matching as the exact searches charge it, an upper bound of the exact distance
+	 */
+	double matchingCost(CompactGraph sourceGraph, CompactGraph targetGraph, int[] sourceTargets) {
+		return this.branchAndBoundSearch.getEditDistance(sourceGraph, targetGraph, sourceTargets, 0).getDistance();
+	}
+	
+	/**
+	 * Distance between two compact graphs within a time budget. The Bipartite VolgenantJonker edit path is the first answer, 
+	 * A*-beam passes of growing beam size and then depth-first branch and bound tighten it until the time is up.
+	 * @param sourceGraph graph 1 
+	 * @param targetGraph  graph 2
+	 * @param timeBudget time budget in milliseconds, from the call on
+	 * @return the best distance found, a lower bound and whether the distance is exact
+	 */
+	
+	public DistanceResult distanceAnytime(CompactGraph sourceGraph,CompactGraph targetGraph,long timeBudget) {
+		long deadline = System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(timeBudget);
+		return this.anytimeSearch.getEditDistance(sourceGraph, targetGraph, 
+				bipartiteMatching(sourceGraph, targetGraph, volgenantJonkerSolver), deadline);
 	}
 	/**
 	 * Distance between two GXL graphs using A*-beam
@@ -188,8 +383,19 @@ public class RDFGraphMatching {
 	 */
 	
 	public double distanceAStarBeam(Graph sourceGraph,Graph targetGraph,int s) {
-		return this.editDistance.getEditDistance(
-				sourceGraph, targetGraph, this.costFunction,s);	
+		return distanceAStarBeam(compact(sourceGraph), compact(targetGraph), s);
+	}
+	
+	/**
+	 * Distance between two compact graphs using A*-beam, the same as the A*-beam search of the GMT library 
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @param s size of the beam
+	 * @return distance
+	 */
+	
+	public double distanceAStarBeam(CompactGraph sourceGraph,CompactGraph targetGraph,int s) {
+		return this.beamSearch.getEditDistance(sourceGraph, targetGraph, s);
 	}
 	
 	/**
@@ -200,21 +406,7 @@ public class RDFGraphMatching {
 	 */
 	
 	public double distanceBipartiteHungarian(Graph sourceGraph,Graph targetGraph) {
-		
-		if (sourceGraph.size()<targetGraph.size()){
-			Graph temp = sourceGraph;
-			sourceGraph = targetGraph;
-			targetGraph = temp;
-		}		
-		
-		// generate the cost-matrix between the local substructures of the source and target graphs
-		double[][] costMatrix = this.matrixGenerator.getMatrix(sourceGraph, targetGraph);
-		// compute the matching using Hungarian
-		int[][] matching = bipartiteMatchingHungarian.getMatching(costMatrix);
-		// calculate the approximated edit-distance according to the bipartite matching 
-		double d = this.editDistance.getEditDistance(
-				sourceGraph, targetGraph, matching, costFunction);
-		return d;
+		return distanceBipartiteHungarian(compact(sourceGraph), compact(targetGraph));
 	}
 	
 	/**
@@ -225,25 +417,334 @@ public class RDFGraphMatching {
 	 */	
 	
 	public double distanceBipartiteVolgenantJonker(Graph sourceGraph,Graph targetGraph) {
+		return distanceBipartiteVolgenantJonker(compact(sourceGraph), compact(targetGraph));
+	}
+	
+	/**
+	 * Distance between two compact graphs using Bipartite Hungarian
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return distance
+	 */
+	
+	public double distanceBipartiteHungarian(CompactGraph sourceGraph,CompactGraph targetGraph) {
+		return distanceBipartite(sourceGraph, targetGraph, hungarianSolver, 1);
+	}
+	
+	/**
+	 * Distance between two compact graphs using Bipartite VolgenantJonker
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return distance
+	 */
+	
+	public double distanceBipartiteVolgenantJonker(CompactGraph sourceGraph,CompactGraph targetGraph) {
+		return distanceBipartite(sourceGraph, targetGraph, volgenantJonkerSolver, 1);
+	}
+	
+	/**
+	 * Distance between two prepared graphs using Bipartite Hungarian, equal to the distance of their compact graphs
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return distance
+	 */
+	
+	public double distanceBipartiteHungarian(PreparedGraph sourceGraph,PreparedGraph targetGraph) {
+		return distanceBipartite(sourceGraph, targetGraph, hungarianSolver);
+	}
+	
+	/**
+	 * Distance between two prepared graphs using Bipartite VolgenantJonker, equal to the distance of their compact graphs
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return distance
+	 */
+	
+	public double distanceBipartiteVolgenantJonker(PreparedGraph sourceGraph,PreparedGraph targetGraph) {
+		return distanceBipartite(sourceGraph, targetGraph, volgenantJonkerSolver);
+	}
+	
+	/**
+	 * Distance between two GXL graphs using the greedy matching
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return distance
+	 */
+	
+	public double distanceGreedy(Graph sourceGraph,Graph targetGraph) {
+		return distanceGreedy(compact(sourceGraph), compact(targetGraph));
+	}
+	
+	/**
+	 * Distance between two compact graphs using a greedy matching on the bipartite cost matrix of Bipartite Hungarian, 
+	 * without its cubic assignment. The edit path of the matching is costed as the exact searches charge it, see 
+	 * {@link #matchingCost(CompactGraph, CompactGraph, int[])}, so the distance is an upper bound of the exact distance, 
+	 * usually above the bipartite ones.
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return distance
+	 */
+	
+	public double distanceGreedy(CompactGraph sourceGraph,CompactGraph targetGraph) {
+		return distanceGreedy(sourceGraph, targetGraph, null, null, 1);
+	}
+	
+	/**
+	 * Greedy distance, with the cost matrix of the prepared graphs if they are not null
+	 */
+	private double distanceGreedy(CompactGraph g1, CompactGraph g2, PreparedGraph p1, PreparedGraph p2, int parallelism) {
+		boolean swap = g1.size()<g2.size();
+		AssignmentWorkspace workspace;
+		if(p1!=null) {
+			workspace = swap?assign(p2, p1, greedySolver):assign(p1, p2, greedySolver);
+		} else {
+			workspace = swap?assign(g2, g1, greedySolver, parallelism):assign(g1, g2, greedySolver, parallelism);
+		}
+		return matchingCost(g1, g2, sourceTargets(workspace, g1.size(), g2.size(), swap));
+	}
+	
+	/**
+	 * Hausdorff edit distance between two GXL graphs
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return a lower bound of the distance
+	 */
+	
+	public double distanceHausdorff(Graph sourceGraph,Graph targetGraph) {
+		return distanceHausdorff(compact(sourceGraph), compact(targetGraph));
+	}
+	
+	/**
+	 * Hausdorff edit distance between two compact graphs, a lower bound of the exact distance in quadratic time. 
+	 * It charges every node for its cheapest operation with the node-star costs of the bipartite cost matrix, 
+	 * without requiring the operations to form an edit path.
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @return a lower bound of the distance
+	 */
+	
+	public double distanceHausdorff(CompactGraph sourceGraph,CompactGraph targetGraph) {
+		return this.hausdorffEditDistance.getLowerBound(sourceGraph, targetGraph);
+	}
+	
+	/**
+	 * Approximated distance from an optimal assignment on the bipartite cost matrix. 
+	 * The cost matrix and the solver state live in the workspace of the current thread, so that repeated comparisons do not allocate. 
+	 * Only the substitution, deletion and insertion costs of the matrix are stored.
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @param solver the assignment solver
+	 * @param parallelism number of threads generating the cost matrix
+	 * @return distance
+	 */
+	private double distanceBipartite(CompactGraph sourceGraph,CompactGraph targetGraph, AssignmentSolver solver, int parallelism) {
 		
 		if (sourceGraph.size()<targetGraph.size()){
-			Graph temp = sourceGraph;
+			CompactGraph temp = sourceGraph;
 			sourceGraph = targetGraph;
 			targetGraph = temp;
-		}		
+		}
 		
-		// generate the cost-matrix between the local substructures of the source and target graphs
-		double[][] costMatrix = this.matrixGenerator.getMatrix(sourceGraph, targetGraph);
-		// compute the matching using VolgenantJonker
-		int[][] matching = bipartiteMatchingVJ.getMatching(costMatrix);
+		AssignmentWorkspace workspace = assign(sourceGraph, targetGraph, solver, parallelism);
 		// calculate the approximated edit-distance according to the bipartite matching 
-		double d = this.editDistance.getEditDistance(
-				sourceGraph, targetGraph, matching, costFunction);
-		return d;
+		return this.editPathCost.getEditDistance(
+				sourceGraph, targetGraph, workspace.getRowSolution(), workspace.getColumnSolution(), labelCostModel);
+	}
+	
+	/**
+	 * Approximated distance of two prepared graphs, with the cost matrix computed per pair of star classes
+	 */
+	private double distanceBipartite(PreparedGraph sourceGraph,PreparedGraph targetGraph, AssignmentSolver solver) {
+		
+		if (sourceGraph.size()<targetGraph.size()){
+			PreparedGraph temp = sourceGraph;
+			sourceGraph = targetGraph;
+			targetGraph = temp;
+		}
+		
+		AssignmentWorkspace workspace = assign(sourceGraph, targetGraph, solver);
+		return this.editPathCost.getEditDistance(sourceGraph.getGraph(), targetGraph.getGraph(), 
+				workspace.getRowSolution(), workspace.getColumnSolution(), labelCostModel);
+	}
+	
+	/**
+	 * Node matching of an optimal assignment on the bipartite cost matrix
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param solver the assignment solver
+	 * @return the node of g2 matched to each node of g1, or -1 for a deletion
+	 */
+	private int[] bipartiteMatching(CompactGraph g1,CompactGraph g2, AssignmentSolver solver) {
+		boolean swap = g1.size()<g2.size();
+		AssignmentWorkspace workspace = swap?assign(g2, g1, solver, 1):assign(g1, g2, solver, 1);
+		return sourceTargets(workspace, g1.size(), g2.size(), swap);
+	}
+	
+	/**
+	 * Node matching of the assignment held by a workspace
+	 * @param workspace the workspace of the assignment
+	 * @param n1 size of graph 1
+	 * @param n2 size of graph 2
+	 * @param swap whether graph 2 was the source graph of the assignment
+	 * @return the node of graph 2 matched to each node of graph 1, or -1 for a deletion
+	 */
+	private static int[] sourceTargets(AssignmentWorkspace workspace, int n1, int n2, boolean swap) {
+		int[] solution = swap?workspace.getColumnSolution():workspace.getRowSolution();
+		int[] sourceTargets = new int[n1];
+		for(int i=0;i<n1;i++) {
+			sourceTargets[i] = solution[i]<n2?solution[i]:-1;
+		}
+		return sourceTargets;
+	}
+	
+	/**
+	 * Optimal assignment on the bipartite cost matrix, the source graph must not be smaller than the target graph
+	 * @param sourceGraph graph 1
+	 * @param targetGraph graph 2
+	 * @param solver the assignment solver
+	 * @param parallelism number of threads generating the cost matrix
+	 * @return the workspace of the current thread holding the assignment
+	 */
+	private AssignmentWorkspace assign(CompactGraph sourceGraph,CompactGraph targetGraph, AssignmentSolver solver, int parallelism) {
+		AssignmentWorkspace workspace = AssignmentWorkspace.forCurrentThread((long)sourceGraph.size()*targetGraph.size());
+		BipartiteCostMatrix costMatrix = workspace.getBipartiteMatrix(sourceGraph.size(), targetGraph.size());
+		// generate the cost-matrix between the local substructures of the source and target graphs
+		this.matrixGenerator.getMatrix(sourceGraph, targetGraph, costMatrix, ForkJoinPools.get(parallelism));
+		solve(costMatrix, solver, workspace);
+		return workspace;
 	}
 	
 	/**
-	 * 
+	 * Optimal assignment on the cost matrix of two prepared graphs, the source graph must not be smaller than the target graph
+	 */
+	private AssignmentWorkspace assign(PreparedGraph sourceGraph,PreparedGraph targetGraph, AssignmentSolver solver) {
+		AssignmentWorkspace workspace = AssignmentWorkspace.forCurrentThread((long)sourceGraph.size()*targetGraph.size());
+		BipartiteCostMatrix costMatrix = workspace.getBipartiteMatrix(sourceGraph.size(), targetGraph.size());
+		this.matrixGenerator.getMatrix(sourceGraph, targetGraph, costMatrix);
+		solve(costMatrix, solver, workspace);
+		return workspace;
+	}
+	
+	/**
+	 * Computes the matching of a cost matrix into a workspace
+	 */
+	private void solve(BipartiteCostMatrix costMatrix, AssignmentSolver solver, AssignmentWorkspace workspace) {
+		int[] assignment = solver.solve(costMatrix, workspace);
+		if(this.outputMatching==1) {
+			System.out.println("\nThe Optimal Matching:");
+			for(int k=0;k<costMatrix.dimension();k++) {
+				System.out.print(k + " -> " + assignment[k] + " ");
+			}
+			System.out.println();
+		}
+	}
+	
+	/**
+	 * Converts a graph to compact form, with the labels of this matcher
+	 * @param graph a GXL graph
+	 * @return the compact graph
+	 */
+	public CompactGraph compact(Graph graph) {
+		return CompactGraph.fromGraph(graph, labelDictionary);
+	}
+	
+	/**
+	 * Prepares a graph to be compared with many others, see {@link PreparedGraph}
+	 * @param graph a GXL graph
+	 * @return the prepared graph, with the labels of this matcher
+	 */
+	public PreparedGraph prepare(Graph graph) {
+		return new PreparedGraph(compact(graph));
+	}
+	
+	/**
+	 * Prepares a graph to be compared with many others, see {@link PreparedGraph}
+	 * @param graph a compact graph with the labels of this matcher
+	 * @return the prepared graph
+	 */
+	public PreparedGraph prepare(CompactGraph graph) {
+		return new PreparedGraph(graph);
+	}
+	
+	/**
+	 * Sets the router of the automatic configuration, by default the one of the bundled routing table
+	 * @param algorithmRouter the router
+	 */
+	public void setAlgorithmRouter(AlgorithmRouter algorithmRouter) {
+		this.algorithmRouter = algorithmRouter;
+	}
+	
+	/**
+	 * Returns the dictionary of the labels of compact graphs compared by this matcher
+	 * @return the label dictionary
+	 */
+	public LabelDictionary getLabelDictionary() {
+		return labelDictionary;
+	}
+	
+	/**
+	 * Starts a new label dictionary, with an empty query graph cache and distance memo, so that the memory of the labels seen 
+	 * so far can be reclaimed, see {@link LabelDictionary}. The compact graphs built before cannot be compared with the graphs 
+	 * built after, so no other thread may use this matcher meanwhile.
+	 */
+	public void resetLabelDictionary() {
+		this.labelDictionary = new LabelDictionary();
+		this.queryGraphCache = new QueryGraphCache(labelDictionary, queryGraphCache.getMaxWeight());
+		if(distanceMemo!=null)
+			distanceMemo.clear();
+	}
+	
+	/**
+	 * Returns the costs of the edit operations on compact graphs
+	 * @return the label cost model
+	 */
+	public LabelCostModel getLabelCostModel() {
+		return labelCostModel;
+	}
+	
+	/**
+	 * Returns the cache of the query graphs built by the query distances, e.g. for its counters
+	 * @return the query graph cache
+	 */
+	public QueryGraphCache getQueryGraphCache() {
+		return queryGraphCache;
+	}
+	
+	/**
+	 * Replaces the cache of the query graphs, for instance by one of another weight bound
+	 * @param maxWeight bound of the total nodes and edges of the cached graphs, 0 to parse every query every time
+	 */
+	public void setQueryGraphCacheWeight(long maxWeight) {
+		this.queryGraphCache = new QueryGraphCache(labelDictionary, maxWeight);
+	}
+	
+	/**
+	 * Returns the memo of the distances computed by {@link #distanceResult(CompactGraph, CompactGraph, AlgorithmConfig)}, e.g. for its counters
+	 * @return the distance memo, null if there is none
+	 */
+	public DistanceMemo getDistanceMemo() {
+		return distanceMemo;
+	}
+	
+	/**
+	 * Replaces the memo of the distances; there is none by default
+	 * @param size bound of the number of memorized pairs, e.g. {@link DistanceMemo#DEFAULT_SIZE}, 0 to compute every pair, isomorphic or not
+	 */
+	public void setDistanceMemoSize(long size) {
+		this.distanceMemo = size>0?new DistanceMemo(size):null;
+	}
+	
+	/**
+	 * Gets the compact query graph of a SPARQL query from the query graph cache, building it on a miss
+	 * @param query SPARQL query string
+	 * @return the query graph, with the labels of this matcher
+	 */
+	public CompactGraph queryGraph(String query) {
+		return queryGraphCache.get(query);
+	}
+	
+	/**
+	 * The query graphs are taken from the query graph cache, see {@link #getQueryGraphCache()}.
 	 * @param q1 SPARQL query string for query 1
 	 * @param q2 SPARQL query string for query 2
 	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
@@ -252,20 +753,308 @@ public class RDFGraphMatching {
 	 */
 	public double queryGraphDistance(String q1, String q2, AlgorithmConfig algorithmConfig) throws Exception {
 		
-		Graph g1 = SparqlUtils.buildSPARQL2GXLGraph(q1, "1");
-		Graph g2 = SparqlUtils.buildSPARQL2GXLGraph(q2, "2");
-		//System.out.println(g1.toString());
-		//System.out.println(g2.toString());
+		CompactGraph g1 = queryGraph(q1);
+		CompactGraph g2 = queryGraph(q2);
+		//System.out.println(g1.toGraph().toString());
+		//System.out.println(g2.toGraph().toString());
+		
+		return distance(g1, g2, algorithmConfig);
+	}
+	
+	/**
+	 * The query graphs are taken from the query graph cache, see {@link #getQueryGraphCache()}.
+	 * @param q1 SPARQL query string for query 1
+	 * @param q2 SPARQL query string for query 2
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @return graph edit distance between the query graphs, with a lower bound and whether it is exact
+	 * @throws Exception 
+	 */
+	public DistanceResult queryGraphDistanceResult(String q1, String q2, AlgorithmConfig algorithmConfig) throws Exception {
+		
+		CompactGraph g1 = queryGraph(q1);
+		CompactGraph g2 = queryGraph(q2);
+		
+		return distanceResult(g1, g2, algorithmConfig);
+	}
+	
+	/**
+	 * Distance between two compact graphs with the algorithm of a configuration
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @return graph edit distance
+	 * @throws OperationNotSupportedException if the algorithm is not supported
+	 */
+	public double distance(CompactGraph g1, CompactGraph g2, AlgorithmConfig algorithmConfig) throws OperationNotSupportedException {
+		return distanceResult(g1, g2, algorithmConfig).getDistance();
+	}
+	
+	/**
+	 * Distance between two compact graphs with the algorithm of a configuration, with a lower bound of the exact distance 
+	 * and the name of the algorithm. 
+	 * The exact algorithms give the distance as lower bound, the approximations without a bound of their own give 0. 
+	 * The Hausdorff edit distance is itself a lower bound rather than the cost of an edit path; like the approximations, its result has lower bound 0. 
+	 * The automatic configuration runs the algorithm chosen by the router for the pair.
+	 * With the distance memo, isomorphic graphs are at distance 0 without a search, and a pair isomorphic to a pair computed before 
+	 * with the same configuration gets the result of that pair, see {@link DistanceMemo}, unless the configuration has a time budget: 
+	 * the anytime and automatic results are not memorized.
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @return graph edit distance, lower bound and whether the distance is exact
+	 * @throws OperationNotSupportedException if the algorithm is not supported
+	 */
+	public DistanceResult distanceResult(CompactGraph g1, CompactGraph g2, AlgorithmConfig algorithmConfig) throws OperationNotSupportedException {
+		return distanceResult(g1, g2, null, null, algorithmConfig);
+	}
+	
+	/**
+	 * Distance between two prepared graphs with the algorithm of a configuration, see {@link #distanceResult(CompactGraph, CompactGraph, AlgorithmConfig)}.
+	 * The bipartite algorithms and the greedy matching compute their cost matrix per pair of star classes, in the calling thread; 
+	 * the other algorithms run on the compact graphs.
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @return graph edit distance, lower bound and whether the distance is exact
+	 * @throws OperationNotSupportedException if the algorithm is not supported
+	 */
+	public DistanceResult distanceResult(PreparedGraph g1, PreparedGraph g2, AlgorithmConfig algorithmConfig) throws OperationNotSupportedException {
+		return distanceResult(g1.getGraph(), g2.getGraph(), g1, g2, algorithmConfig);
+	}
+	
+	/**
+	 * Distance between two prepared graphs with the algorithm of a configuration
+	 * @param g1 graph 1
+	 * @param g2 graph 2
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @return graph edit distance
+	 * @throws OperationNotSupportedException if the algorithm is not supported
+	 */
+	public double distance(PreparedGraph g1, PreparedGraph g2, AlgorithmConfig algorithmConfig) throws OperationNotSupportedException {
+		return distanceResult(g1, g2, algorithmConfig).getDistance();
+	}
+	
+	/**
+	 * Distances from one prepared graph to many, computed by the threads of a pool. The source graph is prepared once for all 
+	 * targets, see {@link #distanceResult(PreparedGraph, PreparedGraph, AlgorithmConfig)}.
+	 * @param source the graph compared
+	 * @param targets the graphs it is compared with
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @param parallelism number of threads computing the distances, 1 to compute them in the calling thread
+	 * @return the distance to every target, by position
+	 * @throws IllegalArgumentException if the algorithm is not supported
+	 */
+	public double[] distanceToMany(PreparedGraph source, List<PreparedGraph> targets, AlgorithmConfig algorithmConfig, int parallelism) {
+		PreparedGraph[] g = targets.toArray(new PreparedGraph[targets.size()]);
+		double[] distances = new double[g.length];
+		ForkJoinPool pool = ForkJoinPools.get(parallelism);
+		if(pool==null) {
+			computeTargets(source, g, 0, g.length, algorithmConfig, distances);
+		} else {
+			pool.invoke(new TargetRange(source, g, 0, g.length, algorithmConfig, distances));
+		}
+		return distances;
+	}
+	
+	private void computeTargets(PreparedGraph source, PreparedGraph[] g, int from, int to, AlgorithmConfig algorithmConfig, double[] distances) {
+		try {
+			for(int j=from;j<to;j++) {
+				distances[j] = distance(source, g[j], algorithmConfig);
+			}
+		} catch (OperationNotSupportedException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * A range of targets of {@link RDFGraphMatching#distanceToMany(PreparedGraph, List, AlgorithmConfig, int)}, split in halves 
+	 * down to {@link RDFGraphMatching#DISTANCE_TO_MANY_BLOCK} targets
+	 */
+	private class TargetRange extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
 		
+		private PreparedGraph source;
+		private PreparedGraph[] g;
+		private int from;
+		private int to;
+		private AlgorithmConfig algorithmConfig;
+		private double[] distances;
+		
+		TargetRange(PreparedGraph source, PreparedGraph[] g, int from, int to, AlgorithmConfig algorithmConfig, double[] distances) {
+			this.source = source;
+			this.g = g;
+			this.from = from;
+			this.to = to;
+			this.algorithmConfig = algorithmConfig;
+			this.distances = distances;
+		}
 		
+		@Override
+		protected void compute() {
+			if(to-from<=DISTANCE_TO_MANY_BLOCK) {
+				computeTargets(source, g, from, to, algorithmConfig, distances);
+			} else {
+				int mid = (from+to)>>>1;
+				invokeAll(new TargetRange(source, g, from, mid, algorithmConfig, distances), new TargetRange(source, g, mid, to, algorithmConfig, distances));
+			}
+		}
+	}
+	
+	private DistanceResult distanceResult(CompactGraph g1, CompactGraph g2, PreparedGraph p1, PreparedGraph p2, AlgorithmConfig algorithmConfig) throws OperationNotSupportedException {
+		
+		DistanceMemo memo = this.distanceMemo;
+		if(memo!=null) {
+			if(memo.isomorphic(g1, g2))
+				return new DistanceResult(0.0, 0.0, 0, ISOMORPHISM);
+			//the results within a time budget depend on the time taken, they are not memorized
+			if(algorithmConfig.isAnytime() || algorithmConfig.isAuto())
+				memo = null;
+		}
+		if(memo!=null) {
+			DistanceResult result = memo.get(g1, g2, algorithmConfig.getName());
+			if(result!=null)
+				return result;
+		}
+		
+		String name = algorithmConfig.getName();
+		if(algorithmConfig.isAuto())
+			algorithmConfig = algorithmRouter.route(g1, g2, algorithmConfig.getTimeBudget(), algorithmConfig.getMaxError());
+		DistanceResult result = run(g1, g2, p1, p2, algorithmConfig);
+		result = new DistanceResult(result.getDistance(), result.getLowerBound(), result.getExpansions(), algorithmConfig.getName());
+		if(memo!=null)
+			memo.put(g1, g2, name, result);
+		return result;
+	}
+	
+	/**
+	 * Runs an algorithm, on the prepared graphs if they are not null
+	 */
+	private DistanceResult run(CompactGraph g1, CompactGraph g2, PreparedGraph p1, PreparedGraph p2, AlgorithmConfig algorithmConfig) throws OperationNotSupportedException {
+		
+		if(algorithmConfig.isAStar())
+			return exact(distanceAStar(g1, g2));
+		if(algorithmConfig.isDepthFirstBranchAndBound())
+			return distanceBranchAndBound(g1, g2, algorithmConfig.getMaxExpansions());
+		if(algorithmConfig.isAnytime())
+			return distanceAnytime(g1, g2, algorithmConfig.getTimeBudget());
 		if(algorithmConfig.isAStarBeam())
-			return distanceAStarBeam(g1, g2, algorithmConfig.getBeamSize());
+			return approximate(distanceAStarBeam(g1, g2, algorithmConfig.getBeamSize()));
 		if(algorithmConfig.isBipartiteHungarian())
-			return distanceBipartiteHungarian(g1, g2);
+			return approximate(p1!=null?distanceBipartite(p1, p2, hungarianSolver):distanceBipartite(g1, g2, hungarianSolver, algorithmConfig.getParallelism()));
 		if(algorithmConfig.isBipartiteVolgenantJonker())
-			return distanceBipartiteVolgenantJonker(g1, g2);
+			return approximate(p1!=null?distanceBipartite(p1, p2, volgenantJonkerSolver):distanceBipartite(g1, g2, volgenantJonkerSolver, algorithmConfig.getParallelism()));
+		if(algorithmConfig.isGreedy())
+			return approximate(distanceGreedy(g1, g2, p1, p2, algorithmConfig.getParallelism()));
+		if(algorithmConfig.isHausdorff())
+			return approximate(distanceHausdorff(g1, g2));
 		
-		throw new OperationNotSupportedException("Supported algorithms: A*-beam search, Bipartite Hungarian, and Bipartite VolgenantJonker");
+		throw new OperationNotSupportedException("Supported algorithms: A* search, depth-first branch and bound, anytime search, automatic choice, A*-beam search, Bipartite Hungarian, Bipartite VolgenantJonker, greedy matching, and Hausdorff edit distance");
+	}
+	
+	/**
+	 * Distances between all pairs of a list of SPARQL queries. Every query graph is taken from the query graph cache, then the pairs are computed 
+	 * as by {@link #distanceMatrix(List, AlgorithmConfig, int, DistanceMatrixSink)}.
+	 * @param queries SPARQL query strings
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @param parallelism number of threads computing the pairs, 1 to compute them in the calling thread
+	 * @param sink receives the distance of every pair i &lt; j of query positions
+	 */
+	public void queryGraphDistanceMatrix(List<String> queries, AlgorithmConfig algorithmConfig, int parallelism, DistanceMatrixSink sink) {
+		List<CompactGraph> graphs = new ArrayList<CompactGraph>(queries.size());
+		for(int i=0;i<queries.size();i++) {
+			graphs.add(queryGraph(queries.get(i)));
+		}
+		distanceMatrix(graphs, algorithmConfig, parallelism, sink);
+	}
+	
+	/**
+	 * Distances between all pairs of a list of compact graphs, the pairs i &lt; j only since the distance is symmetric. 
+	 * The pairs are computed in square tiles of {@link #DISTANCE_MATRIX_TILE} by {@link #DISTANCE_MATRIX_TILE} graphs, so that 
+	 * the graphs of a tile stay in the caches of the thread computing it, and the tiles are shared among the threads of a pool.
+	 * @param graphs compact graphs with the labels of this matcher
+	 * @param algorithmConfig algorithm configuration {@link AlgorithmConfig}
+	 * @param parallelism number of threads computing the pairs, 1 to compute them in the calling thread
+	 * @param sink receives the distance of every pair i &lt; j of graph positions
+	 * @throws IllegalArgumentException if the algorithm is not supported
+	 */
+	public void distanceMatrix(List<CompactGraph> graphs, AlgorithmConfig algorithmConfig, int parallelism, DistanceMatrixSink sink) {
+		CompactGraph[] g = graphs.toArray(new CompactGraph[graphs.size()]);
+		int blocks = (g.length+DISTANCE_MATRIX_TILE-1)/DISTANCE_MATRIX_TILE;
+		int tiles = blocks*(blocks+1)/2;
+		ForkJoinPool pool = ForkJoinPools.get(parallelism);
+		if(pool==null) {
+			for(int t=0;t<tiles;t++) {
+				computeTile(g, blocks, t, algorithmConfig, sink);
+			}
+		} else {
+			pool.invoke(new TileRange(g, blocks, 0, tiles, algorithmConfig, sink));
+		}
+	}
+	
+	/**
+	 * Computes the pairs of a tile. The tiles of the upper triangle of blocks are numbered row by row
+	 */
+	private void computeTile(CompactGraph[] g, int blocks, int tile, AlgorithmConfig algorithmConfig, DistanceMatrixSink sink) {
+		int bi = 0;
+		while(tile>=blocks-bi) {
+			tile -= blocks-bi;
+			bi++;
+		}
+		int bj = bi+tile;
+		int iEnd = Math.min(g.length, (bi+1)*DISTANCE_MATRIX_TILE);
+		int jEnd = Math.min(g.length, (bj+1)*DISTANCE_MATRIX_TILE);
+		try {
+			for(int i=bi*DISTANCE_MATRIX_TILE;i<iEnd;i++) {
+				for(int j=Math.max(i+1, bj*DISTANCE_MATRIX_TILE);j<jEnd;j++) {
+					sink.put(i, j, distance(g[i], g[j], algorithmConfig));
+				}
+			}
+		} catch (OperationNotSupportedException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * A range of tiles, split in halves down to single tiles
+	 */
+	private class TileRange extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private CompactGraph[] g;
+		private int blocks;
+		private int from;
+		private int to;
+		private AlgorithmConfig algorithmConfig;
+		private DistanceMatrixSink sink;
+		
+		TileRange(CompactGraph[] g, int blocks, int from, int to, AlgorithmConfig algorithmConfig, DistanceMatrixSink sink) {
+			this.g = g;
+			this.blocks = blocks;
+			this.from = from;
+			this.to = to;
+			this.algorithmConfig = algorithmConfig;
+			this.sink = sink;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to-from==1) {
+				computeTile(g, blocks, from, algorithmConfig, sink);
+			} else if(to>from) {
+				int mid = (from+to)>>>1;
+				invokeAll(new TileRange(g, blocks, from, mid, algorithmConfig, sink), new TileRange(g, blocks, mid, to, algorithmConfig, sink));
+			}
+		}
+	}
+	
+	private static DistanceResult exact(double distance) {
+		return new DistanceResult(distance, distance, 0);
+	}
+	
+	private static DistanceResult approximate(double distance) {
+		return new DistanceResult(distance, 0.0, 0);
 	}
 		
 	
@@ -0,0 +1,385 @@
+package semanticweb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ged.CompactGraph;
+import ged.DistanceResult;
+import ged.ForkJoinPools;
+import ged.LabelMultisetBound;
+
+/**
+ * Threshold join of two sets of query graphs: every pair (a, b) of a graph of the first set and a graph of the second
+ * whose exact edit distance is at most a threshold.
+ * <p>
+ * The pairs go through a cascade of filters, cheapest first:
+ * <ol>
+ * <li>the size bound of {@link LabelMultisetBound}, with the second set sorted by node count so that the pairs of too
+ * different node counts are skipped together,</li>
+ * <li>the label multiset bound of {@link LabelMultisetBound},</li>
+ * <li>the Hausdorff edit distance, a lower bound,</li>
+ * <li>the edit path of the Bipartite VolgenantJonker node matching, an upper bound: a pair within the threshold is accepted
+ * with both bounds,</li>
+ * <li>depth-first branch and bound for the pairs left between the bounds, pruned at the threshold.</li>
+ * </ol>
+ * The first two stages run in the calling thread, the others in a fork-join pool. The result counts the pairs that each stage
+ * decided. With exact distances, the pairs accepted by the upper bound are searched as well.
+ */
+public class SimilarityJoin {
+
+	/**
+	 * pairs per task of the verification stages
+	 */
+	final private static int PAIRS_PER_TASK = 64;
+
+	private RDFGraphMatching matcher;
+	private LabelMultisetBound labelBound;
+	private boolean exactDistances;
+
+	/**
+	 * @param matcher computes the distances, its label dictionary must be the one of the graphs
+	 */
+	public SimilarityJoin(RDFGraphMatching matcher) {
+		this.matcher = matcher;
+		this.labelBound = new LabelMultisetBound(matcher.getLabelCostModel());
+	}
+
+	/**
+	 * Sets whether every pair found gets its exact distance, rather than the bounds that put it within the threshold
+	 * @param exactDistances true for exact distances, false by default
+	 */
+	public void setExactDistances(boolean exactDistances) {
+		this.exactDistances = exactDistances;
+	}
+
+	/**
+	 * A pair within the threshold
+	 */
+	public static class Match {
+
+		private int first;
+		private int second;
+		private DistanceResult distance;
+
+		Match(int first, int second, DistanceResult distance) {
+			this.first = first;
+			this.second = second;
+			this.distance = distance;
+		}
+
+		/**
+		 * Position of the graph of the first set
+		 * @return position
+		 */
+		public int getFirst() {
+			return first;
+		}
+
+		/**
+		 * Position of the graph of the second set
+		 * @return position
+		 */
+		public int getSecond() {
+			return second;
+		}
+
+		/**
+		 * The distance, exact or an upper bound at most the threshold, and a lower bound
+		 * @return the distance
+		 */
+		public DistanceResult getDistance() {
+			return distance;
+		}
+	}
+
+	/**
+	 * The pairs within the threshold and the number of pairs decided by each stage
+	 */
+	public static class Result {
+
+		private List<Match> matches;
+		private long pairs;
+		private long[] decided;
+
+		Result(List<Match> matches, long pairs, long[] decided) {
+			this.matches = matches;
+			this.pairs = pairs;
+			this.decided = decided;
+		}
+
+		/**
+		 * The pairs within the threshold, by first and second position
+		 * @return the matches
+		 */
+		public List<Match> getMatches() {
+			return matches;
+		}
+
+		/**
+		 * Number of pairs of the two sets
+		 * @return |A|*|B|
+		 */
+		public long getPairCount() {
+			return pairs;
+		}
+
+		/**
+		 * Pairs rejected by the size bound
+		 * @return pairs
+		 */
+		public long getSizePruned() {
+			return decided[0];
+		}
+
+		/**
+		 * Pairs rejected by the label multiset bound
+		 * @return pairs
+		 */
+		public long getLabelPruned() {
+			return decided[1];
+		}
+
+		/**
+		 * Pairs rejected by the Hausdorff edit distance
+		 * @return pairs
+		 */
+		public long getLowerBoundPruned() {
+			return decided[2];
+		}
+
+		/**
+		 * Pairs accepted by the upper bound, without a search
+		 * @return pairs
+		 */
+		public long getUpperBoundAccepted() {
+			return decided[3];
+		}
+
+		/**
+		 * Pairs decided by branch and bound
+		 * @return pairs
+		 */
+		public long getSearched() {
+			return decided[4];
+		}
+
+		/**
+		 * Share of the pairs decided by each stage
+		 * @return one line, e.g. for a log
+		 */
+		@Override
+		public String toString() {
+			double total = Math.max(pairs, 1);
+			return String.format("%d pairs, %d matches: size %.1f%%, labels %.1f%%, Hausdorff %.1f%%, upper bound %.1f%%, search %.1f%%",
+					pairs, matches.size(), 100*decided[0]/total, 100*decided[1]/total, 100*decided[2]/total, 100*decided[3]/total, 100*decided[4]/total);
+		}
+	}
+
+	/**
+	 * Joins two lists of SPARQL queries, see {@link #join(List, List, double, int)}
+	 * @param first queries of the first set
+	 * @param second queries of the second set
+	 * @param threshold the largest distance of a pair
+	 * @param parallelism number of threads of the verification stages, 1 to run them in the calling thread
+	 * @return the pairs of query positions within the threshold
+	 */
+	public Result queryGraphJoin(List<String> first, List<String> second, double threshold, int parallelism) {
+		List<CompactGraph> a = new ArrayList<CompactGraph>(first.size());
+		for(String query:first) {
+			a.add(matcher.queryGraph(query));
+		}
+		List<CompactGraph> b = new ArrayList<CompactGraph>(second.size());
+		for(String query:second) {
+			b.add(matcher.queryGraph(query));
+		}
+		return join(a, b, threshold, parallelism);
+	}
+
+	/**
+	 * Finds the pairs of graphs of two lists within a distance
+	 * @param first graphs of the first set
+	 * @param second graphs of the second set
+	 * @param threshold the largest distance of a pair
+	 * @param parallelism number of threads of the verification stages, 1 to run them in the calling thread
+	 * @return the pairs of graph positions within the threshold
+	 */
+	public Result join(List<CompactGraph> first, List<CompactGraph> second, double threshold, int parallelism) {
+		CompactGraph[] a = first.toArray(new CompactGraph[first.size()]);
+		final CompactGraph[] b = second.toArray(new CompactGraph[second.size()]);
+		LabelMultisetBound.Labels[] aLabels = labels(a);
+		LabelMultisetBound.Labels[] bLabels = labels(b);
+
+		//the second set by node count, to skip the node counts out of reach
+		Integer[] order = new Integer[b.length];
+		for(int j=0;j<b.length;j++) {
+			order[j] = j;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer x, Integer y) {
+				return b[x].size()<b[y].size()?-1:b[x].size()==b[y].size()?0:1;
+			}
+		});
+		int[] nodeCounts = new int[b.length];
+		for(int k=0;k<b.length;k++) {
+			nodeCounts[k] = b[order[k]].size();
+		}
+		double nodeCosts = matcher.getLabelCostModel().getNodeCosts();
+		int reach = nodeCosts>0?(int)Math.min(Integer.MAX_VALUE, Math.floor(threshold/nodeCosts)):Integer.MAX_VALUE;
+
+		long[] decided = new long[5];
+		int[] candidates = new int[16];
+		int count = 0;
+		for(int i=0;i<a.length;i++) {
+			int n = a[i].size();
+			int from = lowerIndex(nodeCounts, reach==Integer.MAX_VALUE?Integer.MIN_VALUE:n-reach);
+			int to = lowerIndex(nodeCounts, reach==Integer.MAX_VALUE||n>Integer.MAX_VALUE-reach-1?Integer.MAX_VALUE:n+reach+1);
+			decided[0] += b.length-(to-from);
+			for(int k=from;k<to;k++) {
+				int j = order[k];
+				if(labelBound.getSizeBound(aLabels[i], bLabels[j])>threshold) {
+					decided[0]++;
+				} else if(labelBound.getLabelBound(aLabels[i], bLabels[j])>threshold) {
+					decided[1]++;
+				} else {
+					if(count==candidates.length) {
+						candidates = Arrays.copyOf(candidates, 2*count);
+					}
+					candidates[count++] = i;
+					candidates[count++] = j;
+				}
+			}
+		}
+
+		Verification verification = new Verification(a, b, candidates, threshold);
+		ForkJoinPool pool = ForkJoinPools.get(parallelism);
+		if(pool==null) {
+			verification.verify(0, count/2);
+		} else {
+			pool.invoke(verification.new Range(0, count/2));
+		}
+		for(int s=2;s<5;s++) {
+			decided[s] = verification.decided[s].get();
+		}
+		List<Match> matches = new ArrayList<Match>(verification.matches);
+		Collections.sort(matches, new Comparator<Match>() {
+			@Override
+			public int compare(Match x, Match y) {
+				return x.first!=y.first?(x.first<y.first?-1:1):(x.second<y.second?-1:x.second==y.second?0:1);
+			}
+		});
+		return new Result(matches, (long)a.length*b.length, decided);
+	}
+
+	private static LabelMultisetBound.Labels[] labels(CompactGraph[] graphs) {
+		LabelMultisetBound.Labels[] labels = new LabelMultisetBound.Labels[graphs.length];
+		for(int i=0;i<graphs.length;i++) {
+			labels[i] = new LabelMultisetBound.Labels(graphs[i]);
+		}
+		return labels;
+	}
+
+	/**
+	 * First position of a sorted array with a value of at least x
+	 */
+	private static int lowerIndex(int[] sorted, int x) {
+		int low = 0;
+		int high = sorted.length;
+		while(low<high) {
+			int mid = (low+high)>>>1;
+			if(sorted[mid]<x) {
+				low = mid+1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * The verification stages of the pairs left by the filters
+	 */
+	private class Verification {
+
+		private CompactGraph[] a;
+		private CompactGraph[] b;
+		private int[] candidates;
+		private double threshold;
+		private AtomicLong[] decided;
+		private List<Match> matches;
+
+		Verification(CompactGraph[] a, CompactGraph[] b, int[] candidates, double threshold) {
+			this.a = a;
+			this.b = b;
+			this.candidates = candidates;
+			this.threshold = threshold;
+			this.decided = new AtomicLong[5];
+			for(int s=0;s<decided.length;s++) {
+				decided[s] = new AtomicLong();
+			}
+			this.matches = Collections.synchronizedList(new ArrayList<Match>());
+		}
+
+		void verify(int from, int to) {
+			for(int p=from;p<to;p++) {
+				int i = candidates[2*p];
+				int j = candidates[2*p+1];
+				Match match = verifyPair(i, j);
+				if(match!=null) {
+					matches.add(match);
+				}
+			}
+		}
+
+		private Match verifyPair(int i, int j) {
+			CompactGraph g1 = a[i];
+			CompactGraph g2 = b[j];
+			double lower = matcher.distanceHausdorff(g1, g2);
+			if(lower>threshold) {
+				decided[2].incrementAndGet();
+				return null;
+			}
+			int[] matching = matcher.nodeMatching(g1, g2);
+			double upper = matcher.matchingCost(g1, g2, matching);
+			if(upper<=threshold && (!exactDistances || lower>=upper)) {
+				decided[3].incrementAndGet();
+				return new Match(i, j, new DistanceResult(upper, lower, 0));
+			}
+			decided[4].incrementAndGet();
+			double distance = matcher.distanceBelow(g1, g2, matching, Math.nextUp(threshold));
+			return distance<=threshold?new Match(i, j, new DistanceResult(distance, distance, 0)):null;
+		}
+
+		/**
+		 * A range of candidate pairs, split in halves down to {@link #PAIRS_PER_TASK}
+		 */
+		private class Range extends RecursiveAction {
+
+			private static final long serialVersionUID = 1L;
+
+			private int from;
+			private int to;
+
+			Range(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if(to-from<=PAIRS_PER_TASK) {
+					verify(from, to);
+				} else {
+					int mid = (from+to)>>>1;
+					invokeAll(new Range(from, mid), new Range(mid, to));
+				}
+			}
+		}
+	}
+}
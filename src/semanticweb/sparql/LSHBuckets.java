@@ -0,0 +1,292 @@
+package semanticweb.sparql;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.GraphFingerprint;
+
+/**
+ * Locality-sensitive hashing of {@link MinHashSignatures}: the signatures are cut into bands of rows, and the queries whose
+ * signatures agree on all rows of a band share a bucket. A pair of Jaccard similarity s shares a bucket with probability
+ * 1-(1-s^r)^b for b bands of r rows, a steep curve around {@link #getThreshold()}. Only the pairs sharing a bucket are
+ * candidates for the edit distance.
+ * <p>
+ * A band is a sorted array of band hashes and query positions, 8 bytes per query, and a bucket is a run of equal hashes.
+ * The band hashes have 32 bits, so their collisions add a few candidates, which the distances then reject.
+ * The main method writes the candidate pairs as records of the --batch mode of the QDistance entry points.
+ */
+public class LSHBuckets {
+
+	/**
+	 * default number of bands
+	 */
+	final public static int DEFAULT_BANDS = 16;
+
+	/**
+	 * Receives the candidate pairs
+	 */
+	public interface PairVisitor {
+
+		/**
+		 * A pair sharing a bucket, reported once
+		 * @param first position of a query
+		 * @param second position of a later query
+		 */
+		void visit(int first, int second);
+	}
+
+	private MinHashSignatures signatures;
+	private int bands;
+	private int rows;
+
+	/**
+	 * band hash in the high and query position in the low 32 bits, sorted, per band
+	 */
+	private long[][] buckets;
+
+	/**
+	 * Buckets the signatures added so far
+	 * @param signatures the signatures
+	 * @param bands number of bands, the rows of a band are the hashes divided by the bands, the rest is not used
+	 */
+	public LSHBuckets(MinHashSignatures signatures, int bands) {
+		if(bands<1 || bands>signatures.getHashCount()) {
+			throw new IllegalArgumentException("bands must be between 1 and "+signatures.getHashCount()+": "+bands);
+		}
+		this.signatures = signatures;
+		this.bands = bands;
+		this.rows = signatures.getHashCount()/bands;
+		int n = signatures.size();
+		int nonEmpty = 0;
+		for(int id=0;id<n;id++) {
+			if(!signatures.isEmpty(id)) {
+				nonEmpty++;
+			}
+		}
+		this.buckets = new long[bands][nonEmpty];
+		for(int b=0;b<bands;b++) {
+			int k = 0;
+			for(int id=0;id<n;id++) {
+				if(!signatures.isEmpty(id)) {
+					buckets[b][k++] = ((long)bandHash(id, b) << 32) | id;
+				}
+			}
+			Arrays.sort(buckets[b]);
+		}
+	}
+
+	private int bandHash(int id, int band) {
+		long h = band;
+		for(int r=0;r<rows;r++) {
+			h = GraphFingerprint.mix(h, signatures.value(id, band*rows+r));
+		}
+		return (int)(h >>> 32);
+	}
+
+	private int bandHash(int[] signature, int band) {
+		long h = band;
+		for(int r=0;r<rows;r++) {
+			h = GraphFingerprint.mix(h, signature[band*rows+r]);
+		}
+		return (int)(h >>> 32);
+	}
+
+	/**
+	 * Number of bands
+	 * @return the bands
+	 */
+	public int getBands() {
+		return bands;
+	}
+
+	/**
+	 * Number of rows of a band
+	 * @return the rows
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Similarity at which a pair shares a bucket with probability about one half, (1/b)^(1/r)
+	 * @return the Jaccard similarity
+	 */
+	public double getThreshold() {
+		return Math.pow(1.0/bands, 1.0/rows);
+	}
+
+	/**
+	 * Reports every pair of queries that share a bucket once, in the first band they share
+	 * @param visitor receives the pairs, first position smaller than second
+	 * @return number of pairs
+	 */
+	public long candidatePairs(PairVisitor visitor) {
+		long pairs = 0;
+		for(int b=0;b<bands;b++) {
+			long[] band = buckets[b];
+			for(int start=0, end;start<band.length;start=end) {
+				long hash = band[start] >>> 32;
+				for(end=start+1;end<band.length && band[end] >>> 32==hash;end++);
+				for(int i=start;i<end;i++) {
+					int first = (int) band[i];
+					for(int j=i+1;j<end;j++) {
+						int second = (int) band[j];
+						if(!sharedBefore(first, second, b)) {
+							visitor.visit(first, second);
+							pairs++;
+						}
+					}
+				}
+			}
+		}
+		return pairs;
+	}
+
+	private boolean sharedBefore(int first, int second, int band) {
+		for(int b=0;b<band;b++) {
+			if(bandHash(first, b)==bandHash(second, b)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The queries that share a bucket with a query
+	 * @param id position of a bucketed query
+	 * @return the other queries of its buckets, sorted
+	 */
+	public int[] candidates(int id) {
+		int[] signature = signatures.get(id);
+		if(signature==null) {
+			return new int[0];
+		}
+		return candidates(signature, id);
+	}
+
+	/**
+	 * The queries that share a bucket with a signature, e.g. of a new query
+	 * @param signature a signature of the same hash functions, see {@link MinHashSignatures#signature(String)}
+	 * @return the queries sharing a bucket, sorted
+	 */
+	public int[] candidates(int[] signature) {
+		return candidates(signature, -1);
+	}
+
+	private int[] candidates(int[] signature, int self) {
+		int[] found = new int[16];
+		int count = 0;
+		for(int b=0;b<bands;b++) {
+			long[] band = buckets[b];
+			long hash = ((long)bandHash(signature, b) << 32);
+			//first entry of the bucket, the position bits are not negative
+			int k = Arrays.binarySearch(band, hash);
+			for(k=k<0?-k-1:k;k<band.length && (band[k] & 0xffffffff00000000L)==hash;k++) {
+				int id = (int) band[k];
+				if(id!=self) {
+					if(count==found.length) {
+						found = Arrays.copyOf(found, 2*count);
+					}
+					found[count++] = id;
+				}
+			}
+		}
+		Arrays.sort(found, 0, count);
+		int distinct = 0;
+		for(int i=0;i<count;i++) {
+			if(distinct==0 || found[i]!=found[distinct-1]) {
+				found[distinct++] = found[i];
+			}
+		}
+		return Arrays.copyOf(found, distinct);
+	}
+
+	public static void help() {
+		System.out.println("--sign <query file> <signature file> for the MinHash signatures of a file of one query per line, escaped or as a JSON object with a query field:");
+		System.out.println("\t --hashes for the number of hash functions, default "+MinHashSignatures.DEFAULT_HASHES);
+		System.out.println("\t --constant-classes to hash the subject and object constants into a number of classes, default 0 to keep them");
+		System.out.println("\t --seed for the seed of the hash functions, default 0");
+		System.out.println("\t --threads for the number of worker threads, default the number of processors");
+		System.out.println("--pairs <signature file> for the pairs of queries sharing a bucket, as i TAB j records of --batch --queries <query file>:");
+		System.out.println("\t --bands for the number of bands, default "+DEFAULT_BANDS);
+	}
+
+	public static void main(String[] args) throws IOException {
+		Log.setCmdLogging();
+		if(args.length>=3 && args[0].equals("--sign")) {
+			int hashes = MinHashSignatures.DEFAULT_HASHES;
+			int constantClasses = 0;
+			long seed = 0;
+			int threads = Runtime.getRuntime().availableProcessors();
+			for(int k=3;k<args.length;k++) {
+				if(args[k].equals("--hashes") && k+1<args.length) {
+					hashes = Integer.parseInt(args[++k]);
+				} else if(args[k].equals("--constant-classes") && k+1<args.length) {
+					constantClasses = Integer.parseInt(args[++k]);
+				} else if(args[k].equals("--seed") && k+1<args.length) {
+					seed = Long.parseLong(args[++k]);
+				} else if(args[k].equals("--threads") && k+1<args.length) {
+					threads = Integer.parseInt(args[++k]);
+				} else {
+					throw new IllegalArgumentException("Unknown option "+args[k]+", --help for help");
+				}
+			}
+			MinHashSignatures signatures = new MinHashSignatures(hashes, constantClasses, seed);
+			BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(args[1]), "UTF-8"));
+			try {
+				signatures.addAll(in, threads);
+			} finally {
+				in.close();
+			}
+			OutputStream out = new FileOutputStream(args[2]);
+			try {
+				signatures.write(out);
+			} finally {
+				out.close();
+			}
+			System.err.println(signatures.size()+" queries signed");
+		} else if(args.length>=2 && args[0].equals("--pairs")) {
+			int bands = DEFAULT_BANDS;
+			for(int k=2;k<args.length;k++) {
+				if(args[k].equals("--bands") && k+1<args.length) {
+					bands = Integer.parseInt(args[++k]);
+				} else {
+					throw new IllegalArgumentException("Unknown option "+args[k]+", --help for help");
+				}
+			}
+			MinHashSignatures signatures;
+			InputStream in = new FileInputStream(args[1]);
+			try {
+				signatures = MinHashSignatures.read(in);
+			} finally {
+				in.close();
+			}
+			LSHBuckets buckets = new LSHBuckets(signatures, bands);
+			final PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"));
+			long pairs = buckets.candidatePairs(new PairVisitor() {
+				@Override
+				public void visit(int first, int second) {
+					out.print(first);
+					out.print('\t');
+					out.print(second);
+					out.print('\n');
+				}
+			});
+			out.flush();
+			System.err.println(pairs+" candidate pairs of "+signatures.size()+" queries, "+bands+" bands of "+buckets.getRows()
+					+" rows, similarity threshold about "+String.format("%.2f", buckets.getThreshold()));
+		} else {
+			help();
+		}
+	}
+}
@@ -0,0 +1,392 @@
+package semanticweb.sparql;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+
+import ged.GraphFingerprint;
+
+/**
+ * MinHash signatures of SPARQL queries, bucketed by {@link LSHBuckets}.
+ * <p>
+ * A query is shingled into its triple patterns, see {@link #shingles(String)}: variables and blank nodes become ?, predicates
+ * are kept, and the constants in subject or object position are kept or hashed into a number of classes. The k-th value of a
+ * signature is the least hash of the shingles under the k-th hash function, so two signatures agree at a position with
+ * probability the Jaccard similarity of their shingle sets.
+ * <p>
+ * The signatures of a query file are computed by worker threads in one streaming pass, see {@link #addAll(BufferedReader, int)},
+ * and written to a binary file with the hash settings, so that the log is bucketed again without parsing it again.
+ * Queries that cannot be parsed or have no triple patterns get an empty signature and are in no bucket.
+ */
+public class MinHashSignatures {
+
+	/**
+	 * default number of hash functions
+	 */
+	final public static int DEFAULT_HASHES = 128;
+
+	/**
+	 * first int of a signature file
+	 */
+	final private static int MAGIC = 0x4d48534e;
+
+	/**
+	 * queries per task of the streaming pass
+	 */
+	final private static int QUERIES_PER_TASK = 256;
+
+	/**
+	 * tasks in progress per worker thread
+	 */
+	final private static int TASKS_PER_THREAD = 2;
+
+	private int hashes;
+	private int constantClasses;
+	private long seed;
+	private long[] salts;
+	private int count;
+	private int[] values;
+	private boolean[] empty;
+
+	/**
+	 * @param hashes number of hash functions, the length of a signature
+	 * @param constantClasses number of classes the subject and object constants are hashed into, 0 to keep the constants
+	 * @param seed seed of the hash functions, signatures compare only with the same seed
+	 */
+	public MinHashSignatures(int hashes, int constantClasses, long seed) {
+		if(hashes<1) {
+			throw new IllegalArgumentException("hashes must be at least 1: "+hashes);
+		}
+		if(constantClasses<0) {
+			throw new IllegalArgumentException("constantClasses must not be negative: "+constantClasses);
+		}
+		this.hashes = hashes;
+		this.constantClasses = constantClasses;
+		this.seed = seed;
+		this.salts = new long[hashes];
+		long salt = seed;
+		for(int k=0;k<hashes;k++) {
+			salt = GraphFingerprint.mix(salt, k+1);
+			salts[k] = salt;
+		}
+		this.values = new int[16*hashes];
+		this.empty = new boolean[16];
+	}
+
+	/**
+	 * The shingles of a query, its triple patterns with the variables abstracted
+	 * @param query a sparql query
+	 * @return the distinct shingles, sorted
+	 */
+	public Set<String> shingles(String query) {
+		Set<String> shingles = new TreeSet<String>();
+		for(Triple t:SparqlUtils.retrieveTriples(query)) {
+			//property paths have no triple
+			if(t!=null) {
+				shingles.add(term(t.getSubject(), true)+" "+term(t.getPredicate(), false)+" "+term(t.getObject(), true));
+			}
+		}
+		return shingles;
+	}
+
+	private String term(Node node, boolean hashed) {
+		if(node.isVariable() || node.isBlank()) {
+			return "?";
+		}
+		if(hashed && constantClasses>0) {
+			int h = Hashing.murmur3_32().hashString(node.toString(), Charsets.UTF_8).asInt();
+			return "#"+((h%constantClasses+constantClasses)%constantClasses);
+		}
+		return node.toString();
+	}
+
+	/**
+	 * Computes the signature of a query
+	 * @param query a sparql query
+	 * @return the signature, or null if the query has no triple patterns
+	 */
+	public int[] signature(String query) {
+		Set<String> shingles = shingles(query);
+		if(shingles.isEmpty()) {
+			return null;
+		}
+		int[] signature = new int[hashes];
+		Arrays.fill(signature, Integer.MAX_VALUE);
+		for(String shingle:shingles) {
+			long x = Hashing.murmur3_128().hashString(shingle, Charsets.UTF_8).asLong();
+			for(int k=0;k<hashes;k++) {
+				int v = (int)(GraphFingerprint.mix(salts[k], x) >>> 33);
+				if(v<signature[k]) {
+					signature[k] = v;
+				}
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * Adds the signature of a query
+	 * @param query a sparql query
+	 * @return position of the query, empty if it cannot be parsed
+	 */
+	public int add(String query) {
+		int[] signature;
+		try {
+			signature = signature(query);
+		} catch (RuntimeException e) {
+			signature = null;
+		}
+		return add(signature);
+	}
+
+	/**
+	 * Adds a signature
+	 * @param signature a signature of these hash functions, or null for a query without one
+	 * @return position of the signature
+	 */
+	public synchronized int add(int[] signature) {
+		if(signature!=null && signature.length!=hashes) {
+			throw new IllegalArgumentException("Expected "+hashes+" values: "+signature.length);
+		}
+		if(count==empty.length) {
+			empty = Arrays.copyOf(empty, 2*count);
+			values = Arrays.copyOf(values, 2*count*hashes);
+		}
+		if(signature==null) {
+			empty[count] = true;
+		} else {
+			System.arraycopy(signature, 0, values, count*hashes, hashes);
+		}
+		return count++;
+	}
+
+	/**
+	 * Adds the signatures of a query file in one pass, the lines are parsed and hashed by worker threads
+	 * @param in the query file, one escaped query or JSON object with a query field per line, see {@link QDistanceBatch}
+	 * @param threads number of worker threads
+	 * @return number of queries added
+	 * @throws IOException if reading fails
+	 */
+	public int addAll(BufferedReader in, int threads) throws IOException {
+		if(threads<1) {
+			throw new IllegalArgumentException("threads must be at least 1: "+threads);
+		}
+		int first = count;
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<int[][]>> pending = new ArrayDeque<Future<int[][]>>();
+		try {
+			List<String> lines = new ArrayList<String>(QUERIES_PER_TASK);
+			String line;
+			while((line = in.readLine())!=null) {
+				lines.add(line);
+				if(lines.size()==QUERIES_PER_TASK) {
+					pending.add(workers.submit(task(lines)));
+					lines = new ArrayList<String>(QUERIES_PER_TASK);
+					if(pending.size()==TASKS_PER_THREAD*threads) {
+						addAll(pending.poll());
+					}
+				}
+			}
+			if(!lines.isEmpty()) {
+				pending.add(workers.submit(task(lines)));
+			}
+			while(!pending.isEmpty()) {
+				addAll(pending.poll());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted", e);
+		} finally {
+			workers.shutdownNow();
+		}
+		return count-first;
+	}
+
+	private Callable<int[][]> task(final List<String> lines) {
+		return new Callable<int[][]>() {
+			@Override
+			public int[][] call() {
+				int[][] signatures = new int[lines.size()][];
+				for(int i=0;i<signatures.length;i++) {
+					try {
+						signatures[i] = signature(QDistanceBatch.readQuery(lines.get(i)));
+					} catch (RuntimeException e) {
+						signatures[i] = null;
+					}
+				}
+				return signatures;
+			}
+		};
+	}
+
+	private void addAll(Future<int[][]> future) throws InterruptedException {
+		int[][] signatures;
+		try {
+			signatures = future.get();
+		} catch (ExecutionException e) {
+			//the tasks catch the errors of the queries
+			throw new IllegalStateException(e.getCause());
+		}
+		for(int[] signature:signatures) {
+			add(signature);
+		}
+	}
+
+	/**
+	 * Number of signatures
+	 * @return the number of queries added
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Number of hash functions
+	 * @return the length of a signature
+	 */
+	public int getHashCount() {
+		return hashes;
+	}
+
+	/**
+	 * Number of classes of the subject and object constants
+	 * @return the classes, 0 if the constants are kept
+	 */
+	public int getConstantClasses() {
+		return constantClasses;
+	}
+
+	/**
+	 * Seed of the hash functions
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Whether a query has no signature, as it cannot be parsed or has no triple patterns
+	 * @param id position of the query
+	 * @return true for an empty signature
+	 */
+	public boolean isEmpty(int id) {
+		check(id);
+		return empty[id];
+	}
+
+	/**
+	 * The signature of a query
+	 * @param id position of the query
+	 * @return a copy of the signature, or null if it is empty
+	 */
+	public int[] get(int id) {
+		check(id);
+		return empty[id]?null:Arrays.copyOfRange(values, id*hashes, (id+1)*hashes);
+	}
+
+	/**
+	 * A value of the signature of a query
+	 */
+	int value(int id, int k) {
+		return values[id*hashes+k];
+	}
+
+	private void check(int id) {
+		if(id<0 || id>=count) {
+			throw new IndexOutOfBoundsException("No signature at position "+id);
+		}
+	}
+
+	/**
+	 * Estimates the Jaccard similarity of the shingle sets of two signatures
+	 * @param a signature 1
+	 * @param b signature 2, of the same hash functions
+	 * @return the share of equal values
+	 */
+	public static double similarity(int[] a, int[] b) {
+		int equal = 0;
+		for(int k=0;k<a.length;k++) {
+			if(a[k]==b[k]) {
+				equal++;
+			}
+		}
+		return (double)equal/a.length;
+	}
+
+	/**
+	 * Writes the hash settings and the signatures
+	 * @param out the output, not closed
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(hashes);
+		data.writeInt(constantClasses);
+		data.writeLong(seed);
+		data.writeInt(count);
+		for(int id=0;id<count;id++) {
+			data.writeBoolean(empty[id]);
+			if(!empty[id]) {
+				for(int k=0;k<hashes;k++) {
+					data.writeInt(values[id*hashes+k]);
+				}
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads signatures written by {@link #write(OutputStream)}
+	 * @param in the input, not closed
+	 * @return the signatures, with their hash settings
+	 * @throws IOException if reading fails or the input is not a signature file
+	 */
+	public static MinHashSignatures read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		if(data.readInt()!=MAGIC) {
+			throw new IOException("Not a signature file");
+		}
+		int hashes = data.readInt();
+		int constantClasses = data.readInt();
+		long seed = data.readLong();
+		int count = data.readInt();
+		if(hashes<1 || constantClasses<0 || count<0) {
+			throw new IOException("Corrupt signature file");
+		}
+		MinHashSignatures signatures = new MinHashSignatures(hashes, constantClasses, seed);
+		int[] signature = new int[hashes];
+		for(int id=0;id<count;id++) {
+			if(data.readBoolean()) {
+				signatures.add((int[]) null);
+			} else {
+				for(int k=0;k<hashes;k++) {
+					signature[k] = data.readInt();
+				}
+				signatures.add(signature);
+			}
+		}
+		return signatures;
+	}
+}
@@ -0,0 +1,338 @@
+package semanticweb.sparql;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.atlas.json.JsonValue;
+
+import ged.AlgorithmConfig;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * The --batch mode of the QDistance entry points: distances of a stream of query pairs, computed by worker threads that
+ * share one {@link RDFGraphMatching}.
+ * <p>
+ * Every input line is a record, either tab separated, <code>id1 TAB id2 TAB query1 TAB query2</code>, or a JSON object with
+ * the fields id1, id2, query1 and query2. The queries are escaped as in {@link QDistanceServer#escape(String)}.
+ * With a query file, of one escaped query or JSON object with a query field per line, the records hold just the positions
+ * of the two queries in the file, <code>i TAB j</code> or {"id1": i, "id2": j}.
+ * <p>
+ * Every record gives an output line <code>id1 TAB id2 TAB distance TAB milliseconds</code>, in input order or as completed.
+ * A record that cannot be read or computed, including an error such as a stack overflow, gives
+ * <code>id1 TAB id2 TAB ERROR TAB message</code> and the run goes on.
+ * At most a few records per worker are in progress, so the input is streamed, and the output is flushed as records are written.
+ */
+public class QDistanceBatch {
+
+	/**
+	 * records in progress per worker thread
+	 */
+	final private static int RECORDS_PER_THREAD = 4;
+
+	private AlgorithmConfig config;
+	private int threads;
+	private boolean ordered;
+	private List<String> queries;
+	private RDFGraphMatching matcher;
+	private int errors;
+
+	/**
+	 * @param config the algorithm
+	 * @param threads number of worker threads
+	 * @param ordered whether the output is in input order, or in order of completion
+	 */
+	public QDistanceBatch(AlgorithmConfig config, int threads, boolean ordered) {
+		this(new RDFGraphMatching(), config, threads, ordered);
+	}
+
+	/**
+	 * @param matcher computes the distances, shared by the worker threads
+	 * @param config the algorithm
+	 * @param threads number of worker threads
+	 * @param ordered whether the output is in input order, or in order of completion
+	 */
+	public QDistanceBatch(RDFGraphMatching matcher, AlgorithmConfig config, int threads, boolean ordered) {
+		if(threads<1) {
+			throw new IllegalArgumentException("threads must be at least 1: "+threads);
+		}
+		this.config = config;
+		this.threads = threads;
+		this.ordered = ordered;
+		this.matcher = matcher;
+	}
+
+	/**
+	 * Sets the queries that the records refer to by position
+	 * @param queries the queries, or null for records holding the queries
+	 */
+	public void setQueries(List<String> queries) {
+		this.queries = queries;
+	}
+
+	/**
+	 * Reads a query file: one query per line, escaped or as a JSON object with a query field
+	 * @param in the file
+	 * @return the queries
+	 * @throws IOException if reading fails
+	 */
+	public static List<String> readQueries(BufferedReader in) throws IOException {
+		List<String> queries = new ArrayList<String>();
+		String line;
+		while((line = in.readLine())!=null) {
+			queries.add(readQuery(line));
+		}
+		return queries;
+	}
+
+	/**
+	 * Reads a line of a query file
+	 * @param line an escaped query or a JSON object with a query field
+	 * @return the query
+	 */
+	static String readQuery(String line) {
+		return line.startsWith("{")?field(JSON.parse(line), "query"):QDistanceServer.unescape(line);
+	}
+
+	/**
+	 * Computes the distances of all records
+	 * @param in the records
+	 * @param out the output lines
+	 * @return number of records with errors
+	 * @throws IOException if reading or writing fails
+	 */
+	public int run(BufferedReader in, Writer out) throws IOException {
+		errors = 0;
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		CompletionService<String> completion = new ExecutorCompletionService<String>(workers);
+		ArrayDeque<Future<String>> pending = new ArrayDeque<Future<String>>();
+		int capacity = RECORDS_PER_THREAD*threads;
+		int inProgress = 0;
+		try {
+			String line;
+			int lineNumber = 0;
+			while((line = in.readLine())!=null) {
+				lineNumber++;
+				if(line.trim().length()==0) {
+					continue;
+				}
+				final String record = line;
+				final int number = lineNumber;
+				Callable<String> task = new Callable<String>() {
+					@Override
+					public String call() {
+						return compute(record, number);
+					}
+				};
+				if(ordered) {
+					pending.add(workers.submit(task));
+				} else {
+					completion.submit(task);
+				}
+				int written = 0;
+				if(++inProgress==capacity) {
+					write(out, ordered?pending.poll():completion.take());
+					written++;
+				}
+				//write what is done without waiting
+				written += writeDone(out, pending, completion);
+				if(written>0) {
+					inProgress -= written;
+					out.flush();
+				}
+			}
+			for(;inProgress>0;inProgress--) {
+				write(out, ordered?pending.poll():completion.take());
+				out.flush();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted", e);
+		} finally {
+			workers.shutdownNow();
+			out.flush();
+		}
+		return errors;
+	}
+
+	/**
+	 * Writes the records that are done, in input order if the output is ordered
+	 * @return number of records written
+	 */
+	private int writeDone(Writer out, ArrayDeque<Future<String>> pending, CompletionService<String> completion) throws IOException, InterruptedException {
+		int written = 0;
+		if(ordered) {
+			while(!pending.isEmpty() && pending.peek().isDone()) {
+				write(out, pending.poll());
+				written++;
+			}
+		} else {
+			for(Future<String> done=completion.poll();done!=null;done=completion.poll()) {
+				write(out, done);
+				written++;
+			}
+		}
+		return written;
+	}
+
+	private void write(Writer out, Future<String> future) throws IOException, InterruptedException {
+		String line;
+		try {
+			line = future.get();
+		} catch (ExecutionException e) {
+			//compute reports its failures as ERROR lines
+			throw new IllegalStateException(e.getCause());
+		}
+		if(line.contains("\tERROR\t")) {
+			errors++;
+		}
+		out.write(line);
+		out.write('\n');
+	}
+
+	/**
+	 * Computes the output line of a record
+	 */
+	String compute(String record, int lineNumber) {
+		String id1 = "line "+lineNumber;
+		String id2 = "";
+		try {
+			String q1;
+			String q2;
+			if(record.startsWith("{")) {
+				JsonObject object = JSON.parse(record);
+				id1 = field(object, "id1");
+				id2 = field(object, "id2");
+				q1 = queries==null?field(object, "query1"):query(id1);
+				q2 = queries==null?field(object, "query2"):query(id2);
+			} else {
+				String[] fields = record.split("\t", -1);
+				if(fields.length!=(queries==null?4:2)) {
+					throw new IllegalArgumentException(queries==null?"Expected id1 TAB id2 TAB query1 TAB query2":"Expected i TAB j");
+				}
+				id1 = fields[0];
+				id2 = fields[1];
+				q1 = queries==null?QDistanceServer.unescape(fields[2]):query(id1);
+				q2 = queries==null?QDistanceServer.unescape(fields[3]):query(id2);
+			}
+			long start = System.nanoTime();
+			double distance = matcher.queryGraphDistance(q1, q2, config);
+			double millis = (System.nanoTime()-start)/1e6;
+			return id1+"\t"+id2+"\t"+distance+"\t"+String.format(Locale.ROOT, "%.3f", millis);
+		} catch (Exception e) {
+			return error(id1, id2, e);
+		} catch (Error e) {
+			//e.g. a stack overflow of a too deeply nested query, the other records go on
+			return error(id1, id2, e);
+		}
+	}
+
+	private static String error(String id1, String id2, Throwable e) {
+		String message = String.valueOf(e.getMessage()).replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+		return id1+"\t"+id2+"\tERROR\t"+e.getClass().getSimpleName()+": "+message;
+	}
+
+	private String query(String position) {
+		int i = Integer.parseInt(position.trim());
+		if(i<0 || i>=queries.size()) {
+			throw new IllegalArgumentException("No query at position "+i);
+		}
+		return queries.get(i);
+	}
+
+	private static String field(JsonObject object, String key) {
+		JsonValue value = object.get(key);
+		if(value==null) {
+			throw new IllegalArgumentException("Missing field "+key);
+		}
+		if(value.isString()) {
+			return value.getAsString().value();
+		}
+		if(value.isNumber()) {
+			return value.getAsNumber().value().toString();
+		}
+		throw new IllegalArgumentException("Field "+key+" is not a string or a number");
+	}
+
+	public static void help() {
+		System.out.println("--batch for the distances of the query pairs of a file, or of the standard input without a file name or with -, one record per line:");
+		System.out.println("\t id1 TAB id2 TAB query1 TAB query2, or {\"id1\": ..., \"id2\": ..., \"query1\": ..., \"query2\": ...}, with tabs, line ends and backslashes escaped as \\t, \\n and \\\\");
+		System.out.println("\t --queries followed by a file of one query per line, then the records are i TAB j or {\"id1\": i, \"id2\": j}, positions in the file");
+		System.out.println("\t --threads for the number of worker threads, default the number of processors");
+		System.out.println("\t --unordered to write the results as they complete instead of in input order");
+		System.out.println("\t output lines: id1 TAB id2 TAB distance TAB milliseconds, or id1 TAB id2 TAB ERROR TAB message");
+	}
+
+	/**
+	 * Runs the --batch mode of an entry point
+	 * @param args the arguments, starting with --batch
+	 * @param config the algorithm
+	 * @return exit status: 0, or 2 if some records failed
+	 * @throws IOException if reading or writing fails
+	 */
+	public static int main(String[] args, AlgorithmConfig config) throws IOException {
+		String input = "-";
+		String queryFile = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean ordered = true;
+		int k = 1;
+		if(k<args.length && !args[k].startsWith("--")) {
+			input = args[k++];
+		}
+		for(;k<args.length;k++) {
+			if(args[k].equals("--queries") && k+1<args.length) {
+				queryFile = args[++k];
+			} else if(args[k].equals("--threads") && k+1<args.length) {
+				threads = Integer.parseInt(args[++k]);
+			} else if(args[k].equals("--unordered")) {
+				ordered = false;
+			} else {
+				throw new IllegalArgumentException("Unknown option "+args[k]+", --help for help");
+			}
+		}
+		QDistanceBatch batch = new QDistanceBatch(config, threads, ordered);
+		if(queryFile!=null) {
+			BufferedReader in = reader(new FileInputStream(queryFile));
+			try {
+				batch.setQueries(readQueries(in));
+			} finally {
+				in.close();
+			}
+		}
+		BufferedReader in = reader(input.equals("-")?System.in:new FileInputStream(input));
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"));
+		int errors;
+		try {
+			errors = batch.run(in, out);
+		} finally {
+			in.close();
+		}
+		if(errors>0) {
+			System.err.println(errors+" records failed");
+			return 2;
+		}
+		return 0;
+	}
+
+	private static BufferedReader reader(InputStream in) throws IOException {
+		return new BufferedReader(new InputStreamReader(in, "UTF-8"));
+	}
+}
@@ -2,6 +2,10 @@ package semanticweb.sparql;
 
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.jena.atlas.logging.Log;
 
 import ged.AlgorithmConfig;
@@ -23,6 +27,7 @@ public class QDistanceBeam {
 		System.out.println("--file for getting the input query from files followed by two file names seperated by space containing sparql queries");
 		System.out.println("--std for getting the input query from standerd input followed by two sparql queries in quotes");
 		System.out.println("\t --beam for beam size");
+		QDistanceBatch.help();
 		//System.out.println("--encoded if the input queries are URL parsed");
 	}
 	
@@ -95,6 +100,17 @@ public class QDistanceBeam {
 					
 					std(q1, q2, beam);
 				}			
+				else if(args[0].equals("--batch")) {
+					//the beam size may follow any option of the batch mode
+					List<String> options = new ArrayList<String>(Arrays.asList(args));
+					int k = options.indexOf("--beam");
+					if(k<0 || k+1>=options.size()) {
+						error("Please provide the beam size by --beam followed by an integer value");
+					}
+					int beam = Integer.parseInt(options.remove(k+1));
+					options.remove(k);
+					System.exit(QDistanceBatch.main(options.toArray(new String[options.size()]), AlgorithmConfig.createAStarBeam(beam)));
+				}
 				
 				
 			} else {
@@ -105,6 +121,7 @@ public class QDistanceBeam {
 			System.exit(0);
 
 		} catch (Exception e) {
+			System.err.println(e);
 			System.exit(1);
 	
 		}
@@ -23,6 +23,7 @@ public class QDistanceHungarian {
 	public static void help(){
 		System.out.println("--file for getting the input query from files followed by two file names seperated by space containing sparql queries");
 		System.out.println("--std for getting the input query from standerd input followed by two sparql queries in quotes");
+		QDistanceBatch.help();
 		//System.out.println("--encoded if the input queries are URL parsed");
 	}
 	
@@ -85,6 +86,9 @@ public class QDistanceHungarian {
 					
 						std(q1, q2);
 				}			
+				else if(args[0].equals("--batch")) {
+					System.exit(QDistanceBatch.main(args, AlgorithmConfig.createBipartiteHungarian()));
+				}
 				
 				
 			} else {
@@ -95,6 +99,7 @@ public class QDistanceHungarian {
 			System.exit(0);
 
 		} catch (Exception e) {
+			System.err.println(e);
 			System.exit(1);
 	
 		}
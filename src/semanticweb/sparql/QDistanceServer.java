@@ -0,0 +1,324 @@
+package semanticweb.sparql;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.jena.atlas.logging.Log;
+
+import ged.AlgorithmConfig;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * Query distance server: one JVM and one {@link RDFGraphMatching} answer the requests of many clients,
+ * without the start-up and warm-up of a JVM per pair of queries.
+ * <p>
+ * The server listens on a loopback port, as a Unix-domain SocketChannel needs Java 16 and the project targets 1.7. A client sends requests of one line each and gets a line per request, in order:
+ * <code>&lt;algorithm&gt;TAB&lt;query 1&gt;TAB&lt;query 2&gt;</code> is answered by <code>OK TAB &lt;distance&gt;</code>
+ * or <code>ERROR TAB &lt;message&gt;</code>, and <code>PING</code> by <code>OK</code>. The algorithm is a specification of
+ * {@link AlgorithmConfig#parse(String)}, e.g. vj or beam:10. Backslashes, tabs, carriage returns and newlines in the
+ * queries are escaped as \\, \t, \r and \n, see {@link #escape(String)}.
+ * Every connection has a thread that reads its requests, and the requests are computed by a pool of worker threads, so an
+ * idle connection does not hold a worker. A connection without a request for {@link #setIdleTimeout(int) a while} is closed.
+ * scripts/qdistance-client is a client.
+ * <p>
+ * The label dictionary of the matcher keeps every label seen, see {@link ged.LabelDictionary}: once it holds more than
+ * {@link #setMaxLabels(int) a bound} of labels, the requests go to a new matcher, and the old one is dropped when its
+ * requests are done.
+ */
+public class QDistanceServer {
+
+	final public static int DEFAULT_PORT = 7373;
+
+	/**
+	 * default bound of the labels of a matcher
+	 */
+	final public static int DEFAULT_MAX_LABELS = 1 << 20;
+
+	/**
+	 * default time in milliseconds after which an idle connection is closed
+	 */
+	final public static int DEFAULT_IDLE_TIMEOUT = 300000;
+
+	final private static String SAMPLE_QUERY_1 = "PREFIX foaf:    <http://xmlns.com/foaf/0.1/> SELECT ?name ?email WHERE {  ?x foaf:knows ?y . ?y foaf:name ?name . ?a ?b <http://wimmics.inria.fr/kolflow/qp#tt>.  OPTIONAL { ?y foaf:mbox ?email }  }";
+	final private static String SAMPLE_QUERY_2 = "PREFIX foaf:    <http://xmlns.com/foaf/0.1/> SELECT ?name ?email WHERE {  ?x foaf:knows ?y . ?y foaf:name ?name . ?a ?b <http://wimmics.inria.fr/kolflow/qp#tt> }";
+	final private static String[] WARM_UP_ALGORITHMS = {"hungarian", "vj", "beam:10", "greedy"};
+
+	private volatile RDFGraphMatching matcher;
+	private int maxLabels = DEFAULT_MAX_LABELS;
+	private ServerSocket serverSocket;
+	private ExecutorService workers;
+	private ExecutorService connections;
+	private int idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+	/**
+	 * Binds the server to a loopback port
+	 * @param port the port, 0 for any free port
+	 * @param threads number of requests computed at the same time
+	 * @throws IOException if the port cannot be bound
+	 */
+	public QDistanceServer(int port, int threads) throws IOException {
+		this.matcher = new RDFGraphMatching();
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"));
+		this.workers = Executors.newFixedThreadPool(threads);
+		this.connections = Executors.newCachedThreadPool();
+	}
+
+	/**
+	 * Gets the port the server listens on
+	 * @return the port
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Sets the number of labels beyond which the requests go to a new matcher
+	 * @param maxLabels the bound, default {@link #DEFAULT_MAX_LABELS}
+	 */
+	public void setMaxLabels(int maxLabels) {
+		this.maxLabels = maxLabels;
+	}
+
+	/**
+	 * Sets the time after which a connection without a request is closed
+	 * @param idleTimeout the time in milliseconds, default {@link #DEFAULT_IDLE_TIMEOUT}, 0 to keep idle connections open
+	 */
+	public void setIdleTimeout(int idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Gets the matcher of the next requests
+	 * @return the matcher
+	 */
+	public RDFGraphMatching getMatcher() {
+		return matcher;
+	}
+
+	/**
+	 * Computes the distance of a sample pair of queries with the common algorithms, so that the first requests
+	 * do not pay for class loading and compilation
+	 * @param rounds number of computations per algorithm
+	 */
+	public void warmUp(int rounds) {
+		for(int r=0;r<rounds;r++) {
+			for(String algorithm:WARM_UP_ALGORITHMS) {
+				handle(algorithm+"\t"+SAMPLE_QUERY_1+"\t"+SAMPLE_QUERY_2);
+			}
+		}
+	}
+
+	/**
+	 * Accepts connections until the server is closed
+	 * @throws IOException if accepting fails
+	 */
+	public void serve() throws IOException {
+		while(!serverSocket.isClosed()) {
+			final Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (SocketException e) {
+				//closed
+				break;
+			}
+			connections.execute(new Runnable() {
+				@Override
+				public void run() {
+					serve(socket);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Stops accepting connections and requests; the requests in progress finish, then their connections are closed
+	 * @throws IOException if closing the socket fails
+	 */
+	public void close() throws IOException {
+		serverSocket.close();
+		workers.shutdown();
+		connections.shutdown();
+	}
+
+	private void serve(Socket socket) {
+		try {
+			socket.setSoTimeout(idleTimeout);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"));
+			String line;
+			while((line = in.readLine())!=null) {
+				final String request = line;
+				Future<String> answer = workers.submit(new Callable<String>() {
+					@Override
+					public String call() {
+						return handle(request);
+					}
+				});
+				String reply;
+				try {
+					reply = answer.get();
+				} catch (ExecutionException e) {
+					//handle answers its exceptions, this is an error such as a stack overflow
+					reply = "ERROR\t"+escape(String.valueOf(e.getCause()));
+				}
+				out.print(reply);
+				out.print('\n');
+				out.flush();
+			}
+		} catch (SocketTimeoutException e) {
+			//idle for too long
+		} catch (IOException e) {
+			//the client went away
+		} catch (RejectedExecutionException e) {
+			//the server was closed
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	/**
+	 * Answers a request line
+	 * @param line the request
+	 * @return the answer, without line end
+	 */
+	String handle(String line) {
+		if(line.equals("PING")) {
+			return "OK";
+		}
+		String[] fields = line.split("\t", -1);
+		if(fields.length!=3) {
+			return "ERROR\tExpected <algorithm> TAB <query 1> TAB <query 2>";
+		}
+		//both queries of a request get the labels of the same dictionary
+		RDFGraphMatching m = matcher;
+		try {
+			AlgorithmConfig config = AlgorithmConfig.parse(fields[0]);
+			return "OK\t"+m.queryGraphDistance(unescape(fields[1]), unescape(fields[2]), config);
+		} catch (Exception e) {
+			return "ERROR\t"+escape(String.valueOf(e.getMessage()));
+		} finally {
+			if(m.getLabelDictionary().size()>maxLabels) {
+				renew(m);
+			}
+		}
+	}
+
+	/**
+	 * Replaces a matcher whose dictionary is full, unless another request did
+	 */
+	private synchronized void renew(RDFGraphMatching full) {
+		if(matcher==full) {
+			matcher = new RDFGraphMatching();
+		}
+	}
+
+	/**
+	 * Escapes a query for a request line
+	 * @param s the query
+	 * @return the query without tabs and line ends
+	 */
+	public static String escape(String s) {
+		StringBuilder sb = new StringBuilder(s.length());
+		for(int k=0;k<s.length();k++) {
+			char c = s.charAt(k);
+			if(c=='\\') {
+				sb.append("\\\\");
+			} else if(c=='\t') {
+				sb.append("\\t");
+			} else if(c=='\n') {
+				sb.append("\\n");
+			} else if(c=='\r') {
+				sb.append("\\r");
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reverses {@link #escape(String)}
+	 * @param s an escaped query
+	 * @return the query
+	 */
+	public static String unescape(String s) {
+		StringBuilder sb = new StringBuilder(s.length());
+		for(int k=0;k<s.length();k++) {
+			char c = s.charAt(k);
+			if(c=='\\' && k+1<s.length()) {
+				char e = s.charAt(++k);
+				sb.append(e=='t'?'\t':e=='n'?'\n':e=='r'?'\r':e);
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	public static void help() {
+		System.out.println("Serves query distances on a loopback port, one request per line: <algorithm> TAB <query 1> TAB <query 2>");
+		System.out.println("--port for the port, default "+DEFAULT_PORT);
+		System.out.println("--threads for the number of requests computed at the same time, default the number of processors");
+		System.out.println("--idle-timeout for the seconds after which a connection without a request is closed, default "+DEFAULT_IDLE_TIMEOUT/1000+", 0 for none");
+		System.out.println("--warmup for the number of warm-up rounds at start-up, default 200");
+		System.out.println("--max-labels for the number of labels after which a new label dictionary is started, default "+DEFAULT_MAX_LABELS);
+	}
+
+	public static void main(String[] args) {
+		int port = DEFAULT_PORT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int warmUp = 200;
+		int maxLabels = DEFAULT_MAX_LABELS;
+		int idleTimeout = DEFAULT_IDLE_TIMEOUT;
+		try {
+			Log.setCmdLogging();
+			for(int k=0;k<args.length;k++) {
+				if(args[k].equals("--help")) {
+					help();
+					return;
+				} else if(args[k].equals("--port") && k+1<args.length) {
+					port = Integer.parseInt(args[++k]);
+				} else if(args[k].equals("--threads") && k+1<args.length) {
+					threads = Integer.parseInt(args[++k]);
+				} else if(args[k].equals("--warmup") && k+1<args.length) {
+					warmUp = Integer.parseInt(args[++k]);
+				} else if(args[k].equals("--max-labels") && k+1<args.length) {
+					maxLabels = Integer.parseInt(args[++k]);
+				} else if(args[k].equals("--idle-timeout") && k+1<args.length) {
+					idleTimeout = 1000*Integer.parseInt(args[++k]);
+				} else {
+					System.err.println("Unknown option "+args[k]+", --help for help");
+					System.exit(1);
+				}
+			}
+			QDistanceServer server = new QDistanceServer(port, threads);
+			server.setMaxLabels(maxLabels);
+			server.setIdleTimeout(idleTimeout);
+			server.warmUp(warmUp);
+			System.err.println("Listening on 127.0.0.1:"+server.getPort());
+			server.serve();
+		} catch (Exception e) {
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+}
@@ -22,6 +22,7 @@ public class QDistanceVolgenantJonker {
 	public static void help(){
 		System.out.println("--file for getting the input query from files followed by two file names seperated by space containing sparql queries");
 		System.out.println("--std for getting the input query from standerd input followed by two sparql queries in quotes");
+		QDistanceBatch.help();
 		//System.out.println("--encoded if the input queries are URL parsed");
 	}
 	
@@ -84,6 +85,9 @@ public class QDistanceVolgenantJonker {
 					
 						std(q1, q2);
 				}			
+				else if(args[0].equals("--batch")) {
+					System.exit(QDistanceBatch.main(args, AlgorithmConfig.createBipartiteVolgenantJonkerConfig()));
+				}
 				
 				
 			} else {
@@ -94,6 +98,7 @@ public class QDistanceVolgenantJonker {
 			System.exit(0);
 
 		} catch (Exception e) {
+			System.err.println(e);
 			System.exit(1);
 	
 		}
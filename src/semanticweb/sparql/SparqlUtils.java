@@ -1,12 +1,18 @@
 package semanticweb.sparql;
 
+import ged.AdjacencyBuilder;
+import ged.AdjacencyGraph;
 import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.LabelDictionary;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -15,6 +21,7 @@ import javax.naming.OperationNotSupportedException;
 import nanoxml.XMLElement;
 import semanticweb.RDF2GXL;
 import semanticweb.RDFGraphMatching;
+import util.Edge;
 import util.Graph;
 
 import com.google.common.base.Stopwatch;
@@ -287,6 +294,143 @@ public class SparqlUtils {
 		
 	}
 
+
+	/**
+	 * Builds a GXL graph suitable for the GMT library from a sparql query, without the intermediate Jena model and GXL document
+	 * @param qr a sparql query
+	 * @param graphId an id for the query, sometimes useful for indexing
+	 * @return a representation of the GXL graph
+	 */
+	public static Graph buildSPARQLGraph(String qr, String graphId) {
+		return buildSPARQLGraph(retrieveTriples(qr), graphId);
+	}
+	
+	/**
+	 * Builds a GXL graph suitable for the GMT library directly from the triples of a sparql query pattern.
+	 * Unlike {@link #buildSPARQL2GXLGraph(String, String)}, a subject or object that occurs in several triples is represented by a single node.
+	 * @param triples triples of a sparql query pattern, see {@link #retrieveTriples(String)}
+	 * @param graphId an id for the query, sometimes useful for indexing
+	 * @return a representation of the GXL graph
+	 */
+	public static Graph buildSPARQLGraph(Set<Triple> triples, String graphId) {
+		AdjacencyGraph graph = new AdjacencyGraph();
+		graph.setGraphID(graphId);
+		//same edge mode as a GXL graph element without edgemode attribute
+		graph.setDirected(false);
+		
+		Map<String, Integer> nodeIndex = new HashMap<String, Integer>();
+		//random access to the nodes, the graph itself is a linked list
+		List<util.Node> nodes = new ArrayList<util.Node>();
+		List<Edge> edges = new ArrayList<Edge>(triples.size());
+		List<int[]> ends = new ArrayList<int[]>(triples.size());
+		
+		for(Triple t:triples) {
+			//property paths have no triple form
+			if(t==null) continue;
+			
+			int from = addQueryNode(graph, nodes, nodeIndex, t.getSubject());
+			int to = addQueryNode(graph, nodes, nodeIndex, t.getObject());
+			
+			Node pred = t.getPredicate();
+			String predicateURI = pred.isVariable()?refineSymbol(pred):pred.toString(false);
+			
+			util.Node start = nodes.get(from);
+			util.Node end = nodes.get(to);
+			
+			Edge edge = new Edge();
+			edge.put("from", start.getNodeID());
+			edge.put("to", end.getNodeID());
+			edge.setEdgeID(start.getNodeID() + "_<>" + end.getNodeID());
+			edge.put(RDF2GXL.EDGE_SYMBOL_ATT_NAME, wasVariable(predicateURI)?"?":predicateURI);
+			edge.setStartNode(start);
+			start.getEdges().add(edge);
+			edge.setEndNode(end);
+			end.getEdges().add(edge);
+			
+			edges.add(edge);
+			ends.add(new int[]{from, to});
+		}
+		
+		AdjacencyBuilder adjacency = new AdjacencyBuilder(nodes.size());
+		for(int i=0;i<edges.size();i++) {
+			int[] e = ends.get(i);
+			adjacency.put(e[0], e[1], edges.get(i));
+			adjacency.put(e[1], e[0], edges.get(i));
+		}
+		graph.setAdjacency(adjacency.build());
+		
+		return graph;
+	}
+	
+	/**
+	 * Builds a {@link CompactGraph} from a sparql query, with the same nodes, edges and labels as {@link #buildSPARQLGraph(String, String)}
+	 * @param qr a sparql query
+	 * @param graphId an id for the query, sometimes useful for indexing
+	 * @param dictionary dictionary for the labels, shared by all graphs that are compared
+	 * @return the compact query graph
+	 */
+	public static CompactGraph buildSPARQLCompactGraph(String qr, String graphId, LabelDictionary dictionary) {
+		return buildSPARQLCompactGraph(retrieveTriples(qr), graphId, dictionary);
+	}
+	
+	/**
+	 * Builds a {@link CompactGraph} from the triples of a sparql query pattern, with the same nodes, edges and labels as {@link #buildSPARQLGraph(Set, String)}
+	 * @param triples triples of a sparql query pattern, see {@link #retrieveTriples(String)}
+	 * @param graphId an id for the query, sometimes useful for indexing
+	 * @param dictionary dictionary for the labels, shared by all graphs that are compared
+	 * @return the compact query graph
+	 */
+	public static CompactGraph buildSPARQLCompactGraph(Set<Triple> triples, String graphId, LabelDictionary dictionary) {
+		CompactGraph.Builder builder = new CompactGraph.Builder(graphId, false, dictionary);
+		Map<String, Integer> nodeIndex = new HashMap<String, Integer>();
+		for(Triple t:triples) {
+			//property paths have no triple form
+			if(t==null) continue;
+			
+			int from = addQueryNode(builder, nodeIndex, t.getSubject());
+			int to = addQueryNode(builder, nodeIndex, t.getObject());
+			
+			Node pred = t.getPredicate();
+			String predicateURI = pred.isVariable()?refineSymbol(pred):pred.toString(false);
+			builder.addEdge(from, to, wasVariable(predicateURI)?LabelDictionary.VARIABLE_LABEL:predicateURI);
+		}
+		return builder.build();
+	}
+	
+	private static int addQueryNode(CompactGraph.Builder builder, Map<String, Integer> nodeIndex, Node node) {
+		String uri = node.isVariable()?refineSymbol(node):node.toString(false);
+		Integer index = nodeIndex.get(uri);
+		if(index!=null) {
+			return index;
+		}
+		index = builder.addNode(uri, wasVariable(uri)?LabelDictionary.VARIABLE_LABEL:uri);
+		nodeIndex.put(uri, index);
+		return index;
+	}
+	
+	/**
+	 * Returns the index of the graph node for a subject or object of a triple pattern, adding the node if it does not exist yet
+	 * @param graph the graph under construction
+	 * @param nodes the nodes of the graph, in graph order
+	 * @param nodeIndex index from node ids to positions in the graph
+	 * @param node subject or object of a triple pattern
+	 * @return position of the node in the graph
+	 */
+	private static int addQueryNode(Graph graph, List<util.Node> nodes, Map<String, Integer> nodeIndex, Node node) {
+		String uri = node.isVariable()?refineSymbol(node):node.toString(false);
+		Integer index = nodeIndex.get(uri);
+		if(index!=null) {
+			return index;
+		}
+		util.Node gxlNode = new util.Node();
+		gxlNode.setNodeID(uri);
+		gxlNode.put(RDF2GXL.NODE_SYMBOL_ATT_NAME, wasVariable(uri)?"?":uri);
+		graph.add(gxlNode);
+		nodes.add(gxlNode);
+		nodeIndex.put(uri, nodes.size()-1);
+		return nodes.size()-1;
+	}
+
 	
 	public static void main(String[] args) throws Exception {
 		String q1 = "PREFIX foaf:    <http://xmlns.com/foaf/0.1/> SELECT ?name ?email WHERE {  ?x foaf:knows ?y . ?y foaf:name ?name . ?a ?b <http://wimmics.inria.fr/kolflow/qp#tt>.  OPTIONAL { ?y foaf:mbox ?email }  }";
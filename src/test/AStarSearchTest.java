@@ -0,0 +1,61 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AStarSearch;
+import ged.BeamSearch;
+import ged.CompactGraph;
+import ged.LabelCostModel;
+import ged.LabelDictionary;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.CostFunction;
+import util.EditDistance;
+import util.Graph;
+
+public class AStarSearchTest {
+
+	@Test
+	public void testSameAsEditDistance() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		CostFunction cf = matcher.getRDFGraphCostFunction();
+		EditDistance editDistance = new EditDistance(0, 0);
+		Random random = new Random(11);
+		for(int k=0;k<30;k++) {
+			Graph g1 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(3), random), "1");
+			Graph g2 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(3), random), "2");
+			assertEquals(editDistance.getEditDistance(g1, g2, cf, Integer.MAX_VALUE), matcher.distanceAStar(g1, g2), 0.0);
+		}
+	}
+
+	@Test
+	public void testSameAsUnboundedBeam() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(12);
+		for(int k=0;k<40;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "2", matcher.getLabelDictionary());
+			double expected = matcher.distanceAStarBeam(g1, g2, Integer.MAX_VALUE);
+			assertEquals(expected, matcher.distanceAStar(g1, g2), 0.0);
+			assertTrue(expected<=matcher.distanceAStarBeam(g1, g2, 5));
+		}
+	}
+
+	@Test
+	public void testDirected() {
+		LabelCostModel costs = LabelCostModel.fromCostFunction(new RDFGraphMatching().getRDFGraphCostFunction());
+		LabelDictionary dictionary = new LabelDictionary();
+		BeamSearch beamSearch = new BeamSearch(costs);
+		AStarSearch aStarSearch = new AStarSearch(costs);
+		Random random = new Random(13);
+		for(int k=0;k<40;k++) {
+			CompactGraph g1 = TestGraphs.randomDirectedGraph(1+random.nextInt(5), random, dictionary);
+			CompactGraph g2 = TestGraphs.randomDirectedGraph(1+random.nextInt(5), random, dictionary);
+			assertEquals(beamSearch.getEditDistance(g1, g2, Integer.MAX_VALUE), aStarSearch.getEditDistance(g1, g2, null), 0.0);
+		}
+	}
+}
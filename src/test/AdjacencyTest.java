@@ -0,0 +1,80 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import algorithms.BipartiteMatching;
+
+import ged.Adjacency;
+import ged.AdjacencyBuilder;
+import ged.EditPathCost;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.CostFunction;
+import util.Edge;
+import util.EditDistance;
+import util.Graph;
+import util.MatrixGenerator;
+
+public class AdjacencyTest {
+	
+	@Test
+	public void testSparseEqualsDense() {
+		Random random = new Random(1);
+		int n = 50;
+		AdjacencyBuilder builder = new AdjacencyBuilder(n);
+		Edge[][] expected = new Edge[n][n];
+		for(int k=0;k<400;k++) {
+			int i = random.nextInt(n);
+			int j = random.nextInt(n);
+			Edge e = new Edge();
+			builder.put(i, j, e);
+			expected[i][j] = e;
+		}
+		Adjacency dense = builder.buildDense();
+		Adjacency sparse = builder.buildSparse();
+		assertEquals(dense.cells(), sparse.cells());
+		for(int i=0;i<n;i++) {
+			assertEquals(dense.degree(i), sparse.degree(i));
+			for(int k=0;k<dense.degree(i);k++) {
+				assertEquals(dense.neighbour(i, k), sparse.neighbour(i, k));
+				assertSame(dense.edge(i, k), sparse.edge(i, k));
+			}
+			for(int j=0;j<n;j++) {
+				assertSame(expected[i][j], dense.get(i, j));
+				assertSame(expected[i][j], sparse.get(i, j));
+			}
+		}
+	}
+	
+	@Test
+	public void testEditPathCost() throws Exception {
+		CostFunction cf = new RDFGraphMatching().getRDFGraphCostFunction();
+		MatrixGenerator matrixGenerator = new MatrixGenerator(cf, 0);
+		BipartiteMatching hungarian = new BipartiteMatching("Hungarian", 0);
+		EditDistance editDistance = new EditDistance(0, 0);
+		EditPathCost editPathCost = new EditPathCost();
+		Random random = new Random(2);
+		int dense = AdjacencyBuilder.DENSE_ADJACENCY_MAX_NODES;
+		try {
+			for(int k=0;k<40;k++) {
+				//alternate between dense and sparse adjacencies
+				AdjacencyBuilder.DENSE_ADJACENCY_MAX_NODES = k%2==0?dense:0;
+				Graph g1 = SparqlUtils.buildSPARQL2GXLGraph(TestGraphs.randomQuery(1+random.nextInt(8), random), "1");
+				Graph g2 = SparqlUtils.buildSPARQL2GXLGraph(TestGraphs.randomQuery(1+random.nextInt(8), random), "2");
+				if(g1.size()<g2.size()) {
+					Graph g = g1;
+					g1 = g2;
+					g2 = g;
+				}
+				int[][] matching = hungarian.getMatching(matrixGenerator.getMatrix(g1, g2));
+				assertEquals(editDistance.getEditDistance(g1, g2, matching, cf), editPathCost.getEditDistance(g1, g2, matching, cf), 0.0);
+			}
+		} finally {
+			AdjacencyBuilder.DENSE_ADJACENCY_MAX_NODES = dense;
+		}
+	}
+}
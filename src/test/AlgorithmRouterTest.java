@@ -0,0 +1,88 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.AlgorithmRouter;
+import ged.CompactGraph;
+import ged.DistanceResult;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+public class AlgorithmRouterTest {
+
+	@Test
+	public void testRoute() {
+		Properties table = new Properties();
+		table.setProperty("size.limits", "10,20");
+		table.setProperty("diversity.threshold", "0.5");
+		table.setProperty("10.low.astar", "300 0");
+		table.setProperty("10.low.branchAndBound", "200 0");
+		table.setProperty("10.low.beam10", "100 0.01");
+		table.setProperty("10.low.vj", "20 0.2");
+		table.setProperty("20.high.astar", "5000 0");
+		table.setProperty("20.high.hungarian", "50 0.1");
+		AlgorithmRouter router = new AlgorithmRouter(table);
+
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		CompactGraph small = graph(matcher, "SELECT * WHERE { ?x foaf:knows ?y . ?y foaf:name ?z . }");
+		CompactGraph medium = graph(matcher, "SELECT * WHERE { ?a foaf:knows ?b . ?b foaf:knows ?c . ?c foaf:knows ?d . ?d foaf:knows ?e . ?e foaf:knows ?f . ?f foaf:name ?g . }");
+		assertEquals("10.low", router.classOf(AlgorithmRouter.sizeOf(small, small), AlgorithmRouter.diversityOf(small, small)));
+		assertEquals("20.low", router.classOf(AlgorithmRouter.sizeOf(small, medium), AlgorithmRouter.diversityOf(small, medium)));
+
+		assertTrue(router.route(small, small, 1, 0.0).isDepthFirstBranchAndBound());
+		assertTrue(router.route(small, small, 1, 0.05).isAStarBeam());
+		assertTrue(router.route(small, small, 1, 0.5).isBipartiteVolgenantJonker());
+		//nothing meets the budget
+		assertTrue(router.route(small, small, 0, 0.0).isAnytime());
+		//20.low is not measured, 20.high stands in
+		assertTrue(router.route(small, medium, 10, 0.0).isAStar());
+		assertTrue(router.route(small, medium, 1, 0.1).isBipartiteHungarian());
+		assertTrue(router.route(small, medium, 1, 0.0).isAnytime());
+		//larger than the table
+		assertEquals(null, router.classOf(21, 0.0));
+
+		//a class of too few calibration pairs is not used
+		table.setProperty("10.low.pairs", String.valueOf(AlgorithmRouter.MIN_PAIRS-1));
+		table.setProperty("10.high.pairs", String.valueOf(AlgorithmRouter.MIN_PAIRS));
+		table.setProperty("10.high.hungarian", "10 0.3");
+		router = new AlgorithmRouter(table);
+		assertFalse(router.isConfident("10.low"));
+		assertTrue(router.isConfident("10.high"));
+		assertTrue(router.isConfident("20.high"));
+		assertTrue(router.route(small, small, 1, 0.5).isBipartiteHungarian());
+		assertTrue(router.route(small, small, 1, 0.0).isAnytime());
+	}
+
+	@Test
+	public void testBundled() {
+		AlgorithmRouter router = AlgorithmRouter.getBundled();
+		assertSame(router, AlgorithmRouter.getBundled());
+		assertEquals("10.low", router.classOf(5, 0.0));
+		assertTrue(router.isConfident("10.low"));
+	}
+
+	@Test
+	public void testAuto() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		AlgorithmConfig config = AlgorithmConfig.auto(1000);
+		Random random = new Random(41);
+		for(int k=0;k<20;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(4), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(4), random), "2", matcher.getLabelDictionary());
+			DistanceResult result = matcher.distanceResult(g1, g2, config);
+			assertTrue(result.isOptimal());
+			assertEquals(matcher.distanceAStar(g1, g2), result.getDistance(), 0.0);
+			assertNotNull(result.getAlgorithm());
+		}
+	}
+
+	private static CompactGraph graph(RDFGraphMatching matcher, String pattern) {
+		return SparqlUtils.buildSPARQLCompactGraph("PREFIX foaf: <http://xmlns.com/foaf/0.1/> "+pattern, "g", matcher.getLabelDictionary());
+	}
+}
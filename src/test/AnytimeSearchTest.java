@@ -0,0 +1,51 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.DistanceResult;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+public class AnytimeSearchTest {
+
+	@Test
+	public void testSameAsAStar() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		AlgorithmConfig config = AlgorithmConfig.createAnytime(10000);
+		Random random = new Random(31);
+		for(int k=0;k<40;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "2", matcher.getLabelDictionary());
+			DistanceResult result = matcher.distanceResult(g1, g2, config);
+			assertTrue(result.isOptimal());
+			assertEquals(matcher.distanceAStar(g1, g2), result.getDistance(), 0.0);
+		}
+	}
+
+	@Test
+	public void testBounds() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(32);
+		for(int k=0;k<20;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(6+random.nextInt(6), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(6+random.nextInt(6), random), "2", matcher.getLabelDictionary());
+			double exact = matcher.distanceAStar(g1, g2);
+			double previous = Double.POSITIVE_INFINITY;
+			for(long budget=0;budget<=4;budget+=2) {
+				DistanceResult result = matcher.distanceAnytime(g1, g2, budget);
+				assertTrue(result.getLowerBound()<=exact);
+				assertTrue(exact<=result.getDistance());
+				if(budget==0) {
+					previous = result.getDistance();
+				}
+				assertTrue(result.getDistance()<=previous);
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import algorithms.BipartiteMatching;
+
+import ged.AssignmentSolver;
+import ged.AssignmentWorkspace;
+import ged.BipartiteCostMatrix;
+import ged.DenseCostMatrix;
+import ged.HungarianSolver;
+import ged.VolgenantJonkerSolver;
+
+public class AssignmentSolverTest {
+	
+	@Test
+	public void testHungarian() {
+		assertSameAssignments(new BipartiteMatching("Hungarian", 0), new HungarianSolver());
+	}
+	
+	@Test
+	public void testVolgenantJonker() {
+		assertSameAssignments(new BipartiteMatching("VJ", 0), new VolgenantJonkerSolver());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testMatrixTooLarge() {
+		//50000^2 overflows an int
+		new AssignmentWorkspace().getMatrix(50000);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testBipartiteMatrixTooLarge() {
+		new BipartiteCostMatrix().reset(50000, 50000);
+	}
+	
+	/**
+	 * Bipartite cost matrices with few distinct costs, so that there are many optimal assignments, solved in one workspace of varying size
+	 */
+	private static void assertSameAssignments(BipartiteMatching expected, AssignmentSolver solver) {
+		Random random = new Random(6);
+		AssignmentWorkspace workspace = new AssignmentWorkspace();
+		for(int k=0;k<200;k++) {
+			int n = 1+random.nextInt(k<150?15:40);
+			int m = random.nextInt(n+1);
+			int dim = n+m;
+			double[][] matrix = new double[dim][dim];
+			for(int i=0;i<dim;i++) {
+				for(int j=0;j<dim;j++) {
+					if(i<n && j<m) {
+						matrix[i][j] = 0.5*random.nextInt(4);
+					} else if(i<n) {
+						matrix[i][j] = j-m==i?1+0.5*random.nextInt(4):Double.POSITIVE_INFINITY;
+					} else if(j<m) {
+						matrix[i][j] = i-n==j?1+0.5*random.nextInt(4):Double.POSITIVE_INFINITY;
+					}
+				}
+			}
+			double[] flat = workspace.getMatrix(dim);
+			for(int i=0;i<dim;i++) {
+				System.arraycopy(matrix[i], 0, flat, i*dim, dim);
+			}
+			int[][] matching = expected.getMatching(matrix);
+			assertAssignment(matching, solver.solve(new DenseCostMatrix(flat, dim), workspace), workspace);
+			
+			BipartiteCostMatrix bipartite = workspace.getBipartiteMatrix(n, m);
+			for(int i=0;i<n;i++) {
+				for(int j=0;j<m;j++) {
+					bipartite.setSubstitution(i, j, matrix[i][j]);
+				}
+				bipartite.setDeletion(i, matrix[i][m+i]);
+			}
+			for(int j=0;j<m;j++) {
+				bipartite.setInsertion(j, matrix[n+j][j]);
+			}
+			assertAssignment(matching, solver.solve(bipartite, workspace), workspace);
+		}
+	}
+	
+	private static void assertAssignment(int[][] matching, int[] assignment, AssignmentWorkspace workspace) {
+		for(int i=0;i<matching.length;i++) {
+			assertEquals(matching[i][1], assignment[i]);
+			assertEquals(i, workspace.getColumnSolution()[assignment[i]]);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.CostFunction;
+import util.EditDistance;
+import util.Graph;
+
+public class BeamSearchTest {
+
+	@Test
+	public void testSameAsEditDistance() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		CostFunction cf = matcher.getRDFGraphCostFunction();
+		EditDistance editDistance = new EditDistance(0, 0);
+		int[] beamSizes = {0, 1, 2, 3, 10, 50};
+		Random random = new Random(9);
+		for(int k=0;k<60;k++) {
+			Graph g1 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "1");
+			Graph g2 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "2");
+			for(int s:beamSizes) {
+				assertEquals(editDistance.getEditDistance(g1, g2, cf, s), matcher.distanceAStarBeam(g1, g2, s), 0.0);
+				assertEquals(editDistance.getEditDistance(g2, g1, cf, s), matcher.distanceAStarBeam(g2, g1, s), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testUnboundedBeam() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		CostFunction cf = matcher.getRDFGraphCostFunction();
+		EditDistance editDistance = new EditDistance(0, 0);
+		Random random = new Random(10);
+		for(int k=0;k<20;k++) {
+			Graph g1 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(3), random), "1");
+			Graph g2 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(3), random), "2");
+			assertEquals(editDistance.getEditDistance(g1, g2, cf, Integer.MAX_VALUE), matcher.distanceAStarBeam(g1, g2, Integer.MAX_VALUE), 0.0);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.CompactGraph;
+import ged.DistanceResult;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+public class BranchAndBoundSearchTest {
+
+	@Test
+	public void testSameAsAStar() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(21);
+		for(int k=0;k<60;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(8), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(8), random), "2", matcher.getLabelDictionary());
+			DistanceResult result = matcher.distanceBranchAndBound(g1, g2, Long.MAX_VALUE);
+			assertEquals(matcher.distanceAStar(g1, g2), result.getDistance(), 0.0);
+			assertTrue(result.isOptimal());
+			assertEquals(result.getDistance(), result.getLowerBound(), 0.0);
+		}
+	}
+
+	@Test
+	public void testExpansionBudget() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(22);
+		for(int k=0;k<40;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(4+random.nextInt(6), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(4+random.nextInt(6), random), "2", matcher.getLabelDictionary());
+			double exact = matcher.distanceAStar(g1, g2);
+			for(long budget=1;budget<=64;budget*=4) {
+				DistanceResult result = matcher.distanceBranchAndBound(g1, g2, budget);
+				assertTrue(result.getExpansions()<=budget);
+				assertTrue(result.getLowerBound()<=exact);
+				assertTrue(exact<=result.getDistance());
+				if(result.isOptimal()) {
+					assertEquals(exact, result.getDistance(), 0.0);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import algorithms.BipartiteMatching;
+
+import ged.Adjacency;
+import ged.CompactGraph;
+import ged.LabelDictionary;
+import semanticweb.RDF2GXL;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.CostFunction;
+import util.Edge;
+import util.EditDistance;
+import util.Graph;
+import util.MatrixGenerator;
+import util.Node;
+
+public class CompactGraphTest {
+	
+	@Test
+	public void testSameAsQueryGraph() {
+		LabelDictionary dictionary = new LabelDictionary();
+		Random random = new Random(3);
+		for(int k=0;k<30;k++) {
+			String query = TestGraphs.randomQuery(1+random.nextInt(10), random);
+			Graph expected = SparqlUtils.buildSPARQLGraph(query, "q");
+			assertSameGraph(expected, SparqlUtils.buildSPARQLCompactGraph(query, "q", dictionary));
+			assertSameGraph(expected, CompactGraph.fromGraph(expected, dictionary));
+			assertSameGraph(expected, CompactGraph.fromGraph(expected, dictionary).toGraph());
+		}
+	}
+	
+	@Test
+	public void testDistance() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		CostFunction cf = matcher.getRDFGraphCostFunction();
+		MatrixGenerator matrixGenerator = new MatrixGenerator(cf, 0);
+		BipartiteMatching hungarian = new BipartiteMatching("Hungarian", 0);
+		BipartiteMatching vj = new BipartiteMatching("VJ", 0);
+		EditDistance editDistance = new EditDistance(0, 0);
+		Random random = new Random(4);
+		for(int k=0;k<30;k++) {
+			Graph g1 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(8), random), "1");
+			Graph g2 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(8), random), "2");
+			CompactGraph c1 = matcher.compact(g1);
+			CompactGraph c2 = matcher.compact(g2);
+			if(g1.size()<g2.size()) {
+				assertEquals(matcher.distanceBipartiteHungarian(g1, g2), matcher.distanceBipartiteHungarian(c2, c1), 0.0);
+				Graph g = g1;
+				g1 = g2;
+				g2 = g;
+			}
+			double[][] costMatrix = matrixGenerator.getMatrix(g1, g2);
+			assertEquals(editDistance.getEditDistance(g1, g2, hungarian.getMatching(costMatrix), cf), matcher.distanceBipartiteHungarian(c1, c2), 0.0);
+			assertEquals(editDistance.getEditDistance(g1, g2, vj.getMatching(costMatrix), cf), matcher.distanceBipartiteVolgenantJonker(c1, c2), 0.0);
+		}
+	}
+	
+	private static void assertSameGraph(Graph expected, CompactGraph actual) {
+		assertSameGraph(expected, actual.toGraph());
+	}
+	
+	private static void assertSameGraph(Graph expected, Graph actual) {
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.isDirected(), actual.isDirected());
+		for(int i=0;i<expected.size();i++) {
+			Node n1 = expected.get(i);
+			Node n2 = actual.get(i);
+			assertEquals(n1.getNodeID(), n2.getNodeID());
+			assertEquals(n1.getValue(RDF2GXL.NODE_SYMBOL_ATT_NAME), n2.getValue(RDF2GXL.NODE_SYMBOL_ATT_NAME));
+			assertEquals(n1.getEdges().size(), n2.getEdges().size());
+			for(int k=0;k<n1.getEdges().size();k++) {
+				assertSameEdge(n1.getEdges().get(k), n2.getEdges().get(k));
+			}
+		}
+		Adjacency a1 = Adjacency.of(expected);
+		Adjacency a2 = Adjacency.of(actual);
+		assertEquals(a1.cells(), a2.cells());
+		for(int i=0;i<a1.size();i++) {
+			assertEquals(a1.degree(i), a2.degree(i));
+			for(int k=0;k<a1.degree(i);k++) {
+				assertEquals(a1.neighbour(i, k), a2.neighbour(i, k));
+				assertSameEdge(a1.edge(i, k), a2.edge(i, k));
+			}
+		}
+	}
+	
+	private static void assertSameEdge(Edge e1, Edge e2) {
+		assertEquals(e1.getEdgeID(), e2.getEdgeID());
+		assertEquals(e1.getValue(RDF2GXL.EDGE_SYMBOL_ATT_NAME), e2.getValue(RDF2GXL.EDGE_SYMBOL_ATT_NAME));
+		assertEquals(e1.getStartNode().getNodeID(), e2.getStartNode().getNodeID());
+		assertEquals(e1.getEndNode().getNodeID(), e2.getEndNode().getNodeID());
+	}
+}
@@ -0,0 +1,88 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.DistanceMatrixSink;
+import ged.TriangularDistanceMatrix;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+public class DistanceMatrixTest {
+
+	@Test
+	public void testSameAsPairwise() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(41);
+		List<String> queries = new ArrayList<String>();
+		for(int k=0;k<150;k++) {
+			queries.add(TestGraphs.randomQuery(1+random.nextInt(5), random));
+		}
+		AlgorithmConfig config = AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+		TriangularDistanceMatrix sequential = new TriangularDistanceMatrix(queries.size());
+		matcher.queryGraphDistanceMatrix(queries, config, 1, sequential);
+		TriangularDistanceMatrix parallel = new TriangularDistanceMatrix(queries.size());
+		matcher.queryGraphDistanceMatrix(queries, config, 3, parallel);
+		for(int i=0;i<queries.size();i+=7) {
+			assertEquals(0.0, sequential.get(i, i), 0.0);
+			for(int j=i+1;j<queries.size();j++) {
+				double expected = matcher.queryGraphDistance(queries.get(i), queries.get(j), config);
+				assertEquals(expected, sequential.get(i, j), 1e-6);
+				assertEquals(expected, parallel.get(j, i), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	public void testEveryPairOnce() {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(42);
+		final int n = 2*RDFGraphMatching.DISTANCE_MATRIX_TILE+5;
+		List<CompactGraph> graphs = new ArrayList<CompactGraph>();
+		for(int k=0;k<n;k++) {
+			graphs.add(SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(3), random), "g", matcher.getLabelDictionary()));
+		}
+		final AtomicIntegerArray counts = new AtomicIntegerArray(n*n);
+		matcher.distanceMatrix(graphs, AlgorithmConfig.createGreedy(), 4, new DistanceMatrixSink() {
+			@Override
+			public void put(int i, int j, double distance) {
+				counts.incrementAndGet(i*n+j);
+			}
+		});
+		for(int i=0;i<n;i++) {
+			for(int j=0;j<n;j++) {
+				assertEquals(i<j?1:0, counts.get(i*n+j));
+			}
+		}
+	}
+
+	@Test
+	public void testTriangularMatrix() {
+		TriangularDistanceMatrix matrix = new TriangularDistanceMatrix(5);
+		for(int i=0;i<5;i++) {
+			for(int j=i+1;j<5;j++) {
+				matrix.put(i, j, 10*i+j);
+			}
+		}
+		for(int i=0;i<5;i++) {
+			for(int j=i+1;j<5;j++) {
+				assertEquals(10*i+j, matrix.get(i, j), 0.0);
+				assertEquals(10*i+j, matrix.get(j, i), 0.0);
+			}
+		}
+		assertEquals(1, new TriangularDistanceMatrix(1).size());
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testLowerTriangle() {
+		new TriangularDistanceMatrix(3).put(2, 1, 1.0);
+	}
+}
@@ -0,0 +1,200 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.DistanceMemo;
+import ged.DistanceResult;
+import ged.GraphFingerprint;
+import ged.LabelDictionary;
+import semanticweb.RDFGraphMatching;
+
+public class GraphFingerprintTest {
+
+	final private static String PREFIX = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> SELECT * WHERE { ";
+
+	/**
+	 * The query with its triple patterns shuffled and its variables renamed
+	 */
+	private static String permute(String query, Random random) {
+		String body = query.substring(query.indexOf('{')+1, query.lastIndexOf('}')).trim();
+		List<String> triples = new ArrayList<String>();
+		for(String t:body.split(" \\. ")) {
+			if(t.trim().length()>0) {
+				triples.add(t.trim().replaceAll(" \\.$", ""));
+			}
+		}
+		Collections.shuffle(triples, random);
+		StringBuilder sb = new StringBuilder(PREFIX);
+		for(String t:triples) {
+			sb.append(t).append(" . ");
+		}
+		Matcher m = Pattern.compile("\\?v(\\d+)").matcher(sb.append("}").toString());
+		StringBuffer renamed = new StringBuffer();
+		while(m.find()) {
+			m.appendReplacement(renamed, "?w"+(1000-Integer.parseInt(m.group(1))));
+		}
+		return m.appendTail(renamed).toString();
+	}
+
+	/**
+	 * Whether an edge is replaced in the adjacency by a later edge between the same nodes, so that the graph depends on the triple order
+	 */
+	private static boolean hasReplacedEdges(CompactGraph g) {
+		for(int e=0;e<g.edgeCount();e++) {
+			if(g.edgeFrom(e)>=0 && g.edgeTo(e)>=0 && g.adjacentEdge(g.edgeFrom(e), g.edgeTo(e))!=e) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void testPermutedQueries() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		matcher.setDistanceMemoSize(DistanceMemo.DEFAULT_SIZE);
+		Random random = new Random(91);
+		for(int k=0;k<100;k++) {
+			String q = TestGraphs.randomQuery(1+random.nextInt(8), random);
+			CompactGraph g1 = matcher.queryGraph(q);
+			CompactGraph g2 = matcher.queryGraph(permute(q, random));
+			if(hasReplacedEdges(g1)) {
+				continue;
+			}
+			assertEquals(g1.fingerprint().getValue(), g2.fingerprint().getValue());
+			assertTrue(GraphFingerprint.isomorphic(g1, g2));
+			DistanceResult result = matcher.distanceResult(g1, g2, AlgorithmConfig.createBipartiteVolgenantJonkerConfig());
+			assertEquals(0.0, result.getDistance(), 0.0);
+			assertEquals(RDFGraphMatching.ISOMORPHISM, result.getAlgorithm());
+		}
+	}
+
+	@Test
+	public void testNotIsomorphic() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		//every node has two neighbours by the same predicate: the colour refinement cannot tell a 6-cycle from two triangles
+		CompactGraph cycle = matcher.queryGraph(PREFIX+"?a foaf:knows ?b . ?b foaf:knows ?c . ?c foaf:knows ?d . ?d foaf:knows ?e . ?e foaf:knows ?f . ?f foaf:knows ?a }");
+		CompactGraph triangles = matcher.queryGraph(PREFIX+"?a foaf:knows ?b . ?b foaf:knows ?c . ?c foaf:knows ?a . ?d foaf:knows ?e . ?e foaf:knows ?f . ?f foaf:knows ?d }");
+		assertEquals(cycle.fingerprint().getValue(), triangles.fingerprint().getValue());
+		assertFalse(GraphFingerprint.isomorphic(cycle, triangles));
+		assertTrue(matcher.distance(cycle, triangles, AlgorithmConfig.createAStar())>0);
+
+		Random random = new Random(92);
+		for(int k=0;k<200;k++) {
+			CompactGraph g1 = matcher.queryGraph(TestGraphs.randomQuery(1+random.nextInt(5), random));
+			CompactGraph g2 = matcher.queryGraph(TestGraphs.randomQuery(1+random.nextInt(5), random));
+			if(GraphFingerprint.isomorphic(g1, g2)) {
+				assertEquals(g1.fingerprint().getValue(), g2.fingerprint().getValue());
+				matcher.setDistanceMemoSize(0);
+				assertEquals(0.0, matcher.distance(g1, g2, AlgorithmConfig.createAStar()), 0.0);
+				matcher.setDistanceMemoSize(16);
+			}
+		}
+	}
+
+	@Test
+	public void testDirected() {
+		LabelDictionary dictionary = new LabelDictionary();
+		Random random = new Random(93);
+		for(int k=0;k<50;k++) {
+			int n = 1+random.nextInt(8);
+			int[] permutation = new int[n];
+			for(int i=0;i<n;i++) {
+				permutation[i] = i;
+			}
+			for(int i=n-1;i>0;i--) {
+				int j = random.nextInt(i+1);
+				int t = permutation[i];
+				permutation[i] = permutation[j];
+				permutation[j] = t;
+			}
+			String[] labels = new String[n];
+			for(int i=0;i<n;i++) {
+				labels[i] = random.nextBoolean()?"?":"n"+random.nextInt(2);
+			}
+			int[][] edges = new int[random.nextInt(2*n)][];
+			for(int e=0;e<edges.length;e++) {
+				edges[e] = new int[] {random.nextInt(n), random.nextInt(n), random.nextInt(2)};
+			}
+			CompactGraph.Builder b1 = new CompactGraph.Builder("1", true, dictionary);
+			CompactGraph.Builder b2 = new CompactGraph.Builder("2", true, dictionary);
+			CompactGraph.Builder reversed = new CompactGraph.Builder("3", true, dictionary);
+			int[] inverse = new int[n];
+			for(int i=0;i<n;i++) {
+				b1.addNode("u"+i, labels[i]);
+				inverse[permutation[i]] = i;
+				reversed.addNode("u"+i, labels[i]);
+			}
+			for(int i=0;i<n;i++) {
+				b2.addNode("v"+i, labels[inverse[i]]);
+			}
+			for(int[] e:edges) {
+				b1.addEdge(e[0], e[1], "p"+e[2]);
+				b2.addEdge(permutation[e[0]], permutation[e[1]], "p"+e[2]);
+				reversed.addEdge(e[1], e[0], "p"+e[2]);
+			}
+			CompactGraph g1 = b1.build();
+			CompactGraph g2 = b2.build();
+			assertEquals(g1.fingerprint().getValue(), g2.fingerprint().getValue());
+			assertTrue(GraphFingerprint.isomorphic(g1, g2));
+			assertTrue(GraphFingerprint.isomorphic(g2, g1));
+			if(GraphFingerprint.isomorphic(g1, reversed.build())) {
+				assertEquals(g1.fingerprint().getValue(), reversed.build().fingerprint().getValue());
+			}
+		}
+		//a directed edge between differently labelled nodes is not its reverse
+		CompactGraph.Builder forward = new CompactGraph.Builder("f", true, dictionary);
+		forward.addEdge(forward.addNode("a", "A"), forward.addNode("b", "B"), "p");
+		CompactGraph.Builder backward = new CompactGraph.Builder("b", true, dictionary);
+		int a = backward.addNode("a", "A");
+		backward.addEdge(backward.addNode("b", "B"), a, "p");
+		assertFalse(GraphFingerprint.isomorphic(forward.build(), backward.build()));
+	}
+
+	@Test
+	public void testMemo() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		assertNull(matcher.getDistanceMemo());
+		matcher.setDistanceMemoSize(DistanceMemo.DEFAULT_SIZE);
+		AlgorithmConfig config = AlgorithmConfig.createAStar();
+		Random random = new Random(94);
+		for(int k=0;k<20;k++) {
+			String q1 = TestGraphs.randomQuery(1+random.nextInt(5), random);
+			String q2 = TestGraphs.randomQuery(1+random.nextInt(5), random);
+			if(hasReplacedEdges(matcher.queryGraph(q1)) || hasReplacedEdges(matcher.queryGraph(q2))) {
+				continue;
+			}
+			DistanceResult first = matcher.queryGraphDistanceResult(q1, q2, config);
+			long hits = matcher.getDistanceMemo().hitCount();
+			DistanceResult second = matcher.queryGraphDistanceResult(permute(q1, random), permute(q2, random), config);
+			assertEquals(first.getDistance(), second.getDistance(), 0.0);
+			if(!first.getAlgorithm().equals(RDFGraphMatching.ISOMORPHISM)) {
+				assertSame(first, second);
+				assertEquals(hits+1, matcher.getDistanceMemo().hitCount());
+			}
+		}
+
+		//same fingerprints, but not the same graphs: the memo answers nothing
+		CompactGraph cycle = matcher.queryGraph(PREFIX+"?a foaf:knows ?b . ?b foaf:knows ?c . ?c foaf:knows ?d . ?d foaf:knows ?e . ?e foaf:knows ?f . ?f foaf:knows ?a }");
+		CompactGraph triangles = matcher.queryGraph(PREFIX+"?a foaf:knows ?b . ?b foaf:knows ?c . ?c foaf:knows ?a . ?d foaf:knows ?e . ?e foaf:knows ?f . ?f foaf:knows ?d }");
+		CompactGraph path = matcher.queryGraph(PREFIX+"?a foaf:knows ?b }");
+		double d = matcher.distance(cycle, path, config);
+		assertNull(matcher.getDistanceMemo().get(triangles, path, config.getName()));
+		assertEquals(d, matcher.distance(triangles, path, config), 0.0);
+
+		//results within a time budget are computed every time
+		AlgorithmConfig anytime = AlgorithmConfig.createAnytime(1000);
+		matcher.distance(cycle, path, anytime);
+		assertNull(matcher.getDistanceMemo().get(cycle, path, anytime.getName()));
+	}
+}
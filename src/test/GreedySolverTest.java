@@ -0,0 +1,92 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.AssignmentWorkspace;
+import ged.BipartiteCostMatrix;
+import ged.CompactGraph;
+import ged.DenseCostMatrix;
+import ged.GreedySolver;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+public class GreedySolverTest {
+
+	@Test
+	public void testValidAssignment() {
+		Random random = new Random(21);
+		AssignmentWorkspace workspace = new AssignmentWorkspace();
+		GreedySolver solver = new GreedySolver();
+		for(int k=0;k<200;k++) {
+			int n = 1+random.nextInt(20);
+			int m = random.nextInt(n+1);
+			BipartiteCostMatrix matrix = workspace.getBipartiteMatrix(n, m);
+			for(int i=0;i<n;i++) {
+				for(int j=0;j<m;j++) {
+					matrix.setSubstitution(i, j, 0.5*random.nextInt(4));
+				}
+				matrix.setDeletion(i, 1+0.5*random.nextInt(4));
+			}
+			for(int j=0;j<m;j++) {
+				matrix.setInsertion(j, 1+0.5*random.nextInt(4));
+			}
+			int[] assignment = solver.solve(matrix, workspace);
+			for(int i=0;i<n+m;i++) {
+				assertTrue(matrix.get(i, assignment[i])<Double.POSITIVE_INFINITY);
+				assertEquals(i, workspace.getColumnSolution()[assignment[i]]);
+			}
+		}
+	}
+
+	@Test
+	public void testRowMinimaWithoutConflicts() {
+		AssignmentWorkspace workspace = new AssignmentWorkspace();
+		BipartiteCostMatrix matrix = workspace.getBipartiteMatrix(3, 2);
+		double[][] substitution = {{0, 2}, {2, 0}, {1, 1}};
+		for(int i=0;i<3;i++) {
+			for(int j=0;j<2;j++) {
+				matrix.setSubstitution(i, j, substitution[i][j]);
+			}
+			matrix.setDeletion(i, 1.5);
+		}
+		matrix.setInsertion(0, 1.5);
+		matrix.setInsertion(1, 1.5);
+		int[] assignment = new GreedySolver().solve(matrix, workspace);
+		assertEquals(0, assignment[0]);
+		assertEquals(1, assignment[1]);
+		//both targets are taken, the third source is deleted
+		assertEquals(2+2, assignment[2]);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testDenseMatrix() {
+		new GreedySolver().solve(new DenseCostMatrix(new double[4], 2), new AssignmentWorkspace());
+	}
+
+	@Test
+	public void testUpperBound() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(22);
+		//the random queries close self-loops
+		for(int k=0;k<300;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "2", matcher.getLabelDictionary());
+			double greedy = matcher.distanceGreedy(g1, g2);
+			assertTrue(matcher.distanceHausdorff(g1, g2)<=greedy+1e-9);
+			assertTrue(matcher.distanceAStar(g1, g2)<=greedy+1e-9);
+			assertTrue(matcher.distanceBranchAndBound(g1, g2, Long.MAX_VALUE).getDistance()<=greedy+1e-9);
+			assertEquals(greedy, matcher.distance(g1, g2, AlgorithmConfig.createGreedy()), 0.0);
+		}
+		String prefix = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> SELECT * WHERE { ";
+		CompactGraph knows = SparqlUtils.buildSPARQLCompactGraph(prefix+"?v0 foaf:knows ?v0 . }", "1", matcher.getLabelDictionary());
+		CompactGraph mbox = SparqlUtils.buildSPARQLCompactGraph(prefix+"?v0 foaf:mbox ?v0 . }", "2", matcher.getLabelDictionary());
+		assertTrue(matcher.distanceAStar(knows, mbox)<=matcher.distanceGreedy(knows, mbox)+1e-9);
+		CompactGraph g = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(5, random), "1", matcher.getLabelDictionary());
+		assertEquals(0.0, matcher.distanceGreedy(g, g), 0.0);
+	}
+}
@@ -0,0 +1,61 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AStarSearch;
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.DistanceResult;
+import ged.HausdorffEditDistance;
+import ged.LabelCostModel;
+import ged.LabelDictionary;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+
+public class HausdorffEditDistanceTest {
+
+	@Test
+	public void testLowerBound() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(31);
+		for(int k=0;k<80;k++) {
+			CompactGraph g1 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "1", matcher.getLabelDictionary());
+			CompactGraph g2 = SparqlUtils.buildSPARQLCompactGraph(TestGraphs.randomQuery(1+random.nextInt(6), random), "2", matcher.getLabelDictionary());
+			double hausdorff = matcher.distanceHausdorff(g1, g2);
+			assertTrue(hausdorff<=matcher.distanceAStar(g1, g2)+1e-9);
+			assertEquals(hausdorff, matcher.distanceHausdorff(g2, g1), 1e-9);
+			DistanceResult result = matcher.distanceResult(g1, g2, AlgorithmConfig.createHausdorff());
+			assertEquals(hausdorff, result.getDistance(), 0.0);
+			assertEquals("Hausdorff", result.getAlgorithm());
+		}
+	}
+
+	@Test
+	public void testDirectedLowerBound() {
+		LabelCostModel costs = LabelCostModel.fromCostFunction(new RDFGraphMatching().getRDFGraphCostFunction());
+		LabelDictionary dictionary = new LabelDictionary();
+		HausdorffEditDistance hausdorff = new HausdorffEditDistance(costs);
+		AStarSearch aStarSearch = new AStarSearch(costs);
+		Random random = new Random(32);
+		for(int k=0;k<80;k++) {
+			CompactGraph g1 = TestGraphs.randomDirectedGraph(1+random.nextInt(6), random, dictionary);
+			CompactGraph g2 = TestGraphs.randomDirectedGraph(random.nextInt(6), random, dictionary);
+			assertTrue(hausdorff.getLowerBound(g1, g2)<=aStarSearch.getEditDistance(g1, g2, null)+1e-9);
+		}
+	}
+
+	@Test
+	public void testEmptyGraph() {
+		LabelCostModel costs = LabelCostModel.fromCostFunction(new RDFGraphMatching().getRDFGraphCostFunction());
+		LabelDictionary dictionary = new LabelDictionary();
+		CompactGraph g = TestGraphs.randomDirectedGraph(4, new Random(33), dictionary);
+		CompactGraph empty = new CompactGraph.Builder("e", true, dictionary).build();
+		HausdorffEditDistance hausdorff = new HausdorffEditDistance(costs);
+		assertEquals(0.0, hausdorff.getLowerBound(g, g), 0.0);
+		assertEquals(new AStarSearch(costs).getEditDistance(g, empty, null), hausdorff.getLowerBound(g, empty), 1e-9);
+	}
+}
@@ -0,0 +1,98 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ged.AlgorithmConfig;
+import ged.MappedDistanceMatrix;
+import ged.TriangularDistanceMatrix;
+import semanticweb.RDFGraphMatching;
+
+public class MappedDistanceMatrixTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testFloat32() throws Exception {
+		File file = folder.newFile("float.gedm");
+		MappedDistanceMatrix matrix = MappedDistanceMatrix.create(file, 7, MappedDistanceMatrix.FLOAT32, 0, "Bipartite Hungarian");
+		for(int i=0;i<7;i++) {
+			for(int j=i+1;j<7;j++) {
+				matrix.put(i, j, i+j/8.0);
+			}
+		}
+		matrix.force();
+		MappedDistanceMatrix read = MappedDistanceMatrix.open(file);
+		assertEquals(7, read.size());
+		assertEquals(MappedDistanceMatrix.FLOAT32, read.getEncoding());
+		assertEquals("Bipartite Hungarian", read.getAlgorithm());
+		double[] row = new double[7];
+		for(int i=0;i<7;i++) {
+			read.getRow(i, row);
+			for(int j=0;j<7;j++) {
+				double expected = i==j?0.0:Math.min(i, j)+Math.max(i, j)/8.0;
+				assertEquals(expected, read.get(i, j), 0.0);
+				assertEquals(expected, row[j], 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testUint16() throws Exception {
+		File file = folder.newFile("uint16.gedm");
+		MappedDistanceMatrix matrix = MappedDistanceMatrix.create(file, 3, MappedDistanceMatrix.UINT16, 0.25, "Greedy");
+		matrix.put(0, 1, 1.75);
+		matrix.put(0, 2, 1.8);
+		matrix.put(1, 2, Double.POSITIVE_INFINITY);
+		matrix.force();
+		MappedDistanceMatrix read = MappedDistanceMatrix.open(file);
+		assertEquals(0.25, read.getScale(), 0.0);
+		assertEquals(1.75, read.get(1, 0), 0.0);
+		assertEquals(1.75, read.get(0, 2), 0.0);
+		assertEquals(Double.POSITIVE_INFINITY, read.get(2, 1), 0.0);
+	}
+
+	@Test
+	public void testSameAsInMemory() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(51);
+		List<String> queries = new ArrayList<String>();
+		for(int k=0;k<100;k++) {
+			queries.add(TestGraphs.randomQuery(1+random.nextInt(5), random));
+		}
+		AlgorithmConfig config = AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+		TriangularDistanceMatrix expected = new TriangularDistanceMatrix(queries.size());
+		matcher.queryGraphDistanceMatrix(queries, config, 1, expected);
+		File file = folder.newFile("vj.gedm");
+		MappedDistanceMatrix matrix = MappedDistanceMatrix.create(file, queries.size(), MappedDistanceMatrix.FLOAT32, 0, config.getName());
+		matcher.queryGraphDistanceMatrix(queries, config, 3, matrix);
+		matrix.force();
+		MappedDistanceMatrix read = MappedDistanceMatrix.open(file);
+		for(int i=0;i<queries.size();i++) {
+			for(int j=0;j<queries.size();j++) {
+				assertEquals(expected.get(i, j), read.get(i, j), 0.0);
+			}
+		}
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void testReadOnly() throws Exception {
+		File file = folder.newFile("read.gedm");
+		MappedDistanceMatrix.create(file, 3, MappedDistanceMatrix.FLOAT32, 0, "A*").force();
+		MappedDistanceMatrix.open(file).put(0, 1, 1.0);
+	}
+
+	@Test(expected=java.io.IOException.class)
+	public void testNotAMatrix() throws Exception {
+		MappedDistanceMatrix.open(folder.newFile("empty.gedm"));
+	}
+}
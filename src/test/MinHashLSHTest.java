@@ -0,0 +1,164 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import semanticweb.sparql.LSHBuckets;
+import semanticweb.sparql.MinHashSignatures;
+
+public class MinHashLSHTest {
+
+	final private static String PREFIX = "PREFIX foaf: <http://xmlns.com/foaf/0.1/> PREFIX dbo: <http://dbpedia.org/ontology/> ";
+
+	@Test
+	public void testShinglesAbstractVariables() throws Exception {
+		MinHashSignatures kept = new MinHashSignatures(16, 0, 1);
+		Set<String> s1 = kept.shingles(PREFIX+"SELECT * WHERE { ?x foaf:name ?n . ?x dbo:birthPlace <http://dbpedia.org/resource/Paris> }");
+		Set<String> s2 = kept.shingles(PREFIX+"SELECT * WHERE { ?a foaf:name ?b . ?a dbo:birthPlace <http://dbpedia.org/resource/Paris> }");
+		assertEquals(s1, s2);
+		assertEquals(2, s1.size());
+		assertTrue(s1.contains("? http://xmlns.com/foaf/0.1/name ?"));
+		assertTrue(s1.contains("? http://dbpedia.org/ontology/birthPlace http://dbpedia.org/resource/Paris"));
+
+		MinHashSignatures hashed = new MinHashSignatures(16, 8, 1);
+		Set<String> s3 = hashed.shingles(PREFIX+"SELECT * WHERE { ?x dbo:birthPlace <http://dbpedia.org/resource/Paris> }");
+		assertEquals(1, s3.size());
+		String shingle = s3.iterator().next();
+		assertTrue(shingle.startsWith("? http://dbpedia.org/ontology/birthPlace #"));
+		int c = Integer.parseInt(shingle.substring(shingle.lastIndexOf('#')+1));
+		assertTrue(c>=0 && c<8);
+	}
+
+	@Test
+	public void testSimilarityEstimate() throws Exception {
+		MinHashSignatures signatures = new MinHashSignatures(512, 0, 7);
+		StringBuilder q1 = new StringBuilder(PREFIX+"SELECT * WHERE { ");
+		StringBuilder q2 = new StringBuilder(PREFIX+"SELECT * WHERE { ");
+		//10 shared of 20 distinct shingles
+		for(int k=0;k<15;k++) {
+			if(k<10 || k%2==0) {
+				q1.append("?x foaf:p"+k+" ?y . ");
+			}
+			if(k<10 || k%2==1) {
+				q2.append("?x foaf:p"+k+" ?y . ");
+			}
+		}
+		q1.append("?x foaf:q1 ?y . ?x foaf:q2 ?y . }");
+		q2.append("?x foaf:q3 ?y . ?x foaf:q4 ?y . ?x foaf:q5 ?y . }");
+		int[] a = signatures.signature(q1.toString());
+		int[] b = signatures.signature(q2.toString());
+		assertEquals(0.5, MinHashSignatures.similarity(a, b), 0.1);
+		assertEquals(1.0, MinHashSignatures.similarity(a, a), 0);
+		assertNull(signatures.signature("ASK {}"));
+	}
+
+	private static List<String> log(Random random, int n) {
+		List<String> queries = new ArrayList<String>();
+		for(int i=0;i<n;i++) {
+			queries.add(TestGraphs.randomQuery(1+random.nextInt(6), random));
+		}
+		return queries;
+	}
+
+	@Test
+	public void testStreamingPassAndPersistence() throws Exception {
+		List<String> queries = log(new Random(3), 700);
+		queries.set(5, "not a query");
+		StringBuilder file = new StringBuilder();
+		for(String q:queries) {
+			file.append(q.replace("\\", "\\\\").replace("\n", "\\n").replace("\t", "\\t")).append('\n');
+		}
+		MinHashSignatures streamed = new MinHashSignatures(64, 0, 11);
+		assertEquals(queries.size(), streamed.addAll(new BufferedReader(new StringReader(file.toString())), 3));
+		MinHashSignatures sequential = new MinHashSignatures(64, 0, 11);
+		for(String q:queries) {
+			sequential.add(q);
+		}
+		assertEquals(sequential.size(), streamed.size());
+		assertTrue(streamed.isEmpty(5));
+		for(int id=0;id<queries.size();id++) {
+			assertArrayEquals(sequential.get(id), streamed.get(id));
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		streamed.write(out);
+		MinHashSignatures read = MinHashSignatures.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(64, read.getHashCount());
+		assertEquals(11, read.getSeed());
+		assertEquals(streamed.size(), read.size());
+		for(int id=0;id<queries.size();id++) {
+			assertArrayEquals(streamed.get(id), read.get(id));
+		}
+		//new queries are signed with the settings of the file
+		assertArrayEquals(streamed.signature(queries.get(0)), read.signature(queries.get(0)));
+	}
+
+	@Test
+	public void testBucketsFindNearDuplicates() throws Exception {
+		Random random = new Random(5);
+		List<String> queries = log(random, 300);
+		//a near duplicate of every tenth query, one of its many triple patterns changed
+		List<int[]> duplicates = new ArrayList<int[]>();
+		for(int i=0;i<300;i+=10) {
+			StringBuilder q = new StringBuilder(PREFIX+"SELECT * WHERE { ");
+			for(int k=0;k<12;k++) {
+				q.append("?x foaf:p"+i+"_"+k+" ?y"+k+" . ");
+			}
+			duplicates.add(new int[] {queries.size(), queries.size()+1});
+			queries.add(q.toString()+"?x foaf:a ?z }");
+			queries.add(q.toString()+"?x foaf:b ?z }");
+		}
+		MinHashSignatures signatures = new MinHashSignatures(128, 0, 1);
+		for(String q:queries) {
+			signatures.add(q);
+		}
+		LSHBuckets buckets = new LSHBuckets(signatures, 32);
+		assertEquals(4, buckets.getRows());
+
+		final Set<String> pairs = new HashSet<String>();
+		final int[] reported = new int[1];
+		long count = buckets.candidatePairs(new LSHBuckets.PairVisitor() {
+			@Override
+			public void visit(int first, int second) {
+				assertTrue(first<second);
+				pairs.add(first+","+second);
+				reported[0]++;
+			}
+		});
+		assertEquals(count, reported[0]);
+		//each pair once
+		assertEquals(reported[0], pairs.size());
+		for(int[] d:duplicates) {
+			assertTrue(pairs.contains(d[0]+","+d[1]));
+		}
+		//far fewer than all pairs
+		assertTrue(count<queries.size()*(queries.size()-1)/10);
+
+		for(int id=0;id<queries.size();id++) {
+			int[] candidates = buckets.candidates(id);
+			for(int k=0;k<candidates.length;k++) {
+				assertTrue(candidates[k]!=id);
+				assertTrue(k==0 || candidates[k]>candidates[k-1]);
+				int first = Math.min(id, candidates[k]);
+				int second = Math.max(id, candidates[k]);
+				assertTrue(pairs.contains(first+","+second));
+			}
+		}
+		int[] d = duplicates.get(0);
+		int[] candidates = buckets.candidates(signatures.signature(queries.get(d[0])));
+		assertTrue(Arrays.binarySearch(candidates, d[0])>=0);
+		assertTrue(Arrays.binarySearch(candidates, d[1])>=0);
+	}
+}
@@ -0,0 +1,84 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.BipartiteCostMatrix;
+import ged.CompactGraph;
+import ged.PreparedGraph;
+import ged.StarCostMatrixGenerator;
+import semanticweb.RDFGraphMatching;
+
+public class PreparedGraphTest {
+
+	@Test
+	public void testStarClasses() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		for(CompactGraph g:TestGraphs.randomQueryGraphs(matcher, 30, 7, new Random(2))) {
+			PreparedGraph p = matcher.prepare(g);
+			assertSame(g, p.getGraph());
+			assertTrue(p.getClassCount()<=g.size());
+			for(int u=0;u<g.size();u++) {
+				int c = p.getStarClass(u);
+				int r = p.getClassNode(c);
+				assertEquals(c, p.getStarClass(r));
+				for(int v=0;v<g.size();v++) {
+					boolean same = g.nodeLabel(u)==g.nodeLabel(v) && Arrays.equals(g.sortedIncidentLabels(u), g.sortedIncidentLabels(v));
+					assertEquals(same, p.getStarClass(u)==p.getStarClass(v));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSameCostMatrix() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		StarCostMatrixGenerator generator = new StarCostMatrixGenerator(matcher.getLabelCostModel(), 0);
+		List<CompactGraph> graphs = TestGraphs.randomQueryGraphs(matcher, 12, 7, new Random(4));
+		for(CompactGraph g1:graphs) {
+			for(CompactGraph g2:graphs) {
+				BipartiteCostMatrix expected = new BipartiteCostMatrix();
+				generator.getMatrix(g1, g2, expected);
+				BipartiteCostMatrix prepared = new BipartiteCostMatrix();
+				generator.getMatrix(new PreparedGraph(g1), new PreparedGraph(g2), prepared);
+				assertTrue(Arrays.deepEquals(expected.toArray(), prepared.toArray()));
+			}
+		}
+	}
+
+	@Test
+	public void testDistancesAndDistanceToMany() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		matcher.setDistanceMemoSize(0);
+		List<CompactGraph> graphs = TestGraphs.randomQueryGraphs(matcher, 60, 7, new Random(9));
+		CompactGraph source = graphs.get(0);
+		PreparedGraph prepared = matcher.prepare(source.toGraph());
+		List<PreparedGraph> targets = new ArrayList<PreparedGraph>();
+		for(CompactGraph g:graphs) {
+			targets.add(matcher.prepare(g));
+		}
+		AlgorithmConfig[] configs = {AlgorithmConfig.createBipartiteHungarian(), AlgorithmConfig.createBipartiteVolgenantJonkerConfig(),
+				AlgorithmConfig.createGreedy(), AlgorithmConfig.createHausdorff(), AlgorithmConfig.createAStar()};
+		for(AlgorithmConfig config:configs) {
+			double[] distances = matcher.distanceToMany(prepared, targets, config, 1);
+			double[] parallel = matcher.distanceToMany(prepared, targets, config, 2);
+			assertEquals(graphs.size(), distances.length);
+			for(int j=0;j<graphs.size();j++) {
+				double expected = matcher.distance(source, graphs.get(j), config);
+				assertEquals(expected, distances[j], 1e-9);
+				assertEquals(expected, parallel[j], 1e-9);
+			}
+		}
+		for(int j=0;j<graphs.size();j++) {
+			assertEquals(matcher.distanceBipartiteHungarian(source, graphs.get(j)), matcher.distanceBipartiteHungarian(prepared, targets.get(j)), 1e-9);
+			assertEquals(matcher.distanceBipartiteVolgenantJonker(graphs.get(j), source), matcher.distanceBipartiteVolgenantJonker(targets.get(j), prepared), 1e-9);
+		}
+	}
+}
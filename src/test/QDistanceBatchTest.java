@@ -0,0 +1,144 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.QDistanceBatch;
+import semanticweb.sparql.QDistanceServer;
+
+public class QDistanceBatchTest {
+
+	@Test
+	public void testPairs() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		AlgorithmConfig config = AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+		Random random = new Random(71);
+		StringBuilder input = new StringBuilder();
+		List<String> expected = new ArrayList<String>();
+		for(int k=0;k<40;k++) {
+			String q1 = TestGraphs.randomQuery(1+random.nextInt(4), random).replace(" . ", " .\n");
+			String q2 = TestGraphs.randomQuery(1+random.nextInt(4), random);
+			if(k%2==0) {
+				input.append("a"+k).append('\t').append("b"+k).append('\t').append(QDistanceServer.escape(q1)).append('\t').append(QDistanceServer.escape(q2)).append('\n');
+			} else {
+				input.append("{\"id1\": \"a"+k+"\", \"id2\": "+k+", \"query1\": \""+q1.replace("\"", "\\\"").replace("\n", "\\n")+"\", \"query2\": \""+q2.replace("\"", "\\\"")+"\"}\n");
+			}
+			expected.add("a"+k+"\t"+(k%2==0?"b":"")+k+"\t"+matcher.queryGraphDistance(q1, q2, config));
+		}
+		input.append("x\ty\tSELECT * WHERE {\tSELECT * WHERE { ?x ?p ?y }\n");
+		input.append("only one field\n");
+
+		StringWriter out = new StringWriter();
+		int errors = new QDistanceBatch(config, 3, true).run(new BufferedReader(new StringReader(input.toString())), out);
+		assertEquals(2, errors);
+		String[] lines = out.toString().split("\n");
+		assertEquals(42, lines.length);
+		for(int k=0;k<40;k++) {
+			assertEquals(expected.get(k), lines[k].substring(0, lines[k].lastIndexOf('\t')));
+		}
+		assertTrue(lines[40].startsWith("x\ty\tERROR\t"));
+		assertTrue(lines[41].startsWith("line 42\t\tERROR\t"));
+	}
+
+	@Test
+	public void testQueryFileUnordered() throws Exception {
+		Random random = new Random(72);
+		StringBuilder file = new StringBuilder();
+		List<String> queries = new ArrayList<String>();
+		for(int k=0;k<10;k++) {
+			String q = TestGraphs.randomQuery(1+random.nextInt(4), random);
+			queries.add(q);
+			file.append(QDistanceServer.escape(q)).append('\n');
+		}
+		assertEquals(queries, QDistanceBatch.readQueries(new BufferedReader(new StringReader(file.toString()))));
+
+		AlgorithmConfig config = AlgorithmConfig.createAStarBeam(5);
+		QDistanceBatch batch = new QDistanceBatch(config, 2, false);
+		batch.setQueries(queries);
+		StringBuilder input = new StringBuilder();
+		for(int i=0;i<10;i++) {
+			for(int j=i+1;j<10;j++) {
+				input.append(i).append('\t').append(j).append('\n');
+			}
+		}
+		input.append("{\"id1\": 3, \"id2\": 10}\n");
+		StringWriter out = new StringWriter();
+		assertEquals(1, batch.run(new BufferedReader(new StringReader(input.toString())), out));
+		String[] lines = out.toString().split("\n");
+		assertEquals(46, lines.length);
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		int found = 0;
+		for(String line:lines) {
+			String[] fields = line.split("\t");
+			if(fields[2].equals("ERROR")) {
+				assertEquals("3", fields[0]);
+				continue;
+			}
+			int i = Integer.parseInt(fields[0]);
+			int j = Integer.parseInt(fields[1]);
+			assertEquals(matcher.queryGraphDistance(queries.get(i), queries.get(j), config), Double.parseDouble(fields[2]), 0.0);
+			found++;
+		}
+		assertEquals(45, found);
+	}
+
+	@Test
+	public void testErrorsAndFlushes() throws Exception {
+		final String deep = "SELECT * WHERE { ?x <urn:deep> ?y }";
+		//a search that overflows its stack on one query
+		RDFGraphMatching matcher = new RDFGraphMatching() {
+			@Override
+			public double queryGraphDistance(String q1, String q2, AlgorithmConfig algorithmConfig) throws Exception {
+				if(q1.equals(deep)) {
+					throw new StackOverflowError();
+				}
+				return super.queryGraphDistance(q1, q2, algorithmConfig);
+			}
+		};
+		Random random = new Random(73);
+		StringBuilder input = new StringBuilder();
+		for(int k=0;k<30;k++) {
+			String q = k==5?deep:TestGraphs.randomQuery(1+random.nextInt(4), random);
+			input.append(k).append('\t').append(k).append('\t').append(QDistanceServer.escape(q)).append('\t').append(QDistanceServer.escape(q)).append('\n');
+		}
+		final StringBuilder flushed = new StringBuilder();
+		final int[] flushedAtLastRecord = {-1};
+		Writer out = new StringWriter() {
+			@Override
+			public void flush() {
+				flushed.setLength(0);
+				flushed.append(toString());
+			}
+		};
+		BufferedReader in = new BufferedReader(new StringReader(input.toString())) {
+			private int lines;
+			@Override
+			public String readLine() throws IOException {
+				if(++lines==30) {
+					flushedAtLastRecord[0] = flushed.toString().split("\n").length;
+				}
+				return super.readLine();
+			}
+		};
+		assertEquals(1, new QDistanceBatch(matcher, AlgorithmConfig.createBipartiteVolgenantJonkerConfig(), 2, true).run(in, out));
+		String[] lines = out.toString().split("\n");
+		assertEquals(30, lines.length);
+		assertTrue(lines[5].startsWith("5\t5\tERROR\tStackOverflowError"));
+		assertTrue(lines[6].startsWith("6\t6\t0.0\t"));
+		//the records before the last were written and flushed while reading
+		assertTrue(flushedAtLastRecord[0]>=30-2*4);
+		assertEquals(out.toString(), flushed.toString());
+	}
+}
@@ -0,0 +1,169 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.QDistanceServer;
+
+public class QDistanceServerTest {
+
+	@Test
+	public void testRequests() throws Exception {
+		final QDistanceServer server = new QDistanceServer(0, 2);
+		server.warmUp(1);
+		Thread serving = new Thread() {
+			@Override
+			public void run() {
+				try {
+					server.serve();
+				} catch (Exception e) {
+				}
+			}
+		};
+		serving.start();
+		try {
+			Socket socket1 = new Socket("127.0.0.1", server.getPort());
+			Socket socket2 = new Socket("127.0.0.1", server.getPort());
+			BufferedReader in1 = new BufferedReader(new InputStreamReader(socket1.getInputStream(), "UTF-8"));
+			PrintWriter out1 = new PrintWriter(new OutputStreamWriter(socket1.getOutputStream(), "UTF-8"), true);
+			BufferedReader in2 = new BufferedReader(new InputStreamReader(socket2.getInputStream(), "UTF-8"));
+			PrintWriter out2 = new PrintWriter(new OutputStreamWriter(socket2.getOutputStream(), "UTF-8"), true);
+
+			out2.println("PING");
+			assertEquals("OK", in2.readLine());
+			RDFGraphMatching matcher = new RDFGraphMatching();
+			Random random = new Random(61);
+			String[] algorithms = {"vj", "hungarian", "beam:5", "astar"};
+			for(int k=0;k<20;k++) {
+				String q1 = TestGraphs.randomQuery(1+random.nextInt(4), random).replace(" . ", " .\n\t");
+				String q2 = TestGraphs.randomQuery(1+random.nextInt(4), random);
+				String algorithm = algorithms[k%algorithms.length];
+				out1.println(algorithm+"\t"+QDistanceServer.escape(q1)+"\t"+QDistanceServer.escape(q2));
+				out2.println(algorithm+"\t"+QDistanceServer.escape(q2)+"\t"+QDistanceServer.escape(q1));
+				double expected = matcher.queryGraphDistance(q1, q2, AlgorithmConfig.parse(algorithm));
+				assertEquals("OK\t"+expected, in1.readLine());
+				assertTrue(in2.readLine().startsWith("OK\t"));
+			}
+			out1.println("vj\tSELECT * WHERE {");
+			assertTrue(in1.readLine().startsWith("ERROR\t"));
+			out1.println("beam:x\tSELECT * WHERE { ?x ?p ?y }\tSELECT * WHERE { ?x ?p ?y }");
+			assertTrue(in1.readLine().startsWith("ERROR\t"));
+			out1.println("vj\tSELECT * WHERE { ?x ?p ?y }\tnot a query");
+			assertTrue(in1.readLine().startsWith("ERROR\t"));
+			out1.println("PING");
+			assertEquals("OK", in1.readLine());
+			socket1.close();
+			socket2.close();
+		} finally {
+			server.close();
+			serving.join(10000);
+		}
+	}
+
+	@Test
+	public void testMaxLabels() throws Exception {
+		final QDistanceServer server = new QDistanceServer(0, 1);
+		server.setMaxLabels(20);
+		Thread serving = new Thread() {
+			@Override
+			public void run() {
+				try {
+					server.serve();
+				} catch (Exception e) {
+				}
+			}
+		};
+		serving.start();
+		try {
+			RDFGraphMatching first = server.getMatcher();
+			Socket socket = new Socket("127.0.0.1", server.getPort());
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+			RDFGraphMatching matcher = new RDFGraphMatching();
+			for(int k=0;k<30;k++) {
+				String q1 = "SELECT * WHERE { ?x <urn:p"+k+"> <urn:a"+k+"> }";
+				String q2 = "SELECT * WHERE { ?x <urn:p"+k+"> <urn:b"+k+"> . ?x <urn:q> ?y }";
+				out.println("vj\t"+q1+"\t"+q2);
+				assertEquals("OK\t"+matcher.queryGraphDistance(q1, q2, AlgorithmConfig.parse("vj")), in.readLine());
+				assertTrue(server.getMatcher().getLabelDictionary().size()<=20+4);
+			}
+			assertNotSame(first, server.getMatcher());
+			socket.close();
+		} finally {
+			server.close();
+			serving.join(10000);
+		}
+	}
+
+	@Test
+	public void testIdleConnections() throws Exception {
+		final QDistanceServer server = new QDistanceServer(0, 1);
+		server.setIdleTimeout(500);
+		Thread serving = new Thread() {
+			@Override
+			public void run() {
+				try {
+					server.serve();
+				} catch (Exception e) {
+				}
+			}
+		};
+		serving.start();
+		try {
+			//idle connections do not hold the single worker
+			Socket idle1 = new Socket("127.0.0.1", server.getPort());
+			Socket idle2 = new Socket("127.0.0.1", server.getPort());
+			Socket socket = new Socket("127.0.0.1", server.getPort());
+			socket.setSoTimeout(5000);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+			out.println("vj\tSELECT * WHERE { ?x ?p ?y }\tSELECT * WHERE { ?x ?p ?y . ?y ?q ?z }");
+			assertTrue(in.readLine().startsWith("OK\t"));
+			out.println("PING");
+			assertEquals("OK", in.readLine());
+
+			//then the idle connections are closed by the server
+			idle1.setSoTimeout(5000);
+			assertEquals(-1, idle1.getInputStream().read());
+			idle2.close();
+			socket.close();
+		} finally {
+			server.close();
+			serving.join(10000);
+		}
+	}
+
+	@Test
+	public void testEscape() {
+		String s = "a\\b\tc\nd\re\\n";
+		assertFalse(QDistanceServer.escape(s).contains("\t"));
+		assertFalse(QDistanceServer.escape(s).contains("\n"));
+		assertEquals(s, QDistanceServer.unescape(QDistanceServer.escape(s)));
+	}
+
+	@Test
+	public void testParse() {
+		assertTrue(AlgorithmConfig.parse("beam:10").isAStarBeam());
+		assertEquals(10, AlgorithmConfig.parse("beam:10").getBeamSize());
+		assertTrue(AlgorithmConfig.parse("beam100").isAStarBeam());
+		assertEquals(50, AlgorithmConfig.parse("anytime:50").getTimeBudget());
+		assertEquals(0.1, AlgorithmConfig.parse("auto:5:0.1").getMaxError(), 0.0);
+		assertTrue(AlgorithmConfig.parse("hausdorff").isHausdorff());
+		assertEquals(1000, AlgorithmConfig.parse("branchAndBound:1000").getMaxExpansions());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testParseInvalid() {
+		AlgorithmConfig.parse("vj:3");
+	}
+}
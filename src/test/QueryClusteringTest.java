@@ -0,0 +1,150 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import semanticweb.QueryClustering;
+import semanticweb.RDFGraphMatching;
+
+public class QueryClusteringTest {
+
+	final private static String[] EXTRA = {"foaf:name ?n", "foaf:mbox ?m", "foaf:age ?a"};
+
+	/**
+	 * Variants of a few template queries, each with up to two triple patterns added
+	 */
+	private static List<CompactGraph> log(RDFGraphMatching matcher, int templates, int n, Random random) {
+		List<String> forms = new ArrayList<String>();
+		for(int t=0;t<templates;t++) {
+			forms.add(TestGraphs.randomQuery(2+random.nextInt(4), random));
+		}
+		List<CompactGraph> graphs = new ArrayList<CompactGraph>();
+		for(int i=0;i<n;i++) {
+			String form = forms.get(i%templates);
+			StringBuilder sb = new StringBuilder(form.substring(0, form.lastIndexOf('}')));
+			for(int e=random.nextInt(3);e>0;e--) {
+				sb.append("?v0 ").append(EXTRA[random.nextInt(EXTRA.length)]).append(" . ");
+			}
+			graphs.add(matcher.queryGraph(sb.append("}").toString()));
+		}
+		return graphs;
+	}
+
+	private static double[][] distances(RDFGraphMatching matcher, List<CompactGraph> graphs) throws Exception {
+		AlgorithmConfig exact = AlgorithmConfig.createAStar();
+		double[][] d = new double[graphs.size()][graphs.size()];
+		for(int i=0;i<graphs.size();i++) {
+			for(int j=0;j<i;j++) {
+				d[i][j] = d[j][i] = matcher.distance(graphs.get(i), graphs.get(j), exact);
+			}
+		}
+		return d;
+	}
+
+	private static double cost(double[][] d, int[] medoids) {
+		double cost = 0;
+		for(int x=0;x<d.length;x++) {
+			double nearest = Double.POSITIVE_INFINITY;
+			for(int m:medoids) {
+				nearest = Math.min(nearest, d[x][m]);
+			}
+			cost += nearest;
+		}
+		return cost;
+	}
+
+	/**
+	 * Checks that every graph is assigned to its nearest medoid at its exact distance
+	 */
+	private static void checkAssignment(double[][] d, QueryClustering.Result result) {
+		double cost = 0;
+		for(int x=0;x<d.length;x++) {
+			int[] medoids = result.getMedoids();
+			double nearest = Double.POSITIVE_INFINITY;
+			for(int m:medoids) {
+				nearest = Math.min(nearest, d[x][m]);
+			}
+			assertEquals(nearest, result.getDistances()[x], 1e-6);
+			assertEquals(nearest, d[x][medoids[result.getClusters()[x]]], 1e-6);
+			cost += nearest;
+		}
+		assertEquals(cost, result.getCost(), 1e-6);
+		assertEquals(cost, cost(d, result.getMedoids()), 1e-6);
+	}
+
+	@Test
+	public void testPamIsALocalOptimum() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		List<CompactGraph> graphs = log(matcher, 4, 36, new Random(7));
+		double[][] d = distances(matcher, graphs);
+		QueryClustering clustering = new QueryClustering(matcher);
+		clustering.setSampleSize(graphs.size());
+		QueryClustering.Result result = clustering.cluster(graphs, 4, 1);
+		checkAssignment(d, result);
+
+		//no swap of a medoid and another graph lowers the cost
+		int[] medoids = result.getMedoids();
+		for(int c=0;c<medoids.length;c++) {
+			for(int h=0;h<graphs.size();h++) {
+				int[] swapped = medoids.clone();
+				swapped[c] = h;
+				assertTrue(cost(d, swapped)>=result.getCost()-1e-6);
+			}
+		}
+		assertTrue(result.getSkippedCount()>0);
+		//the build phase computes every pair of the sample once, the rest comes from the cache
+		assertTrue(result.getDistanceCount()<=graphs.size()*(graphs.size()-1)/2);
+	}
+
+	@Test
+	public void testSamplesAndParallelism() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		List<CompactGraph> graphs = log(matcher, 5, 150, new Random(3));
+		double[][] d = distances(matcher, graphs);
+		QueryClustering clustering = new QueryClustering(matcher);
+		clustering.setSampleSize(30);
+		clustering.setSamples(3);
+		QueryClustering.Result result = clustering.cluster(graphs, 5, 1);
+		checkAssignment(d, result);
+		int total = 0;
+		for(int size:result.getClusterSizes()) {
+			total += size;
+		}
+		assertEquals(graphs.size(), total);
+
+		QueryClustering.Result parallel = clustering.cluster(graphs, 5, 2);
+		checkAssignment(d, parallel);
+		assertArrayEquals(result.getMedoids(), parallel.getMedoids());
+		assertArrayEquals(result.getClusters(), parallel.getClusters());
+	}
+
+	@Test
+	public void testApproximateAndSingleCluster() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		List<CompactGraph> graphs = log(matcher, 3, 40, new Random(1));
+		QueryClustering clustering = new QueryClustering(matcher, AlgorithmConfig.createBipartiteVolgenantJonkerConfig());
+		QueryClustering.Result result = clustering.cluster(graphs, 3, 1);
+		assertEquals(3, result.getMedoids().length);
+		for(int x=0;x<graphs.size();x++) {
+			assertTrue(result.getClusters()[x]>=0 && result.getClusters()[x]<3);
+		}
+
+		QueryClustering.Result one = new QueryClustering(matcher).cluster(graphs, 1, 1);
+		for(int x=0;x<graphs.size();x++) {
+			assertEquals(0, one.getClusters()[x]);
+		}
+		try {
+			clustering.cluster(graphs, graphs.size()+1, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+}
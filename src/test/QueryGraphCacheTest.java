@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.hp.hpl.jena.query.QueryParseException;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.LabelDictionary;
+import ged.TriangularDistanceMatrix;
+import semanticweb.QueryGraphCache;
+import semanticweb.RDFGraphMatching;
+
+public class QueryGraphCacheTest {
+
+	@Test
+	public void testHitsAndMisses() {
+		QueryGraphCache cache = new QueryGraphCache(new LabelDictionary(), QueryGraphCache.DEFAULT_MAX_WEIGHT);
+		String q = "SELECT * WHERE { ?x <http://example.org/p> ?y .\r\n ?y <http://example.org/q> \"a  b\" }";
+		CompactGraph g = cache.get(q);
+		assertEquals(3, g.size());
+		assertSame(g, cache.get("  "+q.replace("\r\n", "\n")+"\n"));
+		assertNotSame(g, cache.get(q.replace("a  b", "a b")));
+		assertEquals(1, cache.hitCount());
+		assertEquals(2, cache.missCount());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testEviction() {
+		Random random = new Random(81);
+		//weight of a graph of up to 4 triples: at most 8 nodes, 4 edges and 1
+		QueryGraphCache cache = new QueryGraphCache(new LabelDictionary(), 13);
+		for(int k=0;k<20;k++) {
+			cache.get(TestGraphs.randomQuery(1+random.nextInt(4), random));
+		}
+		assertTrue(cache.evictionCount()>0);
+		assertTrue(cache.size()<20);
+	}
+
+	@Test
+	public void testParseError() {
+		QueryGraphCache cache = new QueryGraphCache(new LabelDictionary(), QueryGraphCache.DEFAULT_MAX_WEIGHT);
+		for(int k=0;k<2;k++) {
+			try {
+				cache.get("SELECT * WHERE {");
+				fail();
+			} catch (QueryParseException e) {
+			}
+		}
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testQueryDistances() throws Exception {
+		RDFGraphMatching cached = new RDFGraphMatching();
+		RDFGraphMatching uncached = new RDFGraphMatching();
+		uncached.setQueryGraphCacheWeight(0);
+		//independent of the label order, which differs between the matchers
+		AlgorithmConfig config = AlgorithmConfig.createHausdorff();
+		Random random = new Random(82);
+		List<String> queries = new ArrayList<String>();
+		for(int k=0;k<12;k++) {
+			queries.add(TestGraphs.randomQuery(1+random.nextInt(5), random));
+		}
+		TriangularDistanceMatrix matrix = new TriangularDistanceMatrix(queries.size());
+		cached.queryGraphDistanceMatrix(queries, config, 2, matrix);
+		for(int i=0;i<queries.size();i++) {
+			for(int j=i+1;j<queries.size();j++) {
+				double expected = uncached.queryGraphDistance(queries.get(i), queries.get(j), config);
+				assertEquals(expected, cached.queryGraphDistance(queries.get(i), queries.get(j), config), 1e-9);
+				assertEquals(expected, matrix.get(i, j), 1e-6);
+			}
+		}
+		assertTrue(cached.getQueryGraphCache().missCount()<=queries.size());
+		assertTrue(cached.getQueryGraphCache().hitCount()>=queries.size()*(queries.size()-1));
+		assertEquals(0, uncached.getQueryGraphCache().size());
+	}
+
+	@Test
+	public void testResetLabelDictionary() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		matcher.setQueryGraphCacheWeight(1000);
+		AlgorithmConfig config = AlgorithmConfig.createAStar();
+		Random random = new Random(83);
+		String q1 = TestGraphs.randomQuery(4, random);
+		String q2 = TestGraphs.randomQuery(4, random);
+		double d = matcher.queryGraphDistance(q1, q2, config);
+		LabelDictionary old = matcher.getLabelDictionary();
+		assertTrue(old.size()>2);
+		matcher.resetLabelDictionary();
+		assertNotSame(old, matcher.getLabelDictionary());
+		assertEquals(2, matcher.getLabelDictionary().size());
+		assertEquals(0, matcher.getQueryGraphCache().size());
+		assertEquals(1000, matcher.getQueryGraphCache().getMaxWeight());
+		assertEquals(d, matcher.queryGraphDistance(q1, q2, config), 0.0);
+		assertEquals(old.size(), matcher.getLabelDictionary().size());
+	}
+}
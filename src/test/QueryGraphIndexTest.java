@@ -0,0 +1,117 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import semanticweb.QueryGraphIndex;
+import semanticweb.RDFGraphMatching;
+
+public class QueryGraphIndexTest {
+
+	/**
+	 * Checks the searches of an index against the distances to all its graphs
+	 */
+	private static void check(RDFGraphMatching matcher, QueryGraphIndex index, List<CompactGraph> graphs, boolean[] removed, List<CompactGraph> queries) throws Exception {
+		AlgorithmConfig exact = AlgorithmConfig.createAStar();
+		for(CompactGraph q:queries) {
+			List<Double> all = new ArrayList<Double>();
+			int within = 0;
+			for(int id=0;id<graphs.size();id++) {
+				if(!removed[id]) {
+					double d = matcher.distance(q, graphs.get(id), exact);
+					all.add(d);
+					if(d<=1.5) {
+						within++;
+					}
+				}
+			}
+			Double[] sorted = all.toArray(new Double[all.size()]);
+			Arrays.sort(sorted);
+
+			QueryGraphIndex.Result nearest = index.nearest(q, 5);
+			assertEquals(Math.min(5, sorted.length), nearest.getNeighbours().size());
+			for(int k=0;k<nearest.getNeighbours().size();k++) {
+				QueryGraphIndex.Neighbour n = nearest.getNeighbours().get(k);
+				assertFalse(removed[n.getId()]);
+				assertEquals(sorted[k], n.getDistance(), 1e-9);
+				assertEquals(matcher.distance(q, graphs.get(n.getId()), exact), n.getDistance(), 1e-9);
+			}
+			//removed vantage points are computed but not counted among the graphs
+			assertTrue(nearest.getPrunedCount()>=0 && nearest.getPrunedCount()+nearest.getDistanceCount()>=all.size());
+
+			QueryGraphIndex.Result range = index.range(q, 1.5);
+			assertEquals(within, range.getNeighbours().size());
+			for(QueryGraphIndex.Neighbour n:range.getNeighbours()) {
+				assertEquals(matcher.distance(q, graphs.get(n.getId()), exact), n.getDistance(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testExactSearch() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(101);
+		List<CompactGraph> graphs = TestGraphs.randomQueryGraphs(matcher, 200, 5, random);
+		QueryGraphIndex index = new QueryGraphIndex(matcher);
+		assertEquals(0, index.addAll(graphs));
+		assertEquals(200, index.size());
+		List<CompactGraph> queries = TestGraphs.randomQueryGraphs(matcher, 10, 5, random);
+		check(matcher, index, graphs, new boolean[graphs.size()], queries);
+
+		int pruned = 0;
+		for(CompactGraph q:queries) {
+			pruned += index.nearest(q, 1).getPrunedCount();
+		}
+		assertTrue(pruned>0);
+	}
+
+	@Test
+	public void testAddAndRemove() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(102);
+		List<CompactGraph> graphs = TestGraphs.randomQueryGraphs(matcher, 120, 5, random);
+		QueryGraphIndex index = new QueryGraphIndex(matcher);
+		for(int id=0;id<graphs.size();id++) {
+			assertEquals(id, index.add(graphs.get(id)));
+		}
+		boolean[] removed = new boolean[graphs.size()];
+		List<CompactGraph> queries = TestGraphs.randomQueryGraphs(matcher, 5, 5, random);
+		check(matcher, index, graphs, removed, queries);
+		for(int round=0;round<2;round++) {
+			//the second round removes more than half, which rebuilds the tree
+			for(int id=round;id<graphs.size();id+=3) {
+				assertTrue(index.remove(id));
+				removed[id] = true;
+			}
+			check(matcher, index, graphs, removed, queries);
+		}
+		assertFalse(index.remove(0));
+		assertNull(index.get(0));
+		assertEquals(40, index.size());
+	}
+
+	@Test
+	public void testApproximation() throws Exception {
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		Random random = new Random(103);
+		List<CompactGraph> graphs = TestGraphs.randomQueryGraphs(matcher, 100, 5, random);
+		AlgorithmConfig config = AlgorithmConfig.createBipartiteVolgenantJonkerConfig();
+		QueryGraphIndex index = new QueryGraphIndex(matcher, config);
+		index.addAll(graphs);
+		for(CompactGraph q:TestGraphs.randomQueryGraphs(matcher, 5, 5, random)) {
+			QueryGraphIndex.Result result = index.nearest(q, 3);
+			assertEquals(3, result.getNeighbours().size());
+			for(QueryGraphIndex.Neighbour n:result.getNeighbours()) {
+				assertEquals(matcher.distance(q, graphs.get(n.getId()), config), n.getDistance(), 1e-9);
+			}
+		}
+	}
+}
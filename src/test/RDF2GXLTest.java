@@ -0,0 +1,145 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Enumeration;
+import java.util.Vector;
+
+import nanoxml.XMLElement;
+
+import org.junit.Test;
+
+import semanticweb.RDF2GXL;
+import util.Edge;
+import util.Graph;
+import util.Node;
+
+public class RDF2GXLTest {
+	
+	/**
+	 * The nested scan of the original parser, kept as reference for the edge wiring
+	 */
+	private static Graph parseGXLByScan(XMLElement xml) {
+		Graph graph1 = new Graph();
+		XMLElement root = (XMLElement) xml.getChildren().get(0);
+		graph1.setDirected(!root.getAttribute("edgemode", "undirected").equals("undirected"));
+		Enumeration<?> enumerator = root.enumerateChildren();
+		int n = 0;
+		while (enumerator.hasMoreElements()) {
+			XMLElement child = (XMLElement) enumerator.nextElement();
+			if (child.getName().equals("node")) {
+				Node node = new Node();
+				node.setNodeID((String) child.getAttribute("id", null));
+				XMLElement attr = (XMLElement) child.getChildren().get(0);
+				node.put((String) attr.getAttribute("name", null), ((XMLElement) attr.getChildren().get(0)).getContent());
+				graph1.add(node);
+				n++;
+			}
+		}
+		Edge[][] edges = new Edge[n][n];
+		graph1.setAdjacenyMatrix(edges);
+		enumerator = root.enumerateChildren();
+		while (enumerator.hasMoreElements()) {
+			XMLElement child = (XMLElement) enumerator.nextElement();
+			if (child.getName().equals("edge")) {
+				Edge edge = new Edge();
+				String from = (String) child.getAttribute("from", null);
+				String to = (String) child.getAttribute("to", null);
+				edge.setEdgeID(from + "_<>" + to);
+				XMLElement attr = (XMLElement) child.getChildren().get(0);
+				edge.put((String) attr.getAttribute("name", null), ((XMLElement) attr.getChildren().get(0)).getContent());
+				for (int i = 0; i < graph1.size(); i++){
+					Node nodeI = graph1.get(i);
+					if (nodeI.getNodeID().equals(from)) {
+						edge.setStartNode(nodeI);
+						nodeI.getEdges().add(edge);
+						for (int j = 0; j < graph1.size(); j++){
+							Node nodeJ = graph1.get(j);
+							if (nodeJ.getNodeID().equals(to)) {
+								edge.setEndNode(nodeJ);
+								nodeJ.getEdges().add(edge);
+								edges[i][j] = edge;
+								if (!graph1.isDirected()){
+									edges[j][i] = edge;
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return graph1;
+	}
+	
+	private static XMLElement createGXL(String[][] triples, String[] extraNodes) {
+		XMLElement gxl = RDF2GXL.getGXLRootElement();
+		XMLElement graph = RDF2GXL.getGXLGraphElement("1");
+		gxl.addChild(graph);
+		Vector<String> ids = new Vector<String>();
+		for(String[] t:triples) {
+			//subjects and objects are added separately, like readRDF does
+			if(!ids.contains(t[0])) ids.add(t[0]);
+		}
+		for(String[] t:triples) {
+			if(!ids.contains(t[2]) || extraNodes==null) ids.add(t[2]);
+		}
+		if(extraNodes!=null) {
+			for(String id:extraNodes) ids.add(id);
+		}
+		for(String id:ids) {
+			graph.addChild(RDF2GXL.transformResourceURI2GXL(id));
+		}
+		for(String[] t:triples) {
+			graph.addChild(RDF2GXL.transformTriple2GXL(t[0], t[1], t[2]));
+		}
+		return gxl;
+	}
+	
+	private static void assertSameGraph(Graph expected, Graph actual) {
+		assertEquals(expected.size(), actual.size());
+		Edge[][] a1 = expected.getAdjacenyMatrix();
+		Edge[][] a2 = actual.getAdjacenyMatrix();
+		for(int i=0;i<expected.size();i++) {
+			Node n1 = expected.get(i);
+			Node n2 = actual.get(i);
+			assertEquals(n1.getNodeID(), n2.getNodeID());
+			assertEquals(n1.getValue(RDF2GXL.NODE_SYMBOL_ATT_NAME), n2.getValue(RDF2GXL.NODE_SYMBOL_ATT_NAME));
+			assertEquals(n1.getEdges().size(), n2.getEdges().size());
+			for(int k=0;k<n1.getEdges().size();k++) {
+				assertSameEdge(n1.getEdges().get(k), n2.getEdges().get(k));
+			}
+			for(int j=0;j<expected.size();j++) {
+				assertEquals(a1[i][j]==null, a2[i][j]==null);
+				if(a1[i][j]!=null) {
+					assertSameEdge(a1[i][j], a2[i][j]);
+				}
+			}
+		}
+	}
+	
+	private static void assertSameEdge(Edge e1, Edge e2) {
+		assertEquals(e1.getEdgeID(), e2.getEdgeID());
+		assertEquals(e1.getValue(RDF2GXL.EDGE_SYMBOL_ATT_NAME), e2.getValue(RDF2GXL.EDGE_SYMBOL_ATT_NAME));
+		assertEquals(e1.getStartNode()==null, e2.getStartNode()==null);
+		assertEquals(e1.getEndNode()==null, e2.getEndNode()==null);
+		if(e1.getStartNode()!=null) assertEquals(e1.getStartNode().getNodeID(), e2.getStartNode().getNodeID());
+		if(e1.getEndNode()!=null) assertEquals(e1.getEndNode().getNodeID(), e2.getEndNode().getNodeID());
+	}
+	
+	@Test
+	public void testParseGXLWithDuplicateNodeIds() throws Exception {
+		String[][] triples = {{"a", "p", "b"}, {"b", "q", "c"}, {"c", "r", "a"}, {"a", "p", "a"}, {"b", "s", "d"}};
+		//b, c and a occur as subject and as object and get two nodes each
+		XMLElement gxl = createGXL(triples, null);
+		assertSameGraph(parseGXLByScan(gxl), RDF2GXL.parseGXL(gxl));
+	}
+	
+	@Test
+	public void testParseGXLWithDanglingEdges() throws Exception {
+		String[][] triples = {{"a", "p", "b"}, {"b", "q", "c"}, {"e", "r", "a"}};
+		XMLElement gxl = createGXL(triples, new String[]{"f"});
+		XMLElement graph = (XMLElement) gxl.getChildren().get(0);
+		graph.addChild(RDF2GXL.transformTriple2GXL("a", "t", "missing"));
+		assertSameGraph(parseGXLByScan(gxl), RDF2GXL.parseGXL(gxl));
+	}
+}
@@ -0,0 +1,93 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.AlgorithmConfig;
+import ged.CompactGraph;
+import ged.LabelMultisetBound;
+import semanticweb.RDFGraphMatching;
+import semanticweb.SimilarityJoin;
+
+public class SimilarityJoinTest {
+
+	@Test
+	public void testLabelBoundsBelowExactDistance() throws Exception {
+		Random random = new Random(5);
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		LabelMultisetBound bound = new LabelMultisetBound(matcher.getLabelCostModel());
+		AlgorithmConfig exact = AlgorithmConfig.createAStar();
+		List<CompactGraph> graphs = TestGraphs.randomQueryGraphs(matcher, 30, 5, random);
+		for(CompactGraph g1:graphs) {
+			for(CompactGraph g2:graphs) {
+				LabelMultisetBound.Labels a = new LabelMultisetBound.Labels(g1);
+				LabelMultisetBound.Labels b = new LabelMultisetBound.Labels(g2);
+				double d = matcher.distance(g1, g2, exact);
+				assertTrue(bound.getSizeBound(a, b)<=bound.getLabelBound(a, b)+1e-9);
+				assertTrue(bound.getLabelBound(a, b)<=d+1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testJoinFindsThePairsWithinTheThreshold() throws Exception {
+		Random random = new Random(11);
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		AlgorithmConfig exact = AlgorithmConfig.createAStar();
+		List<CompactGraph> a = TestGraphs.randomQueryGraphs(matcher, 25, 5, random);
+		List<CompactGraph> b = TestGraphs.randomQueryGraphs(matcher, 30, 5, random);
+		SimilarityJoin join = new SimilarityJoin(matcher);
+		for(double threshold:new double[] {0, 1, 2.5}) {
+			SimilarityJoin.Result result = join.join(a, b, threshold, 1);
+			List<String> expected = new ArrayList<String>();
+			for(int i=0;i<a.size();i++) {
+				for(int j=0;j<b.size();j++) {
+					if(matcher.distance(a.get(i), b.get(j), exact)<=threshold) {
+						expected.add(i+","+j);
+					}
+				}
+			}
+			List<String> found = new ArrayList<String>();
+			for(SimilarityJoin.Match m:result.getMatches()) {
+				found.add(m.getFirst()+","+m.getSecond());
+				double d = matcher.distance(a.get(m.getFirst()), b.get(m.getSecond()), exact);
+				assertTrue(m.getDistance().getLowerBound()<=d+1e-9);
+				assertTrue(m.getDistance().getDistance()>=d-1e-9);
+				assertTrue(m.getDistance().getDistance()<=threshold);
+			}
+			assertEquals(expected, found);
+			assertEquals(a.size()*b.size(), result.getPairCount());
+			assertEquals(result.getPairCount(), result.getSizePruned()+result.getLabelPruned()+result.getLowerBoundPruned()
+					+result.getUpperBoundAccepted()+result.getSearched());
+
+			SimilarityJoin.Result parallel = join.join(a, b, threshold, 2);
+			assertEquals(result.getMatches().size(), parallel.getMatches().size());
+			for(int k=0;k<result.getMatches().size();k++) {
+				assertEquals(result.getMatches().get(k).getFirst(), parallel.getMatches().get(k).getFirst());
+				assertEquals(result.getMatches().get(k).getSecond(), parallel.getMatches().get(k).getSecond());
+			}
+			assertEquals(result.toString(), parallel.toString());
+		}
+	}
+
+	@Test
+	public void testExactDistances() throws Exception {
+		Random random = new Random(3);
+		RDFGraphMatching matcher = new RDFGraphMatching();
+		AlgorithmConfig exact = AlgorithmConfig.createAStar();
+		List<CompactGraph> a = TestGraphs.randomQueryGraphs(matcher, 20, 5, random);
+		SimilarityJoin join = new SimilarityJoin(matcher);
+		join.setExactDistances(true);
+		SimilarityJoin.Result result = join.join(a, a, 1.5, 1);
+		assertTrue(result.getMatches().size()>=a.size());
+		for(SimilarityJoin.Match m:result.getMatches()) {
+			double d = matcher.distance(a.get(m.getFirst()), a.get(m.getSecond()), exact);
+			assertEquals(d, m.getDistance().getDistance(), 1e-9);
+		}
+	}
+}
@@ -8,8 +8,12 @@ import org.junit.Test;
 
 import com.hp.hpl.jena.graph.Triple;
 
+import semanticweb.RDF2GXL;
 import semanticweb.sparql.QDistanceHungarian;
 import semanticweb.sparql.SparqlUtils;
+import util.Edge;
+import util.Graph;
+import util.Node;
 
 
 public class SparqlUtilsTest {
@@ -50,4 +54,30 @@ public class SparqlUtilsTest {
 		
 	}	
 	
+	@Test
+	public void testBuildSPARQLGraph() {
+		String q = "PREFIX foaf:    <http://xmlns.com/foaf/0.1/> SELECT ?name WHERE {  ?x foaf:knows ?y . ?y foaf:name ?name . ?y ?p \"Bob\"@en }";
+		Graph g = SparqlUtils.buildSPARQLGraph(q, "1");
+		
+		//?x, ?y, ?name and the literal; ?y is shared by three triples
+		assertEquals(4, g.size());
+		Edge[][] adjacency = g.getAdjacenyMatrix();
+		int edges = 0;
+		for(int i=0;i<g.size();i++) {
+			Node n = g.get(i);
+			if(n.getNodeID().equals(SparqlUtils.SPARQL_VAR_NS+"y")) {
+				assertEquals("?", n.getValue(RDF2GXL.NODE_SYMBOL_ATT_NAME));
+				assertEquals(3, n.getEdges().size());
+			}
+			if(n.getNodeID().equals("Bob@en")) {
+				assertEquals("Bob@en", n.getValue(RDF2GXL.NODE_SYMBOL_ATT_NAME));
+				assertEquals("?", n.getEdges().getFirst().getValue(RDF2GXL.EDGE_SYMBOL_ATT_NAME));
+			}
+			for(int j=0;j<g.size();j++) {
+				if(adjacency[i][j]!=null) edges++;
+			}
+		}
+		assertEquals(6, edges);
+	}
+	
 }
@@ -0,0 +1,70 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ged.BipartiteCostMatrix;
+import ged.CompactGraph;
+import ged.ForkJoinPools;
+import ged.LabelCostModel;
+import ged.LabelDictionary;
+import ged.StarCostMatrixGenerator;
+import semanticweb.RDF2GXL;
+import semanticweb.RDFGraphMatching;
+import semanticweb.sparql.SparqlUtils;
+import util.CostFunction;
+import util.Graph;
+import util.MatrixGenerator;
+
+public class StarCostMatrixGeneratorTest {
+	
+	@Test
+	public void testSameAsMatrixGenerator() throws Exception {
+		CostFunction cf = new RDFGraphMatching().getRDFGraphCostFunction();
+		MatrixGenerator expected = new MatrixGenerator(cf, 0);
+		StarCostMatrixGenerator actual = new StarCostMatrixGenerator(LabelCostModel.fromCostFunction(cf), 0);
+		LabelDictionary dictionary = new LabelDictionary();
+		Random random = new Random(5);
+		for(int k=0;k<30;k++) {
+			Graph g1 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(12), random), "1");
+			Graph g2 = SparqlUtils.buildSPARQLGraph(TestGraphs.randomQuery(1+random.nextInt(12), random), "2");
+			assertMatrixEquals(expected.getMatrix(g1, g2), 
+					actual.getMatrix(CompactGraph.fromGraph(g1, dictionary), CompactGraph.fromGraph(g2, dictionary)));
+		}
+		
+		Graph g1 = RDF2GXL.readRDF("data/vc-db-1.rdf");
+		Graph g2 = RDF2GXL.readRDF("data/vc-db-2.rdf");
+		assertMatrixEquals(expected.getMatrix(g1, g2), 
+				actual.getMatrix(CompactGraph.fromGraph(g1, dictionary), CompactGraph.fromGraph(g2, dictionary)));
+	}
+	
+	@Test
+	public void testParallel() throws Exception {
+		StarCostMatrixGenerator generator = new StarCostMatrixGenerator(LabelCostModel.fromCostFunction(new RDFGraphMatching().getRDFGraphCostFunction()), 0);
+		LabelDictionary dictionary = new LabelDictionary();
+		CompactGraph g1 = CompactGraph.fromGraph(RDF2GXL.readRDF("data/vc-db-1.rdf"), dictionary);
+		CompactGraph g2 = CompactGraph.fromGraph(RDF2GXL.readRDF("data/vc-db-2.rdf"), dictionary);
+		BipartiteCostMatrix expected = new BipartiteCostMatrix();
+		generator.getMatrix(g1, g2, expected);
+		int blockCells = StarCostMatrixGenerator.PARALLEL_BLOCK_CELLS;
+		try {
+			//split down to single rows
+			StarCostMatrixGenerator.PARALLEL_BLOCK_CELLS = 1;
+			BipartiteCostMatrix actual = new BipartiteCostMatrix();
+			generator.getMatrix(g1, g2, actual, ForkJoinPools.get(4));
+			assertMatrixEquals(expected.toArray(), actual.toArray());
+		} finally {
+			StarCostMatrixGenerator.PARALLEL_BLOCK_CELLS = blockCells;
+		}
+	}
+	
+	private static void assertMatrixEquals(double[][] expected, double[][] actual) {
+		assertEquals(expected.length, actual.length);
+		for(int i=0;i<expected.length;i++) {
+			assertArrayEquals(expected[i], actual[i], 0.0);
+		}
+	}
+}
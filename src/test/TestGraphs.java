@@ -0,0 +1,80 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ged.CompactGraph;
+import ged.LabelDictionary;
+import semanticweb.RDFGraphMatching;
+
+/**
+ * Random SPARQL queries, query graphs and directed graphs for the tests
+ */
+public class TestGraphs {
+	
+	final private static String[] PREDICATES = {"foaf:knows", "foaf:name", "foaf:mbox", "foaf:nick", "?p"};
+	
+	final private static String[] CONSTANTS = {"<http://a/Paris>", "<http://a/France>", "\"Bob\"", "\"42\""};
+	
+	/**
+	 * Generates a random connected query with the given number of triple patterns
+	 * @param triples number of triple patterns
+	 * @param random source of randomness
+	 * @return a sparql query
+	 */
+	public static String randomQuery(int triples, Random random) {
+		StringBuilder sb = new StringBuilder("PREFIX foaf: <http://xmlns.com/foaf/0.1/> SELECT * WHERE { ");
+		int vars = 1;
+		for(int i=0;i<triples;i++) {
+			sb.append("?v").append(random.nextInt(vars)).append(' ');
+			sb.append(PREDICATES[random.nextInt(PREDICATES.length)]).append(' ');
+			int r = random.nextInt(4);
+			if(r==0) {
+				sb.append(CONSTANTS[random.nextInt(CONSTANTS.length)]);
+			} else if(r==1) {
+				//closes a cycle or a self-loop
+				sb.append("?v").append(random.nextInt(vars));
+			} else {
+				sb.append("?v").append(vars++);
+			}
+			sb.append(" . ");
+		}
+		return sb.append("}").toString();
+	}
+	
+	/**
+	 * Generates the query graphs of random queries
+	 * @param matcher the matcher building the graphs
+	 * @param n number of graphs
+	 * @param maxTriples maximum number of triple patterns of a query, at least 1
+	 * @param random source of randomness
+	 * @return the graphs
+	 */
+	public static List<CompactGraph> randomQueryGraphs(RDFGraphMatching matcher, int n, int maxTriples, Random random) {
+		List<CompactGraph> graphs = new ArrayList<CompactGraph>();
+		for(int k=0;k<n;k++) {
+			graphs.add(matcher.queryGraph(randomQuery(1+random.nextInt(maxTriples), random)));
+		}
+		return graphs;
+	}
+	
+	/**
+	 * Generates a random directed graph of up to 2n edges, self-loops and parallel edges included, over 3 node and 3 edge labels
+	 * @param n number of nodes
+	 * @param random source of randomness
+	 * @param dictionary the labels
+	 * @return the graph
+	 */
+	public static CompactGraph randomDirectedGraph(int n, Random random, LabelDictionary dictionary) {
+		CompactGraph.Builder builder = new CompactGraph.Builder("g", true, dictionary);
+		for(int i=0;i<n;i++) {
+			builder.addNode("n"+i, "l"+random.nextInt(3));
+		}
+		int m = n==0?0:random.nextInt(2*n);
+		for(int e=0;e<m;e++) {
+			builder.addEdge(random.nextInt(n), random.nextInt(n), "p"+random.nextInt(3));
+		}
+		return builder.build();
+	}
+}